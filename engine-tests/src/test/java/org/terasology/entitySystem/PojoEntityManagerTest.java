@@ -19,6 +19,9 @@
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
 import org.terasology.asset.Assets;
 import org.terasology.context.Context;
 import org.terasology.context.internal.ContextImpl;
@@ -28,8 +31,11 @@
 import org.terasology.assets.management.AssetManager;
 import org.terasology.assets.module.ModuleAwareAssetTypeManager;
 import org.terasology.engine.module.ModuleManager;
+import org.terasology.entitySystem.entity.EntityBuilder;
 import org.terasology.entitySystem.entity.EntityManager;
+import org.terasology.entitySystem.entity.EntityQuery;
 import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.entitySystem.entity.internal.ComponentStorageMode;
 import org.terasology.entitySystem.entity.internal.PojoEntityManager;
 import org.terasology.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
 import org.terasology.entitySystem.entity.lifecycleEvents.BeforeRemoveComponent;
@@ -47,6 +53,7 @@
 import org.terasology.registry.CoreRegistry;
 import org.terasology.testUtil.ModuleManagerFactory;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -62,11 +69,26 @@
 
 /**
  */
+@RunWith(Parameterized.class)
 public class PojoEntityManagerTest {
 
     private PojoEntityManager entityManager;
     private Prefab prefab;
     private static Context context;
+    private final ComponentStorageMode componentStorageMode;
+
+    public PojoEntityManagerTest(ComponentStorageMode componentStorageMode) {
+        this.componentStorageMode = componentStorageMode;
+    }
+
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> data() {
+        List<Object[]> result = Lists.newArrayList();
+        for (ComponentStorageMode mode : ComponentStorageMode.values()) {
+            result.add(new Object[]{mode});
+        }
+        return result;
+    }
 
     @BeforeClass
     public static void setupClass() throws Exception {
@@ -85,7 +107,7 @@ public static void setupClass() throws Exception {
     public void setup() {
         context.put(NetworkSystem.class, mock(NetworkSystem.class));
         EntitySystemSetupUtil.addReflectionBasedLibraries(context);
-        EntitySystemSetupUtil.addEntityManagementRelatedClasses(context);
+        EntitySystemSetupUtil.addEntityManagementRelatedClasses(context, componentStorageMode);
         entityManager = (PojoEntityManager) context.get(EntityManager.class);
 
         PrefabData protoPrefab = new PrefabData();
@@ -272,6 +294,92 @@ public void iterateEntitiesFindsEntityWithTwoComponents() {
         assertEquals(Lists.newArrayList(entity1), results);
     }
 
+    @Test
+    public void queryFollowsComponentChanges() {
+        EntityRef entity1 = entityManager.create(new StringComponent());
+        EntityQuery query = entityManager.createQuery(StringComponent.class, IntegerComponent.class);
+        assertEquals(0, query.size());
+
+        entity1.addComponent(new IntegerComponent());
+        EntityRef entity2 = entityManager.create(new StringComponent(), new IntegerComponent());
+        assertEquals(Lists.newArrayList(entity1, entity2), Lists.newArrayList(query));
+
+        entity1.removeComponent(StringComponent.class);
+        entity2.destroy();
+        assertEquals(0, query.size());
+        assertFalse(query.contains(entity1));
+    }
+
+    @Test
+    public void queryIterationIsUnaffectedByChanges() {
+        EntityRef entity1 = entityManager.create(new StringComponent());
+        EntityRef entity2 = entityManager.create(new StringComponent());
+        EntityQuery query = entityManager.createQuery(StringComponent.class);
+
+        List<EntityRef> results = Lists.newArrayList();
+        for (EntityRef entity : query) {
+            results.add(entity);
+            entity1.removeComponent(StringComponent.class);
+        }
+        assertEquals(Lists.newArrayList(entity1, entity2), results);
+        assertEquals(Lists.newArrayList(entity2), Lists.newArrayList(query));
+    }
+
+    @Test
+    public void queryAppliesChangesAfterForEach() {
+        EntityRef entity1 = entityManager.create(new StringComponent());
+        EntityRef entity2 = entityManager.create(new StringComponent());
+        EntityQuery query = entityManager.createQuery(StringComponent.class);
+
+        List<EntityRef> results = Lists.newArrayList();
+        EntityRef[] created = new EntityRef[1];
+        query.forEach(entity -> {
+            results.add(entity);
+            if (created[0] == null) {
+                entity2.removeComponent(StringComponent.class);
+                created[0] = entityManager.create(new StringComponent());
+                assertEquals(2, query.size());
+                assertFalse(query.contains(entity2));
+                assertTrue(query.contains(created[0]));
+            }
+        });
+        assertEquals(Lists.newArrayList(entity1, entity2), results);
+        assertEquals(Lists.newArrayList(entity1, created[0]), Lists.newArrayList(query));
+    }
+
+    @Test
+    public void queryContainsEntitiesCreatedWithoutLifecycleEvents() {
+        EntityQuery query = entityManager.createQuery(StringComponent.class);
+        EntityBuilder builder = entityManager.newBuilder();
+        builder.addComponent(new StringComponent());
+        EntityRef entity = builder.buildWithoutLifecycleEvents();
+        entityManager.createEntityWithoutLifecycleEvents(Lists.<Component>newArrayList(new IntegerComponent()));
+        assertEquals(Lists.newArrayList(entity), Lists.newArrayList(query));
+
+        entity.destroy();
+        assertEquals(0, query.size());
+    }
+
+    @Test
+    public void queryContainsReactivatedEntities() {
+        EntityRef entity = entityManager.create(new StringComponent());
+        long id = entity.getId();
+        EntityQuery query = entityManager.createQuery(StringComponent.class);
+        entityManager.deactivateForStorage(entity);
+        assertEquals(0, query.size());
+
+        EntityRef reactivated = entityManager.createEntityWithId(id, Lists.<Component>newArrayList(new StringComponent()));
+        assertEquals(Lists.newArrayList(reactivated), Lists.newArrayList(query));
+    }
+
+    @Test
+    public void disposedQueryIsNotUpdated() {
+        EntityQuery query = entityManager.createQuery(StringComponent.class);
+        query.dispose();
+        entityManager.create(new StringComponent());
+        assertEquals(0, query.size());
+    }
+
     @Test
     public void iterateWithNoComponents() {
         List<EntityRef> results = Lists.newArrayList(entityManager.getEntitiesWith(StringComponent.class));
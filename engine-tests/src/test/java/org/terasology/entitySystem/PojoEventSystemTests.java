@@ -197,6 +197,41 @@ public void testChildEventReceivedByUnfilteredHandler() {
         assertEquals(1, handler.unfilteredEvents.size());
     }
 
+    @Test
+    public void testHandlerSelectionFollowsComponentChanges() {
+        TestCompoundComponentEventHandler handler = new TestCompoundComponentEventHandler();
+        eventSystem.registerEventHandler(handler);
+        entity.addComponent(new StringComponent());
+
+        eventSystem.send(entity, new TestEvent());
+        entity.addComponent(new IntegerComponent());
+        eventSystem.send(entity, new TestEvent());
+        entity.removeComponent(StringComponent.class);
+        eventSystem.send(entity, new TestEvent());
+
+        assertEquals(1, handler.receivedList.size());
+    }
+
+    @Test
+    public void testHandlerRegisteredAfterSendReceivesEvents() {
+        entity.addComponent(new StringComponent());
+        TestEventHandler handlerNormal = new TestEventHandler();
+        eventSystem.registerEventHandler(handlerNormal);
+        eventSystem.send(entity, new TestEvent());
+
+        TestHighPriorityEventHandler handlerHigh = new TestHighPriorityEventHandler();
+        eventSystem.registerEventHandler(handlerHigh);
+        eventSystem.send(entity, new TestEvent());
+
+        assertEquals(2, handlerNormal.receivedList.size());
+        assertEquals(1, handlerHigh.receivedList.size());
+
+        eventSystem.unregisterEventHandler(handlerNormal);
+        eventSystem.send(entity, new TestEvent());
+        assertEquals(2, handlerNormal.receivedList.size());
+        assertEquals(2, handlerHigh.receivedList.size());
+    }
+
     private static class TestEvent extends AbstractConsumableEvent {
 
     }
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.entitySystem.entity.internal;
+
+import com.google.common.collect.Sets;
+import gnu.trove.iterator.TLongIterator;
+import gnu.trove.iterator.TLongObjectIterator;
+import gnu.trove.list.TLongList;
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.terasology.entitySystem.Component;
+import org.terasology.entitySystem.stubs.EntityRefComponent;
+import org.terasology.entitySystem.stubs.IntegerComponent;
+import org.terasology.entitySystem.stubs.StringComponent;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+@RunWith(Parameterized.class)
+public class ComponentStoreTest {
+
+    private final Class<? extends ComponentStore> storeClass;
+    private ComponentStore store;
+
+    public ComponentStoreTest(Class<? extends ComponentStore> storeClass) {
+        this.storeClass = storeClass;
+    }
+
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {ComponentTable.class},
+                {ArchetypeComponentStore.class}
+        });
+    }
+
+    @Before
+    public void setup() throws Exception {
+        store = storeClass.newInstance();
+    }
+
+    @Test
+    public void componentsMoveWithTheirEntity() {
+        StringComponent string = new StringComponent("a");
+        IntegerComponent integer = new IntegerComponent(1);
+        store.put(1, string);
+        store.put(2, new StringComponent("b"));
+        store.put(1, integer);
+        store.put(2, new IntegerComponent(2));
+
+        assertNull(store.remove(1, EntityRefComponent.class));
+        assertSame(string, store.remove(1, StringComponent.class));
+
+        assertNull(store.get(1, StringComponent.class));
+        assertSame(integer, store.get(1, IntegerComponent.class));
+        assertEquals(new StringComponent("b"), store.get(2, StringComponent.class));
+        assertEquals(new IntegerComponent(2), store.get(2, IntegerComponent.class));
+        assertEquals(1, store.getComponentCount(StringComponent.class));
+        assertEquals(2, store.getComponentCount(IntegerComponent.class));
+    }
+
+    @Test
+    public void putReplacesComponentOfSameClass() {
+        IntegerComponent first = new IntegerComponent(1);
+        store.put(1, first);
+
+        assertSame(first, store.put(1, new IntegerComponent(2)));
+        assertEquals(new IntegerComponent(2), store.get(1, IntegerComponent.class));
+        assertEquals(1, store.numEntities());
+    }
+
+    @Test
+    public void getAllReportsMissingComponents() {
+        store.put(1, new StringComponent("a"));
+        store.put(1, new IntegerComponent(1));
+        Component[] result = new Component[2];
+
+        assertTrue(store.getAll(1, new Class[]{IntegerComponent.class, StringComponent.class}, result));
+        assertArrayEquals(new Component[]{new IntegerComponent(1), new StringComponent("a")}, result);
+        assertFalse(store.getAll(1, new Class[]{IntegerComponent.class, EntityRefComponent.class}, result));
+        assertNull(result[1]);
+        assertFalse(store.getAll(2, new Class[]{IntegerComponent.class}, result));
+    }
+
+    @Test
+    public void collectEntityIdsFindsEntitiesWithAllComponents() {
+        for (long id = 1; id <= 30; ++id) {
+            if (id % 2 == 0) {
+                store.put(id, new StringComponent());
+            }
+            if (id % 3 == 0) {
+                store.put(id, new IntegerComponent());
+            }
+        }
+        store.remove(12);
+
+        TLongList ids = new TLongArrayList();
+        store.collectEntityIds(new Class[]{StringComponent.class, IntegerComponent.class}, ids);
+        ids.sort();
+        assertEquals(new TLongArrayList(new long[]{6, 18, 24, 30}), ids);
+        assertEquals(14, store.getComponentCount(StringComponent.class));
+        assertEquals(19, store.numEntities());
+
+        TLongSet iterated = new TLongHashSet();
+        TLongObjectIterator<IntegerComponent> iterator = store.componentIterator(IntegerComponent.class);
+        while (iterator.hasNext()) {
+            iterator.advance();
+            iterated.add(iterator.key());
+        }
+        assertEquals(new TLongHashSet(new long[]{3, 6, 9, 15, 18, 21, 24, 27, 30}), iterated);
+        assertNull(store.componentIterator(EntityRefComponent.class));
+    }
+
+    @Test
+    public void entitiesWithSameComponentsShareComponentClasses() {
+        store.put(1, new StringComponent());
+        store.put(1, new IntegerComponent());
+        store.put(2, new IntegerComponent());
+        assertEquals(Sets.newHashSet(IntegerComponent.class), store.getComponentClasses(2));
+
+        store.put(2, new StringComponent());
+        assertSame(store.getComponentClasses(1), store.getComponentClasses(2));
+        assertEquals(Sets.newHashSet(StringComponent.class, IntegerComponent.class), store.getComponentClasses(2));
+
+        store.put(2, new IntegerComponent(2));
+        assertSame(store.getComponentClasses(1), store.getComponentClasses(2));
+
+        store.remove(2, StringComponent.class);
+        assertEquals(Sets.newHashSet(IntegerComponent.class), store.getComponentClasses(2));
+        store.remove(2);
+        assertTrue(store.getComponentClasses(2).isEmpty());
+    }
+
+    @Test
+    public void entityIdIteratorIsUnaffectedByRemoval() {
+        store.put(1, new StringComponent());
+        store.put(2, new StringComponent());
+        TLongIterator iterator = store.entityIdIterator();
+        store.remove(1);
+        store.remove(2);
+
+        int count = 0;
+        while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        assertEquals(2, count);
+        assertEquals(0, store.numEntities());
+        assertTrue(store.getComponentsInNewList(1).isEmpty());
+    }
+}
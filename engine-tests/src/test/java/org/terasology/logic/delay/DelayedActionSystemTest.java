@@ -0,0 +1,178 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.logic.delay;
+
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+import org.terasology.TerasologyTestingEnvironment;
+import org.terasology.engine.Time;
+import org.terasology.entitySystem.Component;
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.entitySystem.entity.internal.EngineEntityManager;
+import org.terasology.entitySystem.event.ReceiveEvent;
+import org.terasology.entitySystem.systems.BaseComponentSystem;
+import org.terasology.registry.InjectionHelper;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ */
+public class DelayedActionSystemTest extends TerasologyTestingEnvironment {
+
+    private EngineEntityManager entityManager;
+    private DelayedActionSystem delayedActionSystem;
+    private TriggeredActions triggeredActions;
+    private long gameTime;
+
+    @Before
+    public void setup() throws Exception {
+        super.setup();
+        entityManager = context.get(EngineEntityManager.class);
+
+        Time time = mock(Time.class);
+        when(time.getGameTimeInMs()).thenAnswer(invocation -> gameTime);
+        context.put(Time.class, time);
+
+        delayedActionSystem = new DelayedActionSystem();
+        InjectionHelper.inject(delayedActionSystem, context);
+        delayedActionSystem.initialise();
+        entityManager.getEventSystem().registerEventHandler(delayedActionSystem);
+
+        triggeredActions = new TriggeredActions();
+        entityManager.getEventSystem().registerEventHandler(triggeredActions);
+    }
+
+    @Test
+    public void delayedActionTriggersOnce() {
+        EntityRef entity = entityManager.create();
+        delayedActionSystem.addDelayedAction(entity, "action", 100);
+
+        update(99);
+        assertEquals(Collections.emptyList(), triggeredActions.delayed);
+        assertTrue(delayedActionSystem.hasDelayedAction(entity, "action"));
+
+        update(100);
+        assertEquals(Lists.newArrayList("action"), triggeredActions.delayed);
+        assertFalse(delayedActionSystem.hasDelayedAction(entity, "action"));
+        assertNull(entity.getComponent(DelayedActionComponent.class));
+
+        update(1000);
+        assertEquals(1, triggeredActions.delayed.size());
+    }
+
+    @Test
+    public void cancelledActionDoesNotTrigger() {
+        EntityRef entity = entityManager.create();
+        delayedActionSystem.addDelayedAction(entity, "cancelled", 100);
+        delayedActionSystem.addDelayedAction(entity, "kept", 100);
+
+        delayedActionSystem.cancelDelayedAction(entity, "cancelled");
+        assertFalse(delayedActionSystem.hasDelayedAction(entity, "cancelled"));
+
+        update(200);
+        assertEquals(Lists.newArrayList("kept"), triggeredActions.delayed);
+    }
+
+    @Test
+    public void readdedActionTriggersOnceAtItsNewTime() {
+        EntityRef entity = entityManager.create();
+        delayedActionSystem.addDelayedAction(entity, "action", 100);
+        update(50);
+        delayedActionSystem.addDelayedAction(entity, "action", 100);
+
+        update(120);
+        assertEquals(Collections.emptyList(), triggeredActions.delayed);
+
+        update(150);
+        update(400);
+        assertEquals(Lists.newArrayList("action"), triggeredActions.delayed);
+    }
+
+    @Test
+    public void periodicActionGetsRescheduled() {
+        EntityRef entity = entityManager.create();
+        delayedActionSystem.addPeriodicAction(entity, "action", 100, 50);
+
+        update(100);
+        assertEquals(Lists.newArrayList("action"), triggeredActions.periodic);
+        assertEquals(Long.valueOf(150), entity.getComponent(PeriodicActionComponent.class).getActionIdsWakeUp().get("action"));
+
+        update(149);
+        assertEquals(1, triggeredActions.periodic.size());
+        update(150);
+        assertEquals(2, triggeredActions.periodic.size());
+
+        delayedActionSystem.cancelPeriodicAction(entity, "action");
+        assertNull(entity.getComponent(PeriodicActionComponent.class));
+        update(1000);
+        assertEquals(2, triggeredActions.periodic.size());
+    }
+
+    @Test
+    public void actionsOfDeactivatedEntityTriggerAfterReactivation() {
+        EntityRef entity = entityManager.create();
+        delayedActionSystem.addDelayedAction(entity, "delayed", 200);
+        delayedActionSystem.addPeriodicAction(entity, "periodic", 50, 100);
+        update(50);
+        assertEquals(Lists.newArrayList("periodic"), triggeredActions.periodic);
+
+        long id = entity.getId();
+        List<Component> components = Lists.newArrayList(entity.iterateComponents());
+        entityManager.deactivateForStorage(entity);
+        update(200);
+        assertEquals(Collections.emptyList(), triggeredActions.delayed);
+        assertEquals(1, triggeredActions.periodic.size());
+
+        // The periodic action keeps the wake up time it got when it triggered last
+        EntityRef reactivated = entityManager.createEntityWithId(id, components);
+        assertEquals(Long.valueOf(150), reactivated.getComponent(PeriodicActionComponent.class).getActionIdsWakeUp().get("periodic"));
+        update(200);
+        assertEquals(Lists.newArrayList("delayed"), triggeredActions.delayed);
+        assertEquals(Lists.newArrayList("periodic", "periodic"), triggeredActions.periodic);
+
+        update(300);
+        assertEquals(3, triggeredActions.periodic.size());
+    }
+
+    private void update(long newGameTime) {
+        gameTime = newGameTime;
+        delayedActionSystem.update(0);
+    }
+
+    public static class TriggeredActions extends BaseComponentSystem {
+        private final List<String> delayed = Lists.newArrayList();
+        private final List<String> periodic = Lists.newArrayList();
+
+        @ReceiveEvent
+        public void onDelayedAction(DelayedActionTriggeredEvent event, EntityRef entity) {
+            delayed.add(event.getActionId());
+        }
+
+        @ReceiveEvent
+        public void onPeriodicAction(PeriodicActionTriggeredEvent event, EntityRef entity) {
+            periodic.add(event.getActionId());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.logic.delay;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class TimingWheelTest {
+
+    @Test
+    public void valuesAreDueInOrderOfTheirTime() {
+        TimingWheel<Long> wheel = new TimingWheel<>(1000);
+        Random random = new Random(42);
+        List<Long> expected = Lists.newArrayList();
+        for (int i = 0; i < 1000; i++) {
+            long time = 1001 + ((long) random.nextInt(1 << 20) << (random.nextInt(3) * 8));
+            wheel.schedule(time, time);
+            expected.add(time);
+        }
+        expected.sort(Long::compare);
+
+        List<Long> fired = Lists.newArrayList();
+        long time = 1000;
+        while (wheel.size() > 0) {
+            time += random.nextInt(1 << 22);
+            long now = time;
+            wheel.advance(now, value -> {
+                assertTrue(value <= now);
+                fired.add(value);
+            });
+            assertEquals(now, wheel.getCurrentTime());
+        }
+        assertEquals(expected, fired);
+    }
+
+    @Test
+    public void cancelledValuesAreNotDue() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        TimingWheel.Entry<String> kept = wheel.schedule(10, "kept");
+        TimingWheel.Entry<String> cancelled = wheel.schedule(10, "cancelled");
+        TimingWheel.Entry<String> cancelledLater = wheel.schedule(100000, "cancelledLater");
+        wheel.cancel(cancelled);
+        wheel.cancel(cancelledLater);
+        assertFalse(cancelled.isScheduled());
+        assertEquals(1, wheel.size());
+
+        List<String> fired = Lists.newArrayList();
+        wheel.advance(200000, fired::add);
+        assertEquals(Lists.newArrayList("kept"), fired);
+        assertFalse(kept.isScheduled());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void largeTimeJumpsReachFarValues() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        wheel.schedule(1L << 42, "far");
+        wheel.schedule((1L << 42) + 1, "farther");
+
+        List<String> fired = Lists.newArrayList();
+        wheel.advance((1L << 42) - 1, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advance(1L << 42, fired::add);
+        assertEquals(Lists.newArrayList("far"), fired);
+        wheel.advance(Long.MAX_VALUE >> 1, fired::add);
+        assertEquals(Lists.newArrayList("far", "farther"), fired);
+    }
+
+    @Test
+    public void valuesScheduledForThePastAreDueWithTheNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(500);
+        wheel.schedule(100, "past");
+
+        List<String> fired = Lists.newArrayList();
+        wheel.advance(500, fired::add);
+        assertEquals(Lists.newArrayList("past"), fired);
+    }
+
+    @Test
+    public void consumerCanScheduleValues() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        wheel.schedule(10, "first");
+
+        List<String> fired = Lists.newArrayList();
+        Consumer<String> consumer = value -> {
+            fired.add(value);
+            if (value.equals("first")) {
+                wheel.schedule(wheel.getCurrentTime(), "now");
+                wheel.schedule(wheel.getCurrentTime() + 5, "soon");
+            }
+        };
+        wheel.advance(20, consumer);
+        assertEquals(Lists.newArrayList("first", "soon"), fired);
+        wheel.advance(20, consumer);
+        assertEquals(Lists.newArrayList("first", "soon", "now"), fired);
+    }
+}
@@ -20,12 +20,17 @@
 import org.terasology.TerasologyTestingEnvironment;
 import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.entitySystem.entity.lifecycleEvents.BeforeRemoveComponent;
+import org.terasology.entitySystem.entity.lifecycleEvents.OnChangedComponent;
 import org.terasology.math.TeraMath;
 import org.terasology.math.geom.Quat4f;
 import org.terasology.math.geom.Vector3f;
 import org.terasology.testUtil.TeraAssert;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -279,6 +284,95 @@ public void positionMaintainedWhenParentDestroyed() {
         TeraAssert.assertEquals(new Vector3f(2, 0, 0), loc.getWorldPosition(), 0.000001f);
     }
 
+    @Test
+    public void worldPositionFollowsSavedInPlaceModificationOfAncestor() {
+        LocationComponent parent = giveParent();
+        LocationComponent grandParent = new LocationComponent();
+        EntityRef grandParentEntity = createFakeEntityWith(grandParent);
+        Location.attachChild(grandParentEntity, loc.getParent());
+        loc.setLocalPosition(pos1);
+        WorldTransformSystem worldTransformSystem = new WorldTransformSystem();
+        worldTransformSystem.onChanged(OnChangedComponent.newInstance(), grandParentEntity, grandParent);
+        worldTransformSystem.update(0);
+        assertNotNull(loc.worldTransform);
+        assertEquals(pos1, loc.getWorldPosition());
+
+        // The modified location and its descendants notice it before it is saved
+        grandParent.getLocalPosition().add(pos2);
+        assertEquals(pos2, grandParent.getWorldPosition());
+        assertNotNull(loc.worldTransform);
+        assertEquals(pos1plus2, loc.getWorldPosition());
+        grandParent.scale = 2.0f;
+        worldTransformSystem.onChanged(OnChangedComponent.newInstance(), grandParentEntity, grandParent);
+        assertNull(loc.worldTransform);
+        assertEquals(new Vector3f(4, 7, 10), loc.getWorldPosition());
+        worldTransformSystem.update(0);
+        assertNotNull(loc.worldTransform);
+        assertEquals(new Vector3f(4, 7, 10), loc.getWorldPosition());
+        assertEquals(2.0f, loc.getWorldScale(), 0.000001f);
+        assertEquals(1.0f, parent.getLocalScale(), 0.000001f);
+    }
+
+    @Test
+    public void descendantsGetSnapshotsAfterTheirAncestors() {
+        LocationComponent parent = giveParent();
+        loc.setLocalPosition(pos1);
+        WorldTransformSystem worldTransformSystem = new WorldTransformSystem();
+        worldTransformSystem.onChanged(OnChangedComponent.newInstance(), entity, loc);
+        worldTransformSystem.onChanged(OnChangedComponent.newInstance(), loc.getParent(), parent);
+        worldTransformSystem.update(0);
+
+        assertSame(loc.worldTransform, loc.getWorldTransform());
+        parent.getLocalRotation().set(yawRotation);
+        assertNotSame(loc.worldTransform, loc.getWorldTransform());
+    }
+
+    @Test
+    public void settersDropSnapshotsOfDescendants() {
+        LocationComponent parent = giveParent();
+        loc.setLocalPosition(pos1);
+        WorldTransformSystem worldTransformSystem = new WorldTransformSystem();
+        worldTransformSystem.onChanged(OnChangedComponent.newInstance(), loc.getParent(), parent);
+        worldTransformSystem.update(0);
+        assertNotNull(parent.worldTransform);
+        assertNotNull(loc.worldTransform);
+
+        parent.setLocalPosition(pos2);
+        assertNull(parent.worldTransform);
+        assertNull(loc.worldTransform);
+        assertEquals(pos1plus2, loc.getWorldPosition());
+    }
+
+    @Test
+    public void readingWorldTransformDoesNotStoreIt() throws InterruptedException {
+        LocationComponent parent = giveParent();
+        parent.setLocalPosition(pos2);
+        loc.setLocalPosition(pos1);
+
+        Vector3f[] otherThreadResult = new Vector3f[1];
+        Thread otherThread = new Thread(() -> otherThreadResult[0] = loc.getWorldPosition());
+        otherThread.start();
+        otherThread.join();
+        assertEquals(pos1plus2, otherThreadResult[0]);
+        assertEquals(pos1plus2, loc.getWorldPosition());
+        assertNull(loc.worldTransform);
+        assertNull(parent.worldTransform);
+    }
+
+    @Test
+    public void worldPositionFollowsNewParent() {
+        LocationComponent parent = giveParent();
+        parent.setLocalPosition(pos2);
+        loc.setLocalPosition(pos1);
+        assertEquals(pos1plus2, loc.getWorldPosition());
+
+        LocationComponent otherParent = new LocationComponent();
+        EntityRef otherParentEntity = createFakeEntityWith(otherParent);
+        otherParent.setLocalPosition(pos1);
+        Location.attachChild(otherParentEntity, entity, pos1, new Quat4f(0, 0, 0, 1));
+        assertEquals(new Vector3f(2, 4, 6), loc.getWorldPosition());
+    }
+
 
     private LocationComponent giveParent() {
         LocationComponent parent = new LocationComponent();
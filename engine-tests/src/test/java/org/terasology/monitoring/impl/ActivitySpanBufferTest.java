@@ -0,0 +1,56 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.monitoring.impl;
+
+import gnu.trove.list.TLongList;
+import gnu.trove.list.array.TLongArrayList;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class ActivitySpanBufferTest {
+
+    @Test
+    public void drainReturnsSpansInOrder() {
+        ActivitySpanBuffer buffer = new ActivitySpanBuffer(4);
+        for (int i = 0; i < 3; ++i) {
+            assertTrue(buffer.add(i, 0, i, i + 10, 10, 0));
+        }
+        TLongList startTimes = new TLongArrayList();
+        assertEquals(3, buffer.drain((activity, depth, startTime, endTime, ownTime, allocated) -> startTimes.add(startTime)));
+        assertEquals(new TLongArrayList(new long[]{0, 1, 2}), startTimes);
+        assertEquals(0, buffer.drain((activity, depth, startTime, endTime, ownTime, allocated) -> startTimes.add(startTime)));
+    }
+
+    @Test
+    public void fullBufferDropsNewSpans() {
+        ActivitySpanBuffer buffer = new ActivitySpanBuffer(4);
+        for (int i = 0; i < 4; ++i) {
+            assertTrue(buffer.add(1, 0, i, i, 0, 0));
+        }
+        assertFalse(buffer.add(1, 0, 4, 4, 0, 0));
+        assertEquals(1, buffer.getDropped());
+
+        TLongList startTimes = new TLongArrayList();
+        buffer.drain((activity, depth, startTime, endTime, ownTime, allocated) -> startTimes.add(startTime));
+        assertEquals(new TLongArrayList(new long[]{0, 1, 2, 3}), startTimes);
+        assertTrue(buffer.add(1, 0, 5, 5, 0, 0));
+    }
+}
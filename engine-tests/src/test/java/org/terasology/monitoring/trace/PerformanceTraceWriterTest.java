@@ -0,0 +1,123 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.monitoring.trace;
+
+import com.google.common.collect.Lists;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ */
+public class PerformanceTraceWriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void spansAndCyclesAreConverted() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath().resolve("trace");
+        try (PerformanceTraceWriter writer = new PerformanceTraceWriter(directory, 1024 * 1024, 2)) {
+            writer.onSpan(Thread.currentThread(), "Outer", 0, 1000, 5000, 64);
+            writer.onSpan(Thread.currentThread(), "Inner", 1, 2000, 3000, 0);
+            writer.onCycle(6000);
+        }
+
+        List<JsonObject> events = convert(directory);
+        JsonObject outer = findEvent(events, "Outer");
+        assertEquals("X", outer.get("ph").getAsString());
+        assertEquals(4.0, outer.get("dur").getAsDouble(), 0.001);
+        assertEquals(64, outer.getAsJsonObject("args").get("allocatedBytes").getAsLong());
+        assertEquals(1.0, findEvent(events, "Inner").get("dur").getAsDouble(), 0.001);
+        assertEquals("i", findEvent(events, "Cycle").get("ph").getAsString());
+        assertEquals(Thread.currentThread().getName(), findThreadName(events, Thread.currentThread().getId()));
+    }
+
+    @Test
+    public void rotationKeepsOnlyRecentFilesThatCanBeReadOnTheirOwn() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath().resolve("trace");
+        try (PerformanceTraceWriter writer = new PerformanceTraceWriter(directory, 0, 2)) {
+            for (int i = 0; i < 50000; i++) {
+                writer.onSpan(Thread.currentThread(), "Activity", 0, i, i + 1, 0);
+                if (i % 1000 == 0) {
+                    writer.onCycle(i);
+                }
+            }
+        }
+
+        List<Path> files = listTraceFiles(directory);
+        assertEquals(2, files.size());
+        List<JsonObject> events = convert(directory);
+        assertEquals("Activity", events.get(events.size() - 1).get("name").getAsString());
+    }
+
+    private static List<JsonObject> convert(Path directory) throws IOException {
+        Path json = directory.resolve("trace.json");
+        ChromeTraceConverter.convert(listTraceFiles(directory), json);
+        List<JsonObject> events = Lists.newArrayList();
+        try (Reader reader = Files.newBufferedReader(json, StandardCharsets.UTF_8)) {
+            JsonArray array = new JsonParser().parse(reader).getAsJsonObject().getAsJsonArray("traceEvents");
+            for (JsonElement element : array) {
+                events.add(element.getAsJsonObject());
+            }
+        }
+        return events;
+    }
+
+    private static List<Path> listTraceFiles(Path directory) throws IOException {
+        List<Path> files = Lists.newArrayList();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + TraceFormat.FILE_EXTENSION)) {
+            stream.forEach(files::add);
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    private static JsonObject findEvent(List<JsonObject> events, String name) {
+        for (JsonObject event : events) {
+            if (event.get("name").getAsString().equals(name)) {
+                return event;
+            }
+        }
+        throw new AssertionError("No event named " + name);
+    }
+
+    private static String findThreadName(List<JsonObject> events, long threadId) {
+        for (JsonObject event : events) {
+            if (event.get("name").getAsString().equals("thread_name") && event.get("tid").getAsLong() == threadId) {
+                return event.getAsJsonObject("args").get("name").getAsString();
+            }
+        }
+        fail("No name for thread " + threadId);
+        return null;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.network.internal;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.junit.Test;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.protobuf.EntityData;
+import org.terasology.protobuf.NetData;
+import org.terasology.world.chunks.Chunk;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ */
+public class ChunkPayloadCacheTest {
+
+    @Test
+    public void chunkGetsEncodedOncePerVersion() throws Exception {
+        Chunk chunk = createChunk(new Vector3i(1, 2, 3));
+        ChunkPayloadCache cache = new ChunkPayloadCache();
+
+        ChannelBuffer first = cache.getPayload(chunk);
+        ChannelBuffer second = cache.getPayload(chunk);
+        verify(chunk, times(1)).encode();
+        assertEquals(1, cache.getHits());
+
+        when(chunk.getVersion()).thenReturn(1);
+        cache.getPayload(chunk);
+        verify(chunk, times(2)).encode();
+
+        // Reading one of the shared buffers must not affect the others
+        first.skipBytes(first.readableBytes());
+        assertEquals(3, parse(second).getChunkInfo(0).getZ());
+    }
+
+    @Test
+    public void payloadOfReplacedChunkIsNotUsed() {
+        ChunkPayloadCache cache = new ChunkPayloadCache();
+        Chunk chunk = createChunk(new Vector3i(1, 2, 3));
+        Chunk reloadedChunk = createChunk(new Vector3i(1, 2, 3));
+
+        cache.getPayload(chunk);
+        cache.getPayload(reloadedChunk);
+
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void payloadMergesIntoMessage() throws Exception {
+        ChunkPayloadCache cache = new ChunkPayloadCache();
+        byte[] message = NetData.NetMessage.newBuilder().setTime(42).build().toByteArray();
+
+        NetData.NetMessage merged = parse(ChannelBuffers.wrappedBuffer(ChannelBuffers.wrappedBuffer(message),
+                cache.getPayload(createChunk(new Vector3i(1, 2, 3)))));
+
+        assertEquals(42, merged.getTime());
+        assertEquals(1, merged.getChunkInfoCount());
+    }
+
+    private static Chunk createChunk(Vector3i pos) {
+        Chunk chunk = mock(Chunk.class);
+        when(chunk.getPosition()).thenReturn(pos);
+        when(chunk.encode()).thenAnswer(invocation -> EntityData.ChunkStore.newBuilder().setX(pos.x).setY(pos.y).setZ(pos.z));
+        return chunk;
+    }
+
+    private static NetData.NetMessage parse(ChannelBuffer buffer) throws Exception {
+        byte[] data = new byte[buffer.readableBytes()];
+        buffer.getBytes(buffer.readerIndex(), data);
+        return NetData.NetMessage.parseFrom(data);
+    }
+}
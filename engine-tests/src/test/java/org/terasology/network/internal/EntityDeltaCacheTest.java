@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.network.internal;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.terasology.TerasologyTestingEnvironment;
+import org.terasology.engine.ComponentSystemManager;
+import org.terasology.engine.EngineTime;
+import org.terasology.engine.bootstrap.EntitySystemSetupUtil;
+import org.terasology.engine.module.ModuleManager;
+import org.terasology.entitySystem.Component;
+import org.terasology.entitySystem.entity.EntityManager;
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.entitySystem.entity.internal.EngineEntityManager;
+import org.terasology.entitySystem.metadata.EventLibrary;
+import org.terasology.logic.location.LocationComponent;
+import org.terasology.math.geom.Vector3f;
+import org.terasology.network.NetworkComponent;
+import org.terasology.network.NetworkSystem;
+import org.terasology.protobuf.EntityData;
+import org.terasology.testUtil.ModuleManagerFactory;
+import org.terasology.world.BlockEntityRegistry;
+
+import java.util.Collections;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ */
+public class EntityDeltaCacheTest extends TerasologyTestingEnvironment {
+
+    private static final Set<Class<? extends Component>> LOCATION = ImmutableSet.of(LocationComponent.class);
+
+    private EngineEntityManager entityManager;
+    private NetworkSystemImpl networkSystem;
+
+    @Before
+    public void setup() throws Exception {
+        super.setup();
+        context.put(ModuleManager.class, ModuleManagerFactory.create());
+        networkSystem = new NetworkSystemImpl(mock(EngineTime.class), context);
+        context.put(NetworkSystem.class, networkSystem);
+
+        EntitySystemSetupUtil.addReflectionBasedLibraries(context);
+        EntitySystemSetupUtil.addEntityManagementRelatedClasses(context);
+        entityManager = (EngineEntityManager) context.get(EntityManager.class);
+        context.put(ComponentSystemManager.class, new ComponentSystemManager(context));
+        entityManager.clear();
+        networkSystem.mockHost();
+        networkSystem.connectToEntitySystem(entityManager, context.get(EventLibrary.class), mock(BlockEntityRegistry.class));
+    }
+
+    @Test
+    public void cachedComponentIsInvalidatedWhenComponentChanges() {
+        EntityRef entity = entityManager.create(new NetworkComponent(), new LocationComponent(new Vector3f(1, 2, 3)));
+        networkSystem.registerNetworkEntity(entity);
+        int netId = entity.getComponent(NetworkComponent.class).getNetworkId();
+
+        EntityData.PackedEntity first = getLocationUpdate(netId, entity);
+
+        // Until the change gets saved the cached fragment keeps being sent
+        LocationComponent location = entity.getComponent(LocationComponent.class);
+        location.setLocalPosition(new Vector3f(4, 5, 6));
+        assertEquals(first, getLocationUpdate(netId, entity));
+
+        entity.saveComponent(location);
+        EntityData.PackedEntity changed = getLocationUpdate(netId, entity);
+        assertNotEquals(first, changed);
+        assertEquals(changed, getLocationUpdate(netId, entity));
+    }
+
+    private EntityData.PackedEntity getLocationUpdate(int netId, EntityRef entity) {
+        return networkSystem.getEntityDeltaCache().getEntityUpdate(netId, entity, Collections.emptySet(), LOCATION,
+                Collections.emptySet(), false);
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.network.internal;
+
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.logic.location.LocationComponent;
+import org.terasology.math.geom.Vector3f;
+import org.terasology.network.ClientComponent;
+import org.terasology.network.NetworkComponent;
+import org.terasology.rendering.world.viewDistance.ViewDistance;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The client watches with {@link ViewDistance#LEGALLY_BLIND}, so entities enter its interest within 2 chunks of its
+ * character and leave it beyond 3 chunks.
+ */
+public class NetEntityRelevanceTest {
+
+    private static final float CHUNK_WIDTH = 32;
+
+    private NetworkSystemImpl networkSystem;
+    private NetEntityRelevance relevance;
+    private NetClient client;
+    private LocationComponent characterLocation;
+    private TIntSet relevantToClient = new TIntHashSet();
+    private int nextNetId = 1;
+
+    @Before
+    public void setup() {
+        networkSystem = mock(NetworkSystemImpl.class);
+        relevance = new NetEntityRelevance(networkSystem);
+
+        characterLocation = new LocationComponent(chunkCenter(0));
+        EntityRef character = mock(EntityRef.class);
+        when(character.getComponent(LocationComponent.class)).thenReturn(characterLocation);
+        ClientComponent clientComp = new ClientComponent();
+        clientComp.character = character;
+        EntityRef clientEntity = mock(EntityRef.class);
+        when(clientEntity.getComponent(ClientComponent.class)).thenReturn(clientComp);
+
+        client = mock(NetClient.class);
+        when(client.getEntity()).thenReturn(clientEntity);
+        when(client.getViewDistance()).thenReturn(ViewDistance.LEGALLY_BLIND);
+        when(client.isNetRelevant(anyInt())).thenAnswer(invocation -> relevantToClient.contains((Integer) invocation.getArguments()[0]));
+        doAnswer(invocation -> relevantToClient.add((Integer) invocation.getArguments()[0])).when(client).setNetInitial(anyInt());
+        doAnswer(invocation -> relevantToClient.remove((Integer) invocation.getArguments()[0])).when(client).setNetRemoved(anyInt());
+
+        relevance.addClient(client);
+        relevance.update();
+    }
+
+    @Test
+    public void entityIsReplicatedWithinViewDistance() {
+        EntityRef near = createEntity(2);
+        EntityRef far = createEntity(3);
+        assertTrue(relevance.register(netId(near), near));
+        assertTrue(relevance.register(netId(far), far));
+
+        assertTrue(relevantToClient.contains(netId(near)));
+        assertFalse(relevantToClient.contains(netId(far)));
+    }
+
+    @Test
+    public void entityEntersAndLeavesRelevance() {
+        EntityRef entity = createEntity(5);
+        relevance.register(netId(entity), entity);
+        assertFalse(relevantToClient.contains(netId(entity)));
+
+        moveEntity(entity, 2);
+        assertTrue(relevantToClient.contains(netId(entity)));
+
+        // Within the margin beyond the view distance the entity is kept
+        moveEntity(entity, 3);
+        assertTrue(relevantToClient.contains(netId(entity)));
+        verify(client, never()).setNetRemoved(netId(entity));
+
+        moveEntity(entity, 4);
+        assertFalse(relevantToClient.contains(netId(entity)));
+
+        // Coming back into the margin isn't enough to enter again
+        moveEntity(entity, 3);
+        assertFalse(relevantToClient.contains(netId(entity)));
+        moveEntity(entity, 2);
+        assertTrue(relevantToClient.contains(netId(entity)));
+    }
+
+    @Test
+    public void movingClientChangesRelevance() {
+        EntityRef entity = createEntity(0);
+        relevance.register(netId(entity), entity);
+        assertTrue(relevantToClient.contains(netId(entity)));
+
+        characterLocation.setWorldPosition(chunkCenter(3));
+        relevance.update();
+        assertTrue(relevantToClient.contains(netId(entity)));
+
+        characterLocation.setWorldPosition(chunkCenter(4));
+        relevance.update();
+        assertFalse(relevantToClient.contains(netId(entity)));
+
+        characterLocation.setWorldPosition(chunkCenter(1));
+        relevance.update();
+        assertTrue(relevantToClient.contains(netId(entity)));
+    }
+
+    @Test
+    public void ownedEntityIsAlwaysRelevant() {
+        EntityRef entity = createEntity(10);
+        when(networkSystem.getOwner(entity)).thenReturn(client);
+        relevance.register(netId(entity), entity);
+        assertTrue(relevantToClient.contains(netId(entity)));
+
+        moveEntity(entity, 20);
+        assertTrue(relevantToClient.contains(netId(entity)));
+
+        characterLocation.setWorldPosition(chunkCenter(-20));
+        relevance.update();
+        assertTrue(relevantToClient.contains(netId(entity)));
+    }
+
+    @Test
+    public void entityWithoutLocationIsNotTracked() {
+        EntityRef entity = createEntity(0);
+        when(entity.getComponent(LocationComponent.class)).thenReturn(null);
+        assertFalse(relevance.register(netId(entity), entity));
+        assertFalse(relevance.isTracked(netId(entity)));
+    }
+
+    @Test
+    public void unregisteredEntityIsNoLongerReplicated() {
+        EntityRef entity = createEntity(5);
+        relevance.register(netId(entity), entity);
+        relevance.unregister(netId(entity));
+
+        moveEntity(entity, 0);
+        assertFalse(relevantToClient.contains(netId(entity)));
+    }
+
+    private EntityRef createEntity(int chunkX) {
+        NetworkComponent netComp = new NetworkComponent();
+        netComp.setNetworkId(nextNetId++);
+        EntityRef entity = mock(EntityRef.class);
+        when(entity.getComponent(NetworkComponent.class)).thenReturn(netComp);
+        when(entity.getComponent(LocationComponent.class)).thenReturn(new LocationComponent(chunkCenter(chunkX)));
+        when(networkSystem.getEntity(netComp.getNetworkId())).thenReturn(entity);
+        return entity;
+    }
+
+    private void moveEntity(EntityRef entity, int chunkX) {
+        entity.getComponent(LocationComponent.class).setWorldPosition(chunkCenter(chunkX));
+        relevance.onLocationChanged(netId(entity));
+        relevance.update();
+    }
+
+    private static int netId(EntityRef entity) {
+        return entity.getComponent(NetworkComponent.class).getNetworkId();
+    }
+
+    private static Vector3f chunkCenter(int chunkX) {
+        return new Vector3f((chunkX + 0.5f) * CHUNK_WIDTH, 10, 10);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.persistence.internal;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.terasology.math.geom.Vector3i;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ */
+public class ChunkZipCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void readsReuseOpenZip() throws IOException {
+        Path zipPath = createZip("a.zip", "1.2.3.chunk", new byte[]{1, 2, 3});
+        ChunkZipCache cache = new ChunkZipCache(2);
+
+        assertArrayEquals(new byte[]{1, 2, 3}, cache.read(Vector3i.zero(), zipPath, "1.2.3.chunk"));
+        assertNull(cache.read(Vector3i.zero(), zipPath, "4.5.6.chunk"));
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(0.5f, cache.getHitRate(), 0.0001f);
+    }
+
+    @Test
+    public void invalidateReopensReplacedZip() throws IOException {
+        Path zipPath = createZip("a.zip", "1.2.3.chunk", new byte[]{1});
+        ChunkZipCache cache = new ChunkZipCache(2);
+        assertArrayEquals(new byte[]{1}, cache.read(Vector3i.zero(), zipPath, "1.2.3.chunk"));
+
+        cache.invalidate();
+        Files.delete(zipPath);
+        createZip("a.zip", "1.2.3.chunk", new byte[]{2});
+
+        assertArrayEquals(new byte[]{2}, cache.read(Vector3i.zero(), zipPath, "1.2.3.chunk"));
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void leastRecentlyUsedZipGetsEvicted() throws IOException {
+        Path first = createZip("a.zip", "a", new byte[]{1});
+        Path second = createZip("b.zip", "b", new byte[]{2});
+        Path third = createZip("c.zip", "c", new byte[]{3});
+        ChunkZipCache cache = new ChunkZipCache(2);
+
+        cache.read(new Vector3i(1, 0, 0), first, "a");
+        cache.read(new Vector3i(2, 0, 0), second, "b");
+        cache.read(new Vector3i(1, 0, 0), first, "a");
+        cache.read(new Vector3i(3, 0, 0), third, "c");
+        cache.read(new Vector3i(1, 0, 0), first, "a");
+        assertEquals(3, cache.getMisses());
+
+        cache.read(new Vector3i(2, 0, 0), second, "b");
+        assertEquals(4, cache.getMisses());
+    }
+
+    private Path createZip(String name, String entryName, byte[] content) throws IOException {
+        Path path = temporaryFolder.getRoot().toPath().resolve(name);
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(path))) {
+            out.putNextEntry(new ZipEntry(entryName));
+            out.write(content);
+            out.closeEntry();
+        }
+        return path;
+    }
+}
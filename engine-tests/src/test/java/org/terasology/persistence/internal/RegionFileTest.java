@@ -0,0 +1,141 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.persistence.internal;
+
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.terasology.math.geom.Vector3i;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class RegionFileTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void chunksSurviveReopening() throws IOException {
+        Path path = temporaryFolder.getRoot().toPath().resolve("region");
+        byte[] small = createData(10, 1);
+        byte[] large = createData(3 * RegionFile.SECTOR_SIZE + 1, 2);
+        try (RegionFile regionFile = RegionFile.openForWriting(path)) {
+            regionFile.write(chunks(0, small, RegionFile.CHUNKS_PER_REGION - 1, large));
+        }
+
+        try (RegionFile regionFile = RegionFile.openForReading(path)) {
+            assertArrayEquals(small, regionFile.read(0));
+            assertArrayEquals(large, regionFile.read(RegionFile.CHUNKS_PER_REGION - 1));
+            assertNull(regionFile.read(1));
+            assertTrue(regionFile.contains(0));
+            assertFalse(regionFile.contains(1));
+        }
+    }
+
+    @Test
+    public void rewritingChunksReusesFreedSectors() throws IOException {
+        Path path = temporaryFolder.getRoot().toPath().resolve("region");
+        try (RegionFile regionFile = RegionFile.openForWriting(path)) {
+            regionFile.write(chunks(0, createData(RegionFile.SECTOR_SIZE, 1), 1, createData(RegionFile.SECTOR_SIZE, 2)));
+            long size = Files.size(path);
+            for (int i = 0; i < 10; ++i) {
+                regionFile.write(chunks(0, createData(RegionFile.SECTOR_SIZE, 3 + i)));
+            }
+            // The new version of a chunk is written next to the old one, whose sectors get reused afterwards
+            assertTrue(Files.size(path) <= size + RegionFile.SECTOR_SIZE);
+            assertArrayEquals(createData(RegionFile.SECTOR_SIZE, 12), regionFile.read(0));
+            assertArrayEquals(createData(RegionFile.SECTOR_SIZE, 2), regionFile.read(1));
+        }
+    }
+
+    @Test
+    public void corruptHeaderFallsBackToPreviousVersion() throws IOException {
+        Path path = temporaryFolder.getRoot().toPath().resolve("region");
+        try (RegionFile regionFile = RegionFile.openForWriting(path)) {
+            regionFile.write(chunks(0, createData(100, 1)));
+            regionFile.write(chunks(0, createData(100, 2), 1, createData(100, 3)));
+        }
+        // Simulates an interrupted header write of the second write, which went to the first header slot
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(createData(64, 7)), 100);
+        }
+
+        try (RegionFile regionFile = RegionFile.openForReading(path)) {
+            assertArrayEquals(createData(100, 1), regionFile.read(0));
+            assertFalse(regionFile.contains(1));
+        }
+    }
+
+    @Test
+    public void mergeReplacesOnlyContainedChunks() throws IOException {
+        Path target = temporaryFolder.getRoot().toPath().resolve("target");
+        Path source = temporaryFolder.getRoot().toPath().resolve("source");
+        try (RegionFile regionFile = RegionFile.openForWriting(target)) {
+            regionFile.write(chunks(0, createData(100, 1), 1, createData(100, 2)));
+        }
+        try (RegionFile regionFile = RegionFile.openForWriting(source)) {
+            regionFile.write(chunks(1, createData(200, 3), 2, createData(300, 4)));
+        }
+
+        RegionFile.merge(source, target);
+
+        try (RegionFile regionFile = RegionFile.openForReading(target)) {
+            assertArrayEquals(createData(100, 1), regionFile.read(0));
+            assertArrayEquals(createData(200, 3), regionFile.read(1));
+            assertArrayEquals(createData(300, 4), regionFile.read(2));
+        }
+    }
+
+    @Test
+    public void chunkIndexRoundTrips() {
+        Vector3i regionPos = new Vector3i(-1, 0, 2);
+        Vector3i chunkPos = new Vector3i(-3, 5, 40);
+        StoragePathProvider storagePathProvider = new StoragePathProvider(temporaryFolder.getRoot().toPath());
+
+        assertEquals(regionPos, storagePathProvider.getRegionPosition(chunkPos));
+        assertEquals(chunkPos, RegionFile.getChunkPosition(regionPos, RegionFile.getChunkIndex(chunkPos)));
+    }
+
+    private static TIntObjectMap<byte[]> chunks(Object... indicesAndData) {
+        TIntObjectMap<byte[]> result = new TIntObjectHashMap<>();
+        for (int i = 0; i < indicesAndData.length; i += 2) {
+            result.put((Integer) indicesAndData[i], (byte[]) indicesAndData[i + 1]);
+        }
+        return result;
+    }
+
+    private static byte[] createData(int length, int value) {
+        byte[] data = new byte[length];
+        Arrays.fill(data, (byte) value);
+        return data;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.rendering.primitives;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class DirectBufferPoolTest {
+
+    @Test
+    public void buffersAreDirectWithPowerOfTwoCapacity() {
+        DirectBufferPool pool = new DirectBufferPool(1 << 20);
+        ByteBuffer buffer = pool.acquire(5000);
+
+        assertTrue(buffer.isDirect());
+        assertEquals(8192, buffer.capacity());
+        assertEquals(8192, buffer.remaining());
+        assertEquals(ByteOrder.nativeOrder(), buffer.order());
+    }
+
+    @Test
+    public void releasedBuffersAreReused() {
+        DirectBufferPool pool = new DirectBufferPool(1 << 20);
+        ByteBuffer buffer = pool.acquire(5000);
+        buffer.position(100).limit(200);
+        pool.release(buffer);
+        assertEquals(8192, pool.getRetainedBytes());
+
+        ByteBuffer reused = pool.acquire(8000);
+        assertSame(buffer, reused);
+        assertEquals(0, reused.position());
+        assertEquals(8192, reused.limit());
+        assertEquals(0, pool.getRetainedBytes());
+    }
+
+    @Test
+    public void retainedBytesAreLimited() {
+        DirectBufferPool pool = new DirectBufferPool(10000);
+        ByteBuffer first = pool.acquire(8192);
+        ByteBuffer second = pool.acquire(8192);
+        pool.release(first);
+        pool.release(second);
+
+        assertEquals(8192, pool.getRetainedBytes());
+        assertSame(first, pool.acquire(8192));
+        assertNotSame(second, pool.acquire(8192));
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.rendering.primitives;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multiset;
+import org.junit.Before;
+import org.junit.Test;
+import org.terasology.math.Side;
+import org.terasology.math.TeraMath;
+import org.terasology.math.geom.Vector2f;
+import org.terasology.math.geom.Vector3f;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.ChunkView;
+import org.terasology.world.block.Block;
+import org.terasology.world.block.BlockAppearance;
+import org.terasology.world.block.BlockPart;
+import org.terasology.world.block.shapes.BlockMeshPart;
+import org.terasology.world.chunks.ChunkConstants;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyFloat;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares the meshes of the greedy mesher with the ones of the plain tessellator, which appends each visible side of
+ * each block on its own. Both have to cover exactly the same block sides.
+ */
+public class GreedyChunkMesherTest {
+
+    private static final float TILE_SIZE = 1f / 16f;
+    private static final int MESH_HEIGHT = 8;
+
+    private Block air;
+    private Block stone;
+    private Block dirt;
+    private Block[][][] blocks;
+    private ChunkView chunkView;
+
+    @Before
+    public void setup() {
+        air = new Block();
+        air.setMeshGenerator(null);
+        air.setTranslucent(true);
+        air.setShadowCasting(false);
+        stone = createCube(new Vector2f(0, 0));
+        dirt = createCube(new Vector2f(TILE_SIZE, 0));
+
+        blocks = new Block[ChunkConstants.SIZE_X][MESH_HEIGHT][ChunkConstants.SIZE_Z];
+        chunkView = mock(ChunkView.class);
+        when(chunkView.getBlock(anyInt(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            return getBlock((Integer) args[0], (Integer) args[1], (Integer) args[2]);
+        });
+        when(chunkView.getBlock(anyFloat(), anyFloat(), anyFloat())).thenAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            return getBlock(TeraMath.floorToInt((Float) args[0] + 0.5f), TeraMath.floorToInt((Float) args[1] + 0.5f),
+                    TeraMath.floorToInt((Float) args[2] + 0.5f));
+        });
+        when(chunkView.getSunlight(anyFloat(), anyFloat(), anyFloat())).thenReturn((byte) 15);
+    }
+
+    @Test
+    public void solidSlabGetsMerged() {
+        for (int x = 0; x < ChunkConstants.SIZE_X; x++) {
+            for (int z = 0; z < ChunkConstants.SIZE_Z; z++) {
+                blocks[x][2][z] = stone;
+                blocks[x][3][z] = stone;
+            }
+        }
+
+        ChunkMesh greedyMesh = generateGreedyMesh();
+        assertEquals(getCoveredSides(generatePlainMesh()), getCoveredSides(greedyMesh));
+        // The top, the bottom and each of the four sides of the slab become a single quad
+        assertEquals(6, getQuadCount(greedyMesh));
+    }
+
+    @Test
+    public void checkerboardIsNotMerged() {
+        for (int x = 0; x < ChunkConstants.SIZE_X; x++) {
+            for (int z = 0; z < ChunkConstants.SIZE_Z; z++) {
+                if ((x + z) % 2 == 0) {
+                    blocks[x][2][z] = stone;
+                }
+            }
+        }
+
+        ChunkMesh plainMesh = generatePlainMesh();
+        ChunkMesh greedyMesh = generateGreedyMesh();
+        assertEquals(getCoveredSides(plainMesh), getCoveredSides(greedyMesh));
+        assertEquals(getQuadCount(plainMesh), getQuadCount(greedyMesh));
+    }
+
+    @Test
+    public void differentBlocksAreNotMerged() {
+        for (int x = 0; x < ChunkConstants.SIZE_X; x++) {
+            for (int z = 0; z < ChunkConstants.SIZE_Z; z++) {
+                blocks[x][2][z] = (x % 2 == 0) ? stone : dirt;
+            }
+        }
+
+        ChunkMesh greedyMesh = generateGreedyMesh();
+        Multiset<String> greedySides = getCoveredSides(greedyMesh);
+        assertEquals(getCoveredSides(generatePlainMesh()), greedySides);
+        for (String side : greedySides.elementSet()) {
+            assertFalse(side.endsWith("stone and dirt"));
+        }
+        // Each stripe of blocks along z gets merged on its own
+        assertTrue(getQuadCount(greedyMesh) < ChunkConstants.SIZE_X * ChunkConstants.SIZE_Z);
+    }
+
+    private Block getBlock(int x, int y, int z) {
+        if (x < 0 || y < 0 || z < 0 || x >= ChunkConstants.SIZE_X || y >= MESH_HEIGHT || z >= ChunkConstants.SIZE_Z) {
+            return air;
+        }
+        Block block = blocks[x][y][z];
+        return block != null ? block : air;
+    }
+
+    private ChunkMesh generatePlainMesh() {
+        return new ChunkTessellator(null).generateMesh(chunkView, MESH_HEIGHT, 0);
+    }
+
+    private ChunkMesh generateGreedyMesh() {
+        return new ChunkTessellator(null, new GreedyChunkMesher(TILE_SIZE)).generateMesh(chunkView, MESH_HEIGHT, 0);
+    }
+
+    private static int getQuadCount(ChunkMesh mesh) {
+        return mesh.getVertexElements(ChunkMesh.RenderType.OPAQUE).getVertexCount() / 4;
+    }
+
+    /**
+     * @return for each side of a block that is covered by a quad of the mesh, its position, its normal and the name of
+     * the block it belongs to. Quads that cover several blocks of different types add mixed names.
+     */
+    private Multiset<String> getCoveredSides(ChunkMesh mesh) {
+        Multiset<String> result = HashMultiset.create();
+        ChunkMesh.VertexElements elements = mesh.getVertexElements(ChunkMesh.RenderType.OPAQUE);
+        Vector3f position = new Vector3f();
+        Vector3f normal = new Vector3f();
+        for (int quad = 0; quad < elements.getVertexCount() / 4; quad++) {
+            float[] min = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+            float[] max = {-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+            for (int i = 0; i < 4; i++) {
+                elements.getPosition(quad * 4 + i, position);
+                float[] coords = {position.x, position.y, position.z};
+                for (int axis = 0; axis < 3; axis++) {
+                    min[axis] = Math.min(min[axis], coords[axis]);
+                    max[axis] = Math.max(max[axis], coords[axis]);
+                }
+            }
+            elements.getNormal(quad * 4, normal);
+            int[] dir = {Math.round(normal.x), Math.round(normal.y), Math.round(normal.z)};
+
+            // The quad covers the sides of the blocks in the plane behind it
+            int[] first = new int[3];
+            int[] last = new int[3];
+            for (int axis = 0; axis < 3; axis++) {
+                if (dir[axis] != 0) {
+                    first[axis] = Math.round(min[axis] - 0.5f * dir[axis]);
+                    last[axis] = first[axis];
+                } else {
+                    first[axis] = Math.round(min[axis] + 0.5f);
+                    last[axis] = Math.round(max[axis] - 0.5f);
+                }
+            }
+            String blockNames = getBlockNames(first, last);
+            for (int x = first[0]; x <= last[0]; x++) {
+                for (int y = first[1]; y <= last[1]; y++) {
+                    for (int z = first[2]; z <= last[2]; z++) {
+                        result.add(new Vector3i(x, y, z) + " " + new Vector3i(dir[0], dir[1], dir[2]) + " " + blockNames);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private String getBlockNames(int[] first, int[] last) {
+        boolean hasStone = false;
+        boolean hasDirt = false;
+        for (int x = first[0]; x <= last[0]; x++) {
+            for (int y = first[1]; y <= last[1]; y++) {
+                for (int z = first[2]; z <= last[2]; z++) {
+                    Block block = getBlock(x, y, z);
+                    hasStone |= block == stone;
+                    hasDirt |= block == dirt;
+                }
+            }
+        }
+        if (hasStone && hasDirt) {
+            return "stone and dirt";
+        }
+        return hasStone ? "stone" : "dirt";
+    }
+
+    private static Block createCube(Vector2f atlasPos) {
+        Map<BlockPart, BlockMeshPart> parts = Maps.newEnumMap(BlockPart.class);
+        Map<BlockPart, Vector2f> atlasPositions = Maps.newEnumMap(BlockPart.class);
+        for (BlockPart part : BlockPart.values()) {
+            atlasPositions.put(part, atlasPos);
+        }
+        for (Side side : Side.values()) {
+            parts.put(BlockPart.fromSide(side), createSide(side, atlasPos));
+        }
+        Block block = new Block();
+        block.setPrimaryAppearance(new BlockAppearance(parts, atlasPositions));
+        for (Side side : Side.values()) {
+            block.setFullSide(side, true);
+        }
+        return block;
+    }
+
+    private static BlockMeshPart createSide(Side side, Vector2f atlasPos) {
+        Vector3i dir = side.getVector3i();
+        int[] normal = {dir.x, dir.y, dir.z};
+        int normalAxis = dir.x != 0 ? 0 : (dir.y != 0 ? 1 : 2);
+        int uAxis = (normalAxis + 1) % 3;
+        int vAxis = (normalAxis + 2) % 3;
+        float[][] corners = {{0, 0}, {1, 0}, {1, 1}, {0, 1}};
+
+        Vector3f[] vertices = new Vector3f[4];
+        Vector3f[] normals = new Vector3f[4];
+        Vector2f[] texCoords = new Vector2f[4];
+        for (int i = 0; i < 4; i++) {
+            float[] vertex = new float[3];
+            vertex[normalAxis] = 0.5f * normal[normalAxis];
+            vertex[uAxis] = corners[i][0] - 0.5f;
+            vertex[vAxis] = corners[i][1] - 0.5f;
+            vertices[i] = new Vector3f(vertex[0], vertex[1], vertex[2]);
+            normals[i] = new Vector3f(dir.x, dir.y, dir.z);
+            texCoords[i] = new Vector2f(atlasPos.x + corners[i][0] * TILE_SIZE, atlasPos.y + corners[i][1] * TILE_SIZE);
+        }
+        return new BlockMeshPart(vertices, normals, texCoords, new int[]{0, 1, 2, 0, 2, 3});
+    }
+}
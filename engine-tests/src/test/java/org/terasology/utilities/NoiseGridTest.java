@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.utilities;
+
+import com.google.common.math.IntMath;
+import org.junit.Test;
+import org.terasology.math.geom.Rect2i;
+import org.terasology.math.geom.Vector2f;
+import org.terasology.utilities.procedural.BrownianNoise;
+import org.terasology.utilities.procedural.Noise;
+import org.terasology.utilities.procedural.PerlinNoise;
+import org.terasology.utilities.procedural.SimplexNoise;
+import org.terasology.utilities.procedural.SubSampledNoise;
+import org.terasology.utilities.procedural.WhiteNoise;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the grid based noise evaluation with the evaluation point by point.
+ */
+public class NoiseGridTest {
+
+    private static final float MIN_X = -13.7f;
+    private static final float MIN_Y = 4.2f;
+    private static final float MIN_Z = -0.3f;
+    private static final float STEP_X = 0.13f;
+    private static final float STEP_Y = 0.29f;
+    private static final float STEP_Z = 0.41f;
+    private static final int SIZE_X = 23;
+    private static final int SIZE_Y = 17;
+    private static final int SIZE_Z = 5;
+
+    @Test
+    public void perlinGridMatchesPoints() {
+        assertGridMatchesPoints(new PerlinNoise(0xCAFE), 0);
+    }
+
+    @Test
+    public void simplexGridMatchesPoints() {
+        assertGridMatchesPoints(new SimplexNoise(0xCAFE), 0);
+    }
+
+    @Test
+    public void defaultGridMatchesPoints() {
+        assertGridMatchesPoints(new WhiteNoise(0xCAFE), 0);
+    }
+
+    @Test
+    public void brownianGridMatchesPoints() {
+        assertGridMatchesPoints(new BrownianNoise(new SimplexNoise(0xCAFE), 4), 0);
+    }
+
+    /**
+     * The key values of the sub-sampled noise must be exactly the ones of the point by point evaluation,
+     * otherwise the generated terrain changes.
+     */
+    @Test
+    public void subSampledKeyValuesMatchPoints() {
+        Noise source = new BrownianNoise(new PerlinNoise(0xCAFE), 8);
+        Vector2f zoom = new Vector2f(0.0009f, 0.0013f);
+        int sampleRate = 4;
+        SubSampledNoise noise = new SubSampledNoise(source, zoom, sampleRate);
+
+        Rect2i region = Rect2i.createFromMinAndSize(-37, 1053, 32, 32);
+        float[] values = noise.noise(region);
+        for (int y = region.minY(); y <= region.maxY(); y++) {
+            for (int x = region.minX(); x <= region.maxX(); x++) {
+                if (IntMath.mod(x, sampleRate) == 0 && IntMath.mod(y, sampleRate) == 0) {
+                    float expected = source.noise(zoom.x * x, zoom.y * y);
+                    assertEquals(expected, values[x - region.minX() + region.sizeX() * (y - region.minY())], 0);
+                }
+            }
+        }
+    }
+
+    private static void assertGridMatchesPoints(Noise noise, float delta) {
+        float[] grid2D = new float[SIZE_X * SIZE_Y];
+        noise.noise(grid2D, MIN_X, MIN_Y, STEP_X, STEP_Y, SIZE_X, SIZE_Y);
+        for (int j = 0; j < SIZE_Y; j++) {
+            for (int i = 0; i < SIZE_X; i++) {
+                float expected = noise.noise(MIN_X + i * STEP_X, MIN_Y + j * STEP_Y);
+                assertEquals(expected, grid2D[i + j * SIZE_X], delta);
+            }
+        }
+
+        float[] grid3D = new float[SIZE_X * SIZE_Y * SIZE_Z];
+        noise.noise(grid3D, MIN_X, MIN_Y, MIN_Z, STEP_X, STEP_Y, STEP_Z, SIZE_X, SIZE_Y, SIZE_Z);
+        for (int k = 0; k < SIZE_Z; k++) {
+            for (int j = 0; j < SIZE_Y; j++) {
+                for (int i = 0; i < SIZE_X; i++) {
+                    float expected = noise.noise(MIN_X + i * STEP_X, MIN_Y + j * STEP_Y, MIN_Z + k * STEP_Z);
+                    assertEquals(expected, grid3D[i + SIZE_X * (j + SIZE_Y * k)], delta);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.utilities.concurrency;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class ReprioritizableBlockingQueueTest {
+
+    @Test
+    public void pollReturnsElementsInPriorityOrder() {
+        ReprioritizableBlockingQueue<Integer> queue = new ReprioritizableBlockingQueue<>(Comparator.naturalOrder());
+        for (int value : new int[]{5, 3, 9, 1, 7, 2, 8, 6, 4, 0}) {
+            queue.offer(value);
+        }
+        assertEquals(10, queue.size());
+        for (int i = 0; i < 10; ++i) {
+            assertEquals((Integer) i, queue.poll());
+        }
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void reprioritizeAppliesChangedComparator() {
+        int[] center = {0};
+        ReprioritizableBlockingQueue<Integer> queue = new ReprioritizableBlockingQueue<>((o1, o2) -> Math.abs(o1 - center[0]) - Math.abs(o2 - center[0]));
+        for (int i = 0; i < 100; ++i) {
+            queue.offer(i);
+        }
+        center[0] = 50;
+        queue.reprioritize();
+        assertEquals((Integer) 50, queue.poll());
+        int previous = 0;
+        while (!queue.isEmpty()) {
+            int distance = Math.abs(queue.poll() - 50);
+            assertTrue(distance >= previous);
+            previous = distance;
+        }
+    }
+
+    @Test
+    public void removeKeepsHeapOrder() {
+        ReprioritizableBlockingQueue<Integer> queue = new ReprioritizableBlockingQueue<>(Comparator.naturalOrder());
+        for (int i = 0; i < 20; ++i) {
+            queue.offer(i);
+        }
+        assertTrue(queue.remove(0));
+        assertTrue(queue.remove(7));
+        assertTrue(queue.remove(19));
+        List<Integer> drained = Lists.newArrayList();
+        queue.drainTo(drained);
+        assertEquals(17, drained.size());
+        for (int i = 1; i < drained.size(); ++i) {
+            assertTrue(drained.get(i - 1) < drained.get(i));
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void takeWaitsForOffer() throws InterruptedException {
+        ReprioritizableBlockingQueue<Integer> queue = new ReprioritizableBlockingQueue<>(Comparator.naturalOrder());
+        Thread producer = new Thread(() -> queue.offer(42));
+        producer.start();
+        assertEquals((Integer) 42, queue.take());
+        assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+        producer.join();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.utilities.concurrency;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class WorkStealingSchedulerTest {
+
+    @Test
+    public void threadBudgetsFollowWeights() {
+        WorkStealingScheduler scheduler = new WorkStealingScheduler("Test", 8);
+        WorkStealingScheduler.Pipeline<Task> heavy = scheduler.register("heavy", 3, 8, new LinkedBlockingQueue<>());
+        WorkStealingScheduler.Pipeline<Task> light = scheduler.register("light", 1, 8, new LinkedBlockingQueue<>());
+        assertEquals(6, heavy.getThreadBudget());
+        assertEquals(2, light.getThreadBudget());
+    }
+
+    @Test
+    public void pipelineWithoutHomeWorkersIsServedByStealing() throws InterruptedException {
+        WorkStealingScheduler scheduler = new WorkStealingScheduler("Test", 2);
+        scheduler.register("busy", 100, 2, new LinkedBlockingQueue<>());
+        LinkedBlockingQueue<Task> queue = new LinkedBlockingQueue<>();
+        WorkStealingScheduler.Pipeline<Task> starved = scheduler.register("starved", 1, 2, queue);
+        assertEquals(0, starved.getThreadBudget());
+
+        CountDownLatch done = new CountDownLatch(10);
+        for (int i = 0; i < 10; ++i) {
+            queue.offer(new CountDownTask(done, null));
+        }
+        scheduler.signalWork();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(10, starved.getStolenTasks());
+    }
+
+    @Test
+    public void concurrentTasksAreLimited() throws InterruptedException {
+        WorkStealingScheduler scheduler = new WorkStealingScheduler("Test", 4);
+        LinkedBlockingQueue<Task> queue = new LinkedBlockingQueue<>();
+        scheduler.register("serial", 1, 1, queue);
+
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(20);
+        for (int i = 0; i < 20; ++i) {
+            queue.offer(new CountDownTask(done, maxRunning));
+        }
+        scheduler.signalWork();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, maxRunning.get());
+    }
+
+    private static final class CountDownTask implements Task {
+        private static final AtomicInteger RUNNING = new AtomicInteger();
+
+        private final CountDownLatch latch;
+        private final AtomicInteger maxRunning;
+
+        private CountDownTask(CountDownLatch latch, AtomicInteger maxRunning) {
+            this.latch = latch;
+            this.maxRunning = maxRunning;
+        }
+
+        @Override
+        public String getName() {
+            return "Count down";
+        }
+
+        @Override
+        public void run() {
+            int running = RUNNING.incrementAndGet();
+            if (maxRunning != null) {
+                maxRunning.accumulateAndGet(running, Math::max);
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            RUNNING.decrementAndGet();
+            latch.countDown();
+        }
+
+        @Override
+        public boolean isTerminateSignal() {
+            return false;
+        }
+    }
+}
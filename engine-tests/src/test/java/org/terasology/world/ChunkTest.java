@@ -37,6 +37,8 @@
 import org.terasology.world.chunks.Chunk;
 import org.terasology.world.chunks.ChunkConstants;
 import org.terasology.world.chunks.internal.ChunkImpl;
+import org.terasology.world.liquid.LiquidData;
+import org.terasology.world.liquid.LiquidType;
 
 import static org.junit.Assert.assertEquals;
 
@@ -73,6 +75,35 @@ public void testChangeBlock() {
         assertEquals(solid, chunk.getBlock(new Vector3i(1, 2, 3)));
     }
 
+    @Test
+    public void testFillColumn() {
+        chunk.fillColumn(1, 3, 2, 5, solid);
+        assertEquals(solid, chunk.getBlock(1, 2, 3));
+        assertEquals(solid, chunk.getBlock(1, 4, 3));
+        assertEquals(blockManager.getBlock(BlockManager.AIR_ID), chunk.getBlock(1, 5, 3));
+        assertEquals(blockManager.getBlock(BlockManager.AIR_ID), chunk.getBlock(1, 1, 3));
+    }
+
+    @Test
+    public void testFillColumnRemovesLiquidLikeSetBlock() {
+        LiquidData liquid = new LiquidData(LiquidType.WATER, LiquidData.MAX_LIQUID_DEPTH);
+        chunk.setBlock(1, 2, 3, solid);
+        chunk.setLiquid(1, 2, 3, liquid);
+        chunk.setLiquid(1, 4, 3, liquid);
+
+        chunk.fillColumn(1, 3, 2, 5, solid);
+        assertEquals(liquid, chunk.getLiquid(1, 2, 3));
+        assertEquals(new LiquidData(), chunk.getLiquid(1, 4, 3));
+    }
+
+    @Test
+    public void testFillLayer() {
+        chunk.fillLayer(7, solid);
+        assertEquals(solid, chunk.getBlock(0, 7, 0));
+        assertEquals(solid, chunk.getBlock(ChunkConstants.SIZE_X - 1, 7, ChunkConstants.SIZE_Z - 1));
+        assertEquals(blockManager.getBlock(BlockManager.AIR_ID), chunk.getBlock(0, 6, 0));
+    }
+
     @Test
     public void getAABB() {
         assertEquals(new Vector3f(0, 0, 0), chunk.getAABB().getMin());
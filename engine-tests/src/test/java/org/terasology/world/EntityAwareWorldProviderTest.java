@@ -18,6 +18,7 @@
 
 import com.google.common.base.Objects;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import org.junit.Before;
 import org.junit.Test;
 import org.terasology.TerasologyTestingEnvironment;
@@ -58,6 +59,7 @@
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -205,6 +207,20 @@ public void testComponentsAddedAndActivatedWhenBlockChanged() {
                 checker.receivedEvents);
     }
 
+    @Test
+    public void testSetBlocksUpdatesEachBlockEntity() {
+        Map<Vector3i, Block> blocks = Maps.newHashMap();
+        blocks.put(Vector3i.zero(), blockWithString);
+        blocks.put(new Vector3i(1, 0, 0), blockWithDifferentString);
+
+        Map<Vector3i, Block> oldBlocks = worldProvider.setBlocks(blocks);
+
+        assertEquals(airBlock, oldBlocks.get(Vector3i.zero()));
+        assertEquals(airBlock, oldBlocks.get(new Vector3i(1, 0, 0)));
+        assertEquals("Test", worldProvider.getBlockEntityAt(Vector3i.zero()).getComponent(StringComponent.class).value);
+        assertEquals("Test2", worldProvider.getBlockEntityAt(new Vector3i(1, 0, 0)).getComponent(StringComponent.class).value);
+    }
+
     @Test
     public void testComponentsDeactivatedAndRemovedWhenBlockChanged() {
         worldProvider.setBlock(Vector3i.zero(), blockWithString);
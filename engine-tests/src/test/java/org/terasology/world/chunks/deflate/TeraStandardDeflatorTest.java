@@ -0,0 +1,118 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.chunks.deflate;
+
+import org.junit.Test;
+import org.terasology.world.chunks.blockdata.TeraArray;
+import org.terasology.world.chunks.blockdata.TeraDenseArray16Bit;
+import org.terasology.world.chunks.blockdata.TeraSparseArray16Bit;
+import org.terasology.world.chunks.blockdata.TeraSparseArray8Bit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class TeraStandardDeflatorTest {
+    private static final int SIZE_X = 4;
+    private static final int SIZE_Y = 6;
+    private static final int SIZE_Z = 4;
+
+    private final TeraDeflator deflator = new TeraStandardDeflator();
+
+    @Test
+    public void filledLayersMatchSingleWrites() {
+        TeraArray filled = new TeraSparseArray16Bit(SIZE_X, SIZE_Y, SIZE_Z);
+        TeraArray dense = new TeraDenseArray16Bit(SIZE_X, SIZE_Y, SIZE_Z);
+        for (TeraArray array : new TeraArray[]{filled, dense}) {
+            array.fillLayer(1, 5);
+            array.fillColumn(2, 3, 0, 4, 7);
+        }
+        TeraArray expected = new TeraDenseArray16Bit(SIZE_X, SIZE_Y, SIZE_Z);
+        for (int z = 0; z < SIZE_Z; z++) {
+            for (int x = 0; x < SIZE_X; x++) {
+                expected.set(x, 1, z, 5);
+            }
+        }
+        for (int y = 0; y < 4; y++) {
+            expected.set(2, y, 3, 7);
+        }
+        assertSameContent(expected, filled);
+        assertSameContent(expected, dense);
+    }
+
+    @Test
+    public void fillColumnOnlyInflatesDifferingRows() {
+        for (TeraArray array : new TeraArray[]{new TeraSparseArray16Bit(SIZE_X, SIZE_Y, SIZE_Z), new TeraSparseArray8Bit(SIZE_X, SIZE_Y, SIZE_Z)}) {
+            array.fillLayer(0, 3);
+            array.fillLayer(1, 3);
+            int deflatedSize = array.getEstimatedMemoryConsumptionInBytes();
+            array.fillColumn(1, 2, 0, 2, 3);
+            assertEquals(deflatedSize, array.getEstimatedMemoryConsumptionInBytes());
+
+            array.fillColumn(1, 2, 1, 3, 4);
+            assertTrue(array.getEstimatedMemoryConsumptionInBytes() > deflatedSize);
+            assertEquals(3, array.get(1, 0, 2));
+            assertEquals(4, array.get(1, 1, 2));
+            assertEquals(4, array.get(1, 2, 2));
+            assertEquals(3, array.get(2, 1, 2));
+            assertEquals(0, array.get(2, 2, 2));
+        }
+    }
+
+    @Test
+    public void sparseArrayGetsUniformRowsDeflated() {
+        TeraArray array = new TeraSparseArray16Bit(SIZE_X, SIZE_Y, SIZE_Z);
+        array.set(1, 2, 1, 3);
+        array.set(1, 3, 1, 4);
+        array.set(1, 3, 1, 0);
+        int inflatedSize = array.getEstimatedMemoryConsumptionInBytes();
+
+        TeraArray deflated = deflator.deflate(array);
+        assertTrue(deflated.getEstimatedMemoryConsumptionInBytes() < inflatedSize);
+        assertSameContent(array, deflated);
+    }
+
+    @Test
+    public void uniformSparseArrayCollapses() {
+        TeraArray array = new TeraSparseArray8Bit(SIZE_X, SIZE_Y, SIZE_Z);
+        for (int y = 0; y < SIZE_Y; y++) {
+            array.fillLayer(y, 2);
+        }
+        TeraArray deflated = deflator.deflate(array);
+        assertEquals(new TeraSparseArray8Bit(SIZE_X, SIZE_Y, SIZE_Z, (byte) 2).getEstimatedMemoryConsumptionInBytes(),
+                deflated.getEstimatedMemoryConsumptionInBytes());
+        assertSameContent(array, deflated);
+    }
+
+    @Test
+    public void deflatedSparseArrayIsKept() {
+        TeraArray array = new TeraSparseArray16Bit(SIZE_X, SIZE_Y, SIZE_Z);
+        array.fillLayer(0, 1);
+        assertSame(array, deflator.deflate(array));
+    }
+
+    private static void assertSameContent(TeraArray expected, TeraArray actual) {
+        for (int y = 0; y < SIZE_Y; y++) {
+            for (int z = 0; z < SIZE_Z; z++) {
+                for (int x = 0; x < SIZE_X; x++) {
+                    assertEquals(expected.get(x, y, z), actual.get(x, y, z));
+                }
+            }
+        }
+    }
+}
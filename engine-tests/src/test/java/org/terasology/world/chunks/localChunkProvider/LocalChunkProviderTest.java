@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.chunks.localChunkProvider;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TShortObjectHashMap;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.terasology.entitySystem.entity.EntityManager;
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.persistence.ChunkStore;
+import org.terasology.persistence.StorageManager;
+import org.terasology.world.biomes.BiomeManager;
+import org.terasology.world.block.BlockManager;
+import org.terasology.world.chunks.Chunk;
+import org.terasology.world.chunks.ChunkBlockIterator;
+import org.terasology.world.chunks.event.BeforeChunkUnload;
+import org.terasology.world.chunks.event.OnChunkLoaded;
+import org.terasology.world.chunks.internal.ReadyChunkInfo;
+import org.terasology.world.generator.WorldGenerator;
+
+import java.util.Collections;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ */
+public class LocalChunkProviderTest {
+
+    private LocalChunkProvider chunkProvider;
+    private StorageManager storageManager;
+    private EntityRef worldEntity;
+    private Chunk chunk;
+    private ChunkStore chunkStore;
+
+    @Before
+    public void setup() {
+        storageManager = mock(StorageManager.class);
+        worldEntity = mock(EntityRef.class);
+        chunkProvider = new LocalChunkProvider(storageManager, mock(EntityManager.class), mock(WorldGenerator.class),
+                mock(BlockManager.class), mock(BiomeManager.class));
+        chunkProvider.setWorldEntity(worldEntity);
+        // A single step of a chunk activation per frame
+        chunkProvider.setActivationTimeBudget(0);
+
+        chunk = mock(Chunk.class);
+        when(chunk.getPosition()).thenReturn(new Vector3i(1, 2, 3));
+        when(chunk.isReady()).thenReturn(true);
+        ChunkBlockIterator blockIterator = mock(ChunkBlockIterator.class);
+        when(chunk.getBlockIterator()).thenReturn(blockIterator);
+        chunkStore = mock(ChunkStore.class);
+    }
+
+    @Test
+    public void chunkIsUnloadedOnlyAfterItsActivation() {
+        chunkProvider.addReadyChunk(createStoredChunkInfo());
+
+        // The chunk isn't relevant to anything, so it gets unloaded as soon as its activation is complete
+        chunkProvider.beginUpdate();
+        chunkProvider.completeUpdate();
+        chunkProvider.beginUpdate();
+        verify(chunkStore, never()).restoreEntities();
+        verify(storageManager, never()).deactivateChunk(chunk);
+        verify(worldEntity, never()).send(any(BeforeChunkUnload.class));
+
+        for (int i = 0; i < 10; i++) {
+            chunkProvider.completeUpdate();
+        }
+        chunkProvider.beginUpdate();
+        InOrder inOrder = inOrder(chunkStore, worldEntity, storageManager);
+        inOrder.verify(chunkStore).restoreEntities();
+        inOrder.verify(worldEntity).send(any(OnChunkLoaded.class));
+        inOrder.verify(worldEntity).send(any(BeforeChunkUnload.class));
+        inOrder.verify(storageManager).deactivateChunk(chunk);
+        chunkProvider.shutdown();
+    }
+
+    @Test
+    public void disposingCompletesPendingActivations() {
+        chunkProvider.addReadyChunk(createStoredChunkInfo());
+        chunkProvider.completeUpdate();
+
+        chunkProvider.dispose();
+        InOrder inOrder = inOrder(chunkStore, worldEntity, storageManager);
+        inOrder.verify(chunkStore).restoreEntities();
+        inOrder.verify(worldEntity).send(any(OnChunkLoaded.class));
+        inOrder.verify(worldEntity).send(any(BeforeChunkUnload.class));
+        inOrder.verify(storageManager).deactivateChunk(chunk);
+    }
+
+    private ReadyChunkInfo createStoredChunkInfo() {
+        return new ReadyChunkInfo(chunk, new TShortObjectHashMap<>(), new TIntArrayList(), chunkStore, Collections.emptyList());
+    }
+}
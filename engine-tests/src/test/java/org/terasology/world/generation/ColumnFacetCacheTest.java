@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.generation;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.terasology.context.Context;
+import org.terasology.context.internal.ContextImpl;
+import org.terasology.math.Region3i;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.generation.facets.base.BaseFacet2D;
+import org.terasology.world.generation.facets.base.BaseFacet3D;
+import org.terasology.world.generator.plugin.WorldGeneratorPluginLibrary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class ColumnFacetCacheTest {
+
+    private static final Vector3i CHUNK_SIZE = new Vector3i(32, 64, 32);
+
+    private Context context = new ContextImpl();
+    private HeightProvider heightProvider;
+    private World world;
+
+    @Before
+    public void setup() {
+        heightProvider = new HeightProvider();
+        world = buildWorld(heightProvider);
+    }
+
+    @Test
+    public void onlyFacetsOfAColumnAreCached() {
+        ColumnFacetCache cache = ((WorldImpl) world).getColumnFacetCache();
+        assertTrue(cache.isColumnFacet(HeightFacet.class));
+        assertFalse(cache.isColumnFacet(DensityFacet.class));
+    }
+
+    @Test
+    public void facetIsSharedByStackedRegions() {
+        Region lower = world.getWorldData(chunkRegion(1, 0, 2));
+        Region upper = world.getWorldData(chunkRegion(1, 3, 2));
+
+        HeightFacet facet = lower.getFacet(HeightFacet.class);
+        assertSame(facet, upper.getFacet(HeightFacet.class));
+        assertEquals(1, heightProvider.processed);
+
+        // Facets that depend on the vertical extent are still generated per region
+        assertNotSame(lower.getFacet(DensityFacet.class), upper.getFacet(DensityFacet.class));
+        assertSame(facet, upper.getFacet(DensityFacet.class).height);
+        assertEquals(1, heightProvider.processed);
+    }
+
+    @Test
+    public void facetIsNotSharedByOtherColumns() {
+        HeightFacet facet = world.getWorldData(chunkRegion(1, 0, 2)).getFacet(HeightFacet.class);
+
+        assertNotSame(facet, world.getWorldData(chunkRegion(2, 0, 2)).getFacet(HeightFacet.class));
+        assertNotSame(facet, world.getWorldData(chunkRegion(1, 0, 3)).getFacet(HeightFacet.class));
+        assertEquals(3, heightProvider.processed);
+    }
+
+    @Test
+    public void facetIsNotSharedByOtherWorldGenerators() {
+        HeightFacet facet = world.getWorldData(chunkRegion(1, 0, 2)).getFacet(HeightFacet.class);
+
+        HeightProvider otherProvider = new HeightProvider();
+        World otherWorld = buildWorld(otherProvider);
+        HeightFacet otherFacet = otherWorld.getWorldData(chunkRegion(1, 0, 2)).getFacet(HeightFacet.class);
+
+        assertNotSame(facet, otherFacet);
+        assertEquals(1, otherProvider.processed);
+    }
+
+    @Test
+    public void lookupsAreCounted() {
+        ColumnFacetCache cache = ((WorldImpl) world).getColumnFacetCache();
+        world.getWorldData(chunkRegion(1, 0, 2)).getFacet(HeightFacet.class);
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        world.getWorldData(chunkRegion(1, 1, 2)).getFacet(HeightFacet.class);
+        world.getWorldData(chunkRegion(1, 2, 2)).getFacet(HeightFacet.class);
+        world.getWorldData(chunkRegion(2, 0, 2)).getFacet(HeightFacet.class);
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void initializeClearsCache() {
+        HeightFacet facet = world.getWorldData(chunkRegion(1, 0, 2)).getFacet(HeightFacet.class);
+        world.initialize();
+
+        assertNotSame(facet, world.getWorldData(chunkRegion(1, 1, 2)).getFacet(HeightFacet.class));
+        assertEquals(2, heightProvider.processed);
+    }
+
+    private World buildWorld(HeightProvider provider) {
+        WorldBuilder worldBuilder = new WorldBuilder(context.get(WorldGeneratorPluginLibrary.class));
+        worldBuilder.setSeed(12);
+        worldBuilder.addProvider(provider);
+        worldBuilder.addProvider(new DensityProvider());
+        return worldBuilder.build();
+    }
+
+    private static Region3i chunkRegion(int x, int y, int z) {
+        return Region3i.createFromMinAndSize(new Vector3i(x * CHUNK_SIZE.x, y * CHUNK_SIZE.y, z * CHUNK_SIZE.z), CHUNK_SIZE);
+    }
+
+    public static class HeightFacet extends BaseFacet2D {
+        public HeightFacet(Region3i targetRegion, Border3D border) {
+            super(targetRegion, border);
+        }
+    }
+
+    public static class DensityFacet extends BaseFacet3D {
+        private final HeightFacet height;
+
+        public DensityFacet(Region3i targetRegion, Border3D border, HeightFacet height) {
+            super(targetRegion, border);
+            this.height = height;
+        }
+    }
+
+    @Produces(HeightFacet.class)
+    public static class HeightProvider implements FacetProvider {
+        private int processed;
+
+        @Override
+        public void process(GeneratingRegion region) {
+            processed++;
+            region.setRegionFacet(HeightFacet.class, new HeightFacet(region.getRegion(), region.getBorderForFacet(HeightFacet.class)));
+        }
+    }
+
+    @Produces(DensityFacet.class)
+    @Requires(@Facet(HeightFacet.class))
+    public static class DensityProvider implements FacetProvider {
+
+        @Override
+        public void process(GeneratingRegion region) {
+            HeightFacet height = region.getRegionFacet(HeightFacet.class);
+            region.setRegionFacet(DensityFacet.class, new DensityFacet(region.getRegion(), region.getBorderForFacet(DensityFacet.class), height));
+        }
+    }
+}
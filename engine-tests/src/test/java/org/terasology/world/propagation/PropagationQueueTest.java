@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.propagation;
+
+import org.junit.Test;
+import org.terasology.math.geom.Vector3i;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class PropagationQueueTest {
+
+    @Test
+    public void packedPositionsRoundTrip() {
+        Vector3i[] positions = {Vector3i.zero(), new Vector3i(-1, -1, -1), new Vector3i(1048575, 255, -1048576), new Vector3i(-37, 12, 5000)};
+        for (Vector3i pos : positions) {
+            assertEquals(pos, PropagationQueue.unpack(PropagationQueue.pack(pos), new Vector3i()));
+        }
+    }
+
+    @Test
+    public void positionsArePolledInOrderAndOncePerLevel() {
+        PropagationQueue queue = new PropagationQueue(2);
+        Vector3i result = new Vector3i();
+        for (int i = 0; i < 200; ++i) {
+            queue.add(0, PropagationQueue.pack(i, 0, -i));
+            queue.add(0, PropagationQueue.pack(i, 0, -i));
+        }
+        queue.add(1, PropagationQueue.pack(0, 0, 0));
+
+        for (int i = 0; i < 200; ++i) {
+            assertTrue(queue.hasNext(0));
+            assertTrue(queue.poll(0, result));
+            assertEquals(new Vector3i(i, 0, -i), result);
+        }
+        assertFalse(queue.hasNext(0));
+        assertTrue(queue.poll(1, result));
+        assertEquals(Vector3i.zero(), result);
+    }
+
+    @Test
+    public void removedPositionsAreSkipped() {
+        PropagationQueue queue = new PropagationQueue(1);
+        Vector3i result = new Vector3i();
+        queue.add(0, PropagationQueue.pack(1, 2, 3));
+        queue.add(0, PropagationQueue.pack(4, 5, 6));
+        queue.remove(0, PropagationQueue.pack(1, 2, 3));
+
+        assertFalse(queue.poll(0, result));
+        assertTrue(queue.poll(0, result));
+        assertEquals(new Vector3i(4, 5, 6), result);
+        assertFalse(queue.hasNext(0));
+
+        queue.add(0, PropagationQueue.pack(1, 2, 3));
+        assertTrue(queue.poll(0, result));
+        assertEquals(new Vector3i(1, 2, 3), result);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.propagation.light;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.chunks.Chunk;
+import org.terasology.world.chunks.internal.GeneratingChunkProvider;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ */
+public class LightMergerTest {
+
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    private LightMerger<String> lightMerger;
+
+    @Before
+    public void setup() {
+        lightMerger = new LightMerger<>(mock(GeneratingChunkProvider.class), 2);
+    }
+
+    @After
+    public void teardown() {
+        lightMerger.shutdown();
+    }
+
+    @Test
+    public void runningMergesAreNotWaitedFor() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Chunk chunk = createChunk(new Vector3i(0, 0, 0), release);
+
+        lightMerger.beginMerge(chunk, "first");
+        verify(chunk, timeout(TIMEOUT_MILLIS)).writeLock();
+        assertNull(lightMerger.completeMerge());
+
+        release.countDown();
+        assertEquals("first", awaitMerge());
+    }
+
+    @Test
+    public void overlappingMergesRunOneAfterTheOther() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Chunk first = createChunk(new Vector3i(0, 0, 0), release);
+        Chunk overlapping = createChunk(new Vector3i(1, 0, 0), null);
+        Chunk separate = createChunk(new Vector3i(5, 0, 0), null);
+        AtomicBoolean firstCompleted = new AtomicBoolean();
+        AtomicBoolean overlappingStartedEarly = new AtomicBoolean();
+        doAnswer(invocation -> {
+            overlappingStartedEarly.set(!firstCompleted.get());
+            return null;
+        }).when(overlapping).writeLock();
+
+        lightMerger.beginMerge(first, "first");
+        lightMerger.beginMerge(overlapping, "overlapping");
+        lightMerger.beginMerge(separate, "separate");
+
+        // The separate neighbourhood runs in parallel, but gets completed after the earlier merges
+        verify(separate, timeout(TIMEOUT_MILLIS)).writeUnlock();
+        assertNull(lightMerger.completeMerge());
+        verify(overlapping, never()).writeLock();
+
+        release.countDown();
+        assertEquals("first", awaitMerge());
+        firstCompleted.set(true);
+        assertEquals("overlapping", awaitMerge());
+        assertFalse(overlappingStartedEarly.get());
+        assertEquals("separate", awaitMerge());
+        assertNull(lightMerger.completeMerge());
+    }
+
+    private String awaitMerge() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        String result = lightMerger.completeMerge();
+        while (result == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+            result = lightMerger.completeMerge();
+        }
+        assertTrue("Merge didn't complete in time", result != null);
+        return result;
+    }
+
+    private static Chunk createChunk(Vector3i position, CountDownLatch release) {
+        Chunk chunk = mock(Chunk.class);
+        when(chunk.getPosition()).thenReturn(position);
+        if (release != null) {
+            doAnswer(invocation -> {
+                release.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                return null;
+            }).when(chunk).writeLock();
+        }
+        return chunk;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.concurrency;
+
+import org.terasology.benchmark.AbstractBenchmark;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.utilities.concurrency.ReprioritizableBlockingQueue;
+import org.terasology.utilities.random.FastRandom;
+
+import java.util.Comparator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Measures how fast a number of worker threads can drain a dynamic priority queue filled with chunk-like tasks,
+ * while the "camera" the tasks are prioritized by keeps moving.
+ */
+public class TaskQueueContentionBenchmark extends AbstractBenchmark {
+    private static final int WORKER_THREADS = 8;
+    private static final int TASKS_PER_RUN = 4096;
+    private static final int VIEW_RADIUS = 16;
+
+    private final Function<Comparator<PositionedTask>, BlockingQueue<PositionedTask>> queueFactory;
+    private BlockingQueue<PositionedTask> queue;
+    private ExecutorService workers;
+    private PositionedTask[] tasks;
+    private volatile CountDownLatch remaining;
+
+    private volatile int cameraX;
+    private volatile int cameraZ;
+
+    public TaskQueueContentionBenchmark(String queueName, Function<Comparator<PositionedTask>, BlockingQueue<PositionedTask>> queueFactory) {
+        super("Drain " + TASKS_PER_RUN + " tasks with " + WORKER_THREADS + " threads via " + queueName, 10, new int[]{50, 50});
+        this.queueFactory = queueFactory;
+    }
+
+    @Override
+    public void setup() {
+        FastRandom rand = new FastRandom(0L);
+        tasks = new PositionedTask[TASKS_PER_RUN];
+        for (int i = 0; i < tasks.length; ++i) {
+            tasks[i] = new PositionedTask(new Vector3i(rand.nextInt(-VIEW_RADIUS, VIEW_RADIUS), rand.nextInt(-4, 4), rand.nextInt(-VIEW_RADIUS, VIEW_RADIUS)));
+        }
+        queue = queueFactory.apply((o1, o2) -> score(o1) - score(o2));
+        workers = Executors.newFixedThreadPool(WORKER_THREADS);
+        for (int i = 0; i < WORKER_THREADS; ++i) {
+            workers.execute(() -> {
+                try {
+                    while (true) {
+                        PositionedTask task = queue.take();
+                        if (task.terminate) {
+                            return;
+                        }
+                        remaining.countDown();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+    }
+
+    @Override
+    public void run() {
+        remaining = new CountDownLatch(TASKS_PER_RUN);
+        for (PositionedTask task : tasks) {
+            queue.offer(task);
+        }
+        cameraX++;
+        cameraZ--;
+        if (queue instanceof ReprioritizableBlockingQueue) {
+            ((ReprioritizableBlockingQueue<?>) queue).reprioritize();
+        }
+        try {
+            remaining.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void finish(boolean aborted) {
+        for (int i = 0; i < WORKER_THREADS; ++i) {
+            queue.offer(PositionedTask.TERMINATE);
+        }
+        workers.shutdown();
+        queue = null;
+        tasks = null;
+    }
+
+    private int score(PositionedTask task) {
+        if (task.terminate) {
+            return -1;
+        }
+        return task.position.gridDistance(new Vector3i(cameraX, 0, cameraZ));
+    }
+
+    static final class PositionedTask {
+        private static final PositionedTask TERMINATE = new PositionedTask(null);
+
+        private final Vector3i position;
+        private final boolean terminate;
+
+        private PositionedTask(Vector3i position) {
+            this.position = position;
+            this.terminate = position == null;
+        }
+    }
+}
@@ -40,6 +40,9 @@ public static void main(String[] args) {
         benchmarks.add(new EntityCreateBenchmark());
         benchmarks.add(new IterateSingleComponentBenchmark());
         benchmarks.add(new IterateMultipleComponentBenchmark());
+        for (EventHandlerInvocationBenchmark.Invocation invocation : EventHandlerInvocationBenchmark.Invocation.values()) {
+            benchmarks.add(new EventHandlerInvocationBenchmark(invocation));
+        }
         Benchmarks.execute(benchmarks, new PrintToConsoleCallback());
 
     }
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.entitySystem;
+
+import com.esotericsoftware.reflectasm.MethodAccess;
+import org.terasology.benchmark.AbstractBenchmark;
+import org.terasology.entitySystem.Component;
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.entitySystem.entity.internal.BaseEntityRef;
+import org.terasology.entitySystem.entity.internal.PojoEntityManager;
+import org.terasology.entitySystem.event.Event;
+import org.terasology.entitySystem.event.internal.EventHandlerInvoker;
+import org.terasology.entitySystem.event.internal.EventHandlerInvokerFactory;
+import org.terasology.logic.location.LocationComponent;
+import org.terasology.rendering.logic.MeshComponent;
+
+import java.lang.reflect.Method;
+
+/**
+ * Compares the ways the event system can call an event handler method with two component parameters. Each run checks
+ * whether the handler is valid for the entity and calls it, the same way the handler infos of the event system do.
+ */
+public class EventHandlerInvocationBenchmark extends AbstractBenchmark {
+
+    private static final Class<? extends Component>[] COMPONENTS = new Class[]{LocationComponent.class, MeshComponent.class};
+
+    private final Invocation invocation;
+    private final BenchmarkEvent event = new BenchmarkEvent();
+    private BenchmarkHandler handler;
+    private EntityRef entity;
+
+    private Method method;
+    private MethodAccess methodAccess;
+    private int methodIndex;
+    private EventHandlerInvoker invoker;
+    private Component[] fetchedComponents;
+
+    public EventHandlerInvocationBenchmark(Invocation invocation) {
+        super("Event handler invocation via " + invocation, 1000000, new int[]{10000000, 10000000});
+        this.invocation = invocation;
+    }
+
+    @Override
+    public void setup() {
+        PojoEntityManager entityManager = new PojoEntityManager();
+        entity = entityManager.create(new LocationComponent(), new MeshComponent());
+        handler = new BenchmarkHandler();
+        try {
+            method = BenchmarkHandler.class.getMethod("onEvent", BenchmarkEvent.class, EntityRef.class, LocationComponent.class, MeshComponent.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Benchmark handler method is missing", e);
+        }
+        methodAccess = MethodAccess.get(BenchmarkHandler.class);
+        methodIndex = methodAccess.getIndex(method.getName(), method.getParameterTypes());
+        invoker = new EventHandlerInvokerFactory().createInvoker(BenchmarkHandler.class, method);
+        fetchedComponents = new Component[COMPONENTS.length];
+    }
+
+    @Override
+    public void run() {
+        switch (invocation) {
+            case REFLECTION:
+                if (isValid()) {
+                    try {
+                        method.invoke(handler, createParams());
+                    } catch (ReflectiveOperationException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                break;
+            case REFLECT_ASM:
+                if (isValid()) {
+                    methodAccess.invoke(handler, methodIndex, createParams());
+                }
+                break;
+            case GENERATED:
+                if (((BaseEntityRef) entity).getComponents(COMPONENTS, fetchedComponents)) {
+                    invoker.invoke(handler, event, entity, fetchedComponents);
+                }
+                break;
+        }
+    }
+
+    @Override
+    public void finish(boolean aborted) {
+        if (handler.calls == 0) {
+            throw new IllegalStateException("Handler never got called");
+        }
+    }
+
+    private boolean isValid() {
+        for (Class<? extends Component> component : COMPONENTS) {
+            if (!entity.hasComponent(component)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Object[] createParams() {
+        Object[] params = new Object[2 + COMPONENTS.length];
+        params[0] = event;
+        params[1] = entity;
+        for (int i = 0; i < COMPONENTS.length; ++i) {
+            params[i + 2] = entity.getComponent(COMPONENTS[i]);
+        }
+        return params;
+    }
+
+    public enum Invocation {
+        /**
+         * Like the ReflectedEventHandlerInfo of the event system
+         */
+        REFLECTION,
+        /**
+         * Like the ByteCodeEventHandlerInfo of the event system
+         */
+        REFLECT_ASM,
+        /**
+         * Like the GeneratedEventHandlerInfo of the event system
+         */
+        GENERATED
+    }
+
+    public static class BenchmarkEvent implements Event {
+    }
+
+    public static class BenchmarkHandler {
+        private long calls;
+
+        public void onEvent(BenchmarkEvent benchmarkEvent, EntityRef entityRef, LocationComponent location, MeshComponent mesh) {
+            calls++;
+        }
+    }
+}
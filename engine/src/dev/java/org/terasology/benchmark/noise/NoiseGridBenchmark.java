@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.noise;
+
+import org.terasology.benchmark.AbstractBenchmark;
+import org.terasology.utilities.procedural.Noise;
+
+/**
+ * Fills a chunk sized 3D grid with noise values, either point by point or with the grid method of the noise.
+ */
+public class NoiseGridBenchmark extends AbstractBenchmark {
+    private static final int SIZE_X = 32;
+    private static final int SIZE_Y = 64;
+    private static final int SIZE_Z = 32;
+    private static final float STEP = 0.05f;
+
+    private final Noise noise;
+    private final boolean grid;
+    private final float[] values = new float[SIZE_X * SIZE_Y * SIZE_Z];
+    private float minX;
+
+    public NoiseGridBenchmark(String name, Noise noise, boolean grid) {
+        super(name + (grid ? " (grid)" : " (point by point)"), 20, new int[]{200, 200});
+        this.noise = noise;
+        this.grid = grid;
+    }
+
+    @Override
+    public void run() {
+        // Move on every run, so that the same positions are not evaluated over and over again
+        minX += SIZE_X * STEP;
+        if (grid) {
+            noise.noise(values, minX, 0, 0, STEP, STEP, STEP, SIZE_X, SIZE_Y, SIZE_Z);
+        } else {
+            int index = 0;
+            for (int k = 0; k < SIZE_Z; k++) {
+                for (int j = 0; j < SIZE_Y; j++) {
+                    for (int i = 0; i < SIZE_X; i++) {
+                        values[index++] = noise.noise(minX + i * STEP, j * STEP, k * STEP);
+                    }
+                }
+            }
+        }
+    }
+}
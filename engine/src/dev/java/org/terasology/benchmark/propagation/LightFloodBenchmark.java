@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.propagation;
+
+import com.google.common.collect.Lists;
+import org.terasology.benchmark.AbstractBenchmark;
+import org.terasology.math.Side;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.block.Block;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.propagation.BatchPropagator;
+import org.terasology.world.propagation.BlockChange;
+import org.terasology.world.propagation.PropagatorWorldView;
+import org.terasology.world.propagation.StandardBatchPropagator;
+import org.terasology.world.propagation.light.LightPropagationRules;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Floods an area of 3x3x3 chunks with light from a grid of torches and removes the light again, using the
+ * {@link StandardBatchPropagator} on an array backed world view. Every fourth column of the area is solid, so the
+ * light has to find its way around them.
+ */
+public class LightFloodBenchmark extends AbstractBenchmark {
+
+    private static final int TORCH_SPACING = 12;
+
+    private AreaWorldView world;
+    private BatchPropagator propagator;
+    private List<BlockChange> addTorches;
+    private List<BlockChange> removeTorches;
+
+    public LightFloodBenchmark() {
+        super("Light flood of 3x3x3 chunks", 5, new int[]{20, 20});
+    }
+
+    @Override
+    public void setup() {
+        Block air = new Block();
+        air.setTranslucent(true);
+        Block stone = new Block();
+        for (Side side : Side.values()) {
+            stone.setFullSide(side, true);
+        }
+        Block torch = new Block();
+        torch.setTranslucent(true);
+        torch.setLuminance(ChunkConstants.MAX_LIGHT);
+
+        world = new AreaWorldView(3 * ChunkConstants.SIZE_X, 3 * ChunkConstants.SIZE_Y, 3 * ChunkConstants.SIZE_Z, air);
+        for (int x = 0; x < world.sizeX; x += 4) {
+            for (int z = 0; z < world.sizeZ; z += 4) {
+                for (int y = 0; y < world.sizeY; ++y) {
+                    world.blocks[world.index(x, y, z)] = stone;
+                }
+            }
+        }
+
+        addTorches = Lists.newArrayList();
+        removeTorches = Lists.newArrayList();
+        for (int x = 2; x < world.sizeX; x += TORCH_SPACING) {
+            for (int y = 2; y < world.sizeY; y += TORCH_SPACING) {
+                for (int z = 2; z < world.sizeZ; z += TORCH_SPACING) {
+                    Vector3i pos = new Vector3i(x, y, z);
+                    addTorches.add(new BlockChange(pos, air, torch));
+                    removeTorches.add(new BlockChange(pos, torch, air));
+                }
+            }
+        }
+        propagator = new StandardBatchPropagator(new LightPropagationRules(), world);
+    }
+
+    @Override
+    public void run() {
+        for (BlockChange change : addTorches) {
+            world.blocks[world.index(change.getPosition())] = change.getTo();
+        }
+        propagator.process(addTorches);
+        for (BlockChange change : removeTorches) {
+            world.blocks[world.index(change.getPosition())] = change.getTo();
+        }
+        propagator.process(removeTorches);
+    }
+
+    @Override
+    public void finish(boolean aborted) {
+        for (byte value : world.values) {
+            if (value != 0) {
+                throw new IllegalStateException("Light remained after removing all torches");
+            }
+        }
+    }
+
+    private static final class AreaWorldView implements PropagatorWorldView {
+        private final int sizeX;
+        private final int sizeY;
+        private final int sizeZ;
+        private final Block[] blocks;
+        private final byte[] values;
+
+        private AreaWorldView(int sizeX, int sizeY, int sizeZ, Block fill) {
+            this.sizeX = sizeX;
+            this.sizeY = sizeY;
+            this.sizeZ = sizeZ;
+            this.blocks = new Block[sizeX * sizeY * sizeZ];
+            this.values = new byte[blocks.length];
+            Arrays.fill(blocks, fill);
+        }
+
+        private boolean contains(Vector3i pos) {
+            return pos.x >= 0 && pos.y >= 0 && pos.z >= 0 && pos.x < sizeX && pos.y < sizeY && pos.z < sizeZ;
+        }
+
+        private int index(Vector3i pos) {
+            return index(pos.x, pos.y, pos.z);
+        }
+
+        private int index(int x, int y, int z) {
+            return x + sizeX * (z + sizeZ * y);
+        }
+
+        @Override
+        public byte getValueAt(Vector3i pos) {
+            return contains(pos) ? values[index(pos)] : UNAVAILABLE;
+        }
+
+        @Override
+        public void setValueAt(Vector3i pos, byte value) {
+            values[index(pos)] = value;
+        }
+
+        @Override
+        public Block getBlockAt(Vector3i pos) {
+            return contains(pos) ? blocks[index(pos)] : null;
+        }
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.rendering;
+
+import com.google.common.collect.Maps;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.benchmark.AbstractBenchmark;
+import org.terasology.engine.subsystem.lwjgl.GLBufferPool;
+import org.terasology.math.Region3i;
+import org.terasology.math.Side;
+import org.terasology.math.TeraMath;
+import org.terasology.math.geom.Vector2f;
+import org.terasology.math.geom.Vector3f;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.rendering.primitives.ChunkMesh;
+import org.terasology.rendering.primitives.ChunkTessellator;
+import org.terasology.rendering.primitives.GreedyChunkMesher;
+import org.terasology.world.ChunkView;
+import org.terasology.world.biomes.Biome;
+import org.terasology.world.block.Block;
+import org.terasology.world.block.BlockAppearance;
+import org.terasology.world.block.BlockPart;
+import org.terasology.world.block.shapes.BlockMeshPart;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.liquid.LiquidData;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tessellates a chunk of hilly terrain with stone, dirt, grass and scattered ores, either block by block or with the
+ * {@link GreedyChunkMesher}. The number of vertices of the resulting mesh gets logged when the benchmark finishes.
+ * <br><br>
+ * The chunk view and the blocks are set up without the block manager and the texture atlas, so the benchmark runs
+ * without a display.
+ */
+public class ChunkTessellationBenchmark extends AbstractBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(ChunkTessellationBenchmark.class);
+
+    private static final float TILE_SIZE = 1f / 16f;
+    private static final int SEA_LEVEL = 32;
+
+    private final boolean greedy;
+    private ChunkTessellator tessellator;
+    private TerrainChunkView chunkView;
+    private ChunkMesh mesh;
+
+    public ChunkTessellationBenchmark(boolean greedy) {
+        super(greedy ? "Greedy chunk tessellation" : "Chunk tessellation", 20, new int[]{100, 100});
+        this.greedy = greedy;
+    }
+
+    @Override
+    public void setup() {
+        GreedyChunkMesher greedyMesher = greedy ? new GreedyChunkMesher(TILE_SIZE) : null;
+        tessellator = new ChunkTessellator(new GLBufferPool(false), greedyMesher);
+
+        Block air = new Block();
+        air.setTranslucent(true);
+        air.setShadowCasting(false);
+        air.setMeshGenerator(null);
+        Block stone = createCube(false, 1, 1, 1);
+        Block dirt = createCube(false, 2, 2, 2);
+        Block grass = createCube(true, 0, 3, 2);
+        Block ore = createCube(false, 4, 4, 4);
+        chunkView = new TerrainChunkView(air, stone, dirt, grass, ore);
+    }
+
+    @Override
+    public void run() {
+        if (mesh != null) {
+            // Returns the vertex data to the pool, like the upload of the mesh does in the game
+            mesh.dispose();
+        }
+        mesh = tessellator.generateMesh(chunkView, ChunkConstants.SIZE_Y, 0);
+    }
+
+    @Override
+    public void finish(boolean aborted) {
+        if (mesh != null) {
+            int vertices = 0;
+            int triangles = 0;
+            for (ChunkMesh.RenderType type : ChunkMesh.RenderType.values()) {
+                ChunkMesh.VertexElements elements = mesh.getVertexElements(type);
+                vertices += elements.getVertexCount();
+                triangles += elements.getIndexCount() / 3;
+            }
+            logger.info("{}: {} vertices, {} triangles", getTitle(), vertices, triangles);
+        }
+    }
+
+    private static Block createCube(boolean isGrass, int topTile, int sideTile, int bottomTile) {
+        Block block = new Block();
+        block.setGrass(isGrass);
+        Map<BlockPart, BlockMeshPart> parts = Maps.newEnumMap(BlockPart.class);
+        Map<BlockPart, Vector2f> atlasPositions = Maps.newEnumMap(BlockPart.class);
+        for (BlockPart part : BlockPart.values()) {
+            int tile = part == BlockPart.TOP ? topTile : part == BlockPart.BOTTOM ? bottomTile : sideTile;
+            Vector2f atlasPos = new Vector2f(tile * TILE_SIZE, 0);
+            atlasPositions.put(part, atlasPos);
+            if (part.isSide()) {
+                parts.put(part, createCubeSide(part.getSide()).mapTexCoords(atlasPos, TILE_SIZE));
+            }
+        }
+        block.setPrimaryAppearance(new BlockAppearance(parts, atlasPositions));
+        for (Side side : Side.values()) {
+            block.setFullSide(side, true);
+        }
+        return block;
+    }
+
+    /**
+     * @return the side of a unit cube, with the vertices and texture coordinates of the engine's cube shape
+     */
+    private static BlockMeshPart createCubeSide(Side side) {
+        Vector3i normal = side.getVector3i();
+        Vector3f[] vertices;
+        Vector2f[] texCoords = {new Vector2f(1, 1), new Vector2f(1, 0), new Vector2f(0, 0), new Vector2f(0, 1)};
+        switch (side) {
+            case TOP:
+                vertices = vertices(-1, 1, 1, 1, 1, 1, 1, 1, -1, -1, 1, -1);
+                texCoords = new Vector2f[]{new Vector2f(0, 1), new Vector2f(1, 1), new Vector2f(1, 0), new Vector2f(0, 0)};
+                break;
+            case BOTTOM:
+                vertices = vertices(-1, -1, 1, -1, -1, -1, 1, -1, -1, 1, -1, 1);
+                break;
+            case FRONT:
+                vertices = vertices(-1, -1, -1, -1, 1, -1, 1, 1, -1, 1, -1, -1);
+                break;
+            case BACK:
+                vertices = vertices(-1, 1, 1, -1, -1, 1, 1, -1, 1, 1, 1, 1);
+                texCoords = new Vector2f[]{new Vector2f(0, 0), new Vector2f(0, 1), new Vector2f(1, 1), new Vector2f(1, 0)};
+                break;
+            case LEFT:
+                vertices = vertices(-1, -1, 1, -1, 1, 1, -1, 1, -1, -1, -1, -1);
+                break;
+            default:
+                vertices = vertices(1, -1, -1, 1, 1, -1, 1, 1, 1, 1, -1, 1);
+                break;
+        }
+        Vector3f[] normals = new Vector3f[4];
+        Arrays.fill(normals, new Vector3f(normal.x, normal.y, normal.z));
+        return new BlockMeshPart(vertices, normals, texCoords, new int[]{0, 1, 2, 0, 2, 3});
+    }
+
+    private static Vector3f[] vertices(int... halfUnits) {
+        Vector3f[] result = new Vector3f[halfUnits.length / 3];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = new Vector3f(0.5f * halfUnits[3 * i], 0.5f * halfUnits[3 * i + 1], 0.5f * halfUnits[3 * i + 2]);
+        }
+        return result;
+    }
+
+    /**
+     * An array backed view of a single chunk and the blocks around it. The terrain continues beyond the chunk, so
+     * that the sides at its border get culled like in a loaded world.
+     */
+    private static final class TerrainChunkView implements ChunkView {
+        private static final int SIZE_X = ChunkConstants.SIZE_X + 2;
+        private static final int SIZE_Y = ChunkConstants.SIZE_Y + 2;
+        private static final int SIZE_Z = ChunkConstants.SIZE_Z + 2;
+
+        private final Block air;
+        private final Block[] blocks = new Block[SIZE_X * SIZE_Y * SIZE_Z];
+        private final byte[] sunlight = new byte[blocks.length];
+
+        private TerrainChunkView(Block air, Block stone, Block dirt, Block grass, Block ore) {
+            this.air = air;
+            Random random = new Random(42);
+            for (int x = -1; x < SIZE_X - 1; x++) {
+                for (int z = -1; z < SIZE_Z - 1; z++) {
+                    int height = SEA_LEVEL + Math.round(6 * (float) (Math.sin(x * 0.2) + Math.cos(z * 0.15)));
+                    for (int y = -1; y < SIZE_Y - 1; y++) {
+                        int index = index(x, y, z);
+                        if (y > height) {
+                            blocks[index] = air;
+                            sunlight[index] = ChunkConstants.MAX_SUNLIGHT;
+                        } else if (y == height) {
+                            blocks[index] = grass;
+                        } else if (y > height - 4) {
+                            blocks[index] = dirt;
+                        } else {
+                            blocks[index] = random.nextInt(20) == 0 ? ore : stone;
+                        }
+                    }
+                }
+            }
+        }
+
+        private static boolean contains(int x, int y, int z) {
+            return x >= -1 && y >= -1 && z >= -1 && x < SIZE_X - 1 && y < SIZE_Y - 1 && z < SIZE_Z - 1;
+        }
+
+        private static int index(int x, int y, int z) {
+            return (x + 1) + SIZE_X * ((z + 1) + SIZE_Z * (y + 1));
+        }
+
+        @Override
+        public Block getBlock(float x, float y, float z) {
+            return getBlock(TeraMath.floorToInt(x + 0.5f), TeraMath.floorToInt(y + 0.5f), TeraMath.floorToInt(z + 0.5f));
+        }
+
+        @Override
+        public Block getBlock(Vector3i pos) {
+            return getBlock(pos.x, pos.y, pos.z);
+        }
+
+        @Override
+        public Block getBlock(int x, int y, int z) {
+            return contains(x, y, z) ? blocks[index(x, y, z)] : air;
+        }
+
+        /**
+         * All blocks of the benchmark use the default color source, which ignores the biome.
+         */
+        @Override
+        public Biome getBiome(float x, float y, float z) {
+            return null;
+        }
+
+        @Override
+        public Biome getBiome(Vector3i pos) {
+            return null;
+        }
+
+        @Override
+        public Biome getBiome(int x, int y, int z) {
+            return null;
+        }
+
+        @Override
+        public byte getSunlight(float x, float y, float z) {
+            return getSunlight(TeraMath.floorToInt(x + 0.5f), TeraMath.floorToInt(y + 0.5f), TeraMath.floorToInt(z + 0.5f));
+        }
+
+        @Override
+        public byte getSunlight(Vector3i pos) {
+            return getSunlight(pos.x, pos.y, pos.z);
+        }
+
+        @Override
+        public byte getSunlight(int x, int y, int z) {
+            return contains(x, y, z) ? sunlight[index(x, y, z)] : ChunkConstants.MAX_SUNLIGHT;
+        }
+
+        @Override
+        public byte getLight(float x, float y, float z) {
+            return 0;
+        }
+
+        @Override
+        public byte getLight(Vector3i pos) {
+            return 0;
+        }
+
+        @Override
+        public byte getLight(int x, int y, int z) {
+            return 0;
+        }
+
+        @Override
+        public void setBlock(Vector3i pos, Block type) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setBlock(int x, int y, int z, Block type) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setBiome(Vector3i pos, Biome biome) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setBiome(int x, int y, int z, Biome biome) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public LiquidData getLiquid(Vector3i pos) {
+            return new LiquidData();
+        }
+
+        @Override
+        public LiquidData getLiquid(int x, int y, int z) {
+            return new LiquidData();
+        }
+
+        @Override
+        public void setLiquid(Vector3i pos, LiquidData newState) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setLiquid(int x, int y, int z, LiquidData newState) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Vector3i toWorldPos(Vector3i localPos) {
+            return new Vector3i(localPos);
+        }
+
+        @Override
+        public Region3i getWorldRegion() {
+            return Region3i.createFromMinAndSize(new Vector3i(-1, -1, -1), new Vector3i(SIZE_X, SIZE_Y, SIZE_Z));
+        }
+
+        @Override
+        public Region3i getChunkRegion() {
+            return Region3i.createFromMinAndSize(new Vector3i(), ChunkConstants.CHUNK_SIZE);
+        }
+
+        @Override
+        public void setDirtyAround(Vector3i blockPos) {
+        }
+
+        @Override
+        public void setDirtyAround(Region3i blockRegion) {
+        }
+
+        @Override
+        public void writeLock() {
+        }
+
+        @Override
+        public void writeUnlock() {
+        }
+
+        @Override
+        public void readLock() {
+        }
+
+        @Override
+        public void readUnlock() {
+        }
+
+        @Override
+        public boolean isLocked() {
+            return false;
+        }
+
+        @Override
+        public boolean isValidView() {
+            return true;
+        }
+    }
+}
@@ -70,6 +70,7 @@ public class RenderingConfig {
     private boolean localReflections;
     private boolean vSync;
     private boolean clampLighting;
+    private boolean greedyMeshing;
     private int fboScale;
     private boolean dumpShaders;
     private ScreenshotSize screenshotSize;
@@ -431,6 +432,14 @@ public void setClampLighting(boolean clampLighting) {
         this.clampLighting = clampLighting;
     }
 
+    public boolean isGreedyMeshing() {
+        return greedyMeshing;
+    }
+
+    public void setGreedyMeshing(boolean greedyMeshing) {
+        this.greedyMeshing = greedyMeshing;
+    }
+
     public ScreenshotSize getScreenshotSize() {
         return screenshotSize;
     }
@@ -16,6 +16,9 @@
 
 package org.terasology.config;
 
+import org.terasology.entitySystem.entity.internal.ComponentStorageMode;
+import org.terasology.persistence.ChunkStorageMode;
+
 import java.util.Locale;
 import java.util.Locale.Category;
 
@@ -31,6 +34,10 @@ public class SystemConfig {
     private boolean debugEnabled;
     private boolean monitoringEnabled;
     private boolean writeSaveGamesEnabled;
+    private ChunkStorageMode chunkStorageMode;
+    private boolean chunkStorageConversionEnabled;
+    private ComponentStorageMode componentStorageMode;
+    private int chunkActivationTimeBudgetMs;
     private String locale;
 
     public long getDayNightLengthInMs() {
@@ -93,6 +100,48 @@ public void setWriteSaveGamesEnabled(boolean writeSaveGamesEnabled) {
         this.writeSaveGamesEnabled = writeSaveGamesEnabled;
     }
 
+    public ChunkStorageMode getChunkStorageMode() {
+        if (chunkStorageMode == null) {
+            return ChunkStorageMode.ZIPS;
+        }
+        return chunkStorageMode;
+    }
+
+    public void setChunkStorageMode(ChunkStorageMode chunkStorageMode) {
+        this.chunkStorageMode = chunkStorageMode;
+    }
+
+    /**
+     * @return true if the chunks of older formats should be converted to region files when a save game gets loaded
+     * with the {@link ChunkStorageMode#REGION_FILES} storage mode. The original files are kept as backup.
+     */
+    public boolean isChunkStorageConversionEnabled() {
+        return chunkStorageConversionEnabled;
+    }
+
+    public void setChunkStorageConversionEnabled(boolean chunkStorageConversionEnabled) {
+        this.chunkStorageConversionEnabled = chunkStorageConversionEnabled;
+    }
+
+    public ComponentStorageMode getComponentStorageMode() {
+        if (componentStorageMode == null) {
+            return ComponentStorageMode.HASH_TABLES;
+        }
+        return componentStorageMode;
+    }
+
+    public void setComponentStorageMode(ComponentStorageMode componentStorageMode) {
+        this.componentStorageMode = componentStorageMode;
+    }
+
+    public int getChunkActivationTimeBudgetMs() {
+        return chunkActivationTimeBudgetMs;
+    }
+
+    public void setChunkActivationTimeBudgetMs(int chunkActivationTimeBudgetMs) {
+        this.chunkActivationTimeBudgetMs = chunkActivationTimeBudgetMs;
+    }
+
     public Locale getLocale() {
         if (locale == null) {
             setLocale(Locale.getDefault(Category.DISPLAY));
@@ -16,12 +16,14 @@
 
 package org.terasology.engine.bootstrap;
 
+import org.terasology.config.Config;
 import org.terasology.context.Context;
 import org.terasology.engine.SimpleUri;
 import org.terasology.engine.module.ModuleManager;
 import org.terasology.entitySystem.Component;
 import org.terasology.entitySystem.entity.EntityManager;
 import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.entitySystem.entity.internal.ComponentStorageMode;
 import org.terasology.entitySystem.entity.internal.EngineEntityManager;
 import org.terasology.entitySystem.entity.internal.PojoEntityManager;
 import org.terasology.entitySystem.event.Event;
@@ -89,11 +91,21 @@ public static void addReflectionBasedLibraries(Context context) {
      * </ul>
      */
     public static void addEntityManagementRelatedClasses(Context context) {
+        Config config = context.get(Config.class);
+        ComponentStorageMode componentStorageMode = (config != null) ? config.getSystem().getComponentStorageMode() : ComponentStorageMode.HASH_TABLES;
+        addEntityManagementRelatedClasses(context, componentStorageMode);
+    }
+
+    /**
+     * Like {@link #addEntityManagementRelatedClasses(Context)}, but with the given way to store components instead of
+     * the configured one.
+     */
+    public static void addEntityManagementRelatedClasses(Context context, ComponentStorageMode componentStorageMode) {
         ModuleEnvironment environment = context.get(ModuleManager.class).getEnvironment();
         NetworkSystem networkSystem = context.get(NetworkSystem.class);
 
         // Entity Manager
-        PojoEntityManager entityManager = new PojoEntityManager();
+        PojoEntityManager entityManager = new PojoEntityManager(componentStorageMode);
         context.put(EntityManager.class, entityManager);
         context.put(EngineEntityManager.class, entityManager);
 
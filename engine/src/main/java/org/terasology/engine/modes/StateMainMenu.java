@@ -32,6 +32,7 @@
 import org.terasology.logic.console.ConsoleImpl;
 import org.terasology.logic.console.ConsoleSystem;
 import org.terasology.logic.console.commands.CoreCommands;
+import org.terasology.logic.console.commands.PerformanceTraceCommands;
 import org.terasology.logic.players.LocalPlayer;
 import org.terasology.network.ClientComponent;
 import org.terasology.registry.CoreRegistry;
@@ -92,6 +93,7 @@ public void init(GameEngine gameEngine) {
         componentSystemManager.register(cameraTargetSystem, "engine:CameraTargetSystem");
         componentSystemManager.register(new ConsoleSystem(), "engine:ConsoleSystem");
         componentSystemManager.register(new CoreCommands(), "engine:CoreCommands");
+        componentSystemManager.register(new PerformanceTraceCommands(), "engine:PerformanceTraceCommands");
 
         inputSystem = context.get(InputSystem.class);
 
@@ -37,6 +37,7 @@
 import org.terasology.logic.console.ConsoleImpl;
 import org.terasology.logic.console.ConsoleSystem;
 import org.terasology.logic.console.commands.CoreCommands;
+import org.terasology.logic.console.commands.PerformanceTraceCommands;
 import org.terasology.logic.players.LocalPlayer;
 import org.terasology.module.Module;
 import org.terasology.naming.Name;
@@ -87,6 +88,7 @@ public void init(GameEngine gameEngine) {
 
         componentSystemManager.register(new ConsoleSystem(), "engine:ConsoleSystem");
         componentSystemManager.register(new CoreCommands(), "engine:CoreCommands");
+        componentSystemManager.register(new PerformanceTraceCommands(), "engine:PerformanceTraceCommands");
         componentSystemManager.register(context.get(InputSystem.class), "engine:InputSystem");
 
         EntityRef localPlayerEntity = entityManager.create(new ClientComponent());
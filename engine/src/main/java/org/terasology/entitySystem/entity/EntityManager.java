@@ -135,6 +135,15 @@ public interface EntityManager {
      */
     Iterable<EntityRef> getEntitiesWith(Class<? extends Component>... componentClasses);
 
+    /**
+     * Creates a query that keeps track of all entities with the provided component types. Iterating the query does
+     * not need to look at other entities, so it is preferable over {@link #getEntitiesWith(Class[])} for repeated use.
+     *
+     * @param componentClasses at least one component type
+     * @return A query over all entities with the provided component types. It should be disposed when no longer needed.
+     */
+    EntityQuery createQuery(Class<? extends Component>... componentClasses);
+
     /**
      * @param componentClasses
      * @return A count of entities with the provided component types
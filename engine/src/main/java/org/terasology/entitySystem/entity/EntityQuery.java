@@ -0,0 +1,46 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.entitySystem.entity;
+
+/**
+ * All entities that have a given set of components, as created by {@link EntityManager#createQuery(Class[])}.
+ * <br><br>
+ * Unlike the result of {@link EntityManager#getEntitiesWith(Class[])}, a query is kept up to date as components get
+ * added and removed, so it can be created once and iterated every frame. An iteration covers the entities that matched
+ * when it started, even if components get added or removed while iterating. Entities created through
+ * {@link EntityBuilder#buildWithoutLifecycleEvents()} are covered as well.
+ * <br><br>
+ * Queries that are iterated every frame should use {@link #forEach(java.util.function.Consumer)}, which doesn't
+ * allocate an iterator or copy the matching entities when they change during the iteration.
+ */
+public interface EntityQuery extends Iterable<EntityRef> {
+
+    /**
+     * @return The number of matching entities
+     */
+    int size();
+
+    /**
+     * @return Whether the entity has all components of this query
+     */
+    boolean contains(EntityRef entity);
+
+    /**
+     * Stops keeping this query up to date, it will be empty afterwards. Queries should be disposed when they aren't
+     * needed anymore, as the entity manager informs them of every component change until then.
+     */
+    void dispose();
+}
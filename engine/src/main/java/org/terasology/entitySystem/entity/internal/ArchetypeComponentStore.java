@@ -0,0 +1,434 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.entitySystem.entity.internal;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import gnu.trove.iterator.TLongIterator;
+import gnu.trove.iterator.TLongObjectIterator;
+import gnu.trove.list.TLongList;
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import org.terasology.entitySystem.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A component store that groups entities by the set of component classes they have (their archetype).
+ * <br><br>
+ * Each archetype keeps one dense array per component class, with one row per entity. Looking up the components of an
+ * entity costs a single hash lookup for the row, and finding all entities with a set of components is a linear scan
+ * over the archetypes that contain all of them. Adding or removing a component moves the entity to another archetype,
+ * so this store suits entities whose set of components rarely changes.
+ */
+class ArchetypeComponentStore implements ComponentStore {
+    private static final int INITIAL_ARCHETYPE_CAPACITY = 16;
+
+    private final TLongObjectMap<EntityRecord> records = new TLongObjectHashMap<>();
+    private final Map<Set<Class<? extends Component>>, Archetype> archetypes = Maps.newHashMap();
+    private final Map<Class<? extends Component>, List<Archetype>> archetypesByComponent = Maps.newHashMap();
+
+    @Override
+    public <T extends Component> T get(long entityId, Class<T> componentClass) {
+        EntityRecord record = records.get(entityId);
+        if (record == null) {
+            return null;
+        }
+        int column = record.archetype.getColumn(componentClass);
+        if (column == Archetype.NO_COLUMN) {
+            return null;
+        }
+        return componentClass.cast(record.archetype.columns[column][record.row]);
+    }
+
+    @Override
+    public boolean getAll(long entityId, Class<? extends Component>[] componentClasses, Component[] result) {
+        EntityRecord record = records.get(entityId);
+        if (record == null) {
+            Arrays.fill(result, 0, componentClasses.length, null);
+            return false;
+        }
+        boolean foundAll = true;
+        for (int i = 0; i < componentClasses.length; ++i) {
+            int column = record.archetype.getColumn(componentClasses[i]);
+            if (column == Archetype.NO_COLUMN) {
+                result[i] = null;
+                foundAll = false;
+            } else {
+                result[i] = record.archetype.columns[column][record.row];
+            }
+        }
+        return foundAll;
+    }
+
+    @Override
+    public Component put(long entityId, Component component) {
+        Class<? extends Component> componentClass = component.getClass();
+        EntityRecord record = records.get(entityId);
+        if (record == null) {
+            record = new EntityRecord();
+            Archetype archetype = getArchetype(ImmutableSet.<Class<? extends Component>>of(componentClass));
+            archetype.add(entityId, record, new Component[]{component});
+            records.put(entityId, record);
+            return null;
+        }
+
+        Archetype archetype = record.archetype;
+        int column = archetype.getColumn(componentClass);
+        if (column != Archetype.NO_COLUMN) {
+            Component oldComponent = archetype.columns[column][record.row];
+            archetype.columns[column][record.row] = component;
+            return oldComponent;
+        }
+
+        Archetype target = archetype.addTransitions.get(componentClass);
+        if (target == null) {
+            target = getArchetype(ImmutableSet.<Class<? extends Component>>builder().addAll(archetype.componentClasses).add(componentClass).build());
+            archetype.addTransitions.put(componentClass, target);
+        }
+        move(entityId, record, target, component);
+        return null;
+    }
+
+    @Override
+    public <T extends Component> Component remove(long entityId, Class<T> componentClass) {
+        EntityRecord record = records.get(entityId);
+        if (record == null) {
+            return null;
+        }
+        Archetype archetype = record.archetype;
+        int column = archetype.getColumn(componentClass);
+        if (column == Archetype.NO_COLUMN) {
+            return null;
+        }
+        Component removed = archetype.columns[column][record.row];
+        if (archetype.componentClasses.size() == 1) {
+            archetype.remove(record.row);
+            records.remove(entityId);
+            return removed;
+        }
+
+        Archetype target = archetype.removeTransitions.get(componentClass);
+        if (target == null) {
+            Set<Class<? extends Component>> componentClasses = ImmutableSet.copyOf(
+                    Sets.difference(archetype.componentClasses, Collections.singleton(componentClass)));
+            target = getArchetype(componentClasses);
+            archetype.removeTransitions.put(componentClass, target);
+        }
+        move(entityId, record, target, null);
+        return removed;
+    }
+
+    @Override
+    public void remove(long entityId) {
+        EntityRecord record = records.remove(entityId);
+        if (record != null) {
+            record.archetype.remove(record.row);
+        }
+    }
+
+    @Override
+    public void clear() {
+        records.clear();
+        archetypes.clear();
+        archetypesByComponent.clear();
+    }
+
+    @Override
+    public int getComponentCount(Class<? extends Component> componentClass) {
+        List<Archetype> candidates = archetypesByComponent.get(componentClass);
+        if (candidates == null) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = 0; i < candidates.size(); ++i) {
+            count += candidates.get(i).size;
+        }
+        return count;
+    }
+
+    @Override
+    public Set<Class<? extends Component>> getComponentClasses(long entityId) {
+        EntityRecord record = records.get(entityId);
+        if (record == null) {
+            return Collections.emptySet();
+        }
+        return record.archetype.componentClasses;
+    }
+
+    @Override
+    public Iterable<Component> iterateComponents(long entityId) {
+        return getComponentsInNewList(entityId);
+    }
+
+    @Override
+    public List<Component> getComponentsInNewList(long entityId) {
+        EntityRecord record = records.get(entityId);
+        if (record == null) {
+            return Lists.newArrayList();
+        }
+        Component[][] columns = record.archetype.columns;
+        List<Component> components = Lists.newArrayListWithCapacity(columns.length);
+        for (Component[] column : columns) {
+            components.add(column[record.row]);
+        }
+        return components;
+    }
+
+    @Override
+    public <T extends Component> TLongObjectIterator<T> componentIterator(Class<T> componentClass) {
+        List<Archetype> candidates = archetypesByComponent.get(componentClass);
+        if (candidates == null) {
+            return null;
+        }
+        return new ColumnIterator<>(candidates, componentClass);
+    }
+
+    @Override
+    public void collectEntityIds(Class<? extends Component>[] componentClasses, TLongList result) {
+        // Scan the archetypes of the rarest component, as any matching archetype contains it
+        List<Archetype> candidates = null;
+        for (Class<? extends Component> componentClass : componentClasses) {
+            List<Archetype> componentArchetypes = archetypesByComponent.get(componentClass);
+            if (componentArchetypes == null) {
+                return;
+            }
+            if (candidates == null || componentArchetypes.size() < candidates.size()) {
+                candidates = componentArchetypes;
+            }
+        }
+        for (int i = 0; i < candidates.size(); ++i) {
+            Archetype archetype = candidates.get(i);
+            if (archetype.size > 0 && archetype.containsAll(componentClasses)) {
+                result.add(archetype.entityIds, 0, archetype.size);
+            }
+        }
+    }
+
+    @Override
+    public TLongIterator entityIdIterator() {
+        return new TLongArrayList(records.keys()).iterator();
+    }
+
+    @Override
+    public int numEntities() {
+        return records.size();
+    }
+
+    private void move(long entityId, EntityRecord record, Archetype target, Component addedComponent) {
+        Archetype source = record.archetype;
+        Component[] row = new Component[target.columns.length];
+        for (int i = 0; i < source.columns.length; ++i) {
+            int targetColumn = target.getColumn(source.columnClasses[i]);
+            if (targetColumn != Archetype.NO_COLUMN) {
+                row[targetColumn] = source.columns[i][record.row];
+            }
+        }
+        if (addedComponent != null) {
+            row[target.getColumn(addedComponent.getClass())] = addedComponent;
+        }
+        source.remove(record.row);
+        target.add(entityId, record, row);
+    }
+
+    private Archetype getArchetype(Set<Class<? extends Component>> componentClasses) {
+        Archetype archetype = archetypes.get(componentClasses);
+        if (archetype == null) {
+            archetype = new Archetype(componentClasses);
+            archetypes.put(archetype.componentClasses, archetype);
+            for (Class<? extends Component> componentClass : archetype.componentClasses) {
+                List<Archetype> componentArchetypes = archetypesByComponent.get(componentClass);
+                if (componentArchetypes == null) {
+                    componentArchetypes = Lists.newArrayList();
+                    archetypesByComponent.put(componentClass, componentArchetypes);
+                }
+                componentArchetypes.add(archetype);
+            }
+        }
+        return archetype;
+    }
+
+    /**
+     * The location of an entity's components.
+     */
+    private static final class EntityRecord {
+        private Archetype archetype;
+        private int row;
+    }
+
+    /**
+     * All entities with exactly the same set of component classes, stored in dense columns.
+     */
+    private static final class Archetype {
+        private static final int NO_COLUMN = -1;
+
+        private final Set<Class<? extends Component>> componentClasses;
+        private final Class<? extends Component>[] columnClasses;
+        private final TObjectIntMap<Class<?>> columnIndices;
+        private final Map<Class<? extends Component>, Archetype> addTransitions = Maps.newHashMap();
+        private final Map<Class<? extends Component>, Archetype> removeTransitions = Maps.newHashMap();
+
+        private final Component[][] columns;
+        private long[] entityIds = new long[INITIAL_ARCHETYPE_CAPACITY];
+        private EntityRecord[] rowRecords = new EntityRecord[INITIAL_ARCHETYPE_CAPACITY];
+        private int size;
+
+        @SuppressWarnings("unchecked")
+        private Archetype(Set<Class<? extends Component>> componentClasses) {
+            this.componentClasses = ImmutableSet.copyOf(componentClasses);
+            this.columnClasses = this.componentClasses.toArray(new Class[this.componentClasses.size()]);
+            this.columnIndices = new TObjectIntHashMap<>(columnClasses.length * 2, 0.5f, NO_COLUMN);
+            this.columns = new Component[columnClasses.length][INITIAL_ARCHETYPE_CAPACITY];
+            for (int i = 0; i < columnClasses.length; ++i) {
+                columnIndices.put(columnClasses[i], i);
+            }
+        }
+
+        private int getColumn(Class<?> componentClass) {
+            return columnIndices.get(componentClass);
+        }
+
+        private boolean containsAll(Class<? extends Component>[] classes) {
+            for (Class<? extends Component> componentClass : classes) {
+                if (getColumn(componentClass) == NO_COLUMN) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void add(long entityId, EntityRecord record, Component[] row) {
+            if (size == entityIds.length) {
+                int capacity = size * 2;
+                entityIds = Arrays.copyOf(entityIds, capacity);
+                rowRecords = Arrays.copyOf(rowRecords, capacity);
+                for (int i = 0; i < columns.length; ++i) {
+                    columns[i] = Arrays.copyOf(columns[i], capacity);
+                }
+            }
+            for (int i = 0; i < columns.length; ++i) {
+                columns[i][size] = row[i];
+            }
+            entityIds[size] = entityId;
+            rowRecords[size] = record;
+            record.archetype = this;
+            record.row = size;
+            size++;
+        }
+
+        /**
+         * Removes a row by moving the last row into its place.
+         */
+        private void remove(int row) {
+            int last = size - 1;
+            if (row != last) {
+                for (Component[] column : columns) {
+                    column[row] = column[last];
+                }
+                entityIds[row] = entityIds[last];
+                rowRecords[row] = rowRecords[last];
+                rowRecords[row].row = row;
+            }
+            for (Component[] column : columns) {
+                column[last] = null;
+            }
+            rowRecords[last] = null;
+            size--;
+        }
+    }
+
+    /**
+     * Iterates over one column of several archetypes.
+     */
+    private static final class ColumnIterator<T extends Component> implements TLongObjectIterator<T> {
+        private final List<Archetype> archetypes;
+        private final Class<T> componentClass;
+        private int archetypeIndex;
+        private int row = -1;
+        private Archetype current;
+        private Component[] column;
+
+        private ColumnIterator(List<Archetype> archetypes, Class<T> componentClass) {
+            this.archetypes = archetypes;
+            this.componentClass = componentClass;
+            this.archetypeIndex = -1;
+        }
+
+        @Override
+        public long key() {
+            return current.entityIds[row];
+        }
+
+        @Override
+        public T value() {
+            return componentClass.cast(column[row]);
+        }
+
+        @Override
+        public T setValue(T val) {
+            T old = value();
+            column[row] = val;
+            return old;
+        }
+
+        @Override
+        public void advance() {
+            if (current != null && row + 1 < current.size) {
+                row++;
+                return;
+            }
+            for (int i = archetypeIndex + 1; i < archetypes.size(); ++i) {
+                Archetype archetype = archetypes.get(i);
+                if (archetype.size > 0) {
+                    archetypeIndex = i;
+                    current = archetype;
+                    column = archetype.columns[archetype.getColumn(componentClass)];
+                    row = 0;
+                    return;
+                }
+            }
+            throw new NoSuchElementException();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (current != null && row + 1 < current.size) {
+                return true;
+            }
+            for (int i = archetypeIndex + 1; i < archetypes.size(); ++i) {
+                if (archetypes.get(i).size > 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
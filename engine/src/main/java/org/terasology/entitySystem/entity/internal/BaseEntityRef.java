@@ -26,7 +26,9 @@
 
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Set;
 
 /**
  */
@@ -102,6 +104,44 @@ public <T extends Component> T getComponent(Class<T> componentClass) {
         return null;
     }
 
+    /**
+     * Retrieves several components of this entity at once. This avoids a separate lookup per component when the
+     * entity manager supports it.
+     *
+     * @param componentClasses the classes of the components to retrieve
+     * @param result           receives the component for each class, or null if the entity does not have it
+     * @return Whether the entity exists and has all of the components
+     */
+    public boolean getComponents(Class<? extends Component>[] componentClasses, Component[] result) {
+        if (!exists()) {
+            Arrays.fill(result, 0, componentClasses.length, null);
+            return false;
+        }
+        if (entityManager instanceof EngineEntityManager) {
+            return ((EngineEntityManager) entityManager).getComponents(getId(), componentClasses, result);
+        }
+        boolean foundAll = true;
+        for (int i = 0; i < componentClasses.length; ++i) {
+            result[i] = entityManager.getComponent(getId(), componentClasses[i]);
+            foundAll &= result[i] != null;
+        }
+        return foundAll;
+    }
+
+    /**
+     * @return the classes of all components of this entity, shared by all entities with the same component classes,
+     *         or null if the entity manager can't provide them
+     */
+    public Set<Class<? extends Component>> getComponentClasses() {
+        if (!exists()) {
+            return Collections.emptySet();
+        }
+        if (entityManager instanceof EngineEntityManager) {
+            return ((EngineEntityManager) entityManager).getComponentClasses(getId());
+        }
+        return null;
+    }
+
     @Override
     public <T extends Component> T addComponent(T component) {
         if (isActive()) {
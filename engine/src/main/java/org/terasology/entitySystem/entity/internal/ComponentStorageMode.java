@@ -0,0 +1,31 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.entitySystem.entity.internal;
+
+/**
+ * The ways {@link PojoEntityManager} can store components.
+ */
+public enum ComponentStorageMode {
+    /**
+     * A hash map from entity id to component per component class. Adding and removing components is cheap.
+     */
+    HASH_TABLES,
+    /**
+     * Entities are grouped by their set of component classes, each group stores its components in dense arrays.
+     * Looking up components and iterating entities with several components is cheap.
+     */
+    ARCHETYPES
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.entitySystem.entity.internal;
+
+import gnu.trove.iterator.TLongIterator;
+import gnu.trove.iterator.TLongObjectIterator;
+import gnu.trove.list.TLongList;
+import org.terasology.entitySystem.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Storage of the components of all entities, used by {@link PojoEntityManager}.
+ * <br><br>
+ * An entity is only known to the store while it has at least one component.
+ */
+interface ComponentStore {
+
+    <T extends Component> T get(long entityId, Class<T> componentClass);
+
+    /**
+     * Looks up several components of an entity at once.
+     *
+     * @param componentClasses the classes of the components to look up
+     * @param result           receives the component for each class, or null if the entity does not have it
+     * @return true if the entity has all of the components
+     */
+    boolean getAll(long entityId, Class<? extends Component>[] componentClasses, Component[] result);
+
+    /**
+     * Adds or replaces the component of the component's class.
+     *
+     * @return the replaced component, or null if the entity didn't have a component of that class
+     */
+    Component put(long entityId, Component component);
+
+    /**
+     * @return removes the component with the specified class from the entity and returns it.
+     *         Returns null if no component could be removed.
+     */
+    <T extends Component> Component remove(long entityId, Class<T> componentClass);
+
+    /**
+     * Removes all components of the entity.
+     */
+    void remove(long entityId);
+
+    void clear();
+
+    int getComponentCount(Class<? extends Component> componentClass);
+
+    /**
+     * @return the classes of all components of the entity. Entities with the same component classes share the same
+     *         set instance, and adding or removing a component of an entity replaces its set.
+     */
+    Set<Class<? extends Component>> getComponentClasses(long entityId);
+
+    /**
+     * @return an iterable that should be only used for iteration over the components. It can't be used to remove
+     *         components. It should not be used after components have been added or removed from the entity.
+     */
+    Iterable<Component> iterateComponents(long entityId);
+
+    /**
+     * @return a new modifable list instance that contains all the components the entity had at the
+     *         time this method got called.
+     */
+    List<Component> getComponentsInNewList(long entityId);
+
+    /**
+     * @return an iterator over the entities with a component of the given class and these components, or null if no
+     *         entity has such a component. It must not be used after components have been added or removed.
+     */
+    <T extends Component> TLongObjectIterator<T> componentIterator(Class<T> componentClass);
+
+    /**
+     * Adds the ids of all entities that have all of the given components to the list.
+     *
+     * @param componentClasses at least one component class
+     */
+    void collectEntityIds(Class<? extends Component>[] componentClasses, TLongList result);
+
+    /**
+     * @return An iterator over the ids of all entities at the time this method got called.
+     */
+    TLongIterator entityIdIterator();
+
+    int numEntities();
+}
@@ -15,26 +15,38 @@
  */
 package org.terasology.entitySystem.entity.internal;
 
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import gnu.trove.iterator.TLongIterator;
 import gnu.trove.iterator.TLongObjectIterator;
+import gnu.trove.list.TLongList;
 import gnu.trove.map.TLongObjectMap;
 import gnu.trove.map.hash.TLongObjectHashMap;
 import gnu.trove.set.TLongSet;
 import gnu.trove.set.hash.TLongHashSet;
 import org.terasology.entitySystem.Component;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * A table for storing entities and components. Focused on allowing iteration across a components of a given type
  *
  */
-class ComponentTable {
+class ComponentTable implements ComponentStore {
     private Map<Class<?>, TLongObjectMap<Component>> store = Maps.newConcurrentMap();
 
+    // The component classes of every entity, interned so that entities with the same component classes share them
+    private TLongObjectMap<Set<Class<? extends Component>>> entityComponentClasses = new TLongObjectHashMap<>();
+    private Interner<Set<Class<? extends Component>>> componentClassSets = Interners.newStrongInterner();
+
+    @Override
     public <T extends Component> T get(long entityId, Class<T> componentClass) {
         TLongObjectMap<Component> entityMap = store.get(componentClass);
         if (entityMap != null) {
@@ -43,30 +55,47 @@ public <T extends Component> T get(long entityId, Class<T> componentClass) {
         return null;
     }
 
+    @Override
+    public boolean getAll(long entityId, Class<? extends Component>[] componentClasses, Component[] result) {
+        boolean foundAll = true;
+        for (int i = 0; i < componentClasses.length; ++i) {
+            TLongObjectMap<Component> entityMap = store.get(componentClasses[i]);
+            result[i] = (entityMap != null) ? entityMap.get(entityId) : null;
+            foundAll &= result[i] != null;
+        }
+        return foundAll;
+    }
+
+    @Override
     public Component put(long entityId, Component component) {
         TLongObjectMap<Component> entityMap = store.get(component.getClass());
         if (entityMap == null) {
             entityMap = new TLongObjectHashMap<>();
             store.put(component.getClass(), entityMap);
         }
-        return entityMap.put(entityId, component);
+        Component oldComponent = entityMap.put(entityId, component);
+        if (oldComponent == null) {
+            updateComponentClasses(entityId, component.getClass(), true);
+        }
+        return oldComponent;
     }
 
-    /**
-     *
-     * @return removes the component with the specified class from the entity and returns it.
-     *         Returns null if no component could be removed.
-     */
+    @Override
     public <T extends Component> Component remove(long entityId, Class<T> componentClass) {
         TLongObjectMap<Component> entityMap = store.get(componentClass);
         if (entityMap != null) {
-            return entityMap.remove(entityId);
+            Component removed = entityMap.remove(entityId);
+            if (removed != null) {
+                updateComponentClasses(entityId, componentClass, false);
+            }
+            return removed;
         }
         return null;
     }
 
 
     public List<Component> removeAndReturnComponentsOf(long entityId) {
+        entityComponentClasses.remove(entityId);
         List<Component> componentList = Lists.newArrayList();
         for (TLongObjectMap<Component> entityMap : store.values()) {
             Component component = entityMap.remove(entityId);
@@ -77,36 +106,39 @@ public List<Component> removeAndReturnComponentsOf(long entityId) {
         return componentList;
     }
 
+    @Override
     public void remove(long entityId) {
+        entityComponentClasses.remove(entityId);
         for (TLongObjectMap<Component> entityMap : store.values()) {
             entityMap.remove(entityId);
         }
     }
 
+    @Override
     public void clear() {
         store.clear();
+        entityComponentClasses.clear();
+        componentClassSets = Interners.newStrongInterner();
     }
 
+    @Override
     public int getComponentCount(Class<? extends Component> componentClass) {
         TLongObjectMap<Component> map = store.get(componentClass);
         return (map == null) ? 0 : map.size();
     }
 
-    /**
-     *
-     * @return an iterable that should be only used for iteration over the components. It can't be used to remove
-     *         components. It should not be used after components have been added or removed from the entity.
-     *
-     */
+    @Override
+    public Set<Class<? extends Component>> getComponentClasses(long entityId) {
+        Set<Class<? extends Component>> componentClasses = entityComponentClasses.get(entityId);
+        return (componentClasses != null) ? componentClasses : Collections.emptySet();
+    }
+
+    @Override
     public Iterable<Component> iterateComponents(long entityId) {
         return getComponentsInNewList(entityId);
     }
 
-    /**
-     *
-     * @return a new modifable list instance that contains all the components the entity had at the
-     *         time this method got called.
-     */
+    @Override
     public List<Component> getComponentsInNewList(long entityId) {
         List<Component> components = Lists.newArrayList();
         for (TLongObjectMap<Component> componentMap : store.values()) {
@@ -118,6 +150,7 @@ public List<Component> getComponentsInNewList(long entityId) {
         return components;
     }
 
+    @Override
     public <T extends Component> TLongObjectIterator<T> componentIterator(Class<T> componentClass) {
         TLongObjectMap<T> entityMap = (TLongObjectMap<T>) store.get(componentClass);
         if (entityMap != null) {
@@ -126,6 +159,44 @@ public <T extends Component> TLongObjectIterator<T> componentIterator(Class<T> c
         return null;
     }
 
+    @Override
+    public void collectEntityIds(Class<? extends Component>[] componentClasses, TLongList result) {
+        TLongObjectMap<Component> primeMap = store.get(componentClasses[0]);
+        if (primeMap == null) {
+            return;
+        }
+        TLongObjectIterator<Component> primeIterator = primeMap.iterator();
+        while (primeIterator.hasNext()) {
+            primeIterator.advance();
+            long id = primeIterator.key();
+            boolean discard = false;
+            for (int i = 1; i < componentClasses.length; ++i) {
+                if (get(id, componentClasses[i]) == null) {
+                    discard = true;
+                    break;
+                }
+            }
+            if (!discard) {
+                result.add(id);
+            }
+        }
+    }
+
+    private void updateComponentClasses(long entityId, Class<? extends Component> componentClass, boolean added) {
+        Set<Class<? extends Component>> componentClasses = entityComponentClasses.get(entityId);
+        Set<Class<? extends Component>> updated = (componentClasses != null) ? Sets.newHashSet(componentClasses) : Sets.newHashSet();
+        if (added) {
+            updated.add(componentClass);
+        } else {
+            updated.remove(componentClass);
+        }
+        if (updated.isEmpty()) {
+            entityComponentClasses.remove(entityId);
+        } else {
+            entityComponentClasses.put(entityId, componentClassSets.intern(ImmutableSet.copyOf(updated)));
+        }
+    }
+
     /**
      * Produces an iterator for iterating over all entities
      * <br><br>
@@ -133,6 +204,7 @@ public <T extends Component> TLongObjectIterator<T> componentIterator(Class<T> c
      *
      * @return An iterator over all entity ids.
      */
+    @Override
     public TLongIterator entityIdIterator() {
         TLongSet idSet = new TLongHashSet();
         for (TLongObjectMap<Component> componentMap : store.values()) {
@@ -141,6 +213,7 @@ public TLongIterator entityIdIterator() {
         return idSet.iterator();
     }
 
+    @Override
     public int numEntities() {
         TLongSet idSet = new TLongHashSet();
         for (TLongObjectMap<Component> componentMap : store.values()) {
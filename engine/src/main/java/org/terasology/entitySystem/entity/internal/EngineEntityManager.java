@@ -22,12 +22,32 @@
 import org.terasology.entitySystem.prefab.Prefab;
 import org.terasology.persistence.typeHandling.TypeSerializationLibrary;
 
+import java.util.Set;
+
 /**
  */
 public interface EngineEntityManager extends LowLevelEntityManager {
 
     void setEntityRefStrategy(RefStrategy strategy);
 
+    /**
+     * Retrieves several components of an entity in one pass over the component store.
+     *
+     * @param id               the id of the entity
+     * @param componentClasses the classes of the components to retrieve
+     * @param result           receives the component for each class, or null if the entity does not have it. Must be
+     *                         at least as long as componentClasses.
+     * @return Whether the entity has all of the components
+     */
+    boolean getComponents(long id, Class<? extends Component>[] componentClasses, Component[] result);
+
+    /**
+     * @param id the id of the entity
+     * @return the classes of all components of the entity. Entities with the same component classes share the same
+     *         set instance, so that it can be used as an identity key until a component gets added or removed.
+     */
+    Set<Class<? extends Component>> getComponentClasses(long id);
+
     /**
      * Creates an entity but doesn't send any lifecycle events.
      * <br><br>
@@ -32,6 +32,7 @@
 import org.slf4j.LoggerFactory;
 import org.terasology.entitySystem.Component;
 import org.terasology.entitySystem.entity.EntityBuilder;
+import org.terasology.entitySystem.entity.EntityQuery;
 import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
 import org.terasology.entitySystem.entity.lifecycleEvents.BeforeEntityCreated;
@@ -69,10 +70,11 @@ public class PojoEntityManager implements EngineEntityManager {
     private long nextEntityId = 1;
     private TLongSet loadedIds = new TLongHashSet();
     private Map<Long, BaseEntityRef> entityCache = new MapMaker().weakValues().concurrencyLevel(4).initialCapacity(1000).makeMap();
-    private ComponentTable store = new ComponentTable();
+    private final ComponentStore store;
 
     private Set<EntityChangeSubscriber> subscribers = Sets.newLinkedHashSet();
     private Set<EntityDestroySubscriber> destroySubscribers = Sets.newLinkedHashSet();
+    private List<PojoEntityQuery> queries = Lists.newArrayList();
     private EventSystem eventSystem;
     private PrefabManager prefabManager;
     private ComponentLibrary componentLibrary;
@@ -82,6 +84,18 @@ public class PojoEntityManager implements EngineEntityManager {
     private TypeSerializationLibrary typeSerializerLibrary;
 
     public PojoEntityManager() {
+        this(ComponentStorageMode.HASH_TABLES);
+    }
+
+    public PojoEntityManager(ComponentStorageMode componentStorageMode) {
+        switch (componentStorageMode) {
+            case ARCHETYPES:
+                store = new ArchetypeComponentStore();
+                break;
+            default:
+                store = new ComponentTable();
+                break;
+        }
     }
 
     public void setTypeSerializerLibrary(TypeSerializationLibrary serializerLibrary) {
@@ -103,6 +117,9 @@ public void clear() {
         nextEntityId = 1;
         loadedIds.clear();
         entityCache.clear();
+        for (PojoEntityQuery query : queries) {
+            query.reset(new TLongArrayList());
+        }
     }
 
     @Override
@@ -306,45 +323,30 @@ public final Iterable<EntityRef> getEntitiesWith(Class<? extends Component>... c
         if (componentClasses.length == 0) {
             return getAllEntities();
         }
-        if (componentClasses.length == 1) {
-            return iterateEntities(componentClasses[0]);
-        }
         TLongList idList = new TLongArrayList();
-        TLongObjectIterator<? extends Component> primeIterator = store.componentIterator(componentClasses[0]);
-        if (primeIterator == null) {
+        store.collectEntityIds(componentClasses, idList);
+        if (idList.isEmpty()) {
             return Collections.emptyList();
         }
-
-        while (primeIterator.hasNext()) {
-            primeIterator.advance();
-            long id = primeIterator.key();
-            boolean discard = false;
-            for (int i = 1; i < componentClasses.length; ++i) {
-                if (store.get(id, componentClasses[i]) == null) {
-                    discard = true;
-                    break;
-                }
-            }
-            if (!discard) {
-                idList.add(primeIterator.key());
-            }
-        }
         return new EntityIterable(idList);
     }
 
-    private Iterable<EntityRef> iterateEntities(Class<? extends Component> componentClass) {
+    @SafeVarargs
+    @Override
+    public final EntityQuery createQuery(Class<? extends Component>... componentClasses) {
+        Preconditions.checkArgument(componentClasses.length > 0, "A query needs at least one component class");
+        PojoEntityQuery query = new PojoEntityQuery(this, componentClasses);
         TLongList idList = new TLongArrayList();
-        TLongObjectIterator<? extends Component> primeIterator = store.componentIterator(componentClass);
-        if (primeIterator == null) {
-            return Collections.emptyList();
-        }
+        store.collectEntityIds(componentClasses, idList);
+        query.reset(idList);
+        queries.add(query);
+        subscribeForChanges(query);
+        return query;
+    }
 
-        while (primeIterator.hasNext()) {
-            primeIterator.advance();
-            long id = primeIterator.key();
-            idList.add(primeIterator.key());
-        }
-        return new EntityIterable(idList);
+    void disposeQuery(PojoEntityQuery query) {
+        queries.remove(query);
+        unsubscribe(query);
     }
 
     @Override
@@ -382,7 +384,12 @@ public EntityRef createEntityRefWithId(long id) {
 
     @Override
     public EntityRef createEntityWithoutLifecycleEvents(Iterable<Component> components) {
-        return createEntity(components);
+        EntityRef entity = createEntity(components);
+        // No lifecycle events and change notifications, but the queries have to know about the entity
+        for (PojoEntityQuery query : queries) {
+            query.addIfMatching(entity.getId());
+        }
+        return entity;
     }
 
     @Override
@@ -555,6 +562,10 @@ private void destroy(EntityRef ref) {
         if (ref instanceof PojoEntityRef) {
             ((PojoEntityRef) ref).invalidate();
         }
+        // Entities destroyed without events didn't notify the queries about the removal of their components
+        for (PojoEntityQuery query : queries) {
+            query.remove(entityId);
+        }
         store.remove(entityId);
     }
 
@@ -570,6 +581,16 @@ public <T extends Component> T getComponent(long entityId, Class<T> componentCla
         return store.get(entityId, componentClass);
     }
 
+    @Override
+    public boolean getComponents(long entityId, Class<? extends Component>[] componentClasses, Component[] result) {
+        return store.getAll(entityId, componentClasses, result);
+    }
+
+    @Override
+    public Set<Class<? extends Component>> getComponentClasses(long entityId) {
+        return store.getComponentClasses(entityId);
+    }
+
     /**
      * Adds (or replaces) a component to an entity
      *
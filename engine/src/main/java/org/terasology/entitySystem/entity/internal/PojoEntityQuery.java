@@ -0,0 +1,264 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.entitySystem.entity.internal;
+
+import com.google.common.collect.ImmutableSet;
+import gnu.trove.list.TLongList;
+import gnu.trove.map.TLongIntMap;
+import gnu.trove.map.hash.TLongIntHashMap;
+import gnu.trove.procedure.TLongProcedure;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+import org.terasology.entitySystem.Component;
+import org.terasology.entitySystem.entity.EntityQuery;
+import org.terasology.entitySystem.entity.EntityRef;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * The {@link EntityQuery} of {@link PojoEntityManager}. It is subscribed for changes of the entity manager, destroyed
+ * entities are covered by the removal of their components.
+ * <br><br>
+ * The ids of the matching entities are kept in a dense array. Iterators work on the array as it was when they got
+ * created; the first change afterwards copies the array instead of modifying it. {@link #forEach(Consumer)} works on
+ * the array itself and defers changes made while it runs until it is done, so it doesn't allocate anything.
+ */
+class PojoEntityQuery implements EntityQuery, EntityChangeSubscriber {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NO_INDEX = -1;
+
+    private final PojoEntityManager entityManager;
+    private final Class<? extends Component>[] componentClasses;
+    private final Set<Class<? extends Component>> componentClassSet;
+    private final TLongIntMap indices = new TLongIntHashMap(INITIAL_CAPACITY, 0.5f, PojoEntityManager.NULL_ID, NO_INDEX);
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int size;
+    private boolean shared;
+
+    // Entities whose membership changed while forEach was running, they get checked again once it is done
+    private final TLongSet pendingIds = new TLongHashSet();
+    private final TLongProcedure updateProcedure = this::update;
+    private int iterationDepth;
+
+    PojoEntityQuery(PojoEntityManager entityManager, Class<? extends Component>[] componentClasses) {
+        this.entityManager = entityManager;
+        this.componentClasses = Arrays.copyOf(componentClasses, componentClasses.length);
+        this.componentClassSet = ImmutableSet.copyOf(componentClasses);
+    }
+
+    /**
+     * Replaces the matching entities.
+     */
+    void reset(TLongList matchingIds) {
+        ids = new long[Math.max(INITIAL_CAPACITY, matchingIds.size())];
+        matchingIds.toArray(ids, 0, matchingIds.size());
+        size = matchingIds.size();
+        shared = false;
+        indices.clear();
+        pendingIds.clear();
+        for (int i = 0; i < size; ++i) {
+            indices.put(ids[i], i);
+        }
+    }
+
+    void remove(long id) {
+        if (iterationDepth > 0) {
+            pendingIds.add(id);
+            return;
+        }
+        int index = indices.remove(id);
+        if (index == NO_INDEX) {
+            return;
+        }
+        prepareForChange();
+        int last = size - 1;
+        if (index != last) {
+            ids[index] = ids[last];
+            indices.put(ids[index], index);
+        }
+        size--;
+    }
+
+    /**
+     * Adds the entity if it has all components of this query and isn't part of it yet.
+     */
+    void addIfMatching(long id) {
+        if (iterationDepth > 0) {
+            pendingIds.add(id);
+        } else if (!indices.containsKey(id) && matches(id)) {
+            add(id);
+        }
+    }
+
+    private boolean update(long id) {
+        if (matches(id)) {
+            if (!indices.containsKey(id)) {
+                add(id);
+            }
+        } else {
+            remove(id);
+        }
+        return true;
+    }
+
+    private void add(long id) {
+        prepareForChange();
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        ids[size] = id;
+        indices.put(id, size);
+        size++;
+    }
+
+    private void prepareForChange() {
+        if (shared) {
+            ids = Arrays.copyOf(ids, ids.length);
+            shared = false;
+        }
+    }
+
+    private boolean matches(long id) {
+        for (Class<? extends Component> componentClass : componentClasses) {
+            if (!entityManager.hasComponent(id, componentClass)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        if (pendingIds.isEmpty()) {
+            return size;
+        }
+        int result = size;
+        for (long id : pendingIds.toArray()) {
+            if (matches(id) != indices.containsKey(id)) {
+                result += indices.containsKey(id) ? -1 : 1;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean contains(EntityRef entity) {
+        long id = entity.getId();
+        if (pendingIds.contains(id)) {
+            return matches(id);
+        }
+        return indices.containsKey(id);
+    }
+
+    @Override
+    public void dispose() {
+        entityManager.disposeQuery(this);
+        indices.clear();
+        pendingIds.clear();
+        size = 0;
+    }
+
+    @Override
+    public Iterator<EntityRef> iterator() {
+        shared = true;
+        return new QueryIterator(ids, size);
+    }
+
+    /**
+     * Performs the action for every matching entity without allocating an iterator. Changes of the matching entities
+     * made by the action get applied once all entities have been processed.
+     */
+    @Override
+    public void forEach(Consumer<? super EntityRef> action) {
+        long[] iteratedIds = ids;
+        int iteratedSize = size;
+        iterationDepth++;
+        try {
+            for (int i = 0; i < iteratedSize; ++i) {
+                action.accept(entityManager.getEntity(iteratedIds[i]));
+            }
+        } finally {
+            iterationDepth--;
+            if (iterationDepth == 0 && !pendingIds.isEmpty()) {
+                pendingIds.forEach(updateProcedure);
+                pendingIds.clear();
+            }
+        }
+    }
+
+    @Override
+    public void onEntityComponentAdded(EntityRef entity, Class<? extends Component> component) {
+        if (componentClassSet.contains(component)) {
+            addIfMatching(entity.getId());
+        }
+    }
+
+    @Override
+    public void onEntityComponentChange(EntityRef entity, Class<? extends Component> component) {
+    }
+
+    @Override
+    public void onEntityComponentRemoved(EntityRef entity, Class<? extends Component> component) {
+        // Gets called before the component is removed, so the relevance of the component decides
+        if (componentClassSet.contains(component)) {
+            remove(entity.getId());
+        }
+    }
+
+    @Override
+    public void onReactivation(EntityRef entity, Collection<Component> components) {
+        addIfMatching(entity.getId());
+    }
+
+    @Override
+    public void onBeforeDeactivation(EntityRef entity, Collection<Component> components) {
+        remove(entity.getId());
+    }
+
+    private class QueryIterator implements Iterator<EntityRef> {
+        private final long[] iteratedIds;
+        private final int iteratedSize;
+        private int index;
+
+        QueryIterator(long[] iteratedIds, int iteratedSize) {
+            this.iteratedIds = iteratedIds;
+            this.iteratedSize = iteratedSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < iteratedSize;
+        }
+
+        @Override
+        public EntityRef next() {
+            if (index >= iteratedSize) {
+                throw new NoSuchElementException();
+            }
+            return entityManager.getEntity(iteratedIds[index++]);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.entitySystem.event.internal;
+
+import org.terasology.entitySystem.Component;
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.entitySystem.event.Event;
+
+/**
+ * Calls a single event handler method. Implementations are generated by {@link EventHandlerInvokerFactory} and call
+ * the method directly, casting the arguments to the parameter types of the method.
+ */
+public interface EventHandlerInvoker {
+
+    /**
+     * @param handler    the object that declares the handler method
+     * @param event      the event to pass
+     * @param entity     the entity to pass
+     * @param components the components to pass after the entity, in the order of the method parameters. The array
+     *                   may be longer than the number of component parameters.
+     */
+    void invoke(Object handler, Event event, EntityRef entity, Component[] components);
+}
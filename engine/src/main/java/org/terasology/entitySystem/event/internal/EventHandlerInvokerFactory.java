@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.entitySystem.event.internal;
+
+import com.google.common.collect.Maps;
+import javassist.CannotCompileException;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+import javassist.NotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.entitySystem.Component;
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.entitySystem.event.Event;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+
+/**
+ * Generates a dedicated {@link EventHandlerInvoker} class per event handler method.
+ * <br><br>
+ * The generated classes are defined by a class loader per class loader of the handlers, which resolves the
+ * {@link EventHandlerInvoker} interface to the engine's version and everything else through the handler's class
+ * loader. So the generated code can only call public methods of public types, other handlers are not supported.
+ */
+public class EventHandlerInvokerFactory {
+    private static final Logger logger = LoggerFactory.getLogger(EventHandlerInvokerFactory.class);
+
+    private final ClassPool pool;
+    private final Map<ClassLoader, InvokerClassLoader> classLoaders = Maps.newHashMap();
+    private int nextInvokerId;
+
+    public EventHandlerInvokerFactory() {
+        pool = new ClassPool(true);
+        pool.appendClassPath(new LoaderClassPath(EventHandlerInvoker.class.getClassLoader()));
+    }
+
+    /**
+     * @param handlerType the type of the handler objects the invoker will get called with
+     * @param method      a handler method with an event, an entity and any number of component parameters
+     * @return an invoker that calls the method, or null if the method cannot be called by a generated invoker
+     */
+    public synchronized EventHandlerInvoker createInvoker(Class<?> handlerType, Method method) {
+        if (!isAccessible(handlerType) || !isAccessible(method.getDeclaringClass()) || !Modifier.isPublic(method.getModifiers())) {
+            return null;
+        }
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            if (!isAccessible(parameterType)) {
+                return null;
+            }
+        }
+
+        String className = handlerType.getName() + "$" + method.getName() + "Invoker" + nextInvokerId++;
+        try {
+            InvokerClassLoader classLoader = getClassLoader(handlerType.getClassLoader());
+            CtClass invokerClass = pool.makeClass(className);
+            invokerClass.addInterface(pool.get(EventHandlerInvoker.class.getName()));
+            invokerClass.addMethod(CtNewMethod.make(createInvokeSource(handlerType, method), invokerClass));
+            byte[] bytecode = invokerClass.toBytecode();
+            invokerClass.detach();
+            return (EventHandlerInvoker) classLoader.define(className, bytecode).newInstance();
+        } catch (NotFoundException | CannotCompileException | IOException | ReflectiveOperationException | LinkageError | SecurityException e) {
+            logger.warn("Failed to generate invoker for event handler {}", method, e);
+            return null;
+        }
+    }
+
+    private InvokerClassLoader getClassLoader(ClassLoader handlerClassLoader) {
+        InvokerClassLoader classLoader = classLoaders.get(handlerClassLoader);
+        if (classLoader == null) {
+            classLoader = new InvokerClassLoader(handlerClassLoader);
+            pool.appendClassPath(new LoaderClassPath(handlerClassLoader));
+            classLoaders.put(handlerClassLoader, classLoader);
+        }
+        return classLoader;
+    }
+
+    private static String createInvokeSource(Class<?> handlerType, Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        StringBuilder source = new StringBuilder();
+        source.append("public void invoke(Object handler, ").append(Event.class.getName()).append(" event, ")
+                .append(EntityRef.class.getName()).append(" entity, ")
+                .append(Component.class.getName()).append("[] components) {");
+        source.append("((").append(handlerType.getName()).append(") handler).").append(method.getName())
+                .append("((").append(types[0].getName()).append(") event, (").append(types[1].getName()).append(") entity");
+        for (int i = 2; i < types.length; ++i) {
+            source.append(", (").append(types[i].getName()).append(") components[").append(i - 2).append("]");
+        }
+        source.append(");}");
+        return source.toString();
+    }
+
+    private static boolean isAccessible(Class<?> type) {
+        for (Class<?> current = type; current != null; current = current.getEnclosingClass()) {
+            if (!Modifier.isPublic(current.getModifiers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class InvokerClassLoader extends ClassLoader {
+
+        private InvokerClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (EventHandlerInvoker.class.getName().equals(name)) {
+                return EventHandlerInvoker.class;
+            }
+            return super.loadClass(name, resolve);
+        }
+
+        private Class<?> define(String name, byte[] bytecode) {
+            return defineClass(name, bytecode, 0, bytecode.length);
+        }
+    }
+}
@@ -23,6 +23,7 @@
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.collect.MapMaker;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Queues;
 import com.google.common.collect.SetMultimap;
@@ -33,6 +34,7 @@
 import org.terasology.engine.SimpleUri;
 import org.terasology.entitySystem.Component;
 import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.entitySystem.entity.internal.BaseEntityRef;
 import org.terasology.entitySystem.event.AbstractConsumableEvent;
 import org.terasology.entitySystem.event.ConsumableEvent;
 import org.terasology.entitySystem.event.Event;
@@ -56,7 +58,6 @@
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
@@ -71,11 +72,16 @@
 public class EventSystemImpl implements EventSystem {
 
     private static final Logger logger = LoggerFactory.getLogger(EventSystemImpl.class);
+    private static final EventHandlerInfo[] NO_HANDLERS = new EventHandlerInfo[0];
 
     private Map<Class<? extends Event>, SetMultimap<Class<? extends Component>, EventHandlerInfo>> componentSpecificHandlers = Maps.newHashMap();
     private SetMultimap<Class<? extends Event>, EventHandlerInfo> generalHandlers = HashMultimap.create();
     private Comparator<EventHandlerInfo> priorityComparator = new EventHandlerPriorityComparator();
 
+    // Sorted handlers, built on first use and dropped whenever handlers get registered or unregistered
+    private Map<Class<? extends Event>, DispatchPlans> dispatchPlans = Maps.newHashMap();
+    private Map<Class<? extends Event>, Map<Class<? extends Component>, EventHandlerInfo[]>> componentDispatchPlans = Maps.newHashMap();
+
     // Event metadata
     private BiMap<SimpleUri, Class<? extends Event>> eventIdMap = HashBiMap.create();
     private SetMultimap<Class<? extends Event>, Class<? extends Event>> childEvents = HashMultimap.create();
@@ -85,6 +91,7 @@ public class EventSystemImpl implements EventSystem {
 
     private EventLibrary eventLibrary;
     private NetworkSystem networkSystem;
+    private EventHandlerInvokerFactory invokerFactory = new EventHandlerInvokerFactory();
 
     public EventSystemImpl(EventLibrary eventLibrary, NetworkSystem networkSystem) {
         this.mainThread = Thread.currentThread();
@@ -165,8 +172,15 @@ public void registerEventHandler(ComponentSystem handler) {
                     componentParams.add((Class<? extends Component>) types[i]);
                 }
 
-                ByteCodeEventHandlerInfo handlerInfo = new ByteCodeEventHandlerInfo(handler, method, receiveEventAnnotation.priority(),
-                        receiveEventAnnotation.activity(), requiredComponents, componentParams);
+                EventHandlerInfo handlerInfo;
+                EventHandlerInvoker invoker = invokerFactory.createInvoker(handlerClass, method);
+                if (invoker != null) {
+                    handlerInfo = new GeneratedEventHandlerInfo(handler, invoker, receiveEventAnnotation.priority(),
+                            receiveEventAnnotation.activity(), requiredComponents, componentParams);
+                } else {
+                    handlerInfo = new ByteCodeEventHandlerInfo(handler, method, receiveEventAnnotation.priority(),
+                            receiveEventAnnotation.activity(), requiredComponents, componentParams);
+                }
                 addEventHandler((Class<? extends Event>) types[0], handlerInfo, requiredComponents);
             }
         }
@@ -174,6 +188,7 @@ public void registerEventHandler(ComponentSystem handler) {
 
     @Override
     public void unregisterEventHandler(ComponentSystem handler) {
+        invalidateDispatchPlans();
         for (SetMultimap<Class<? extends Component>, EventHandlerInfo> eventHandlers : componentSpecificHandlers.values()) {
             Iterator<EventHandlerInfo> eventHandlerIterator = eventHandlers.values().iterator();
             while (eventHandlerIterator.hasNext()) {
@@ -194,6 +209,7 @@ public void unregisterEventHandler(ComponentSystem handler) {
     }
 
     private void addEventHandler(Class<? extends Event> type, EventHandlerInfo handler, Collection<Class<? extends Component>> components) {
+        invalidateDispatchPlans();
         if (components.isEmpty()) {
             generalHandlers.put(type, handler);
             for (Class<? extends Event> childType : childEvents.get(type)) {
@@ -233,6 +249,7 @@ public <T extends Event> void registerEventReceiver(EventReceiver<T> eventReceiv
     public <T extends Event> void unregisterEventReceiver(EventReceiver<T> eventReceiver, Class<T> eventClass, Class<? extends Component>... componentTypes) {
         SetMultimap<Class<? extends Component>, EventHandlerInfo> eventHandlerMap = componentSpecificHandlers.get(eventClass);
         if (eventHandlerMap != null) {
+            invalidateDispatchPlans();
             ReceiverEventHandlerInfo testReceiver = new ReceiverEventHandlerInfo<>(eventReceiver, 0, componentTypes);
             for (Class<? extends Component> c : componentTypes) {
                 eventHandlerMap.remove(c, testReceiver);
@@ -243,6 +260,11 @@ public <T extends Event> void unregisterEventReceiver(EventReceiver<T> eventRece
         }
     }
 
+    private void invalidateDispatchPlans() {
+        dispatchPlans.clear();
+        componentDispatchPlans.clear();
+    }
+
     @Override
     public void send(EntityRef entity, Event event) {
         if (Thread.currentThread() != mainThread) {
@@ -250,9 +272,7 @@ public void send(EntityRef entity, Event event) {
         } else {
             networkReplicate(entity, event);
 
-            Set<EventHandlerInfo> selectedHandlersSet = selectEventHandlers(event.getClass(), entity);
-            List<EventHandlerInfo> selectedHandlers = Lists.newArrayList(selectedHandlersSet);
-            Collections.sort(selectedHandlers, priorityComparator);
+            EventHandlerInfo[] selectedHandlers = getDispatchPlans(event.getClass()).getHandlers(entity);
 
             if (event instanceof ConsumableEvent) {
                 sendConsumableEvent(entity, event, selectedHandlers);
@@ -262,24 +282,28 @@ public void send(EntityRef entity, Event event) {
         }
     }
 
-    private void sendStandardEvent(EntityRef entity, Event event, List<EventHandlerInfo> selectedHandlers) {
+    private DispatchPlans getDispatchPlans(Class<? extends Event> eventType) {
+        DispatchPlans plans = dispatchPlans.get(eventType);
+        if (plans == null) {
+            plans = new DispatchPlans(eventType);
+            dispatchPlans.put(eventType, plans);
+        }
+        return plans;
+    }
+
+    private void sendStandardEvent(EntityRef entity, Event event, EventHandlerInfo[] selectedHandlers) {
         for (EventHandlerInfo handler : selectedHandlers) {
             // Check isValid at each stage in case components were removed.
-            if (handler.isValidFor(entity)) {
-                handler.invoke(entity, event);
-            }
+            handler.invokeIfValid(entity, event);
         }
     }
 
-    private void sendConsumableEvent(EntityRef entity, Event event, List<EventHandlerInfo> selectedHandlers) {
+    private void sendConsumableEvent(EntityRef entity, Event event, EventHandlerInfo[] selectedHandlers) {
         ConsumableEvent consumableEvent = (ConsumableEvent) event;
         for (EventHandlerInfo handler : selectedHandlers) {
             // Check isValid at each stage in case components were removed.
-            if (handler.isValidFor(entity)) {
-                handler.invoke(entity, event);
-                if (consumableEvent.isConsumed()) {
-                    return;
-                }
+            if (handler.invokeIfValid(entity, event) && consumableEvent.isConsumed()) {
+                return;
             }
         }
     }
@@ -348,19 +372,33 @@ public void send(EntityRef entity, Event event, Component component) {
         if (Thread.currentThread() != mainThread) {
             pendingEvents.offer(new PendingEvent(entity, event, component));
         } else {
-            SetMultimap<Class<? extends Component>, EventHandlerInfo> handlers = componentSpecificHandlers.get(event.getClass());
-            if (handlers != null) {
-                List<EventHandlerInfo> eventHandlers = Lists.newArrayList(handlers.get(component.getClass()));
-                Collections.sort(eventHandlers, priorityComparator);
-                for (EventHandlerInfo eventHandler : eventHandlers) {
-                    if (eventHandler.isValidFor(entity)) {
-                        eventHandler.invoke(entity, event);
-                    }
-                }
+            for (EventHandlerInfo eventHandler : getComponentDispatchPlan(event.getClass(), component.getClass())) {
+                eventHandler.invokeIfValid(entity, event);
             }
         }
     }
 
+    private EventHandlerInfo[] getComponentDispatchPlan(Class<? extends Event> eventType, Class<? extends Component> componentType) {
+        Map<Class<? extends Component>, EventHandlerInfo[]> plans = componentDispatchPlans.get(eventType);
+        if (plans == null) {
+            plans = Maps.newHashMap();
+            componentDispatchPlans.put(eventType, plans);
+        }
+        EventHandlerInfo[] plan = plans.get(componentType);
+        if (plan == null) {
+            SetMultimap<Class<? extends Component>, EventHandlerInfo> handlers = componentSpecificHandlers.get(eventType);
+            plan = (handlers != null) ? toSortedArray(handlers.get(componentType)) : NO_HANDLERS;
+            plans.put(componentType, plan);
+        }
+        return plan;
+    }
+
+    private EventHandlerInfo[] toSortedArray(Collection<EventHandlerInfo> handlers) {
+        EventHandlerInfo[] result = handlers.toArray(new EventHandlerInfo[handlers.size()]);
+        Arrays.sort(result, priorityComparator);
+        return result;
+    }
+
     private Set<EventHandlerInfo> selectEventHandlers(Class<? extends Event> eventType, EntityRef entity) {
         Set<EventHandlerInfo> result = Sets.newHashSet();
         result.addAll(generalHandlers.get(eventType));
@@ -381,6 +419,40 @@ private Set<EventHandlerInfo> selectEventHandlers(Class<? extends Event> eventTy
         return result;
     }
 
+    /**
+     * The sorted handlers of an event type for every set of component classes an entity can have.
+     * <br><br>
+     * The entity manager shares one set of component classes between all entities with the same components and
+     * replaces the set of an entity whenever a component gets added or removed. The set is therefore used as an
+     * identity key for the plan, so that dispatching needs a single lookup instead of probing every component. All
+     * handlers of a plan are valid for entities with its component classes.
+     */
+    private final class DispatchPlans {
+        private final Class<? extends Event> eventType;
+        private final Map<Set<Class<? extends Component>>, EventHandlerInfo[]> plansByComponentClasses = new MapMaker().weakKeys().makeMap();
+
+        private DispatchPlans(Class<? extends Event> eventType) {
+            this.eventType = eventType;
+        }
+
+        private EventHandlerInfo[] getHandlers(EntityRef entity) {
+            Set<Class<? extends Component>> componentClasses = null;
+            if (entity instanceof BaseEntityRef) {
+                componentClasses = ((BaseEntityRef) entity).getComponentClasses();
+            }
+            if (componentClasses == null) {
+                // Entity refs that are not backed by the engine's entity manager (e.g. mocks) are dispatched without a plan
+                return toSortedArray(selectEventHandlers(eventType, entity));
+            }
+            EventHandlerInfo[] plan = plansByComponentClasses.get(componentClasses);
+            if (plan == null) {
+                plan = toSortedArray(selectEventHandlers(eventType, entity));
+                plansByComponentClasses.put(componentClasses, plan);
+            }
+            return plan;
+        }
+    }
+
     private static class EventHandlerPriorityComparator implements Comparator<EventHandlerInfo> {
 
         @Override
@@ -394,6 +466,13 @@ private interface EventHandlerInfo {
 
         void invoke(EntityRef entity, Event event);
 
+        /**
+         * Invokes the handler if it is valid for the entity.
+         *
+         * @return Whether the handler was invoked
+         */
+        boolean invokeIfValid(EntityRef entity, Event event);
+
         int getPriority();
 
         Object getHandler();
@@ -420,8 +499,8 @@ public ReflectedEventHandlerInfo(ComponentSystem handler,
 
         @Override
         public boolean isValidFor(EntityRef entity) {
-            for (Class<? extends Component> component : filterComponents) {
-                if (!entity.hasComponent(component)) {
+            for (int i = 0; i < filterComponents.size(); ++i) {
+                if (!entity.hasComponent(filterComponents.get(i))) {
                     return false;
                 }
             }
@@ -443,6 +522,15 @@ public void invoke(EntityRef entity, Event event) {
             }
         }
 
+        @Override
+        public boolean invokeIfValid(EntityRef entity, Event event) {
+            if (isValidFor(entity)) {
+                invoke(entity, event);
+                return true;
+            }
+            return false;
+        }
+
         @Override
         public int getPriority() {
             return priority;
@@ -482,8 +570,8 @@ public ByteCodeEventHandlerInfo(ComponentSystem handler,
 
         @Override
         public boolean isValidFor(EntityRef entity) {
-            for (Class<? extends Component> component : filterComponents) {
-                if (!entity.hasComponent(component)) {
+            for (int i = 0; i < filterComponents.size(); ++i) {
+                if (!entity.hasComponent(filterComponents.get(i))) {
                     return false;
                 }
             }
@@ -514,6 +602,115 @@ public void invoke(EntityRef entity, Event event) {
             }
         }
 
+        @Override
+        public boolean invokeIfValid(EntityRef entity, Event event) {
+            if (isValidFor(entity)) {
+                invoke(entity, event);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public ComponentSystem getHandler() {
+            return handler;
+        }
+    }
+
+    /**
+     * Calls the handler method through a generated invoker. The components for the parameters and the filter are
+     * fetched from the entity in a single pass, which also tells whether the handler is valid for the entity.
+     */
+    private static class GeneratedEventHandlerInfo implements EventHandlerInfo {
+        private ComponentSystem handler;
+        private EventHandlerInvoker invoker;
+        private String activity;
+        private Class<? extends Component>[] components;
+        private Component[] fetchedComponents;
+        private int priority;
+
+        @SuppressWarnings("unchecked")
+        public GeneratedEventHandlerInfo(ComponentSystem handler,
+                                         EventHandlerInvoker invoker,
+                                         int priority,
+                                         String activity,
+                                         Collection<Class<? extends Component>> filterComponents,
+                                         Collection<Class<? extends Component>> componentParams) {
+            this.handler = handler;
+            this.invoker = invoker;
+            this.activity = activity;
+            this.priority = priority;
+            // The component parameters come first, as the invoker takes them from the start of the array
+            List<Class<? extends Component>> orderedComponents = Lists.newArrayList(componentParams);
+            for (Class<? extends Component> filterComponent : filterComponents) {
+                if (!componentParams.contains(filterComponent)) {
+                    orderedComponents.add(filterComponent);
+                }
+            }
+            this.components = orderedComponents.toArray(new Class[orderedComponents.size()]);
+            this.fetchedComponents = new Component[components.length];
+        }
+
+        @Override
+        public boolean isValidFor(EntityRef entity) {
+            boolean valid = fetchComponents(entity);
+            Arrays.fill(fetchedComponents, null);
+            return valid;
+        }
+
+        @Override
+        public void invoke(EntityRef entity, Event event) {
+            fetchComponents(entity);
+            invokeWithFetchedComponents(entity, event);
+        }
+
+        @Override
+        public boolean invokeIfValid(EntityRef entity, Event event) {
+            if (fetchComponents(entity)) {
+                invokeWithFetchedComponents(entity, event);
+                return true;
+            }
+            Arrays.fill(fetchedComponents, null);
+            return false;
+        }
+
+        private boolean fetchComponents(EntityRef entity) {
+            if (entity instanceof BaseEntityRef) {
+                return ((BaseEntityRef) entity).getComponents(components, fetchedComponents);
+            }
+            boolean foundAll = true;
+            for (int i = 0; i < components.length; ++i) {
+                fetchedComponents[i] = entity.getComponent(components[i]);
+                foundAll &= fetchedComponents[i] != null;
+            }
+            return foundAll;
+        }
+
+        private void invokeWithFetchedComponents(EntityRef entity, Event event) {
+            // The invoker reads the components before the handler runs, so events sent by the handler may reuse the array
+            try {
+                if (!activity.isEmpty()) {
+                    PerformanceMonitor.startActivity(activity);
+                }
+                try {
+                    invoker.invoke(handler, event, entity, fetchedComponents);
+                } finally {
+                    if (!activity.isEmpty()) {
+                        PerformanceMonitor.endActivity();
+                    }
+                }
+            } catch (Exception ex) {
+                logger.error("Failed to invoke event", ex);
+            } finally {
+                Arrays.fill(fetchedComponents, null);
+            }
+        }
+
         @Override
         public int getPriority() {
             return priority;
@@ -551,6 +748,15 @@ public void invoke(EntityRef entity, Event event) {
             receiver.onEvent((T) event, entity);
         }
 
+        @Override
+        public boolean invokeIfValid(EntityRef entity, Event event) {
+            if (isValidFor(entity)) {
+                invoke(entity, event);
+                return true;
+            }
+            return false;
+        }
+
         @Override
         public int getPriority() {
             return priority;
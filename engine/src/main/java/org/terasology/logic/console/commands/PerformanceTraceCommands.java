@@ -0,0 +1,132 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.logic.console.commands;
+
+import com.google.common.collect.Lists;
+import org.terasology.engine.paths.PathManager;
+import org.terasology.entitySystem.systems.BaseComponentSystem;
+import org.terasology.entitySystem.systems.RegisterSystem;
+import org.terasology.logic.console.commandSystem.annotations.Command;
+import org.terasology.logic.console.commandSystem.annotations.CommandParam;
+import org.terasology.logic.permission.PermissionManager;
+import org.terasology.monitoring.PerformanceMonitor;
+import org.terasology.monitoring.trace.ChromeTraceConverter;
+import org.terasology.monitoring.trace.PerformanceTraceWriter;
+import org.terasology.monitoring.trace.TraceFormat;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Commands to record performance traces, so that spikes can be captured while the game or server runs and be
+ * analyzed later.
+ * <br><br>
+ * The trace keeps running when the game state changes, until it is stopped.
+ */
+@RegisterSystem
+public class PerformanceTraceCommands extends BaseComponentSystem {
+    private static final int DEFAULT_MAX_FILE_SIZE_MB = 16;
+    private static final int DEFAULT_MAX_FILES = 8;
+    private static final String JSON_FILE_NAME = "trace.json";
+
+    private static PerformanceTraceWriter activeTrace;
+    private static Path lastTraceDirectory;
+
+    @Command(shortDescription = "Starts recording a performance trace",
+            helpText = "Continuously records all activities of all threads, frames and garbage collections into rotating "
+                    + "files in the traces directory next to the logs. Only the most recent files are kept.",
+            runOnServer = true, requiredPermission = PermissionManager.SERVER_MANAGEMENT_PERMISSION)
+    public String startTrace(@CommandParam(value = "maxFileSizeMb", required = false) Integer maxFileSizeMb,
+                             @CommandParam(value = "maxFiles", required = false) Integer maxFiles) throws IOException {
+        if (activeTrace != null) {
+            return "A trace is already being recorded to " + activeTrace.getDirectory();
+        }
+        long maxFileSize = (maxFileSizeMb != null ? maxFileSizeMb : DEFAULT_MAX_FILE_SIZE_MB) * 1024L * 1024L;
+        String name = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        Path directory = PathManager.getInstance().getLogPath().resolve("traces").resolve(name);
+        activeTrace = new PerformanceTraceWriter(directory, maxFileSize, maxFiles != null ? maxFiles : DEFAULT_MAX_FILES);
+        lastTraceDirectory = directory;
+        PerformanceMonitor.setSpanListener(activeTrace);
+        return "Recording performance trace to " + directory;
+    }
+
+    @Command(shortDescription = "Stops recording the performance trace",
+            runOnServer = true, requiredPermission = PermissionManager.SERVER_MANAGEMENT_PERMISSION)
+    public String stopTrace() {
+        if (activeTrace == null) {
+            return "No trace is being recorded";
+        }
+        PerformanceMonitor.setSpanListener(null);
+        activeTrace.close();
+        String result = "Performance trace written to " + activeTrace.getDirectory();
+        if (activeTrace.getDroppedBuffers() > 0) {
+            result += " (" + activeTrace.getDroppedBuffers() + " buffers of records were dropped)";
+        }
+        activeTrace = null;
+        return result;
+    }
+
+    @Command(shortDescription = "Converts a performance trace for chrome://tracing",
+            helpText = "Converts the files of the last recorded trace, or of the given trace directory, into a single "
+                    + JSON_FILE_NAME + " file in the trace event format.",
+            runOnServer = true, requiredPermission = PermissionManager.SERVER_MANAGEMENT_PERMISSION)
+    public String convertTrace(@CommandParam(value = "directory", required = false) String directoryName) throws IOException {
+        Path directory;
+        if (directoryName != null) {
+            // Only the trace directories may be read and written to
+            if (!isTraceDirectoryName(directoryName)) {
+                return "The directory must be the name of a trace directory";
+            }
+            directory = PathManager.getInstance().getLogPath().resolve("traces").resolve(directoryName);
+        } else {
+            directory = lastTraceDirectory;
+        }
+        if (directory == null || !Files.isDirectory(directory)) {
+            return "No trace directory found";
+        }
+        if (activeTrace != null && directory.equals(activeTrace.getDirectory())) {
+            return "The trace needs to be stopped before it can be converted";
+        }
+        List<Path> traceFiles = Lists.newArrayList();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + TraceFormat.FILE_EXTENSION)) {
+            stream.forEach(traceFiles::add);
+        }
+        if (traceFiles.isEmpty()) {
+            return "No trace files found in " + directory;
+        }
+        // The file names contain zero padded indices, so they sort in the order they were written
+        Collections.sort(traceFiles);
+        Path jsonFile = directory.resolve(JSON_FILE_NAME);
+        ChromeTraceConverter.convert(traceFiles, jsonFile);
+        return "Converted " + traceFiles.size() + " trace files to " + jsonFile;
+    }
+
+    private static boolean isTraceDirectoryName(String directoryName) {
+        try {
+            return !directoryName.contains("..") && Paths.get(directoryName).getRoot() == null;
+        } catch (InvalidPathException e) {
+            return false;
+        }
+    }
+}
@@ -18,11 +18,9 @@
 import org.terasology.entitySystem.Component;
 import org.terasology.world.block.ForceBlockActive;
 
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * Not for public use. Use DelayManager instead.
@@ -30,40 +28,16 @@
 @ForceBlockActive
 public final class DelayedActionComponent implements Component {
     private Map<String, Long> actionIdsWakeUp = new HashMap<>();
-    private long lowestWakeUp = Long.MAX_VALUE;
 
     public DelayedActionComponent() {
     }
 
     public void addActionId(String actionId, long wakeUp) {
         actionIdsWakeUp.put(actionId, wakeUp);
-        lowestWakeUp = Math.min(lowestWakeUp, wakeUp);
     }
 
     public void removeActionId(String actionId) {
-        final long removedWakeUp = actionIdsWakeUp.remove(actionId);
-        if (removedWakeUp == lowestWakeUp) {
-            lowestWakeUp = findSmallestWakeUp();
-        }
-    }
-
-    public Set<String> removeActionsUpTo(final long worldTime) {
-        final Set<String> result = new HashSet<>();
-        final Iterator<Map.Entry<String, Long>> entryIterator = actionIdsWakeUp.entrySet().iterator();
-        while (entryIterator.hasNext()) {
-            final Map.Entry<String, Long> entry = entryIterator.next();
-            if (entry.getValue() <= worldTime) {
-                result.add(entry.getKey());
-                entryIterator.remove();
-            }
-        }
-        lowestWakeUp = findSmallestWakeUp();
-
-        return result;
-    }
-
-    public long getLowestWakeUp() {
-        return lowestWakeUp;
+        actionIdsWakeUp.remove(actionId);
     }
 
     public boolean isEmpty() {
@@ -74,11 +48,10 @@ public boolean containsActionId(String actionId) {
         return actionIdsWakeUp.containsKey(actionId);
     }
 
-    private long findSmallestWakeUp() {
-        long result = Long.MAX_VALUE;
-        for (long value : actionIdsWakeUp.values()) {
-            result = Math.min(result, value);
-        }
-        return result;
+    /**
+     * @return the wake up times of the actions by action id, as unmodifiable view
+     */
+    public Map<String, Long> getActionIdsWakeUp() {
+        return Collections.unmodifiableMap(actionIdsWakeUp);
     }
 }
@@ -15,9 +15,10 @@
  */
 package org.terasology.logic.delay;
 
-import com.google.common.collect.Ordering;
-import com.google.common.collect.SortedSetMultimap;
-import com.google.common.collect.TreeMultimap;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.collect.Table;
 import org.terasology.engine.Time;
 import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
@@ -30,12 +31,18 @@
 import org.terasology.registry.In;
 import org.terasology.registry.Share;
 
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
+ * Schedules the delayed and periodic actions in {@link TimingWheel}s, so that adding, cancelling and triggering an
+ * action takes constant time, regardless of the number of scheduled actions.
+ * <br><br>
+ * The {@link DelayedActionComponent} and {@link PeriodicActionComponent} of the entities hold the persisted schedule.
+ * When a periodic action triggers, only the wake up time in its component gets updated, without saving the component
+ * and thus without change events. These components get saved when the schedule of their entity changes otherwise,
+ * when the entity gets deactivated and before the game gets saved.
  */
 @RegisterSystem(RegisterMode.AUTHORITY)
 @Share(value = DelayManager.class)
@@ -43,8 +50,18 @@ public class DelayedActionSystem extends BaseComponentSystem implements UpdateSu
     @In
     private Time time;
 
-    private SortedSetMultimap<Long, EntityRef> delayedOperationsSortedByTime = TreeMultimap.create(Ordering.natural(), Ordering.arbitrary());
-    private SortedSetMultimap<Long, EntityRef> periodicOperationsSortedByTime = TreeMultimap.create(Ordering.natural(), Ordering.arbitrary());
+    private TimingWheel<ScheduledAction> delayedOperations;
+    private TimingWheel<ScheduledAction> periodicOperations;
+    private final Table<EntityRef, String, TimingWheel.Entry<ScheduledAction>> delayedEntries = HashBasedTable.create();
+    private final Table<EntityRef, String, TimingWheel.Entry<ScheduledAction>> periodicEntries = HashBasedTable.create();
+    private final Set<EntityRef> unsavedPeriodicEntities = Sets.newHashSet();
+
+    @Override
+    public void initialise() {
+        final long currentWorldTime = time.getGameTimeInMs();
+        delayedOperations = new TimingWheel<>(currentWorldTime);
+        periodicOperations = new TimingWheel<>(currentWorldTime);
+    }
 
     @Override
     public void update(float delta) {
@@ -53,82 +70,90 @@ public void update(float delta) {
         invokePeriodicOperations(currentWorldTime);
     }
 
-    private void invokeDelayedOperations(long currentWorldTime) {
-        List<EntityRef> operationsToInvoke = new LinkedList<>();
-        Iterator<Long> scheduledOperationsIterator = delayedOperationsSortedByTime.keySet().iterator();
-        long processedTime;
-        while (scheduledOperationsIterator.hasNext()) {
-            processedTime = scheduledOperationsIterator.next();
-            if (processedTime > currentWorldTime) {
-                break;
+    @Override
+    public void preSave() {
+        List<EntityRef> entities = Lists.newArrayList(unsavedPeriodicEntities);
+        unsavedPeriodicEntities.clear();
+        for (EntityRef entity : entities) {
+            PeriodicActionComponent periodicActionComponent = entity.getComponent(PeriodicActionComponent.class);
+            if (periodicActionComponent != null) {
+                entity.saveComponent(periodicActionComponent);
             }
-            operationsToInvoke.addAll(delayedOperationsSortedByTime.get(processedTime));
-            scheduledOperationsIterator.remove();
         }
+    }
 
-        operationsToInvoke.stream().filter(EntityRef::exists).forEach(delayedEntity -> {
-            final DelayedActionComponent delayedActions = delayedEntity.getComponent(DelayedActionComponent.class);
-
-            final Set<String> actionIds = delayedActions.removeActionsUpTo(currentWorldTime);
-            saveOrRemoveComponent(delayedEntity, delayedActions);
+    private void invokeDelayedOperations(long currentWorldTime) {
+        final List<ScheduledAction> triggeredActions = Lists.newArrayList();
+        delayedOperations.advance(currentWorldTime, triggeredActions::add);
+        if (triggeredActions.isEmpty()) {
+            return;
+        }
 
-            if (!delayedActions.isEmpty()) {
-                delayedOperationsSortedByTime.put(delayedActions.getLowestWakeUp(), delayedEntity);
+        final Set<EntityRef> changedEntities = Sets.newLinkedHashSet();
+        for (ScheduledAction action : triggeredActions) {
+            delayedEntries.remove(action.entity, action.actionId);
+            final DelayedActionComponent delayedActions = action.entity.getComponent(DelayedActionComponent.class);
+            if (delayedActions != null && delayedActions.containsActionId(action.actionId)) {
+                delayedActions.removeActionId(action.actionId);
+                changedEntities.add(action.entity);
             }
+        }
+        for (EntityRef delayedEntity : changedEntities) {
+            saveOrRemoveComponent(delayedEntity, delayedEntity.getComponent(DelayedActionComponent.class));
+        }
 
-            for (String actionId : actionIds) {
-                delayedEntity.send(new DelayedActionTriggeredEvent(actionId));
+        for (ScheduledAction action : triggeredActions) {
+            if (changedEntities.contains(action.entity)) {
+                action.entity.send(new DelayedActionTriggeredEvent(action.actionId));
             }
-        });
+        }
     }
 
     private void invokePeriodicOperations(long currentWorldTime) {
-        List<EntityRef> operationsToInvoke = new LinkedList<>();
-        Iterator<Long> scheduledOperationsIterator = periodicOperationsSortedByTime.keySet().iterator();
-        long processedTime;
-        while (scheduledOperationsIterator.hasNext()) {
-            processedTime = scheduledOperationsIterator.next();
-            if (processedTime > currentWorldTime) {
-                break;
-            }
-            operationsToInvoke.addAll(periodicOperationsSortedByTime.get(processedTime));
-            scheduledOperationsIterator.remove();
-        }
-
-        operationsToInvoke.stream().filter(EntityRef::exists).forEach(periodicEntity -> {
-            final PeriodicActionComponent periodicActionComponent = periodicEntity.getComponent(PeriodicActionComponent.class);
-
-            final Set<String> actionIds = periodicActionComponent.getTriggeredActionsAndReschedule(currentWorldTime);
-            saveOrRemoveComponent(periodicEntity, periodicActionComponent);
-
-            if (!periodicActionComponent.isEmpty()) {
-                periodicOperationsSortedByTime.put(periodicActionComponent.getLowestWakeUp(), periodicEntity);
+        final List<ScheduledAction> triggeredActions = Lists.newArrayList();
+        periodicOperations.advance(currentWorldTime, triggeredActions::add);
+
+        for (ScheduledAction action : triggeredActions) {
+            final PeriodicActionComponent periodicActionComponent = action.entity.getComponent(PeriodicActionComponent.class);
+            if (periodicActionComponent == null || !periodicActionComponent.containsActionId(action.actionId)) {
+                periodicEntries.remove(action.entity, action.actionId);
+                continue;
             }
+            final long wakeUp = currentWorldTime + periodicActionComponent.getPeriod(action.actionId);
+            periodicActionComponent.rescheduleActionId(action.actionId, wakeUp);
+            unsavedPeriodicEntities.add(action.entity);
+            periodicEntries.put(action.entity, action.actionId, periodicOperations.schedule(wakeUp, action));
 
-            for (String actionId : actionIds) {
-                periodicEntity.send(new PeriodicActionTriggeredEvent(actionId));
-            }
-        });
+            action.entity.send(new PeriodicActionTriggeredEvent(action.actionId));
+        }
     }
 
     @ReceiveEvent
     public void delayedComponentActivated(OnActivatedComponent event, EntityRef entity, DelayedActionComponent delayedActionComponent) {
-        delayedOperationsSortedByTime.put(delayedActionComponent.getLowestWakeUp(), entity);
+        for (Map.Entry<String, Long> action : delayedActionComponent.getActionIdsWakeUp().entrySet()) {
+            schedule(delayedOperations, delayedEntries, entity, action.getKey(), action.getValue());
+        }
     }
 
     @ReceiveEvent
     public void periodicComponentActivated(OnActivatedComponent event, EntityRef entity, PeriodicActionComponent periodicActionComponent) {
-        periodicOperationsSortedByTime.put(periodicActionComponent.getLowestWakeUp(), entity);
+        for (Map.Entry<String, Long> action : periodicActionComponent.getActionIdsWakeUp().entrySet()) {
+            schedule(periodicOperations, periodicEntries, entity, action.getKey(), action.getValue());
+        }
     }
 
     @ReceiveEvent
     public void delayedComponentDeactivated(BeforeDeactivateComponent event, EntityRef entity, DelayedActionComponent delayedActionComponent) {
-        delayedOperationsSortedByTime.remove(delayedActionComponent.getLowestWakeUp(), entity);
+        cancelAll(delayedOperations, delayedEntries, entity);
     }
 
     @ReceiveEvent
     public void periodicComponentDeactivated(BeforeDeactivateComponent event, EntityRef entity, PeriodicActionComponent periodicActionComponent) {
-        delayedOperationsSortedByTime.remove(periodicActionComponent.getLowestWakeUp(), entity);
+        cancelAll(periodicOperations, periodicEntries, entity);
+        if (unsavedPeriodicEntities.remove(entity)) {
+            // Makes sure that the current wake up times get stored with the entity
+            entity.saveComponent(periodicActionComponent);
+        }
     }
 
     @Override
@@ -137,15 +162,11 @@ public void addDelayedAction(EntityRef entity, String actionId, long delay) {
 
         DelayedActionComponent delayedActionComponent = entity.getComponent(DelayedActionComponent.class);
         if (delayedActionComponent != null) {
-            final long oldWakeUp = delayedActionComponent.getLowestWakeUp();
             delayedActionComponent.addActionId(actionId, scheduleTime);
             entity.saveComponent(delayedActionComponent);
-            final long newWakeUp = delayedActionComponent.getLowestWakeUp();
-            if (oldWakeUp < newWakeUp) {
-                delayedOperationsSortedByTime.remove(oldWakeUp, entity);
-                delayedOperationsSortedByTime.put(newWakeUp, entity);
-            }
+            schedule(delayedOperations, delayedEntries, entity, actionId, scheduleTime);
         } else {
+            // Gets scheduled once the component is activated
             delayedActionComponent = new DelayedActionComponent();
             delayedActionComponent.addActionId(actionId, scheduleTime);
             entity.addComponent(delayedActionComponent);
@@ -158,15 +179,11 @@ public void addPeriodicAction(EntityRef entity, String actionId, long initialDel
 
         PeriodicActionComponent periodicActionComponent = entity.getComponent(PeriodicActionComponent.class);
         if (periodicActionComponent != null) {
-            final long oldWakeUp = periodicActionComponent.getLowestWakeUp();
             periodicActionComponent.addScheduledActionId(actionId, scheduleTime, period);
-            entity.saveComponent(periodicActionComponent);
-            final long newWakeUp = periodicActionComponent.getLowestWakeUp();
-            if (oldWakeUp < newWakeUp) {
-                periodicOperationsSortedByTime.remove(oldWakeUp, entity);
-                periodicOperationsSortedByTime.put(newWakeUp, entity);
-            }
+            saveOrRemoveComponent(entity, periodicActionComponent);
+            schedule(periodicOperations, periodicEntries, entity, actionId, scheduleTime);
         } else {
+            // Gets scheduled once the component is activated
             periodicActionComponent = new PeriodicActionComponent();
             periodicActionComponent.addScheduledActionId(actionId, scheduleTime, period);
             entity.addComponent(periodicActionComponent);
@@ -176,30 +193,16 @@ public void addPeriodicAction(EntityRef entity, String actionId, long initialDel
     @Override
     public void cancelDelayedAction(EntityRef entity, String actionId) {
         DelayedActionComponent delayedComponent = entity.getComponent(DelayedActionComponent.class);
-        long oldWakeUp = delayedComponent.getLowestWakeUp();
+        cancel(delayedOperations, delayedEntries, entity, actionId);
         delayedComponent.removeActionId(actionId);
-        long newWakeUp = delayedComponent.getLowestWakeUp();
-        if (!delayedComponent.isEmpty() && oldWakeUp < newWakeUp) {
-            delayedOperationsSortedByTime.remove(oldWakeUp, entity);
-            delayedOperationsSortedByTime.put(newWakeUp, entity);
-        } else if (delayedComponent.isEmpty()) {
-            delayedOperationsSortedByTime.remove(oldWakeUp, entity);
-        }
         saveOrRemoveComponent(entity, delayedComponent);
     }
 
     @Override
     public void cancelPeriodicAction(EntityRef entity, String actionId) {
         PeriodicActionComponent periodicActionComponent = entity.getComponent(PeriodicActionComponent.class);
-        long oldWakeUp = periodicActionComponent.getLowestWakeUp();
+        cancel(periodicOperations, periodicEntries, entity, actionId);
         periodicActionComponent.removeScheduledActionId(actionId);
-        long newWakeUp = periodicActionComponent.getLowestWakeUp();
-        if (!periodicActionComponent.isEmpty() && oldWakeUp < newWakeUp) {
-            periodicOperationsSortedByTime.remove(oldWakeUp, entity);
-            periodicOperationsSortedByTime.put(newWakeUp, entity);
-        } else if (periodicActionComponent.isEmpty()) {
-            periodicOperationsSortedByTime.remove(oldWakeUp, entity);
-        }
         saveOrRemoveComponent(entity, periodicActionComponent);
     }
 
@@ -215,6 +218,31 @@ public boolean hasPeriodicAction(EntityRef entity, String actionId) {
         return periodicActionComponent != null && periodicActionComponent.containsActionId(actionId);
     }
 
+    private static void schedule(TimingWheel<ScheduledAction> wheel, Table<EntityRef, String, TimingWheel.Entry<ScheduledAction>> entries,
+                                 EntityRef entity, String actionId, long wakeUp) {
+        TimingWheel.Entry<ScheduledAction> oldEntry = entries.put(entity, actionId, wheel.schedule(wakeUp, new ScheduledAction(entity, actionId)));
+        if (oldEntry != null) {
+            wheel.cancel(oldEntry);
+        }
+    }
+
+    private static void cancel(TimingWheel<ScheduledAction> wheel, Table<EntityRef, String, TimingWheel.Entry<ScheduledAction>> entries,
+                               EntityRef entity, String actionId) {
+        TimingWheel.Entry<ScheduledAction> entry = entries.remove(entity, actionId);
+        if (entry != null) {
+            wheel.cancel(entry);
+        }
+    }
+
+    private static void cancelAll(TimingWheel<ScheduledAction> wheel, Table<EntityRef, String, TimingWheel.Entry<ScheduledAction>> entries,
+                                  EntityRef entity) {
+        Map<String, TimingWheel.Entry<ScheduledAction>> entityEntries = entries.row(entity);
+        for (TimingWheel.Entry<ScheduledAction> entry : entityEntries.values()) {
+            wheel.cancel(entry);
+        }
+        entityEntries.clear();
+    }
+
     private void saveOrRemoveComponent(EntityRef delayedEntity, DelayedActionComponent delayedActionComponent) {
         if (delayedActionComponent.isEmpty()) {
             delayedEntity.removeComponent(DelayedActionComponent.class);
@@ -224,6 +252,7 @@ private void saveOrRemoveComponent(EntityRef delayedEntity, DelayedActionCompone
     }
 
     private void saveOrRemoveComponent(EntityRef periodicEntity, PeriodicActionComponent periodicActionComponent) {
+        unsavedPeriodicEntities.remove(periodicEntity);
         if (periodicActionComponent.isEmpty()) {
             periodicEntity.removeComponent(PeriodicActionComponent.class);
         } else {
@@ -246,4 +275,14 @@ public void cancelDelayedAction(CancelDelayedActionEvent event, EntityRef entity
     public void addDelayedAction(AddDelayedActionEvent event, EntityRef entity) {
         addDelayedAction(entity, event.getActionId(), event.getDelay());
     }
+
+    private static final class ScheduledAction {
+        private final EntityRef entity;
+        private final String actionId;
+
+        private ScheduledAction(EntityRef entity, String actionId) {
+            this.entity = entity;
+            this.actionId = actionId;
+        }
+    }
 }
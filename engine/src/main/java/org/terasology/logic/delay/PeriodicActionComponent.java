@@ -18,11 +18,9 @@
 import org.terasology.entitySystem.Component;
 import org.terasology.world.block.ForceBlockActive;
 
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * Not for public use. Use DelayManager instead.
@@ -31,7 +29,6 @@
 public final class PeriodicActionComponent implements Component {
     private Map<String, Long> actionIdsWakeUp = new HashMap<>();
     private Map<String, Long> actionIdsPeriod = new HashMap<>();
-    private long lowestWakeUp = Long.MAX_VALUE;
 
     public PeriodicActionComponent() {
     }
@@ -39,55 +36,36 @@ public PeriodicActionComponent() {
     public void addScheduledActionId(String actionId, long wakeUp, long period) {
         actionIdsWakeUp.put(actionId, wakeUp);
         actionIdsPeriod.put(actionId, period);
-        lowestWakeUp = Math.min(lowestWakeUp, wakeUp);
     }
 
     public void removeScheduledActionId(String actionId) {
-        final long removedWakeUp = actionIdsWakeUp.remove(actionId);
+        actionIdsWakeUp.remove(actionId);
         actionIdsPeriod.remove(actionId);
-        if (removedWakeUp == lowestWakeUp) {
-            lowestWakeUp = findSmallestWakeUp();
-        }
     }
 
-    public Set<String> getTriggeredActionsAndReschedule(final long worldTime) {
-        final Set<String> result = new HashSet<>();
-        final Iterator<Map.Entry<String, Long>> entryIterator = actionIdsWakeUp.entrySet().iterator();
-        while (entryIterator.hasNext()) {
-            final Map.Entry<String, Long> entry = entryIterator.next();
-            if (entry.getValue() <= worldTime) {
-                result.add(entry.getKey());
-                entryIterator.remove();
-            }
-        }
-
-        // Rescheduling
-        for (String actionId : result) {
-            actionIdsWakeUp.put(actionId, worldTime + actionIdsPeriod.get(actionId));
-        }
-
-        lowestWakeUp = findSmallestWakeUp();
-
-        return result;
+    public boolean isEmpty() {
+        return actionIdsWakeUp.isEmpty();
     }
 
-    public long getLowestWakeUp() {
-        return lowestWakeUp;
+    public boolean containsActionId(String actionId) {
+        return actionIdsWakeUp.containsKey(actionId);
     }
 
-    private long findSmallestWakeUp() {
-        long result = Long.MAX_VALUE;
-        for (long value : actionIdsWakeUp.values()) {
-            result = Math.min(result, value);
-        }
-        return result;
+    /**
+     * Sets the next wake up time of a scheduled action.
+     */
+    public void rescheduleActionId(String actionId, long wakeUp) {
+        actionIdsWakeUp.put(actionId, wakeUp);
     }
 
-    public boolean isEmpty() {
-        return actionIdsWakeUp.isEmpty();
+    /**
+     * @return the wake up times of the actions by action id, as unmodifiable view
+     */
+    public Map<String, Long> getActionIdsWakeUp() {
+        return Collections.unmodifiableMap(actionIdsWakeUp);
     }
 
-    public boolean containsActionId(String actionId) {
-        return actionIdsWakeUp.containsKey(actionId);
+    public long getPeriod(String actionId) {
+        return actionIdsPeriod.get(actionId);
     }
 }
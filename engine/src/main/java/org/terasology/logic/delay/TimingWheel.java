@@ -0,0 +1,261 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.logic.delay;
+
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel that schedules values for points in time, e.g. game time in milliseconds.
+ * <br><br>
+ * The wheel has several levels of 64 slots each. A slot of level n covers 64^n points in time, so that an entry is put
+ * into a level depending on how far in the future it is due. Whenever the wheel reaches the start of a slot of a
+ * higher level, the entries of that slot get distributed to the lower levels. Entries that are due further in the
+ * future than the highest level covers wait in an overflow list, which is re-examined whenever the highest level starts
+ * a new turn. Scheduling and cancelling an entry thus take constant time.
+ * <br><br>
+ * When {@link #advance(long, Consumer) advancing}, the wheel steps through the points in time one by one only while the
+ * lowest level contains entries. Otherwise it skips ahead to the next slot of the lowest level that contains entries,
+ * so that even a large jump of the time is processed quickly.
+ * <br><br>
+ * This class is not thread safe.
+ *
+ * @param <T> the type of the scheduled values
+ */
+final class TimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOT_COUNT = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOT_COUNT - 1;
+    private static final int LEVELS = 5;
+    private static final int OVERFLOW = LEVELS;
+    private static final int PENDING = LEVELS + 1;
+
+    private final Entry<T>[][] slots;
+    private final Entry<T> overflow = new Entry<>(null, 0);
+    /**
+     * Entries that were scheduled for a point in time that has already been reached.
+     */
+    private final Entry<T> pending = new Entry<>(null, 0);
+    private final int[] levelSizes = new int[PENDING + 1];
+    private long currentTime;
+
+    /**
+     * @param currentTime the point in time the wheel starts at. Entries scheduled for it or earlier are due immediately.
+     */
+    @SuppressWarnings("unchecked")
+    TimingWheel(long currentTime) {
+        this.currentTime = currentTime;
+        slots = new Entry[LEVELS][SLOT_COUNT];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOT_COUNT; slot++) {
+                slots[level][slot] = new Entry<>(null, 0);
+            }
+        }
+    }
+
+    /**
+     * @return the point in time the wheel has been advanced to
+     */
+    long getCurrentTime() {
+        return currentTime;
+    }
+
+    /**
+     * @return the number of scheduled entries
+     */
+    int size() {
+        int size = 0;
+        for (int levelSize : levelSizes) {
+            size += levelSize;
+        }
+        return size;
+    }
+
+    /**
+     * Schedules a value. Values scheduled for the current point in time or earlier get passed on with the next call of
+     * {@link #advance(long, Consumer)}.
+     *
+     * @return the entry of the value, which can be used to cancel it
+     */
+    Entry<T> schedule(long time, T value) {
+        Entry<T> entry = new Entry<>(value, time);
+        if (time <= currentTime) {
+            link(pending, entry, PENDING);
+        } else {
+            place(entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Removes an entry from the wheel. Does nothing if the entry is no longer scheduled.
+     */
+    void cancel(Entry<T> entry) {
+        if (entry.isScheduled()) {
+            unlink(entry);
+        }
+    }
+
+    /**
+     * Advances the wheel to the given point in time and passes the values of all entries that became due on to the
+     * consumer, in the order of their time. The consumer may schedule and cancel entries; entries it schedules for the
+     * new current time or earlier get passed on with the next call.
+     */
+    void advance(long time, Consumer<T> consumer) {
+        fire(pending, consumer);
+        while (currentTime < time) {
+            int lowestLevel = getLowestUsedLevel();
+            if (lowestLevel < 0) {
+                currentTime = time;
+                break;
+            }
+            if (lowestLevel > 0) {
+                // Nothing can become due before the start of the next slot of the lowest used level
+                int shift = SLOT_BITS * lowestLevel;
+                long nextSlotStart = ((currentTime >> shift) + 1) << shift;
+                if (nextSlotStart > time) {
+                    currentTime = time;
+                    break;
+                }
+                currentTime = nextSlotStart - 1;
+            }
+            tick(currentTime + 1, consumer);
+        }
+    }
+
+    private void tick(long time, Consumer<T> consumer) {
+        currentTime = time;
+        for (int level = 1; level <= LEVELS; level++) {
+            int shift = SLOT_BITS * level;
+            if ((time & ((1L << shift) - 1)) != 0) {
+                break;
+            }
+            cascade(level == LEVELS ? overflow : slots[level][(int) (time >> shift) & SLOT_MASK]);
+        }
+        fire(slots[0][(int) time & SLOT_MASK], consumer);
+    }
+
+    private void cascade(Entry<T> slot) {
+        // Entries of the overflow list may end up in it again
+        Entry<T> entries = detach(slot);
+        while (entries.next != entries) {
+            Entry<T> entry = entries.next;
+            unlink(entry);
+            place(entry);
+        }
+    }
+
+    private void fire(Entry<T> slot, Consumer<T> consumer) {
+        // The consumer may schedule entries, which must not end up in the list being processed
+        Entry<T> due = detach(slot);
+        while (due.next != due) {
+            Entry<T> entry = due.next;
+            unlink(entry);
+            consumer.accept(entry.value);
+        }
+    }
+
+    /**
+     * Moves the entries of a slot to a list of their own and returns the head of that list.
+     */
+    private Entry<T> detach(Entry<T> slot) {
+        Entry<T> head = new Entry<>(null, 0);
+        if (slot.next != slot) {
+            head.next = slot.next;
+            head.prev = slot.prev;
+            head.next.prev = head;
+            head.prev.next = head;
+            slot.next = slot;
+            slot.prev = slot;
+        }
+        return head;
+    }
+
+    /**
+     * Puts an entry that is due at the current time or later into the level that covers its delay.
+     */
+    private void place(Entry<T> entry) {
+        long delay = entry.time - currentTime;
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * level;
+            if (delay < 1L << (shift + SLOT_BITS)) {
+                link(slots[level][(int) (entry.time >> shift) & SLOT_MASK], entry, level);
+                return;
+            }
+        }
+        link(overflow, entry, OVERFLOW);
+    }
+
+    private int getLowestUsedLevel() {
+        for (int level = 0; level <= OVERFLOW; level++) {
+            if (levelSizes[level] > 0) {
+                return level;
+            }
+        }
+        return -1;
+    }
+
+    private void link(Entry<T> slot, Entry<T> entry, int level) {
+        entry.level = level;
+        entry.prev = slot.prev;
+        entry.next = slot;
+        slot.prev.next = entry;
+        slot.prev = entry;
+        levelSizes[level]++;
+    }
+
+    private void unlink(Entry<T> entry) {
+        entry.prev.next = entry.next;
+        entry.next.prev = entry.prev;
+        entry.prev = null;
+        entry.next = null;
+        levelSizes[entry.level]--;
+    }
+
+    /**
+     * A value scheduled in a {@link TimingWheel}. The entries of a slot form a doubly linked list, so that an entry can
+     * be removed without searching for it.
+     */
+    static final class Entry<T> {
+        private final T value;
+        private final long time;
+        private Entry<T> prev;
+        private Entry<T> next;
+        private int level;
+
+        private Entry(T value, long time) {
+            this.value = value;
+            this.time = time;
+            // An unlinked entry is a list of its own, which is what the heads of the lists need
+            this.prev = this;
+            this.next = this;
+        }
+
+        T getValue() {
+            return value;
+        }
+
+        long getTime() {
+            return time;
+        }
+
+        /**
+         * @return true until the entry became due or got cancelled
+         */
+        boolean isScheduled() {
+            return next != null;
+        }
+    }
+}
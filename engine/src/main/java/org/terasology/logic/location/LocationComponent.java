@@ -54,6 +54,9 @@ public final class LocationComponent implements Component, ReplicationCheck {
     @Replicate
     float scale = 1.0f;
 
+    // Not serialized, so that copies start without a snapshot. Only stored by the WorldTransformSystem
+    transient volatile WorldTransform worldTransform;
+
     public LocationComponent() {
     }
 
@@ -70,6 +73,7 @@ public Vector3f getLocalPosition() {
 
     public void setLocalPosition(Vector3f newPos) {
         position.set(newPos);
+        invalidateWorldTransform();
     }
 
     public Vector3f getLocalDirection() {
@@ -84,10 +88,12 @@ public Quat4f getLocalRotation() {
 
     public void setLocalRotation(Quat4f newQuat) {
         rotation.set(newQuat);
+        invalidateWorldTransform();
     }
 
     public void setLocalScale(float value) {
         this.scale = value;
+        invalidateWorldTransform();
     }
 
     public float getLocalScale() {
@@ -102,14 +108,7 @@ public Vector3f getWorldPosition() {
     }
 
     public Vector3f getWorldPosition(Vector3f output) {
-        output.set(position);
-        LocationComponent parentLoc = parent.getComponent(LocationComponent.class);
-        while (parentLoc != null) {
-            output.scale(parentLoc.scale);
-            parentLoc.getLocalRotation().rotate(output, output);
-            output.add(parentLoc.position);
-            parentLoc = parentLoc.parent.getComponent(LocationComponent.class);
-        }
+        output.set(getWorldTransform().position);
         return output;
     }
 
@@ -124,23 +123,12 @@ public Quat4f getWorldRotation() {
     }
 
     public Quat4f getWorldRotation(Quat4f output) {
-        output.set(rotation);
-        LocationComponent parentLoc = parent.getComponent(LocationComponent.class);
-        while (parentLoc != null) {
-            output.mul(parentLoc.rotation, output);
-            parentLoc = parentLoc.parent.getComponent(LocationComponent.class);
-        }
+        output.set(getWorldTransform().rotation);
         return output;
     }
 
     public float getWorldScale() {
-        float result = scale;
-        LocationComponent parentLoc = parent.getComponent(LocationComponent.class);
-        while (parentLoc != null) {
-            result *= parentLoc.getLocalScale();
-            parentLoc = parentLoc.parent.getComponent(LocationComponent.class);
-        }
-        return result;
+        return getWorldTransform().scale;
     }
 
     public void setWorldPosition(Vector3f value) {
@@ -153,6 +141,7 @@ public void setWorldPosition(Vector3f value) {
             rot.inverse(parentLoc.getWorldRotation());
             rot.rotate(this.position, this.position);
         }
+        invalidateWorldTransform();
     }
 
     public void setWorldRotation(Quat4f value) {
@@ -163,6 +152,7 @@ public void setWorldRotation(Quat4f value) {
             worldRot.inverse();
             this.rotation.mul(worldRot, this.rotation);
         }
+        invalidateWorldTransform();
     }
 
     public void setWorldScale(float value) {
@@ -171,6 +161,7 @@ public void setWorldScale(float value) {
         if (parentLoc != null) {
             this.scale /= parentLoc.getWorldScale();
         }
+        invalidateWorldTransform();
     }
 
     public EntityRef getParent() {
@@ -181,6 +172,31 @@ public Collection<EntityRef> getChildren() {
         return children;
     }
 
+    /**
+     * @return the stored world transform snapshot, or a newly computed one if there is none or the local state of this
+     * location or one of its ancestors was modified in place since it was computed
+     */
+    WorldTransform getWorldTransform() {
+        WorldTransform transform = worldTransform;
+        if (transform == null || !transform.isValidFor(this)) {
+            transform = WorldTransform.compute(this);
+        }
+        return transform;
+    }
+
+    /**
+     * Drops the world transform snapshots of this location and all its descendants.
+     */
+    void invalidateWorldTransform() {
+        worldTransform = null;
+        for (EntityRef child : children) {
+            LocationComponent childLocation = child.getComponent(LocationComponent.class);
+            if (childLocation != null) {
+                childLocation.invalidateWorldTransform();
+            }
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.logic.location;
+
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.math.geom.Quat4f;
+import org.terasology.math.geom.Vector3f;
+
+/**
+ * An immutable snapshot of the world position, rotation and scale of a {@link LocationComponent}.
+ * <br><br>
+ * Snapshots are only stored in the location by the {@link WorldTransformSystem} on the main thread and are dropped
+ * again for the location and all its descendants as soon as one of them changes, so reading one is safe from any
+ * thread. A location without a stored snapshot computes a new one on every read without storing it.
+ * <br><br>
+ * The snapshot also keeps the local state it was computed from and the snapshot of the parent location it was based
+ * on. This covers local positions and rotations that are modified in place without saving the component: the modified
+ * location computes a new snapshot, which differs from the one its descendants were based on.
+ */
+final class WorldTransform {
+    final Vector3f position;
+    final Quat4f rotation;
+    final float scale;
+
+    private final Vector3f localPosition;
+    private final Quat4f localRotation;
+    private final float localScale;
+    private final EntityRef parent;
+    private final LocationComponent parentLocation;
+    private final WorldTransform parentTransform;
+    private final boolean cacheable;
+
+    private WorldTransform(LocationComponent location, Vector3f position, Quat4f rotation, float scale,
+                           LocationComponent parentLocation, WorldTransform parentTransform, boolean cacheable) {
+        this.position = position;
+        this.rotation = rotation;
+        this.scale = scale;
+        this.localPosition = new Vector3f(location.position);
+        this.localRotation = new Quat4f(location.rotation);
+        this.localScale = location.scale;
+        this.parent = location.parent;
+        this.parentLocation = parentLocation;
+        this.parentTransform = parentTransform;
+        this.cacheable = cacheable;
+    }
+
+    static WorldTransform compute(LocationComponent location) {
+        LocationComponent parentLocation = location.parent.getComponent(LocationComponent.class);
+        if (parentLocation == null) {
+            // A parent without location may still get one, which the children of its location wouldn't be told about
+            return new WorldTransform(location, new Vector3f(location.position), new Quat4f(location.rotation), location.scale,
+                    null, null, !location.parent.exists());
+        }
+        WorldTransform parentTransform = parentLocation.getWorldTransform();
+        Vector3f position = new Vector3f(location.position);
+        position.scale(parentTransform.scale);
+        parentTransform.rotation.rotate(position, position);
+        position.add(parentTransform.position);
+        Quat4f rotation = new Quat4f(0, 0, 0, 1);
+        rotation.mul(parentTransform.rotation, location.rotation);
+        return new WorldTransform(location, position, rotation, location.scale * parentTransform.scale,
+                parentLocation, parentTransform, parentTransform.cacheable);
+    }
+
+    /**
+     * @return Whether the snapshot may be stored in the location until the location or one of its ancestors changes
+     */
+    boolean isCacheable() {
+        return cacheable;
+    }
+
+    /**
+     * @return Whether the local state of the location and the world transform of its parent are still the ones the
+     * snapshot was computed from. Checks the ancestors without looking up any component.
+     */
+    boolean isValidFor(LocationComponent location) {
+        return localScale == location.scale && parent.equals(location.parent)
+                && localPosition.equals(location.position) && localRotation.equals(location.rotation)
+                && (parentLocation == null || parentLocation.getWorldTransform() == parentTransform);
+    }
+}
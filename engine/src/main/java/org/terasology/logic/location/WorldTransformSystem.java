@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.logic.location;
+
+import com.google.common.collect.Queues;
+import com.google.common.collect.Sets;
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
+import org.terasology.entitySystem.entity.lifecycleEvents.OnActivatedComponent;
+import org.terasology.entitySystem.entity.lifecycleEvents.OnChangedComponent;
+import org.terasology.entitySystem.event.ReceiveEvent;
+import org.terasology.entitySystem.systems.BaseComponentSystem;
+import org.terasology.entitySystem.systems.RegisterSystem;
+import org.terasology.entitySystem.systems.UpdateSubscriberSystem;
+
+import java.util.Deque;
+import java.util.Set;
+
+/**
+ * Keeps the world transform snapshots of the {@link LocationComponent}s up to date.
+ * <br><br>
+ * Changing a location drops the snapshots of its whole subtree. The locations that were saved since the last update
+ * get new snapshots in a single breadth first pass over them and their descendants on the main thread, so that the
+ * many reads of world positions during a frame use them. Until then, reads compute the world transform without
+ * storing it. Locations get their snapshot after their ancestors, as a snapshot is only valid while the one of its
+ * parent is.
+ */
+@RegisterSystem
+public class WorldTransformSystem extends BaseComponentSystem implements UpdateSubscriberSystem {
+    private final Set<EntityRef> changedEntities = Sets.newLinkedHashSet();
+
+    @ReceiveEvent
+    public void onActivated(OnActivatedComponent event, EntityRef entity, LocationComponent location) {
+        location.invalidateWorldTransform();
+        changedEntities.add(entity);
+    }
+
+    @ReceiveEvent
+    public void onChanged(OnChangedComponent event, EntityRef entity, LocationComponent location) {
+        // The location may have been replaced by another instance or modified in place
+        location.invalidateWorldTransform();
+        changedEntities.add(entity);
+    }
+
+    @ReceiveEvent
+    public void onDeactivated(BeforeDeactivateComponent event, EntityRef entity, LocationComponent location) {
+        location.invalidateWorldTransform();
+        changedEntities.remove(entity);
+    }
+
+    @Override
+    public void update(float delta) {
+        if (changedEntities.isEmpty()) {
+            return;
+        }
+        // Changed locations with a changed ancestor are reached through the ancestor
+        Deque<EntityRef> queue = Queues.newArrayDeque();
+        for (EntityRef entity : changedEntities) {
+            if (!hasChangedAncestor(entity)) {
+                queue.add(entity);
+            }
+        }
+        Set<EntityRef> visited = Sets.newHashSet(queue);
+        changedEntities.clear();
+        while (!queue.isEmpty()) {
+            EntityRef entity = queue.poll();
+            LocationComponent location = entity.getComponent(LocationComponent.class);
+            if (location == null) {
+                continue;
+            }
+            WorldTransform transform = WorldTransform.compute(location);
+            if (transform.isCacheable()) {
+                location.worldTransform = transform;
+            }
+            for (EntityRef child : location.getChildren()) {
+                if (visited.add(child)) {
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    private boolean hasChangedAncestor(EntityRef entity) {
+        LocationComponent location = entity.getComponent(LocationComponent.class);
+        while (location != null && location.parent.exists()) {
+            if (changedEntities.contains(location.parent)) {
+                return true;
+            }
+            location = location.parent.getComponent(LocationComponent.class);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.monitoring;
+
+/**
+ * Receives every activity finished on any thread, as collected by the {@link PerformanceMonitor}. All methods are
+ * called on the main thread, while the monitor rolls its cycle. Times are in nanoseconds, as returned by
+ * {@link System#nanoTime()}.
+ */
+public interface ActivitySpanListener {
+
+    /**
+     * @param thread    The thread that ran the activity
+     * @param activity  The name of the activity
+     * @param depth     The number of activities the activity was nested in
+     * @param startTime The start of the activity
+     * @param endTime   The end of the activity
+     * @param allocated The number of bytes allocated by the activity itself, not by nested activities
+     */
+    void onSpan(Thread thread, String activity, int depth, long startTime, long endTime, long allocated);
+
+    /**
+     * Called after the spans of a cycle (usually a frame) were passed to the listener.
+     *
+     * @param time The end of the cycle
+     */
+    void onCycle(long time);
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.monitoring;
+
+/**
+ * Latency and allocation statistics of an activity on a single thread, as gathered by the {@link PerformanceMonitor}.
+ * Times are in milliseconds and include the time spent in nested activities, allocations are in bytes and don't.
+ */
+public final class ActivityStatistics {
+    private final String threadName;
+    private final String activityName;
+    private final long count;
+    private final double meanTime;
+    private final double medianTime;
+    private final double p99Time;
+    private final double maxTime;
+    private final long allocatedBytes;
+
+    public ActivityStatistics(String threadName, String activityName, long count, double meanTime, double medianTime,
+                              double p99Time, double maxTime, long allocatedBytes) {
+        this.threadName = threadName;
+        this.activityName = activityName;
+        this.count = count;
+        this.meanTime = meanTime;
+        this.medianTime = medianTime;
+        this.p99Time = p99Time;
+        this.maxTime = maxTime;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public String getActivityName() {
+        return activityName;
+    }
+
+    /**
+     * @return The number of times the activity ended
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public double getMeanTime() {
+        return meanTime;
+    }
+
+    /**
+     * @return The 50th percentile of the execution times
+     */
+    public double getMedianTime() {
+        return medianTime;
+    }
+
+    /**
+     * @return The 99th percentile of the execution times
+     */
+    public double getP99Time() {
+        return p99Time;
+    }
+
+    public double getMaxTime() {
+        return maxTime;
+    }
+
+    /**
+     * @return The total number of bytes allocated by the activity, or 0 if the JVM can't measure allocations per thread
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s - %s: n=%d p50=%.3fms p99=%.3fms max=%.3fms alloc=%dB",
+                threadName, activityName, count, medianTime, p99Time, maxTime, allocatedBytes);
+    }
+}
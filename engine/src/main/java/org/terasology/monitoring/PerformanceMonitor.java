@@ -20,6 +20,8 @@
 import org.terasology.monitoring.impl.PerformanceMonitorImpl;
 import org.terasology.monitoring.impl.PerformanceMonitorInternal;
 
+import java.util.List;
+
 /**
  * Maintains a running average of execution times and memory allocated by different activities.
  * Activities call to denote when they start and stop.
@@ -27,11 +29,14 @@
  * Activities may be nested, and while a nested activity is running the collection of data from outer activities
  * is paused: time passing and allocated memory are not assigned to them.
  * <br><br>
- * Performance monitor is intended only for use by the main thread of Terasology, and does not handle
- * activities being started and ended on other threads at this time.
+ * Activities can be started and ended on any thread, each thread has its own stack of activities. The running means,
+ * spikes and allocation means describe the main thread only, while {@link #getActivityStatistics()} covers all
+ * threads.
  */
 public final class PerformanceMonitor {
     private static PerformanceMonitorInternal instance;
+    private static boolean enabled;
+    private static ActivitySpanListener spanListener;
 
     static {
         instance = new NullPerformanceMonitor();
@@ -140,19 +145,67 @@ public static TObjectDoubleMap<String> getAllocationMean() {
         return instance.getAllocationMean();
     }
 
+    /**
+     * Returns the state of the pipelines run by the shared task scheduler, as sampled at the last cycle: for each
+     * pipeline the number of queued tasks ("name - queued") and the number of its tasks that were executed by workers
+     * of other pipelines during the last cycle ("name - stolen").
+     *
+     * @return a mapping from pipeline metric to its value.
+     */
+    public static TObjectDoubleMap<String> getTaskPipelineMetrics() {
+        return instance.getTaskPipelineMetrics();
+    }
+
+    /**
+     * Returns latency and allocation statistics for each activity on each thread that recorded activities, gathered
+     * since the monitor was enabled or since the last call to {@link #resetActivityStatistics()}. Data from other
+     * threads is collected by {@link #rollCycle()}.
+     *
+     * @return the statistics, sorted by thread name and activity name.
+     */
+    public static List<ActivityStatistics> getActivityStatistics() {
+        return instance.getActivityStatistics();
+    }
+
+    /**
+     * Discards the statistics returned by {@link #getActivityStatistics()} gathered so far.
+     */
+    public static void resetActivityStatistics() {
+        instance.resetActivityStatistics();
+    }
+
     /**
      * Enables or disables the Performance Monitoring system.
      * <br><br>
      * When disabled all data is purged and calls to startActivity()/endActivity() and rollCycle() are ignored.
+     * The system stays on while a span listener is set.
      *
      * @param enabled True turns the Performance Monitoring system ON. False turns it OFF.
      */
     public static void setEnabled(boolean enabled) {
-        if (enabled && !(instance instanceof PerformanceMonitorImpl)) {
+        PerformanceMonitor.enabled = enabled;
+        updateInstance();
+    }
+
+    /**
+     * Sets the listener that receives every finished activity, for example to record a trace. The Performance
+     * Monitoring system is turned on while a listener is set. Must be called on the main thread.
+     *
+     * @param listener The new listener, or null to remove the current one
+     */
+    public static void setSpanListener(ActivitySpanListener listener) {
+        spanListener = listener;
+        updateInstance();
+    }
+
+    private static void updateInstance() {
+        boolean active = enabled || spanListener != null;
+        if (active && !(instance instanceof PerformanceMonitorImpl)) {
             instance = new PerformanceMonitorImpl();
-        } else if (!enabled && !(instance instanceof NullPerformanceMonitor)) {
+        } else if (!active && !(instance instanceof NullPerformanceMonitor)) {
             instance = new NullPerformanceMonitor();
         }
+        instance.setSpanListener(spanListener);
     }
 
 }
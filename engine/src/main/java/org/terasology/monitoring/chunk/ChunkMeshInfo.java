@@ -36,8 +36,8 @@ public ChunkMeshInfo(ChunkMesh mesh) {
         if (!mesh.isGenerated()) {
             for (ChunkMesh.RenderType type : ChunkMesh.RenderType.values()) {
                 final ChunkMesh.VertexElements element = mesh.getVertexElements(type);
-                vertices += element.finalVertices.limit();
-                indices += element.finalIndices.limit();
+                vertices += element.getVertexCount();
+                indices += element.getIndexCount();
             }
         }
 
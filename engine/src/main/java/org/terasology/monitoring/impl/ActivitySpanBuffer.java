@@ -0,0 +1,115 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.monitoring.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, lock-free ring buffer of finished activity spans, written by a single thread and drained by another one.
+ * <br><br>
+ * The writer never blocks and never overwrites spans that were not drained yet: spans that don't fit into the buffer
+ * are dropped and counted instead. Spans are stored in parallel primitive arrays, so recording a span does not
+ * allocate.
+ */
+public final class ActivitySpanBuffer {
+    private final int mask;
+    private final int[] activities;
+    private final int[] depths;
+    private final long[] startTimes;
+    private final long[] endTimes;
+    private final long[] ownTimes;
+    private final long[] allocations;
+
+    // Number of spans written, only advanced by the writer
+    private final AtomicLong written = new AtomicLong();
+    // Number of spans drained, only advanced by the reader
+    private final AtomicLong read = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * @param capacity The maximum number of spans between two drains, rounded up to a power of two
+     */
+    public ActivitySpanBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        this.mask = size - 1;
+        this.activities = new int[size];
+        this.depths = new int[size];
+        this.startTimes = new long[size];
+        this.endTimes = new long[size];
+        this.ownTimes = new long[size];
+        this.allocations = new long[size];
+    }
+
+    /**
+     * Adds a finished span. Must only be called by the writing thread.
+     *
+     * @param activity  The id of the activity
+     * @param depth     The number of activities the span is nested in
+     * @param startTime The start of the span, in nanoseconds
+     * @param endTime   The end of the span, in nanoseconds
+     * @param ownTime   The time spent in the activity itself rather than in nested activities, in nanoseconds
+     * @param allocated The number of bytes allocated by the activity itself
+     * @return Whether the span was added, rather than dropped because the buffer is full
+     */
+    public boolean add(int activity, int depth, long startTime, long endTime, long ownTime, long allocated) {
+        long index = written.get();
+        if (index - read.get() > mask) {
+            dropped.lazySet(dropped.get() + 1);
+            return false;
+        }
+        int slot = (int) index & mask;
+        activities[slot] = activity;
+        depths[slot] = depth;
+        startTimes[slot] = startTime;
+        endTimes[slot] = endTime;
+        ownTimes[slot] = ownTime;
+        allocations[slot] = allocated;
+        written.lazySet(index + 1);
+        return true;
+    }
+
+    /**
+     * Passes all spans added so far to the consumer, oldest first. Must only be called by the reading thread.
+     *
+     * @return The number of drained spans
+     */
+    public int drain(SpanConsumer consumer) {
+        long start = read.get();
+        long end = written.get();
+        for (long index = start; index < end; index++) {
+            int slot = (int) index & mask;
+            consumer.accept(activities[slot], depths[slot], startTimes[slot], endTimes[slot], ownTimes[slot], allocations[slot]);
+        }
+        read.lazySet(end);
+        return (int) (end - start);
+    }
+
+    /**
+     * @return The number of spans that were dropped because the buffer was full
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    @FunctionalInterface
+    public interface SpanConsumer {
+        void accept(int activity, int depth, long startTime, long endTime, long ownTime, long allocated);
+    }
+}
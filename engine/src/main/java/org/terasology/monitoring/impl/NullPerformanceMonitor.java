@@ -18,6 +18,11 @@
 import gnu.trove.map.TObjectDoubleMap;
 import gnu.trove.map.hash.TObjectDoubleHashMap;
 import org.terasology.monitoring.Activity;
+import org.terasology.monitoring.ActivitySpanListener;
+import org.terasology.monitoring.ActivityStatistics;
+
+import java.util.Collections;
+import java.util.List;
 
 /**
  */
@@ -53,4 +58,22 @@ public TObjectDoubleMap<String> getAllocationMean() {
         return metrics;
     }
 
+    @Override
+    public TObjectDoubleMap<String> getTaskPipelineMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public List<ActivityStatistics> getActivityStatistics() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void resetActivityStatistics() {
+    }
+
+    @Override
+    public void setSpanListener(ActivitySpanListener listener) {
+    }
+
 }
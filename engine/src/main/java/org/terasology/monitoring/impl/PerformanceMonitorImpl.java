@@ -16,38 +16,60 @@
 package org.terasology.monitoring.impl;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Queues;
+import gnu.trove.iterator.TIntObjectIterator;
+import gnu.trove.map.TIntLongMap;
+import gnu.trove.map.TIntObjectMap;
 import gnu.trove.map.TObjectDoubleMap;
 import gnu.trove.map.TObjectLongMap;
+import gnu.trove.map.hash.TIntLongHashMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
 import gnu.trove.map.hash.TObjectDoubleHashMap;
 import gnu.trove.map.hash.TObjectLongHashMap;
 import gnu.trove.procedure.TObjectDoubleProcedure;
 import gnu.trove.procedure.TObjectLongProcedure;
-import org.terasology.engine.EngineTime;
-import org.terasology.engine.Time;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.terasology.monitoring.Activity;
-import org.terasology.registry.CoreRegistry;
-
-import java.util.Deque;
+import org.terasology.monitoring.ActivitySpanListener;
+import org.terasology.monitoring.ActivityStatistics;
+import org.terasology.utilities.concurrency.WorkStealingScheduler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Active implementation of Performance Monitor
+ * <br><br>
+ * Activities are recorded on every thread: each thread keeps its own stack of running activities and writes the
+ * activities it finishes into its own {@link ActivitySpanBuffer}, so recording needs neither locks nor allocations.
+ * Times are measured with {@link System#nanoTime()}, allocations with the allocation counter of the thread if the JVM
+ * provides one. The buffers are drained by {@link #rollCycle()}, which must be called by the main thread.
+ * <br><br>
+ * The running means, spikes and allocation means cover the main thread only, as they are meant to describe frames.
+ * Latency histograms are kept for every activity on every thread.
  */
 // TODO: Check to ensure activities are being started and stopped correctly
 // TODO: Remove activities with 0 time
 public class PerformanceMonitorImpl implements PerformanceMonitorInternal {
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceMonitorImpl.class);
     private static final int RETAINED_CYCLES = 60;
     private static final double DECAY_RATE = 0.98;
-    private static final Activity OFF_THREAD_ACTIVITY = new NullActivity();
-    // NullActivity instances are used by the NullPerformanceMonitor and for processes NOT running
-    // on the main thread. Not strictly necessary (these processes are ignored by the PerformanceMonitor
-    // anyway) an instance of this class offers a slight performance improvement over standard Activity
-    // implementations as it doesn't call the PerformanceMonitor.endActivity() method.
+    private static final double NANOS_PER_MS = 1000000.0;
+    private static final int SPAN_BUFFER_CAPACITY = 8192;
+    private static final int INITIAL_STACK_DEPTH = 16;
 
     private final Activity activityInstance = new ActivityInstance();
 
-    private final Deque<ActivityInfo> activityStack;
+    private final ThreadLocal<ThreadRecorder> threadRecorders = ThreadLocal.withInitial(this::createThreadRecorder);
+    private final List<ThreadRecorder> allThreadRecorders = new CopyOnWriteArrayList<>();
+    private final Map<String, Integer> activityIds = new ConcurrentHashMap<>();
+    private final List<String> activityNames = new CopyOnWriteArrayList<>();
 
     private final List<TObjectLongMap<String>> executionData;
     private final List<TObjectLongMap<String>> allocationData;
@@ -57,6 +79,8 @@ public class PerformanceMonitorImpl implements PerformanceMonitorInternal {
     private final TObjectLongMap<String> runningExecutionTotals;
     private final TObjectLongMap<String> runningAllocationTotals;
     private final TObjectDoubleMap<String> spikeData;
+    private final TObjectDoubleMap<String> taskPipelineMetrics;
+    private final TObjectLongMap<String> stolenTaskTotals;
 
     private final TObjectDoubleProcedure<String> decayLargestExecutionTime;
     private final TObjectLongProcedure<String> updateExecutionTimeTotalAndSpikeData;
@@ -68,10 +92,10 @@ public class PerformanceMonitorImpl implements PerformanceMonitorInternal {
     private final SetterOfActivityToRunningMeanMapEntry setAllocatedMemoryRunningMean;
 
     private final Thread mainThread;
-    private final EngineTime timer;
+    private final com.sun.management.ThreadMXBean allocationCounter;
+    private ActivitySpanListener spanListener;
 
     public PerformanceMonitorImpl() {
-        activityStack  = Queues.newArrayDeque();
         executionData  = Lists.newLinkedList();
         allocationData = Lists.newLinkedList();
         currentExecutionData = new TObjectLongHashMap<>();
@@ -79,6 +103,8 @@ public PerformanceMonitorImpl() {
         runningExecutionTotals = new TObjectLongHashMap<>();
         runningAllocationTotals = new TObjectLongHashMap<>();
         spikeData = new TObjectDoubleHashMap<>();
+        taskPipelineMetrics = new TObjectDoubleHashMap<>();
+        stolenTaskTotals = new TObjectLongHashMap<>();
 
         decayLargestExecutionTime  = new DecayerOfActivityLargestExecutionTime();
         updateExecutionTimeTotalAndSpikeData = new UpdaterOfActivityExecutionTimeTotalAndSpikeData();
@@ -89,12 +115,32 @@ public PerformanceMonitorImpl() {
         setExecutionTimeRunningMean = new SetterOfActivityToRunningMeanMapEntry();
         setAllocatedMemoryRunningMean = new SetterOfActivityToRunningMeanMapEntry();
 
-        timer = (EngineTime) CoreRegistry.get(Time.class);
         mainThread = Thread.currentThread();
+        allocationCounter = createAllocationCounter();
+    }
+
+    private static com.sun.management.ThreadMXBean createAllocationCounter() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (counter.isThreadAllocatedMemorySupported()) {
+                if (!counter.isThreadAllocatedMemoryEnabled()) {
+                    counter.setThreadAllocatedMemoryEnabled(true);
+                }
+                return counter;
+            }
+        }
+        logger.info("Allocations per thread can't be measured by this JVM, activity allocations won't be tracked");
+        return null;
     }
 
     @Override
     public void rollCycle() {
+        drainSpans();
+        if (spanListener != null) {
+            spanListener.onCycle(System.nanoTime());
+        }
+
         executionData.add(currentExecutionData);
         allocationData.add(currentAllocationData);
 
@@ -114,54 +160,78 @@ public void rollCycle() {
 
         currentExecutionData = new TObjectLongHashMap<>();
         currentAllocationData = new TObjectLongHashMap<>();
+
+        updateTaskPipelineMetrics();
     }
 
-    @Override
-    public Activity startActivity(String activityName) {
-        if (Thread.currentThread() != mainThread) {
-            return OFF_THREAD_ACTIVITY;
+    private void drainSpans() {
+        for (ThreadRecorder recorder : allThreadRecorders) {
+            boolean alive = recorder.thread.isAlive();
+            recorder.spans.drain(recorder);
+            long dropped = recorder.spans.getDropped();
+            if (dropped > recorder.reportedDroppedSpans) {
+                logger.warn("Dropped {} activity spans of thread {}, more than {} spans were recorded within a cycle",
+                        dropped - recorder.reportedDroppedSpans, recorder.thread.getName(), recorder.spans.getCapacity());
+                recorder.reportedDroppedSpans = dropped;
+            }
+            if (!alive) {
+                // The thread can't add any spans anymore, so all of them have been drained
+                allThreadRecorders.remove(recorder);
+            }
         }
+    }
 
-        ActivityInfo newActivity = new ActivityInfo(activityName).initialize();
-
-        if (!activityStack.isEmpty()) {
-            ActivityInfo currentActivity = activityStack.peek();
-            currentActivity.ownTime += newActivity.startTime - ((currentActivity.resumeTime > 0) ? currentActivity.resumeTime : currentActivity.startTime);
-            currentActivity.ownMem += (currentActivity.startMem - newActivity.startMem > 0) ? currentActivity.startMem - newActivity.startMem : 0;
+    private void updateTaskPipelineMetrics() {
+        taskPipelineMetrics.clear();
+        for (WorkStealingScheduler.Pipeline<?> pipeline : WorkStealingScheduler.getShared().getPipelines()) {
+            long stolenTasks = pipeline.getStolenTasks();
+            long previouslyStolenTasks = stolenTaskTotals.put(pipeline.getName(), stolenTasks);
+            taskPipelineMetrics.put(pipeline.getName() + " - queued", pipeline.getQueueDepth());
+            // The counter starts over when a pipeline gets replaced by a new one with the same name
+            long stolenDuringCycle = (stolenTasks >= previouslyStolenTasks) ? stolenTasks - previouslyStolenTasks : stolenTasks;
+            taskPipelineMetrics.put(pipeline.getName() + " - stolen", stolenDuringCycle);
         }
+    }
 
-        activityStack.push(newActivity);
+    @Override
+    public Activity startActivity(String activityName) {
+        threadRecorders.get().start(getActivityId(activityName));
         return activityInstance;
     }
 
     @Override
     public void endActivity() {
-        if (Thread.currentThread() != mainThread || activityStack.isEmpty()) {
-            return;
-        }
+        threadRecorders.get().end();
+    }
 
-        ActivityInfo oldActivity = activityStack.pop();
+    private int getActivityId(String activityName) {
+        Integer id = activityIds.get(activityName);
+        if (id == null) {
+            id = activityIds.computeIfAbsent(activityName, name -> {
+                synchronized (activityNames) {
+                    activityNames.add(name);
+                    return activityNames.size() - 1;
+                }
+            });
+        }
+        return id;
+    }
 
-        long endTime = timer.getRealTimeInMs();
-        long totalTime = (oldActivity.resumeTime > 0) ? oldActivity.ownTime + endTime - oldActivity.resumeTime : endTime - oldActivity.startTime;
-        currentExecutionData.adjustOrPutValue(oldActivity.name, totalTime, totalTime);
-        
-        long endMem = Runtime.getRuntime().freeMemory();
-        long totalMem = (oldActivity.startMem - endMem > 0) ? oldActivity.startMem - endMem + oldActivity.ownMem : oldActivity.ownMem;
-        currentAllocationData.adjustOrPutValue(oldActivity.name, totalMem, totalMem);
+    private ThreadRecorder createThreadRecorder() {
+        ThreadRecorder recorder = new ThreadRecorder(Thread.currentThread());
+        allThreadRecorders.add(recorder);
+        return recorder;
+    }
 
-        if (!activityStack.isEmpty()) {
-            ActivityInfo currentActivity = activityStack.peek();
-            currentActivity.resumeTime = endTime;
-            currentActivity.startMem = endMem;
-        }
+    private long getAllocatedBytes(long threadId) {
+        return (allocationCounter != null) ? allocationCounter.getThreadAllocatedBytes(threadId) : 0;
     }
 
     @Override
     public TObjectDoubleMap<String> getRunningMean() {
         TObjectDoubleMap<String> activityToMeanMap = new TObjectDoubleHashMap<>();
         setExecutionTimeRunningMean.setActivityToMeanMap(activityToMeanMap);
-        setExecutionTimeRunningMean.setFactor(1.0 / executionData.size());
+        setExecutionTimeRunningMean.setFactor(1.0 / (executionData.size() * NANOS_PER_MS));
 
         runningExecutionTotals.forEachEntry(setExecutionTimeRunningMean);
 
@@ -184,22 +254,137 @@ public TObjectDoubleMap<String> getAllocationMean() {
         return activityToMeanMap;
     }
 
-    private class ActivityInfo {
-        public String name;
-        public long startTime;
-        public long resumeTime;
-        public long ownTime;
-        public long startMem;
-        public long ownMem;
+    @Override
+    public TObjectDoubleMap<String> getTaskPipelineMetrics() {
+        return taskPipelineMetrics;
+    }
+
+    @Override
+    public List<ActivityStatistics> getActivityStatistics() {
+        List<ActivityStatistics> result = Lists.newArrayList();
+        for (ThreadRecorder recorder : allThreadRecorders) {
+            String threadName = recorder.thread.getName();
+            TIntObjectIterator<LatencyHistogram> iterator = recorder.histograms.iterator();
+            while (iterator.hasNext()) {
+                iterator.advance();
+                LatencyHistogram histogram = iterator.value();
+                if (histogram.getCount() > 0) {
+                    result.add(new ActivityStatistics(threadName, activityNames.get(iterator.key()), histogram.getCount(),
+                            histogram.getMean() / NANOS_PER_MS, histogram.getPercentile(50) / NANOS_PER_MS,
+                            histogram.getPercentile(99) / NANOS_PER_MS, histogram.getMax() / NANOS_PER_MS,
+                            recorder.allocationTotals.get(iterator.key())));
+                }
+            }
+        }
+        result.sort(Comparator.comparing(ActivityStatistics::getThreadName).thenComparing(ActivityStatistics::getActivityName));
+        return result;
+    }
+
+    @Override
+    public void setSpanListener(ActivitySpanListener listener) {
+        this.spanListener = listener;
+    }
 
-        public ActivityInfo(String activityName) {
-            this.name = activityName;
+    @Override
+    public void resetActivityStatistics() {
+        for (ThreadRecorder recorder : allThreadRecorders) {
+            recorder.histograms.forEachValue(histogram -> {
+                histogram.reset();
+                return true;
+            });
+            recorder.allocationTotals.clear();
         }
+    }
 
-        public ActivityInfo initialize() {
-            this.startTime = timer.getRealTimeInMs();
-            this.startMem = Runtime.getRuntime().freeMemory();
-            return this;
+    /**
+     * The activities of a single thread. The stack is only touched by the thread itself, the statistics only by the
+     * main thread when it drains the spans.
+     */
+    private final class ThreadRecorder implements ActivitySpanBuffer.SpanConsumer {
+        private final Thread thread;
+        private final long threadId;
+        private final ActivitySpanBuffer spans = new ActivitySpanBuffer(SPAN_BUFFER_CAPACITY);
+        private long reportedDroppedSpans;
+
+        private int depth;
+        private int[] stackActivities = new int[INITIAL_STACK_DEPTH];
+        private long[] stackStartTimes = new long[INITIAL_STACK_DEPTH];
+        private long[] stackResumeTimes = new long[INITIAL_STACK_DEPTH];
+        private long[] stackOwnTimes = new long[INITIAL_STACK_DEPTH];
+        private long[] stackResumeAllocations = new long[INITIAL_STACK_DEPTH];
+        private long[] stackOwnAllocations = new long[INITIAL_STACK_DEPTH];
+
+        private final TIntObjectMap<LatencyHistogram> histograms = new TIntObjectHashMap<>();
+        private final TIntLongMap allocationTotals = new TIntLongHashMap();
+
+        private ThreadRecorder(Thread thread) {
+            this.thread = thread;
+            this.threadId = thread.getId();
+        }
+
+        private void start(int activity) {
+            long now = System.nanoTime();
+            long allocated = getAllocatedBytes(threadId);
+            if (depth > 0) {
+                int parent = depth - 1;
+                stackOwnTimes[parent] += now - stackResumeTimes[parent];
+                stackOwnAllocations[parent] += allocated - stackResumeAllocations[parent];
+            }
+            if (depth == stackActivities.length) {
+                growStack();
+            }
+            stackActivities[depth] = activity;
+            stackStartTimes[depth] = now;
+            stackResumeTimes[depth] = now;
+            stackOwnTimes[depth] = 0;
+            stackResumeAllocations[depth] = allocated;
+            stackOwnAllocations[depth] = 0;
+            depth++;
+        }
+
+        private void end() {
+            if (depth == 0) {
+                return;
+            }
+            long now = System.nanoTime();
+            long allocated = getAllocatedBytes(threadId);
+            depth--;
+            long ownTime = stackOwnTimes[depth] + now - stackResumeTimes[depth];
+            long ownAllocation = stackOwnAllocations[depth] + allocated - stackResumeAllocations[depth];
+            spans.add(stackActivities[depth], depth, stackStartTimes[depth], now, ownTime, ownAllocation);
+            if (depth > 0) {
+                stackResumeTimes[depth - 1] = now;
+                stackResumeAllocations[depth - 1] = allocated;
+            }
+        }
+
+        private void growStack() {
+            int length = stackActivities.length * 2;
+            stackActivities = Arrays.copyOf(stackActivities, length);
+            stackStartTimes = Arrays.copyOf(stackStartTimes, length);
+            stackResumeTimes = Arrays.copyOf(stackResumeTimes, length);
+            stackOwnTimes = Arrays.copyOf(stackOwnTimes, length);
+            stackResumeAllocations = Arrays.copyOf(stackResumeAllocations, length);
+            stackOwnAllocations = Arrays.copyOf(stackOwnAllocations, length);
+        }
+
+        @Override
+        public void accept(int activity, int spanDepth, long startTime, long endTime, long ownTime, long allocated) {
+            LatencyHistogram histogram = histograms.get(activity);
+            if (histogram == null) {
+                histogram = new LatencyHistogram();
+                histograms.put(activity, histogram);
+            }
+            histogram.record(endTime - startTime);
+            allocationTotals.adjustOrPutValue(activity, allocated, allocated);
+            if (spanListener != null) {
+                spanListener.onSpan(thread, activityNames.get(activity), spanDepth, startTime, endTime, allocated);
+            }
+            if (thread == mainThread) {
+                String name = activityNames.get(activity);
+                currentExecutionData.adjustOrPutValue(name, ownTime, ownTime);
+                currentAllocationData.adjustOrPutValue(name, allocated, allocated);
+            }
         }
     }
 
@@ -226,8 +411,9 @@ private class UpdaterOfActivityExecutionTimeTotalAndSpikeData implements TObject
         public boolean execute(String activityName, long latestExecutionTime) {
             runningExecutionTotals.adjustOrPutValue(activityName, latestExecutionTime, latestExecutionTime);
             latestSpike = spikeData.get(activityName);
-            if (latestExecutionTime > latestSpike) {
-                spikeData.put(activityName, latestExecutionTime);
+            double latestExecutionTimeMs = latestExecutionTime / NANOS_PER_MS;
+            if (latestExecutionTimeMs > latestSpike) {
+                spikeData.put(activityName, latestExecutionTimeMs);
             }
             return true;
         }
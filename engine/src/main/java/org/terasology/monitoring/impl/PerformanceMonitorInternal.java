@@ -17,6 +17,10 @@
 
 import gnu.trove.map.TObjectDoubleMap;
 import org.terasology.monitoring.Activity;
+import org.terasology.monitoring.ActivitySpanListener;
+import org.terasology.monitoring.ActivityStatistics;
+
+import java.util.List;
 
 /**
  * Base interface for performance monitor implementations.
@@ -34,4 +38,12 @@ public interface PerformanceMonitorInternal {
     TObjectDoubleMap<String> getDecayingSpikes();
 
     TObjectDoubleMap<String> getAllocationMean();
+
+    TObjectDoubleMap<String> getTaskPipelineMetrics();
+
+    List<ActivityStatistics> getActivityStatistics();
+
+    void resetActivityStatistics();
+
+    void setSpanListener(ActivitySpanListener listener);
 }
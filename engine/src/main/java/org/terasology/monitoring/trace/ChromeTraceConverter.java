@@ -0,0 +1,171 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.monitoring.trace;
+
+import com.google.gson.stream.JsonWriter;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Converts binary performance trace files into the JSON trace event format of Chrome's trace viewer
+ * (chrome://tracing), which also is understood by other profiling tools.
+ * <br><br>
+ * Activities become complete events on the thread that ran them, garbage collections complete events on a separate
+ * "GC" track and cycles global instant events.
+ */
+public final class ChromeTraceConverter {
+    private static final int PROCESS_ID = 1;
+    private static final long GC_TRACK_ID = -1;
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    private ChromeTraceConverter() {
+    }
+
+    /**
+     * @param traceFiles The trace files to convert, in the order they were written
+     * @param jsonFile   The file to write the JSON to
+     */
+    public static void convert(List<Path> traceFiles, Path jsonFile) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(jsonFile, StandardCharsets.UTF_8);
+             JsonWriter json = new JsonWriter(out)) {
+            json.beginObject();
+            json.name("displayTimeUnit").value("ms");
+            json.name("traceEvents").beginArray();
+            TLongSet namedThreads = new TLongHashSet();
+            writeThreadName(json, GC_TRACK_ID, "GC");
+            long baseTime = Long.MIN_VALUE;
+            for (Path traceFile : traceFiles) {
+                ByteBuffer data = read(traceFile);
+                if (data.getInt() != TraceFormat.MAGIC) {
+                    throw new IOException("Not a performance trace file: " + traceFile);
+                }
+                short version = data.getShort();
+                if (version != TraceFormat.VERSION) {
+                    throw new IOException("Unsupported performance trace version " + version + ": " + traceFile);
+                }
+                data.getLong();
+                long fileTime = data.getLong();
+                if (baseTime == Long.MIN_VALUE) {
+                    baseTime = fileTime;
+                }
+                convertRecords(data, json, baseTime, namedThreads);
+            }
+            json.endArray();
+            json.endObject();
+        }
+    }
+
+    private static void convertRecords(ByteBuffer data, JsonWriter json, long baseTime, TLongSet namedThreads) throws IOException {
+        TIntObjectMap<String> names = new TIntObjectHashMap<>();
+        try {
+            while (data.hasRemaining()) {
+                byte type = data.get();
+                switch (type) {
+                    case TraceFormat.NAME:
+                        int id = data.getInt();
+                        byte[] bytes = new byte[data.getShort() & 0xFFFF];
+                        data.get(bytes);
+                        names.put(id, new String(bytes, StandardCharsets.UTF_8));
+                        break;
+                    case TraceFormat.SPAN:
+                        long threadId = data.getLong();
+                        String threadName = names.get(data.getInt());
+                        String activity = names.get(data.getInt());
+                        short depth = data.getShort();
+                        long start = data.getLong();
+                        long end = data.getLong();
+                        long allocated = data.getLong();
+                        if (namedThreads.add(threadId)) {
+                            writeThreadName(json, threadId, threadName);
+                        }
+                        json.beginObject();
+                        writeCompleteEvent(json, activity, "activity", threadId, start - baseTime, end - start);
+                        json.name("args").beginObject();
+                        json.name("depth").value(depth);
+                        json.name("allocatedBytes").value(allocated);
+                        json.endObject();
+                        json.endObject();
+                        break;
+                    case TraceFormat.CYCLE:
+                        long time = data.getLong();
+                        json.beginObject();
+                        json.name("name").value("Cycle");
+                        json.name("ph").value("i");
+                        json.name("s").value("g");
+                        json.name("ts").value((time - baseTime) / NANOS_PER_MICRO);
+                        json.name("pid").value(PROCESS_ID);
+                        json.name("tid").value(0);
+                        json.endObject();
+                        break;
+                    case TraceFormat.GC:
+                        String collector = names.get(data.getInt());
+                        long gcStart = data.getLong();
+                        long gcEnd = data.getLong();
+                        json.beginObject();
+                        writeCompleteEvent(json, collector, "gc", GC_TRACK_ID, gcStart - baseTime, gcEnd - gcStart);
+                        json.endObject();
+                        break;
+                    case TraceFormat.END:
+                        return;
+                    default:
+                        throw new IOException("Unknown performance trace record type " + type);
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            // The last record of a file that was not closed properly can be incomplete
+        }
+    }
+
+    private static void writeCompleteEvent(JsonWriter json, String name, String category, long threadId, long start, long duration)
+            throws IOException {
+        json.name("name").value(name);
+        json.name("cat").value(category);
+        json.name("ph").value("X");
+        json.name("ts").value(start / NANOS_PER_MICRO);
+        json.name("dur").value(duration / NANOS_PER_MICRO);
+        json.name("pid").value(PROCESS_ID);
+        json.name("tid").value(threadId);
+    }
+
+    private static void writeThreadName(JsonWriter json, long threadId, String threadName) throws IOException {
+        json.beginObject();
+        json.name("name").value("thread_name");
+        json.name("ph").value("M");
+        json.name("pid").value(PROCESS_ID);
+        json.name("tid").value(threadId);
+        json.name("args").beginObject().name("name").value(threadName).endObject();
+        json.endObject();
+    }
+
+    private static ByteBuffer read(Path traceFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(traceFile, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+}
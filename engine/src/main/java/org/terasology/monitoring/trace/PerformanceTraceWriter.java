@@ -0,0 +1,370 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.monitoring.trace;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Queues;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.monitoring.ActivitySpanListener;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams activity spans, cycle boundaries and garbage collections into binary trace files, in the
+ * {@link TraceFormat}, like a flight recorder.
+ * <br><br>
+ * Records are encoded into small buffers by the threads that report them, and written into memory mapped files by a
+ * background thread. A file is rotated once it reaches its maximum size, and only the most recent files are kept, so
+ * a trace can run for as long as needed. Every file defines all names it uses, so it can be read on its own. If the
+ * background thread falls behind, records are dropped rather than blocking the main thread.
+ */
+public class PerformanceTraceWriter implements ActivitySpanListener, NotificationListener, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceTraceWriter.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int BUFFER_COUNT = 64;
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private final Path directory;
+    private final long maxFileSize;
+    private final int maxFiles;
+
+    // Encoding, guarded by this
+    private final Map<String, Integer> nameIds = Maps.newHashMap();
+    private ByteBuffer currentBuffer;
+    private long droppedBuffers;
+
+    // Shared between encoding and writing
+    private final List<String> names = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<ByteBuffer> freeBuffers = Queues.newArrayBlockingQueue(BUFFER_COUNT);
+    private final BlockingQueue<ByteBuffer> filledBuffers = Queues.newArrayBlockingQueue(BUFFER_COUNT);
+    private volatile boolean running = true;
+
+    // Writing, only used by the writer thread
+    private final Deque<Path> files = Queues.newArrayDeque();
+    private FileChannel channel;
+    private MappedByteBuffer mappedFile;
+    private int writtenNames;
+    private int fileIndex;
+
+    private final Thread writerThread;
+    private final List<NotificationEmitter> gcEmitters = Lists.newArrayList();
+
+    /**
+     * Starts tracing into new files in the given directory.
+     *
+     * @param directory   The directory to write the files to, created if necessary
+     * @param maxFileSize The size of a file, in bytes, at which the next file is started
+     * @param maxFiles    The number of most recent files to keep
+     */
+    public PerformanceTraceWriter(Path directory, long maxFileSize, int maxFiles) throws IOException {
+        this.directory = directory;
+        this.maxFileSize = Math.max(maxFileSize, 2 * BUFFER_SIZE);
+        this.maxFiles = Math.max(maxFiles, 1);
+        Files.createDirectories(directory);
+        for (int i = 0; i < BUFFER_COUNT; i++) {
+            freeBuffers.add(ByteBuffer.allocateDirect(BUFFER_SIZE));
+        }
+        currentBuffer = freeBuffers.poll();
+        openNextFile();
+
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gcBean instanceof NotificationEmitter) {
+                NotificationEmitter emitter = (NotificationEmitter) gcBean;
+                emitter.addNotificationListener(this, null, null);
+                gcEmitters.add(emitter);
+            }
+        }
+
+        writerThread = new Thread(this::writeBuffers, "Performance Trace Writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return The number of buffers of records that were dropped because the writer thread fell behind
+     */
+    public synchronized long getDroppedBuffers() {
+        return droppedBuffers;
+    }
+
+    @Override
+    public synchronized void onSpan(Thread thread, String activity, int depth, long startTime, long endTime, long allocated) {
+        int threadNameId = getNameId(thread.getName());
+        int activityId = getNameId(activity);
+        if (reserve(TraceFormat.SPAN_SIZE)) {
+            currentBuffer.put(TraceFormat.SPAN);
+            currentBuffer.putLong(thread.getId());
+            currentBuffer.putInt(threadNameId);
+            currentBuffer.putInt(activityId);
+            currentBuffer.putShort((short) Math.min(depth, Short.MAX_VALUE));
+            currentBuffer.putLong(startTime);
+            currentBuffer.putLong(endTime);
+            currentBuffer.putLong(allocated);
+        }
+    }
+
+    @Override
+    public synchronized void onCycle(long time) {
+        if (reserve(TraceFormat.CYCLE_SIZE)) {
+            currentBuffer.put(TraceFormat.CYCLE);
+            currentBuffer.putLong(time);
+        }
+        // Hand the records of each cycle over, so that the files are never far behind
+        submitCurrentBuffer();
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        GcInfo gcInfo = info.getGcInfo();
+        // GC times are relative to the start of the JVM, in milliseconds
+        long now = System.nanoTime();
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        long start = now - TimeUnit.MILLISECONDS.toNanos(uptime - gcInfo.getStartTime());
+        long end = start + TimeUnit.MILLISECONDS.toNanos(gcInfo.getDuration());
+        onGarbageCollection(info.getGcName(), start, end);
+    }
+
+    private synchronized void onGarbageCollection(String collector, long start, long end) {
+        int nameId = getNameId(collector);
+        if (reserve(TraceFormat.GC_SIZE)) {
+            currentBuffer.put(TraceFormat.GC);
+            currentBuffer.putInt(nameId);
+            currentBuffer.putLong(start);
+            currentBuffer.putLong(end);
+        }
+    }
+
+    /**
+     * Stops tracing, after the records reported so far have been written.
+     */
+    @Override
+    public void close() {
+        for (NotificationEmitter emitter : gcEmitters) {
+            try {
+                emitter.removeNotificationListener(this);
+            } catch (ListenerNotFoundException e) {
+                logger.debug("GC listener was already removed", e);
+            }
+        }
+        synchronized (this) {
+            submitCurrentBuffer();
+            running = false;
+        }
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int getNameId(String name) {
+        Integer id = nameIds.get(name);
+        if (id == null) {
+            id = names.size();
+            names.add(name);
+            nameIds.put(name, id);
+        }
+        return id;
+    }
+
+    /**
+     * @return Whether the current buffer has room for the record, false if it has to be dropped
+     */
+    private boolean reserve(int size) {
+        if (currentBuffer == null || currentBuffer.remaining() < size) {
+            submitCurrentBuffer();
+        }
+        return currentBuffer != null;
+    }
+
+    private void submitCurrentBuffer() {
+        if (!running) {
+            // Tracing stopped, the records are no longer written
+            currentBuffer = null;
+            return;
+        }
+        if (currentBuffer != null && currentBuffer.position() > 0) {
+            currentBuffer.flip();
+            filledBuffers.add(currentBuffer);
+            currentBuffer = null;
+        }
+        if (currentBuffer == null) {
+            currentBuffer = freeBuffers.poll();
+            if (currentBuffer == null) {
+                droppedBuffers++;
+            }
+        }
+    }
+
+    private void writeBuffers() {
+        try {
+            while (running || !filledBuffers.isEmpty()) {
+                ByteBuffer buffer = filledBuffers.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (buffer != null) {
+                    write(buffer);
+                    buffer.clear();
+                    freeBuffers.add(buffer);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to write performance trace, tracing stopped", e);
+        } catch (InterruptedException e) {
+            logger.warn("Performance trace writer interrupted");
+        } finally {
+            stopRecording();
+            try {
+                closeFile();
+            } catch (IOException | RuntimeException e) {
+                logger.error("Failed to close performance trace file", e);
+            }
+        }
+    }
+
+    /**
+     * Makes the encoding threads drop all further records, once the writer thread ends.
+     */
+    private synchronized void stopRecording() {
+        running = false;
+        filledBuffers.clear();
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        if (mappedFile.remaining() < buffer.remaining() + getNameDefinitionsSize()) {
+            closeFile();
+            openNextFile();
+        }
+        for (; writtenNames < names.size(); writtenNames++) {
+            writeName(writtenNames, names.get(writtenNames));
+        }
+        mappedFile.put(buffer);
+    }
+
+    private int getNameDefinitionsSize() {
+        int size = 0;
+        for (int i = writtenNames; i < names.size(); i++) {
+            size += 1 + 4 + 2 + encodeName(names.get(i)).length;
+        }
+        return size;
+    }
+
+    private void writeName(int id, String name) {
+        byte[] bytes = encodeName(name);
+        mappedFile.put(TraceFormat.NAME);
+        mappedFile.putInt(id);
+        mappedFile.putShort((short) bytes.length);
+        mappedFile.put(bytes);
+    }
+
+    private static byte[] encodeName(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        return (bytes.length > TraceFormat.MAX_NAME_LENGTH) ? Arrays.copyOf(bytes, TraceFormat.MAX_NAME_LENGTH) : bytes;
+    }
+
+    private void openNextFile() throws IOException {
+        Path path = directory.resolve(String.format("trace-%05d%s", fileIndex++, TraceFormat.FILE_EXTENSION));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        mappedFile = channel.map(FileChannel.MapMode.READ_WRITE, 0, maxFileSize);
+        mappedFile.putInt(TraceFormat.MAGIC);
+        mappedFile.putShort(TraceFormat.VERSION);
+        mappedFile.putLong(System.currentTimeMillis());
+        mappedFile.putLong(System.nanoTime());
+        writtenNames = 0;
+
+        files.addLast(path);
+        while (files.size() > maxFiles) {
+            Path oldFile = files.removeFirst();
+            try {
+                Files.deleteIfExists(oldFile);
+            } catch (IOException e) {
+                // Keep tracing, the file just stays around
+                logger.warn("Failed to delete old performance trace file {}", oldFile, e);
+            }
+        }
+    }
+
+    private void closeFile() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        int size = mappedFile.position();
+        if (mappedFile.remaining() > 0) {
+            mappedFile.put(TraceFormat.END);
+        }
+        mappedFile.force();
+        unmap(mappedFile);
+        mappedFile = null;
+        try {
+            channel.truncate(size + 1);
+        } catch (IOException e) {
+            // Some platforms can't truncate mapped files, the end marker is enough for the readers
+            logger.debug("Could not truncate performance trace file", e);
+        }
+        channel.close();
+        channel = null;
+    }
+
+    /**
+     * Releases the mapping right away instead of when the buffer gets garbage collected, as some platforms can't
+     * delete files that are still mapped. The buffer must not be accessed afterwards.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.debug("Could not unmap performance trace file, it gets unmapped by the garbage collector", e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.monitoring.trace;
+
+/**
+ * The binary format of performance trace files.
+ * <br><br>
+ * A file starts with a header: the {@link #MAGIC} int, the {@link #VERSION} short, the wall clock time in
+ * milliseconds and the {@link System#nanoTime()} of the same moment as longs. The header is followed by records,
+ * each starting with its type byte. A record of type {@link #END}, or the end of the file, ends the trace. All values
+ * are big endian, times are nanoseconds as returned by {@link System#nanoTime()}.
+ * <ul>
+ * <li>{@link #NAME}: int id, short length, UTF-8 bytes. Defines a name used by later records of the file.</li>
+ * <li>{@link #SPAN}: long thread id, int thread name id, int activity name id, short depth, long start, long end,
+ * long allocated bytes</li>
+ * <li>{@link #CYCLE}: long time</li>
+ * <li>{@link #GC}: int collector name id, long start, long end</li>
+ * </ul>
+ */
+public final class TraceFormat {
+    public static final int MAGIC = 0x54524143;
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 4 + 2 + 8 + 8;
+    public static final String FILE_EXTENSION = ".trace";
+
+    public static final byte END = 0;
+    public static final byte NAME = 1;
+    public static final byte SPAN = 2;
+    public static final byte CYCLE = 3;
+    public static final byte GC = 4;
+
+    public static final int SPAN_SIZE = 1 + 8 + 4 + 4 + 2 + 8 + 8 + 8;
+    public static final int CYCLE_SIZE = 1 + 8;
+    public static final int GC_SIZE = 1 + 4 + 8 + 8;
+    public static final int MAX_NAME_LENGTH = 1024;
+
+    private TraceFormat() {
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.network.internal;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.protobuf.NetData;
+import org.terasology.world.chunks.Chunk;
+
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Server side cache of encoded chunks, so that a chunk that becomes relevant to several clients gets encoded only once.
+ * <br><br>
+ * A payload is a serialized {@link NetData.NetMessage} that contains nothing but the chunk. As protobuf merges
+ * concatenated messages, the payload can be appended to the serialized message of each client as a shared read-only
+ * buffer. A cached payload is used only as long as the chunk instance is the same and its
+ * {@link Chunk#getVersion() version} did not change.
+ */
+public class ChunkPayloadCache {
+    private static final int DEFAULT_CAPACITY = 512;
+
+    private final Map<Vector3i, CachedPayload> payloads;
+    private long hits;
+    private long misses;
+
+    public ChunkPayloadCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ChunkPayloadCache(final int capacity) {
+        this.payloads = new LinkedHashMap<Vector3i, CachedPayload>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Vector3i, CachedPayload> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @param chunk the chunk to send
+     * @return a read-only buffer with a serialized {@link NetData.NetMessage} that contains the chunk. The content of
+     * the buffer is shared with all other buffers returned for the same version of the chunk.
+     */
+    public synchronized ChannelBuffer getPayload(Chunk chunk) {
+        Vector3i pos = chunk.getPosition();
+        CachedPayload payload = payloads.get(pos);
+        if (payload != null && payload.chunk.get() == chunk && payload.version == chunk.getVersion()) {
+            hits++;
+        } else {
+            misses++;
+            int version = chunk.getVersion();
+            byte[] data = NetData.NetMessage.newBuilder().addChunkInfo(chunk.encode()).build().toByteArray();
+            payload = new CachedPayload(chunk, version, ChannelBuffers.wrappedBuffer(data));
+            payloads.put(pos, payload);
+        }
+        return ChannelBuffers.unmodifiableBuffer(payload.buffer);
+    }
+
+    public synchronized void clear() {
+        payloads.clear();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    private static final class CachedPayload {
+        private final WeakReference<Chunk> chunk;
+        private final int version;
+        private final ChannelBuffer buffer;
+
+        private CachedPayload(Chunk chunk, int version, ChannelBuffer buffer) {
+            this.chunk = new WeakReference<>(chunk);
+            this.version = version;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.network.internal;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import org.terasology.entitySystem.Component;
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.entitySystem.metadata.ComponentMetadata;
+import org.terasology.network.serialization.ServerComponentFieldCheck;
+import org.terasology.persistence.serializers.NetworkEntitySerializer;
+import org.terasology.persistence.serializers.NetworkEntitySerializer.ComponentFragment;
+import org.terasology.protobuf.EntityData;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Server side cache of serialized entities and components, so that an entity update that gets sent to several clients
+ * is serialized only once.
+ * <br><br>
+ * Components are cached per entity, per kind of update (added or changed) and per ownership. Components whose sent
+ * fields don't {@link ServerComponentFieldCheck#dependsOnOwnership depend on ownership} are shared with the owner
+ * too, so only the owner of an entity needs its own copy of the owner specific components. The cached data of an
+ * entity is dropped as soon as one of its components is added, changed or removed, and the whole cache is cleared
+ * every net tick.
+ */
+class EntityDeltaCache {
+    private final NetworkEntitySerializer entitySerializer;
+    private final TIntObjectMap<EntityEntry> entries = new TIntObjectHashMap<>();
+    private final Map<Class<? extends Component>, Boolean> ownershipDependence = Maps.newHashMap();
+
+    EntityDeltaCache(NetworkEntitySerializer entitySerializer) {
+        this.entitySerializer = entitySerializer;
+    }
+
+    /**
+     * @return The serialized entity for its creation on a client
+     */
+    EntityData.PackedEntity getInitialEntity(int netId, EntityRef entity, boolean owned) {
+        EntityEntry entry = getEntry(netId);
+        int index = owned ? 1 : 0;
+        if (entry.initial[index] == null) {
+            // Note: Send owner->server fields on initial create
+            entry.initial[index] = entitySerializer.serialize(entity, true, new ServerComponentFieldCheck(owned, true)).build();
+        }
+        return entry.initial[index];
+    }
+
+    /**
+     * @return The serialized update of the entity, or null if there is nothing to send
+     */
+    EntityData.PackedEntity getEntityUpdate(int netId, EntityRef entity, Set<Class<? extends Component>> added,
+                                            Set<Class<? extends Component>> changed, Set<Class<? extends Component>> removed,
+                                            boolean owned) {
+        List<ComponentFragment> components = Lists.newArrayListWithCapacity(added.size() + changed.size());
+        for (Class<? extends Component> componentType : added) {
+            components.add(getComponent(netId, entity, componentType, true, owned));
+        }
+        for (Class<? extends Component> componentType : changed) {
+            components.add(getComponent(netId, entity, componentType, false, owned));
+        }
+        return entitySerializer.serialize(components, removed);
+    }
+
+    void invalidate(int netId) {
+        entries.remove(netId);
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    private ComponentFragment getComponent(int netId, EntityRef entity, Class<? extends Component> componentType, boolean added,
+                                           boolean owned) {
+        ComponentKey key = new ComponentKey(componentType, added, owned && dependsOnOwnership(componentType));
+        Map<ComponentKey, ComponentFragment> components = getEntry(netId).components;
+        ComponentFragment component = components.get(key);
+        if (component == null && !components.containsKey(key)) {
+            component = entitySerializer.serializeComponent(entity, componentType, added, new ServerComponentFieldCheck(owned, false));
+            components.put(key, component);
+        }
+        return component;
+    }
+
+    private boolean dependsOnOwnership(Class<? extends Component> componentType) {
+        Boolean result = ownershipDependence.get(componentType);
+        if (result == null) {
+            ComponentMetadata<? extends Component> metadata = entitySerializer.getComponentLibrary().getMetadata(componentType);
+            result = metadata == null || ServerComponentFieldCheck.dependsOnOwnership(metadata);
+            ownershipDependence.put(componentType, result);
+        }
+        return result;
+    }
+
+    private EntityEntry getEntry(int netId) {
+        EntityEntry entry = entries.get(netId);
+        if (entry == null) {
+            entry = new EntityEntry();
+            entries.put(netId, entry);
+        }
+        return entry;
+    }
+
+    private static final class EntityEntry {
+        private final EntityData.PackedEntity[] initial = new EntityData.PackedEntity[2];
+        private final Map<ComponentKey, ComponentFragment> components = Maps.newHashMap();
+    }
+
+    private static final class ComponentKey {
+        private final Class<? extends Component> type;
+        private final boolean added;
+        private final boolean owned;
+
+        private ComponentKey(Class<? extends Component> type, boolean added, boolean owned) {
+            this.type = type;
+            this.added = added;
+            this.owned = owned;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj instanceof ComponentKey) {
+                ComponentKey other = (ComponentKey) obj;
+                return type == other.type && added == other.added && owned == other.owned;
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(type, added, owned);
+        }
+    }
+}
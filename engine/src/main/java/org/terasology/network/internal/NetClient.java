@@ -28,6 +28,8 @@
 import gnu.trove.set.TIntSet;
 import gnu.trove.set.hash.TIntHashSet;
 
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
 import org.jboss.netty.channel.Channel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -68,9 +70,11 @@
 import org.terasology.world.block.BlockComponent;
 import org.terasology.world.block.family.BlockFamily;
 import org.terasology.world.chunks.Chunk;
+import org.terasology.world.propagation.BlockChange;
 
 import java.math.RoundingMode;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -117,7 +121,8 @@ public class NetClient extends AbstractClient implements WorldChangeListener {
     private PublicIdentityCertificate identity;
 
     // Outgoing messages
-    private BlockingQueue<NetData.BlockChangeMessage> queuedOutgoingBlockChanges = Queues.newLinkedBlockingQueue();
+    // Guarded by itself, so that a batch of block changes is queued under a single lock
+    private final List<NetData.BlockChangeMessage> queuedOutgoingBlockChanges = Lists.newArrayList();
     private BlockingQueue<NetData.BiomeChangeMessage> queuedOutgoingBiomeChanges = Queues.newLinkedBlockingQueue();
     private List<NetData.EventMessage> queuedOutgoingEvents = Lists.newArrayList();
     private final List<BlockFamily> newlyRegisteredFamilies = Lists.newArrayList();
@@ -220,12 +225,16 @@ public void update(boolean netTick) {
             message.setTime(time.getGameTimeInMs());
             sendRegisteredBlocks(message);
             sendChunkInvalidations(message);
-            sendNewChunks(message);
+            ChannelBuffer chunkPayload = sendNewChunks();
             sendRemovedEntities(message);
             sendInitialEntities(message);
             sendDirtyEntities(message);
             sendEvents(message);
-            send(message.build());
+            if (chunkPayload != null) {
+                send(message.build(), chunkPayload);
+            } else {
+                send(message.build());
+            }
         }
         processReceivedMessages();
     }
@@ -244,7 +253,10 @@ private void sendRegisteredBlocks(NetData.NetMessage.Builder message) {
         }
     }
 
-    private void sendNewChunks(NetData.NetMessage.Builder message) {
+    /**
+     * @return the encoded chunk to append to the message of this tick, or null if no chunk is to be sent.
+     */
+    private ChannelBuffer sendNewChunks() {
         if (!readyChunks.isEmpty()) {
             chunkSendCounter += chunkSendRate * NET_TICK_RATE * networkSystem.getBandwidthPerClient();
             if (chunkSendCounter > 1.0f) {
@@ -265,11 +277,12 @@ private void sendNewChunks(NetData.NetMessage.Builder message) {
                 }
                 Chunk chunk = readyChunks.remove(pos);
                 relevantChunks.add(pos);
-                message.addChunkInfo(chunk.encode());
+                return networkSystem.getChunkPayloadCache().getPayload(chunk);
             }
         } else {
             chunkSendCounter = 1.0f;
         }
+        return null;
     }
 
     private void sendChunkInvalidations(NetData.NetMessage.Builder message) {
@@ -283,6 +296,13 @@ private void sendChunkInvalidations(NetData.NetMessage.Builder message) {
         invalidatedChunks.clear();
     }
 
+    /**
+     * @return Whether the entity has been or is about to be created on the client
+     */
+    public boolean isNetRelevant(int netId) {
+        return netRelevant.contains(netId) || netInitial.contains(netId);
+    }
+
     public void setNetInitial(int netId) {
         netInitial.add(netId);
     }
@@ -378,6 +398,18 @@ void send(NetData.NetMessage data) {
         channel.write(data);
     }
 
+    /**
+     * Sends a message along with an already serialized message, which protobuf merges into the first one when parsing.
+     * The serialized message is not copied, so it can be shared between clients.
+     */
+    private void send(NetData.NetMessage data, ChannelBuffer serializedData) {
+        int size = data.getSerializedSize() + serializedData.readableBytes();
+        logger.trace("Sending packet with size {}", size);
+        sentMessages.incrementAndGet();
+        sentBytes.addAndGet(size);
+        channel.write(ChannelBuffers.wrappedBuffer(ChannelBuffers.wrappedBuffer(data.toByteArray()), serializedData));
+    }
+
     @Override
     public void onChunkRelevant(Vector3i pos, Chunk chunk) {
         invalidatedChunks.remove(pos);
@@ -394,13 +426,43 @@ public void onChunkIrrelevant(Vector3i pos) {
     public void onBlockChanged(Vector3i pos, Block newBlock, Block originalBlock) {
         Vector3i chunkPos = ChunkMath.calcChunkPos(pos);
         if (relevantChunks.contains(chunkPos)) {
-            queuedOutgoingBlockChanges.add(NetData.BlockChangeMessage.newBuilder()
-                    .setPos(NetMessageUtil.convert(pos))
-                    .setNewBlock(newBlock.getId())
-                    .build());
+            NetData.BlockChangeMessage message = createBlockChangeMessage(pos, newBlock);
+            synchronized (queuedOutgoingBlockChanges) {
+                queuedOutgoingBlockChanges.add(message);
+            }
         }
     }
 
+    @Override
+    public void onBlocksChanged(Collection<BlockChange> changes) {
+        List<NetData.BlockChangeMessage> messages = Lists.newArrayListWithExpectedSize(changes.size());
+        // Bulk edits change runs of blocks in the same chunk, so the relevance of the last chunk is reused
+        Vector3i lastChunkPos = null;
+        boolean lastChunkRelevant = false;
+        for (BlockChange change : changes) {
+            Vector3i chunkPos = ChunkMath.calcChunkPos(change.getPosition());
+            if (!chunkPos.equals(lastChunkPos)) {
+                lastChunkPos = chunkPos;
+                lastChunkRelevant = relevantChunks.contains(chunkPos);
+            }
+            if (lastChunkRelevant) {
+                messages.add(createBlockChangeMessage(change.getPosition(), change.getTo()));
+            }
+        }
+        if (!messages.isEmpty()) {
+            synchronized (queuedOutgoingBlockChanges) {
+                queuedOutgoingBlockChanges.addAll(messages);
+            }
+        }
+    }
+
+    private NetData.BlockChangeMessage createBlockChangeMessage(Vector3i pos, Block newBlock) {
+        return NetData.BlockChangeMessage.newBuilder()
+                .setPos(NetMessageUtil.convert(pos))
+                .setNewBlock(newBlock.getId())
+                .build();
+    }
+
     @Override
     public void onBiomeChanged(Vector3i pos, Biome newBiome, Biome originalBiome) {
         Vector3i chunkPos = ChunkMath.calcChunkPos(pos);
@@ -426,9 +488,10 @@ private void processReceivedMessages() {
     }
 
     private void sendEvents(NetData.NetMessage.Builder message) {
-        List<NetData.BlockChangeMessage> blockChanges = Lists.newArrayListWithExpectedSize(queuedOutgoingBlockChanges.size());
-        queuedOutgoingBlockChanges.drainTo(blockChanges);
-        message.addAllBlockChange(blockChanges);
+        synchronized (queuedOutgoingBlockChanges) {
+            message.addAllBlockChange(queuedOutgoingBlockChanges);
+            queuedOutgoingBlockChanges.clear();
+        }
 
         List<NetData.BiomeChangeMessage> biomeChanges = Lists.newArrayListWithExpectedSize(queuedOutgoingBiomeChanges.size());
         queuedOutgoingBiomeChanges.drainTo(biomeChanges);
@@ -457,8 +520,8 @@ private void sendDirtyEntities(NetData.NetMessage.Builder message) {
                 logger.error("Sending non-existent entity update for netId {}", netId);
             }
             boolean isOwner = networkSystem.getOwner(entity) == this;
-            EntityData.PackedEntity entityData = entitySerializer.serialize(entity, addedComponents.get(netId), dirtyComponents.get(netId), removedComponents.get(netId),
-                    new ServerComponentFieldCheck(isOwner, false));
+            EntityData.PackedEntity entityData = networkSystem.getEntityDeltaCache().getEntityUpdate(netId, entity,
+                    addedComponents.get(netId), dirtyComponents.get(netId), removedComponents.get(netId), isOwner);
             if (entityData != null) {
                 message.addUpdateEntity(NetData.UpdateEntityMessage.newBuilder().setEntity(entityData).setNetId(netId));
             }
@@ -488,9 +551,8 @@ private void sendInitialEntities(NetData.NetMessage.Builder message) {
                 logger.error("Sending net entity with no network component: {} - {}", netId, entity);
                 continue;
             }
-            // Note: Send owner->server fields on initial create
             Client owner = networkSystem.getOwner(entity);
-            EntityData.PackedEntity entityData = entitySerializer.serialize(entity, true, new ServerComponentFieldCheck(owner == this, true)).build();
+            EntityData.PackedEntity entityData = networkSystem.getEntityDeltaCache().getInitialEntity(netId, entity, owner == this);
             NetData.CreateEntityMessage.Builder createMessage = NetData.CreateEntityMessage.newBuilder().setEntity(entityData);
             BlockComponent blockComponent = entity.getComponent(BlockComponent.class);
             if (blockComponent != null) {
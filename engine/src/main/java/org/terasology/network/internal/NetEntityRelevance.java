@@ -0,0 +1,329 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.network.internal;
+
+import com.google.common.collect.Maps;
+import gnu.trove.iterator.TIntIterator;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.logic.location.LocationComponent;
+import org.terasology.math.ChunkMath;
+import org.terasology.math.Region3i;
+import org.terasology.math.geom.Vector3f;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.network.ClientComponent;
+import org.terasology.network.NetworkComponent;
+
+import java.util.Map;
+
+/**
+ * Decides which of the network entities with {@link NetworkComponent.ReplicateMode#RELEVANT} and a location get
+ * replicated to which client, based on the distance to the client's character.
+ * <br><br>
+ * The entities are indexed by the chunk they are in. An entity gets replicated to a client once its chunk is within
+ * the view distance of the client, and it gets removed from the client only once its chunk is more than
+ * {@link #LEAVE_MARGIN} chunks further away, so that entities near the boundary don't get created and removed over
+ * and over. Entities owned by a client are always relevant to it.
+ * <br><br>
+ * Network entities without a location are not tracked, they stay relevant to all clients.
+ */
+final class NetEntityRelevance {
+    static final int LEAVE_MARGIN = 1;
+
+    private final NetworkSystemImpl networkSystem;
+
+    private final Map<Vector3i, TIntSet> entitiesByChunk = Maps.newHashMap();
+    private final TIntObjectMap<Vector3i> entityChunks = new TIntObjectHashMap<>();
+    private final TIntSet movedEntities = new TIntHashSet();
+    private final Map<NetClient, Interest> interests = Maps.newLinkedHashMap();
+
+    NetEntityRelevance(NetworkSystemImpl networkSystem) {
+        this.networkSystem = networkSystem;
+    }
+
+    /**
+     * Starts tracking the entity if it is replicated by relevance and has a location, and replicates it to the
+     * clients it is relevant to.
+     *
+     * @return Whether the entity is tracked. Untracked entities need to be replicated to all clients by the caller.
+     */
+    boolean register(int netId, EntityRef entity) {
+        Vector3i chunkPos = getChunkPos(entity);
+        if (chunkPos == null) {
+            return false;
+        }
+        index(netId, chunkPos);
+        for (Interest interest : interests.values()) {
+            if (interest.isEntering(chunkPos) || isOwner(interest.client, entity)) {
+                interest.replicate(netId);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops tracking the entity. Removing it from the clients is up to the caller.
+     */
+    void unregister(int netId) {
+        Vector3i chunkPos = entityChunks.remove(netId);
+        if (chunkPos != null) {
+            unindex(netId, chunkPos);
+            movedEntities.remove(netId);
+            for (Interest interest : interests.values()) {
+                interest.replicated.remove(netId);
+            }
+        }
+    }
+
+    boolean isTracked(int netId) {
+        return entityChunks.containsKey(netId);
+    }
+
+    /**
+     * An entity that was relevant to all clients got a location. The clients that are too far away lose it.
+     */
+    void onLocationAdded(int netId, EntityRef entity) {
+        if (!isTracked(netId) && register(netId, entity)) {
+            Vector3i chunkPos = entityChunks.get(netId);
+            for (Interest interest : interests.values()) {
+                if (!interest.replicated.contains(netId) && interest.client.isNetRelevant(netId)) {
+                    if (interest.isLeaving(chunkPos) && !isOwner(interest.client, entity)) {
+                        interest.client.setNetRemoved(netId);
+                    } else {
+                        interest.replicated.add(netId);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A tracked entity lost its location, so it becomes relevant to all clients.
+     */
+    void onLocationRemoved(int netId) {
+        if (isTracked(netId)) {
+            unregister(netId);
+            for (Interest interest : interests.values()) {
+                if (!interest.client.isNetRelevant(netId)) {
+                    interest.client.setNetInitial(netId);
+                }
+            }
+        }
+    }
+
+    void onLocationChanged(int netId) {
+        if (isTracked(netId)) {
+            movedEntities.add(netId);
+        }
+    }
+
+    /**
+     * Starts tracking the interest of a client. Tracked entities get replicated to it once its character's location
+     * is known.
+     */
+    void addClient(NetClient client) {
+        interests.put(client, new Interest(client));
+    }
+
+    void removeClient(NetClient client) {
+        interests.remove(client);
+    }
+
+    void clear() {
+        entitiesByChunk.clear();
+        entityChunks.clear();
+        movedEntities.clear();
+        interests.clear();
+    }
+
+    /**
+     * Moves the entities whose location changed to their current chunks, and creates or removes entities on the
+     * clients whose interest changed.
+     */
+    void update() {
+        if (!movedEntities.isEmpty()) {
+            int[] moved = movedEntities.toArray();
+            movedEntities.clear();
+            for (int netId : moved) {
+                updateEntity(netId, networkSystem.getEntity(netId));
+            }
+        }
+        for (Interest interest : interests.values()) {
+            if (interest.updateRegion()) {
+                interest.replicateEntering();
+                interest.removeLeaving();
+            }
+        }
+    }
+
+    private void updateEntity(int netId, EntityRef entity) {
+        Vector3i oldChunkPos = entityChunks.get(netId);
+        if (oldChunkPos == null) {
+            return;
+        }
+        LocationComponent location = entity.getComponent(LocationComponent.class);
+        if (location != null) {
+            // Attached entities move with their parent without changing their own location
+            for (EntityRef child : location.getChildren()) {
+                NetworkComponent childNetComp = child.getComponent(NetworkComponent.class);
+                if (childNetComp != null && isTracked(childNetComp.getNetworkId())) {
+                    updateEntity(childNetComp.getNetworkId(), child);
+                }
+            }
+        }
+        Vector3i chunkPos = getChunkPos(entity);
+        if (chunkPos == null || chunkPos.equals(oldChunkPos)) {
+            return;
+        }
+        unindex(netId, oldChunkPos);
+        index(netId, chunkPos);
+        for (Interest interest : interests.values()) {
+            if (interest.replicated.contains(netId)) {
+                if (interest.isLeaving(chunkPos) && !isOwner(interest.client, entity)) {
+                    interest.remove(netId);
+                }
+            } else if (interest.isEntering(chunkPos)) {
+                interest.replicate(netId);
+            }
+        }
+    }
+
+    private void index(int netId, Vector3i chunkPos) {
+        entityChunks.put(netId, chunkPos);
+        TIntSet chunkEntities = entitiesByChunk.get(chunkPos);
+        if (chunkEntities == null) {
+            chunkEntities = new TIntHashSet();
+            entitiesByChunk.put(chunkPos, chunkEntities);
+        }
+        chunkEntities.add(netId);
+    }
+
+    private void unindex(int netId, Vector3i chunkPos) {
+        TIntSet chunkEntities = entitiesByChunk.get(chunkPos);
+        if (chunkEntities != null) {
+            chunkEntities.remove(netId);
+            if (chunkEntities.isEmpty()) {
+                entitiesByChunk.remove(chunkPos);
+            }
+        }
+    }
+
+    private boolean isOwner(NetClient client, EntityRef entity) {
+        return networkSystem.getOwner(entity) == client;
+    }
+
+    private static Vector3i getChunkPos(EntityRef entity) {
+        NetworkComponent netComp = entity.getComponent(NetworkComponent.class);
+        if (netComp == null || netComp.replicateMode != NetworkComponent.ReplicateMode.RELEVANT) {
+            return null;
+        }
+        LocationComponent location = entity.getComponent(LocationComponent.class);
+        if (location == null) {
+            return null;
+        }
+        Vector3f worldPos = location.getWorldPosition();
+        if (!Float.isFinite(worldPos.x) || !Float.isFinite(worldPos.y) || !Float.isFinite(worldPos.z)) {
+            return null;
+        }
+        return ChunkMath.calcChunkPos(worldPos);
+    }
+
+    private final class Interest {
+        private final NetClient client;
+        private final TIntSet replicated = new TIntHashSet();
+        private Vector3i center;
+        private Vector3i extents;
+        private Region3i enterRegion = Region3i.EMPTY;
+
+        private Interest(NetClient client) {
+            this.client = client;
+        }
+
+        /**
+         * @return Whether the center or the size of the region of interest changed
+         */
+        private boolean updateRegion() {
+            Vector3i newCenter = null;
+            ClientComponent clientComp = client.getEntity().getComponent(ClientComponent.class);
+            if (clientComp != null) {
+                LocationComponent location = clientComp.character.getComponent(LocationComponent.class);
+                if (location != null) {
+                    newCenter = ChunkMath.calcChunkPos(location.getWorldPosition());
+                }
+            }
+            Vector3i distance = client.getViewDistance().getChunkDistance();
+            Vector3i newExtents = new Vector3i(distance.x / 2, distance.y / 2, distance.z / 2);
+            if (newCenter == null || (newCenter.equals(center) && newExtents.equals(extents))) {
+                return false;
+            }
+            center = newCenter;
+            extents = newExtents;
+            enterRegion = Region3i.createFromCenterExtents(center, extents);
+            return true;
+        }
+
+        private boolean isEntering(Vector3i chunkPos) {
+            return enterRegion.encompasses(chunkPos);
+        }
+
+        private boolean isLeaving(Vector3i chunkPos) {
+            return center == null
+                    || Math.abs(chunkPos.x - center.x) > extents.x + LEAVE_MARGIN
+                    || Math.abs(chunkPos.y - center.y) > extents.y + LEAVE_MARGIN
+                    || Math.abs(chunkPos.z - center.z) > extents.z + LEAVE_MARGIN;
+        }
+
+        private void replicateEntering() {
+            for (Vector3i chunkPos : enterRegion) {
+                TIntSet chunkEntities = entitiesByChunk.get(chunkPos);
+                if (chunkEntities != null) {
+                    TIntIterator iterator = chunkEntities.iterator();
+                    while (iterator.hasNext()) {
+                        int netId = iterator.next();
+                        if (!replicated.contains(netId)) {
+                            replicate(netId);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void removeLeaving() {
+            int[] candidates = replicated.toArray();
+            for (int netId : candidates) {
+                Vector3i chunkPos = entityChunks.get(netId);
+                if (chunkPos != null && isLeaving(chunkPos) && !isOwner(client, networkSystem.getEntity(netId))) {
+                    remove(netId);
+                }
+            }
+        }
+
+        private void replicate(int netId) {
+            replicated.add(netId);
+            if (!client.isNetRelevant(netId)) {
+                client.setNetInitial(netId);
+            }
+        }
+
+        private void remove(int netId) {
+            replicated.remove(netId);
+            client.setNetRemoved(netId);
+        }
+    }
+}
@@ -57,6 +57,7 @@
 import org.terasology.entitySystem.metadata.ComponentMetadata;
 import org.terasology.entitySystem.metadata.EventLibrary;
 import org.terasology.entitySystem.metadata.EventMetadata;
+import org.terasology.logic.location.LocationComponent;
 import org.terasology.module.Module;
 import org.terasology.monitoring.PerformanceMonitor;
 import org.terasology.network.Client;
@@ -148,6 +149,9 @@ public class NetworkSystemImpl implements EntityChangeSubscriber, NetworkSystem
     private Map<EntityRef, EntityRef> ownerLookup = Maps.newHashMap();
     private SetMultimap<EntityRef, EntityRef> ownedLookup = HashMultimap.create();
     private StorageManager storageManager;
+    private final ChunkPayloadCache chunkPayloadCache = new ChunkPayloadCache();
+    private final NetEntityRelevance entityRelevance = new NetEntityRelevance(this);
+    private EntityDeltaCache entityDeltaCache;
 
     // Client only
     private ServerImpl server;
@@ -261,6 +265,7 @@ public void shutdown() {
         server = null;
         nextNetId = 1;
         netIdToEntityId.clear();
+        entityRelevance.clear();
         if (mode != NetworkMode.CLIENT) {
             if (this.entityManager != null) {
                 for (EntityRef entity : entityManager.getEntitiesWith(NetworkComponent.class)) {
@@ -277,12 +282,14 @@ public void shutdown() {
         componentLibrary = null;
         eventSerializer = null;
         entitySerializer = null;
+        entityDeltaCache = null;
         clientList.clear();
         netClientList.clear();
         blockManager = null;
         biomeManager = null;
         ownerLookup.clear();
         ownedLookup.clear();
+        chunkPayloadCache.clear();
         ownershipHelper = null;
         storageManager = null;
         logger.info("Network shutdown");
@@ -309,6 +316,12 @@ public void update() {
                     nextNetworkTick += NET_TICK_RATE;
                     netTick = true;
                 }
+                if (netTick && mode.isServer()) {
+                    entityDeltaCache.clear();
+                    PerformanceMonitor.startActivity("Entity relevance update");
+                    entityRelevance.update();
+                    PerformanceMonitor.endActivity();
+                }
                 PerformanceMonitor.startActivity("Client update");
                 for (Client client : clientList) {
                     client.update(netTick);
@@ -366,6 +379,20 @@ NetClient getNetOwner(EntityRef entity) {
         return null;
     }
 
+    /**
+     * @return the encoded chunks shared by all net clients.
+     */
+    ChunkPayloadCache getChunkPayloadCache() {
+        return chunkPayloadCache;
+    }
+
+    /**
+     * @return the serialized entity updates of the current net tick, shared by all net clients.
+     */
+    EntityDeltaCache getEntityDeltaCache() {
+        return entityDeltaCache;
+    }
+
     public int getBandwidthPerClient() {
         if (netClientList.size() > 0) {
             return config.getUpstreamBandwidth() / netClientList.size();
@@ -421,9 +448,10 @@ public void registerNetworkEntity(EntityRef entity) {
                     }
                     break;
                 default:
-                    for (NetClient client : netClientList) {
-                        // TODO: Relevance Check
-                        client.setNetInitial(netComponent.getNetworkId());
+                    if (!entityRelevance.register(netComponent.getNetworkId(), entity)) {
+                        for (NetClient client : netClientList) {
+                            client.setNetInitial(netComponent.getNetworkId());
+                        }
                     }
                     break;
             }
@@ -507,8 +535,12 @@ public void unregisterNetworkEntity(EntityRef entity) {
                 logger.debug("Unregistering network entity: {} with netId {}", entity, netComponent.getNetworkId());
                 netIdToEntityId.remove(netComponent.getNetworkId());
                 if (mode.isServer()) {
+                    entityRelevance.unregister(netComponent.getNetworkId());
+                    entityDeltaCache.invalidate(netComponent.getNetworkId());
                     for (NetClient client : netClientList) {
-                        client.setNetRemoved(netComponent.getNetworkId());
+                        if (client.isNetRelevant(netComponent.getNetworkId())) {
+                            client.setNetRemoved(netComponent.getNetworkId());
+                        }
                     }
                 }
                 netComponent.setNetworkId(NULL_NET_ID);
@@ -541,6 +573,7 @@ public void connectToEntitySystem(EngineEntityManager newEntityManager, EventLib
         eventSerializer = new EventSerializer(eventLibrary, typeSerializationLibrary);
         entitySerializer = new NetworkEntitySerializer(newEntityManager, entityManager.getComponentLibrary(), typeSerializationLibrary);
         entitySerializer.setComponentSerializeCheck(new NetComponentSerializeCheck());
+        entityDeltaCache = new EntityDeltaCache(entitySerializer);
 
         if (mode == NetworkMode.CLIENT) {
             entityManager.setEntityRefStrategy(new NetworkClientRefStrategy(this));
@@ -558,12 +591,16 @@ public void onEntityComponentAdded(EntityRef entity, Class<? extends Component>
         NetworkComponent netComp = entity.getComponent(NetworkComponent.class);
         if (netComp != null && netComp.getNetworkId() != NULL_NET_ID) {
             if (mode.isServer()) {
+                entityDeltaCache.invalidate(netComp.getNetworkId());
                 if (metadata.isReplicated()) {
                     for (NetClient client : netClientList) {
                         logger.info("Component {} added to {}", component, entity);
                         client.setComponentAdded(netComp.getNetworkId(), component);
                     }
                 }
+                if (component == LocationComponent.class) {
+                    entityRelevance.onLocationAdded(netComp.getNetworkId(), entity);
+                }
             }
         }
         updatedOwnedEntities(entity, component, metadata);
@@ -575,12 +612,16 @@ public void onEntityComponentRemoved(EntityRef entity, Class<? extends Component
         NetworkComponent netComp = entity.getComponent(NetworkComponent.class);
         if (netComp != null && netComp.getNetworkId() != NULL_NET_ID) {
             if (mode.isServer()) {
+                entityDeltaCache.invalidate(netComp.getNetworkId());
                 if (metadata.isReplicated()) {
                     for (NetClient client : netClientList) {
                         logger.info("Component {} removed from {}", component, entity);
                         client.setComponentRemoved(netComp.getNetworkId(), component);
                     }
                 }
+                if (component == LocationComponent.class) {
+                    entityRelevance.onLocationRemoved(netComp.getNetworkId());
+                }
             }
         }
         if (mode.isAuthority() && metadata.isReferenceOwner()) {
@@ -606,11 +647,15 @@ public void onEntityComponentChange(EntityRef entity, Class<? extends Component>
             switch (mode) {
                 case LISTEN_SERVER:
                 case DEDICATED_SERVER:
+                    entityDeltaCache.invalidate(netComp.getNetworkId());
                     if (metadata.isReplicated()) {
                         for (NetClient client : netClientList) {
                             client.setComponentDirty(netComp.getNetworkId(), component);
                         }
                     }
+                    if (component == LocationComponent.class) {
+                        entityRelevance.onLocationChanged(netComp.getNetworkId());
+                    }
                     break;
                 case CLIENT:
                     if (server != null && metadata.isReplicatedFromOwner() && getOwnerEntity(entity).equals(server.getClientEntity())) {
@@ -765,6 +810,7 @@ private void processRemovedClient(Client client) {
         if (client instanceof NetClient) {
             NetClient netClient = (NetClient) client;
             netClientList.remove(netClient);
+            entityRelevance.removeClient(netClient);
         }
         clientList.remove(client);
         clientPlayerLookup.remove(client.getEntity());
@@ -785,6 +831,7 @@ private void processNewClient(NetClient client) {
         clientPlayerLookup.put(client.getEntity(), client);
 
         connectClient(client);
+        entityRelevance.addClient(client);
 
         logger.info("New client entity: {}", client.getEntity());
         for (EntityRef netEntity : entityManager.getEntitiesWith(NetworkComponent.class)) {
@@ -797,8 +844,10 @@ private void processNewClient(NetClient client) {
                         }
                         break;
                     default:
-                        // TODO: Relevance Check
-                        client.setNetInitial(netComp.getNetworkId());
+                        // Tracked entities get replicated by relevance once the client's character is known
+                        if (!entityRelevance.isTracked(netComp.getNetworkId())) {
+                            client.setNetInitial(netComp.getNetworkId());
+                        }
                         break;
                 }
             }
@@ -19,6 +19,7 @@
 import org.terasology.reflection.metadata.ClassMetadata;
 import org.terasology.reflection.metadata.FieldMetadata;
 import org.terasology.entitySystem.Component;
+import org.terasology.entitySystem.metadata.ComponentMetadata;
 import org.terasology.entitySystem.metadata.ReplicatedFieldMetadata;
 import org.terasology.network.FieldReplicateType;
 import org.terasology.network.ReplicationCheck;
@@ -62,6 +63,23 @@ public boolean shouldSerializeField(ReplicatedFieldMetadata<?, ?> field, Compone
         return result;
     }
 
+    /**
+     * @return Whether the fields that get sent for a component can differ between the owner of the entity and other
+     * clients. Components that don't depend on ownership can be serialized once for all clients.
+     */
+    public static boolean dependsOnOwnership(ComponentMetadata<?> metadata) {
+        if (ReplicationCheck.class.isAssignableFrom(metadata.getType())) {
+            return true;
+        }
+        for (ReplicatedFieldMetadata<?, ?> field : metadata.getFields()) {
+            if (field.isReplicated() && (field.getReplicationInfo().value() == FieldReplicateType.SERVER_TO_OWNER
+                    || field.getReplicationInfo().value().isReplicateFromOwner())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public boolean shouldDeserialize(ClassMetadata<?, ?> classMetadata, FieldMetadata<?, ?> fieldMetadata) {
         // The server only accepts fields that are replicated from owner
@@ -27,6 +27,7 @@
 import org.terasology.math.geom.Vector3i;
 import org.terasology.module.ModuleEnvironment;
 import org.terasology.network.ClientComponent;
+import org.terasology.persistence.ChunkStorageMode;
 import org.terasology.persistence.ChunkStore;
 import org.terasology.persistence.PlayerStore;
 import org.terasology.persistence.StorageManager;
@@ -40,8 +41,6 @@
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
@@ -56,8 +55,12 @@
 public abstract class AbstractStorageManager implements StorageManager {
 
     private static final Logger logger = LoggerFactory.getLogger(AbstractStorageManager.class);
+    private static final int OPEN_CHUNK_ZIPS = 16;
+    private static final int OPEN_REGION_FILES = 64;
 
     private final StoragePathProvider storagePathProvider;
+    private final ChunkZipCache chunkZipCache = new ChunkZipCache(OPEN_CHUNK_ZIPS);
+    private final RegionFileCache regionFileCache = new RegionFileCache(OPEN_REGION_FILES);
     private final BlockManager blockManager;
     private final BiomeManager biomeManager;
 
@@ -66,13 +69,19 @@ public abstract class AbstractStorageManager implements StorageManager {
     private final PrefabSerializer prefabSerializer;
     private final OwnershipHelper helper;
 
-    private boolean storeChunksInZips = true;
+    private ChunkStorageMode chunkStorageMode;
 
     public AbstractStorageManager(Path savePath, ModuleEnvironment environment, EngineEntityManager entityManager,
                                   BlockManager blockManager, BiomeManager biomeManager, boolean storeChunksInZips) {
+        this(savePath, environment, entityManager, blockManager, biomeManager,
+                storeChunksInZips ? ChunkStorageMode.ZIPS : ChunkStorageMode.LOOSE_FILES);
+    }
+
+    public AbstractStorageManager(Path savePath, ModuleEnvironment environment, EngineEntityManager entityManager,
+                                  BlockManager blockManager, BiomeManager biomeManager, ChunkStorageMode chunkStorageMode) {
         this.entityManager = entityManager;
         this.environment = environment;
-        this.storeChunksInZips = storeChunksInZips;
+        this.chunkStorageMode = chunkStorageMode;
         this.prefabSerializer = new PrefabSerializer(entityManager.getComponentLibrary(), entityManager.getTypeSerializerLibrary());
         this.blockManager = blockManager;
         this.biomeManager = biomeManager;
@@ -123,11 +132,8 @@ protected byte[] loadChunkZip(Vector3i chunkPos) {
         Vector3i chunkZipPos = storagePathProvider.getChunkZipPosition(chunkPos);
         Path chunkPath = storagePathProvider.getChunkZipPath(chunkZipPos);
         if (Files.isRegularFile(chunkPath)) {
-            try (FileSystem chunkZip = FileSystems.newFileSystem(chunkPath, null)) {
-                Path targetChunk = chunkZip.getPath(storagePathProvider.getChunkFilename(chunkPos));
-                if (Files.isRegularFile(targetChunk)) {
-                    chunkData = Files.readAllBytes(targetChunk);
-                }
+            try {
+                chunkData = chunkZipCache.read(chunkZipPos, chunkPath, storagePathProvider.getChunkFilename(chunkPos));
             } catch (IOException e) {
                 logger.error("Failed to load chunk zip {}", chunkPath, e);
             }
@@ -135,36 +141,74 @@ protected byte[] loadChunkZip(Vector3i chunkPos) {
         return chunkData;
     }
 
+    protected byte[] loadChunkFromRegion(Vector3i chunkPos) {
+        Vector3i regionPos = storagePathProvider.getRegionPosition(chunkPos);
+        Path regionPath = storagePathProvider.getRegionPath(regionPos);
+        if (Files.isRegularFile(regionPath)) {
+            try {
+                return regionFileCache.read(regionPos, regionPath, RegionFile.getChunkIndex(chunkPos));
+            } catch (IOException e) {
+                logger.error("Failed to load chunk {} from region file {}", chunkPos, regionPath, e);
+            }
+        }
+        return null;
+    }
+
+    protected byte[] loadChunkFile(Vector3i chunkPos) {
+        Path chunkPath = storagePathProvider.getChunkPath(chunkPos);
+        if (Files.isRegularFile(chunkPath)) {
+            try {
+                return Files.readAllBytes(chunkPath);
+            } catch (IOException e) {
+                logger.error("Failed to load chunk {}", chunkPos, e);
+            }
+        }
+        return null;
+    }
+
     @Override
     public void update() {
     }
 
     public boolean isStoreChunksInZips() {
-        return storeChunksInZips;
+        return chunkStorageMode == ChunkStorageMode.ZIPS;
+    }
+
+    public ChunkStorageMode getChunkStorageMode() {
+        return chunkStorageMode;
     }
 
     /**
      * For tests only
      */
     void setStoreChunksInZips(boolean storeChunksInZips) {
-        this.storeChunksInZips = storeChunksInZips;
+        this.chunkStorageMode = storeChunksInZips ? ChunkStorageMode.ZIPS : ChunkStorageMode.LOOSE_FILES;
+    }
+
+    /**
+     * For tests only
+     */
+    void setChunkStorageMode(ChunkStorageMode chunkStorageMode) {
+        this.chunkStorageMode = chunkStorageMode;
     }
 
     protected byte[] loadCompressedChunk(Vector3i chunkPos) {
-        if (isStoreChunksInZips()) {
-            return loadChunkZip(chunkPos);
-        } else {
-            Path chunkPath = storagePathProvider.getChunkPath(chunkPos);
-            if (Files.isRegularFile(chunkPath)) {
-                try {
-                    return Files.readAllBytes(chunkPath);
-                } catch (IOException e) {
-                    logger.error("Failed to load chunk {}", chunkPos, e);
+        switch (chunkStorageMode) {
+            case REGION_FILES:
+                byte[] chunkData = loadChunkFromRegion(chunkPos);
+                if (chunkData == null) {
+                    // Chunks that weren't saved since the switch to region files are still in one of the older formats
+                    chunkData = loadChunkFile(chunkPos);
                 }
-            }
+                if (chunkData == null) {
+                    chunkData = loadChunkZip(chunkPos);
+                }
+                return chunkData;
+            case ZIPS:
+                return loadChunkZip(chunkPos);
+            default:
+                return loadChunkFile(chunkPos);
         }
-
-        return null;
     }
 
     protected EntityData.PlayerStore loadPlayerStoreData(String playerId) {
@@ -213,6 +257,20 @@ protected void deactivateOrDestroyEntityRecursive(EntityRef entity) {
         }
     }
 
+    /**
+     * @return the cache of open chunk zips, which needs to be invalidated before chunk zips get replaced.
+     */
+    protected ChunkZipCache getChunkZipCache() {
+        return chunkZipCache;
+    }
+
+    /**
+     * @return the cache of open region files, which needs to be invalidated before region files get written.
+     */
+    protected RegionFileCache getRegionFileCache() {
+        return regionFileCache;
+    }
+
     protected StoragePathProvider getStoragePathProvider() {
         return storagePathProvider;
     }
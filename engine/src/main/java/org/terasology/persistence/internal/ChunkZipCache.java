@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.persistence.internal;
+
+import com.google.common.io.ByteStreams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.math.geom.Vector3i;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Keeps a bounded number of chunk zips open, so that the central directory of a zip gets parsed only once for all
+ * the chunks loaded from it. The least recently used zip gets closed when the cache is full.
+ * <br><br>
+ * The cache is safe to use from multiple threads. A zip that gets evicted or invalidated while other threads read
+ * from it is closed when the last of them is done.
+ * <br><br>
+ * The cache must be invalidated before the zips on disk get replaced, e.g. when a save transaction merges its changes.
+ */
+public class ChunkZipCache {
+    private static final Logger logger = LoggerFactory.getLogger(ChunkZipCache.class);
+
+    private final OpenFileCache<ZipFile> openZips;
+
+    public ChunkZipCache(int capacity) {
+        this.openZips = new OpenFileCache<>(capacity, path -> new ZipFile(path.toFile()));
+    }
+
+    /**
+     * Reads an entry of a chunk zip.
+     *
+     * @param chunkZipPos The position of the zip, as returned by {@link StoragePathProvider#getChunkZipPosition(Vector3i)}
+     * @param chunkZipPath The path of the zip
+     * @param entryName The name of the entry to read
+     * @return The content of the entry, or null if the zip has no such entry
+     * @throws IOException If the zip could not be read
+     */
+    public byte[] read(Vector3i chunkZipPos, Path chunkZipPath, String entryName) throws IOException {
+        return openZips.read(chunkZipPos, chunkZipPath, zip -> {
+            ZipEntry entry = zip.getEntry(entryName);
+            if (entry == null) {
+                return null;
+            }
+            try (InputStream in = zip.getInputStream(entry)) {
+                return ByteStreams.toByteArray(in);
+            }
+        });
+    }
+
+    /**
+     * Closes all cached zips. Must be called before any chunk zip gets modified, moved or deleted.
+     */
+    public void invalidate() {
+        openZips.invalidate();
+        logger.debug("Invalidated chunk zip cache, hit rate {}", getHitRate());
+    }
+
+    public long getHits() {
+        return openZips.getHits();
+    }
+
+    public long getMisses() {
+        return openZips.getMisses();
+    }
+
+    /**
+     * @return The fraction of reads that were served by an already open zip, 0 if there were no reads yet.
+     */
+    public float getHitRate() {
+        return openZips.getHitRate();
+    }
+}
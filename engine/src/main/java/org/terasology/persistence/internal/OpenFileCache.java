@@ -0,0 +1,185 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.persistence.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.math.geom.Vector3i;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a bounded number of files open for reading, keyed by their position. The least recently used file gets
+ * closed when the cache is full.
+ * <br><br>
+ * The cache is safe to use from multiple threads. A file that gets evicted or invalidated while other threads read
+ * from it is closed when the last of them is done.
+ *
+ * @param <T> The type of the opened files
+ */
+class OpenFileCache<T extends Closeable> {
+    private static final Logger logger = LoggerFactory.getLogger(OpenFileCache.class);
+
+    private final int capacity;
+    private final FileOpener<T> opener;
+    private final Map<Vector3i, CachedFile<T>> openFiles;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param capacity The maximum number of files kept open
+     * @param opener Opens a file that is not cached yet
+     */
+    OpenFileCache(int capacity, FileOpener<T> opener) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.opener = opener;
+        this.openFiles = new LinkedHashMap<>(capacity, 0.75f, true);
+    }
+
+    /**
+     * Reads from a file, opening it first if it is not cached.
+     *
+     * @param pos The position of the file
+     * @param path The path of the file
+     * @param reader Reads from the opened file, must not close it
+     * @return The result of the reader
+     * @throws IOException If the file could not be opened or read
+     */
+    <R> R read(Vector3i pos, Path path, FileReader<T, R> reader) throws IOException {
+        CachedFile<T> file = acquire(pos, path);
+        try {
+            return reader.read(file.file);
+        } finally {
+            release(file);
+        }
+    }
+
+    /**
+     * Closes all cached files.
+     */
+    synchronized void invalidate() {
+        for (CachedFile<T> file : openFiles.values()) {
+            evict(file);
+        }
+        openFiles.clear();
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return The fraction of reads that were served by an already open file, 0 if there were no reads yet.
+     */
+    float getHitRate() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return (total == 0) ? 0 : (float) hitCount / total;
+    }
+
+    private CachedFile<T> acquire(Vector3i pos, Path path) throws IOException {
+        synchronized (this) {
+            CachedFile<T> file = openFiles.get(pos);
+            if (file != null) {
+                file.users++;
+                hits.incrementAndGet();
+                return file;
+            }
+        }
+        misses.incrementAndGet();
+        // Open the file outside of the lock, so that other threads can keep reading from cached files meanwhile
+        T opened = opener.open(path);
+        synchronized (this) {
+            CachedFile<T> file = openFiles.get(pos);
+            if (file != null) {
+                // Another thread opened the same file meanwhile
+                closeQuietly(opened, path);
+            } else {
+                file = new CachedFile<>(opened, path);
+                openFiles.put(new Vector3i(pos), file);
+                evictEldest();
+            }
+            file.users++;
+            return file;
+        }
+    }
+
+    private synchronized void release(CachedFile<T> file) {
+        file.users--;
+        if (file.evicted && file.users == 0) {
+            closeQuietly(file.file, file.path);
+        }
+    }
+
+    private void evictEldest() {
+        Iterator<CachedFile<T>> iterator = openFiles.values().iterator();
+        while (openFiles.size() > capacity && iterator.hasNext()) {
+            evict(iterator.next());
+            iterator.remove();
+        }
+    }
+
+    private void evict(CachedFile<T> file) {
+        file.evicted = true;
+        if (file.users == 0) {
+            closeQuietly(file.file, file.path);
+        }
+    }
+
+    private static void closeQuietly(Closeable file, Path path) {
+        try {
+            file.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close {}", path, e);
+        }
+    }
+
+    @FunctionalInterface
+    interface FileOpener<T> {
+        T open(Path path) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface FileReader<T, R> {
+        R read(T file) throws IOException;
+    }
+
+    private static final class CachedFile<T> {
+        private final T file;
+        private final Path path;
+        private int users;
+        private boolean evicted;
+
+        private CachedFile(T file, Path path) {
+            this.file = file;
+            this.path = path;
+        }
+    }
+}
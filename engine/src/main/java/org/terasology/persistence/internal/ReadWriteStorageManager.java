@@ -42,6 +42,7 @@
 import org.terasology.network.Client;
 import org.terasology.network.ClientComponent;
 import org.terasology.network.NetworkSystem;
+import org.terasology.persistence.ChunkStorageMode;
 import org.terasology.persistence.typeHandling.TypeSerializationLibrary;
 import org.terasology.protobuf.EntityData;
 import org.terasology.registry.CoreRegistry;
@@ -76,6 +77,7 @@
  */
 public final class ReadWriteStorageManager extends AbstractStorageManager implements EntityDestroySubscriber, EntityChangeSubscriber, DelayedEntityRefFactory {
     private static final Logger logger = LoggerFactory.getLogger(ReadWriteStorageManager.class);
+    private static final int SAVING_TASK_WEIGHT = 1;
 
     private final TaskMaster<Task> saveThreadManager;
     private final SaveTransactionHelper saveTransactionHelper;
@@ -121,7 +123,13 @@ public ReadWriteStorageManager(Path savePath, ModuleEnvironment environment, Eng
 
     public ReadWriteStorageManager(Path savePath, ModuleEnvironment environment, EngineEntityManager entityManager,
                                    BlockManager blockManager, BiomeManager biomeManager, boolean storeChunksInZips) throws IOException {
-        super(savePath, environment, entityManager, blockManager, biomeManager, storeChunksInZips);
+        this(savePath, environment, entityManager, blockManager, biomeManager,
+                storeChunksInZips ? ChunkStorageMode.ZIPS : ChunkStorageMode.LOOSE_FILES);
+    }
+
+    public ReadWriteStorageManager(Path savePath, ModuleEnvironment environment, EngineEntityManager entityManager,
+                                   BlockManager blockManager, BiomeManager biomeManager, ChunkStorageMode chunkStorageMode) throws IOException {
+        super(savePath, environment, entityManager, blockManager, biomeManager, chunkStorageMode);
 
         entityManager.subscribeForDestruction(this);
         entityManager.subscribeForChanges(this);
@@ -129,7 +137,7 @@ public ReadWriteStorageManager(Path savePath, ModuleEnvironment environment, Eng
         this.privateEntityManager = createPrivateEntityManager(entityManager.getComponentLibrary());
         Files.createDirectories(getStoragePathProvider().getStoragePathDirectory());
         this.saveTransactionHelper = new SaveTransactionHelper(getStoragePathProvider());
-        this.saveThreadManager = TaskMaster.createFIFOTaskMaster("Saving", 1);
+        this.saveThreadManager = TaskMaster.createSharedFIFOTaskMaster("Saving", SAVING_TASK_WEIGHT, 1);
         this.config = CoreRegistry.get(Config.class);
         this.entityRefReplacingComponentLibrary = privateEntityManager.getComponentLibrary()
                 .createCopyUsingCopyStrategy(EntityRef.class, new DelayedEntityRefCopyStrategy(this));
@@ -148,6 +156,8 @@ private static EngineEntityManager createPrivateEntityManager(ComponentLibrary c
     public void finishSavingAndShutdown() {
         saveThreadManager.shutdown(new ShutdownTask(), true);
         checkSaveTransactionAndClearUpIfItIsDone();
+        getChunkZipCache().invalidate();
+        getRegionFileCache().invalidate();
     }
 
     private void checkSaveTransactionAndClearUpIfItIsDone() {
@@ -245,7 +255,8 @@ private void waitForCompletionOfPreviousSave() {
 
     private SaveTransaction createSaveTransaction() {
         SaveTransactionBuilder saveTransactionBuilder = new SaveTransactionBuilder(privateEntityManager,
-                entitySetDeltaRecorder, isStoreChunksInZips(), getStoragePathProvider(), worldDirectoryWriteLock);
+                entitySetDeltaRecorder, getChunkStorageMode(), getStoragePathProvider(), getChunkZipCache(),
+                getRegionFileCache(), worldDirectoryWriteLock);
 
         ChunkProvider chunkProvider = CoreRegistry.get(ChunkProvider.class);
         NetworkSystem networkSystem = CoreRegistry.get(NetworkSystem.class);
@@ -441,8 +452,33 @@ public boolean isSaving() {
     public void checkAndRepairSaveIfNecessary() throws IOException {
         saveTransactionHelper.cleanupSaveTransactionDirectory();
         if (Files.exists(getStoragePathProvider().getUnmergedChangesPath())) {
+            getChunkZipCache().invalidate();
+            getRegionFileCache().invalidate();
             saveTransactionHelper.mergeChanges();
         }
+        if (getChunkStorageMode() == ChunkStorageMode.REGION_FILES && config != null
+                && config.getSystem().isChunkStorageConversionEnabled()) {
+            convertChunksToRegionFiles();
+        }
+    }
+
+    /**
+     * Converts the chunks that are still stored in chunk zips or loose chunk files to region files. The old files get
+     * moved into a backup directory of the world. Without the conversion, chunks that weren't saved since the switch
+     * to region files get read from the old files.
+     */
+    public void convertChunksToRegionFiles() throws IOException {
+        RegionFileConverter converter = new RegionFileConverter(getStoragePathProvider());
+        if (converter.isConversionNeeded()) {
+            worldDirectoryWriteLock.lock();
+            try {
+                getChunkZipCache().invalidate();
+                getRegionFileCache().invalidate();
+                converter.convert();
+            } finally {
+                worldDirectoryWriteLock.unlock();
+            }
+        }
     }
 
 
@@ -453,6 +489,8 @@ public void deleteWorld() {
         unloadedAndSavingChunkMap.clear();
         unloadedAndUnsavedPlayerMap.clear();
         unloadedAndSavingPlayerMap.clear();
+        getChunkZipCache().invalidate();
+        getRegionFileCache().invalidate();
 
         try {
             FilesUtil.recursiveDelete(getStoragePathProvider().getWorldPath());
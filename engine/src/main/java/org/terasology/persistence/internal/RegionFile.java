@@ -0,0 +1,341 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.persistence.internal;
+
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.math.geom.Vector3i;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.zip.CRC32;
+
+/**
+ * A file that stores the compressed chunks of a cubic region of {@link #CHUNKS_PER_AXIS}^3 chunks.
+ * <br><br>
+ * The file starts with two header slots, each containing a fixed offset table with one entry (sector offset, byte
+ * length) per chunk of the region, a sequence number and a checksum. The slot with the highest sequence number and a
+ * valid checksum is the current one. The chunks are stored in sectors of {@link #SECTOR_SIZE} bytes behind the
+ * header slots. Writing chunks never overwrites sectors that are referenced by the current header: The new data is
+ * written to free sectors (or appended to the file) first, and the new offset table is written to the other header
+ * slot afterwards. Thus an interrupted write, including an interrupted header write, leaves the previous version of
+ * the chunks intact. Sectors that are no longer referenced get reused by later writes.
+ * <br><br>
+ * Reads may happen concurrently to each other, but not concurrently to writes.
+ */
+public final class RegionFile implements Closeable {
+    public static final int CHUNKS_PER_AXIS = 16;
+    public static final int CHUNKS_PER_REGION = CHUNKS_PER_AXIS * CHUNKS_PER_AXIS * CHUNKS_PER_AXIS;
+    public static final int SECTOR_SIZE = 4096;
+
+    private static final Logger logger = LoggerFactory.getLogger(RegionFile.class);
+
+    private static final int MAGIC = 0x5452474E; // "TRGN"
+    private static final int VERSION = 2;
+    private static final int HEADER_PREFIX_SIZE = 16;
+    private static final int HEADER_SIZE = HEADER_PREFIX_SIZE + CHUNKS_PER_REGION * 8;
+    private static final int HEADER_SLOT_SECTORS = (HEADER_SIZE + SECTOR_SIZE - 1) / SECTOR_SIZE;
+    private static final int HEADER_SLOTS = 2;
+    private static final int HEADER_SECTORS = HEADER_SLOTS * HEADER_SLOT_SECTORS;
+    static final int HEADER_SLOT_SIZE = HEADER_SLOT_SECTORS * SECTOR_SIZE;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final int[] sectorOffsets = new int[CHUNKS_PER_REGION];
+    private final int[] lengths = new int[CHUNKS_PER_REGION];
+    private final BitSet usedSectors = new BitSet();
+    private int currentHeaderSlot;
+    private int headerSequence;
+
+    private RegionFile(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    /**
+     * Opens an existing region file for reading.
+     */
+    public static RegionFile openForReading(Path path) throws IOException {
+        RegionFile regionFile = new RegionFile(path, FileChannel.open(path, StandardOpenOption.READ));
+        regionFile.readHeader();
+        return regionFile;
+    }
+
+    /**
+     * Opens a region file for reading and writing, the file gets created if it does not exist yet.
+     */
+    public static RegionFile openForWriting(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        RegionFile regionFile = new RegionFile(path, channel);
+        if (channel.size() == 0) {
+            // Both slots get written, so that each of them contains a valid header
+            regionFile.writeHeader();
+            regionFile.writeHeader();
+        } else {
+            regionFile.readHeader();
+        }
+        return regionFile;
+    }
+
+    /**
+     * @param chunkPos the position of a chunk
+     * @return the index of the chunk within the region that contains it.
+     */
+    public static int getChunkIndex(Vector3i chunkPos) {
+        int x = Math.floorMod(chunkPos.x, CHUNKS_PER_AXIS);
+        int y = Math.floorMod(chunkPos.y, CHUNKS_PER_AXIS);
+        int z = Math.floorMod(chunkPos.z, CHUNKS_PER_AXIS);
+        return x + CHUNKS_PER_AXIS * (y + CHUNKS_PER_AXIS * z);
+    }
+
+    /**
+     * @param regionPos the position of a region, as returned by {@link StoragePathProvider#getRegionPosition(Vector3i)}
+     * @param chunkIndex the index of a chunk within the region
+     * @return the position of the chunk
+     */
+    public static Vector3i getChunkPosition(Vector3i regionPos, int chunkIndex) {
+        int x = chunkIndex % CHUNKS_PER_AXIS;
+        int y = (chunkIndex / CHUNKS_PER_AXIS) % CHUNKS_PER_AXIS;
+        int z = chunkIndex / (CHUNKS_PER_AXIS * CHUNKS_PER_AXIS);
+        return new Vector3i(regionPos.x * CHUNKS_PER_AXIS + x, regionPos.y * CHUNKS_PER_AXIS + y, regionPos.z * CHUNKS_PER_AXIS + z);
+    }
+
+    /**
+     * Writes all chunks of a region file into another region file, replacing the chunks stored there.
+     *
+     * @param sourcePath the region file with the chunks to write, it remains unchanged
+     * @param targetPath the region file to write into, it gets created if it does not exist
+     */
+    public static void merge(Path sourcePath, Path targetPath) throws IOException {
+        try (RegionFile source = openForReading(sourcePath);
+             RegionFile target = openForWriting(targetPath)) {
+            target.write(source.readAll());
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return true if the region contains the chunk with the given index.
+     */
+    public synchronized boolean contains(int chunkIndex) {
+        return lengths[chunkIndex] > 0;
+    }
+
+    /**
+     * @return the compressed chunk with the given index, or null if the region does not contain it.
+     */
+    public byte[] read(int chunkIndex) throws IOException {
+        int offset;
+        int length;
+        synchronized (this) {
+            offset = sectorOffsets[chunkIndex];
+            length = lengths[chunkIndex];
+        }
+        if (length == 0) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        readFully(buffer, (long) offset * SECTOR_SIZE);
+        return buffer.array();
+    }
+
+    /**
+     * @return all compressed chunks of this region by their index.
+     */
+    public TIntObjectMap<byte[]> readAll() throws IOException {
+        TIntObjectMap<byte[]> result = new TIntObjectHashMap<>();
+        for (int i = 0; i < CHUNKS_PER_REGION; ++i) {
+            byte[] data = read(i);
+            if (data != null) {
+                result.put(i, data);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the given compressed chunks, replacing the previous versions of them. The chunks are written to disk
+     * before the offset table gets updated, so either the previous or the new version of a chunk is referenced by
+     * the file at any time.
+     *
+     * @param chunks the compressed chunks by their index
+     */
+    public synchronized void write(TIntObjectMap<byte[]> chunks) throws IOException {
+        if (chunks.isEmpty()) {
+            return;
+        }
+        int[] indices = chunks.keys();
+        int[] newOffsets = new int[indices.length];
+        // Sectors of the previous versions are kept in use until the new offset table is on disk
+        for (int i = 0; i < indices.length; ++i) {
+            byte[] data = chunks.get(indices[i]);
+            int sectors = getSectorCount(data.length);
+            newOffsets[i] = allocate(sectors);
+            usedSectors.set(newOffsets[i], newOffsets[i] + sectors);
+            writeFully(ByteBuffer.wrap(data), (long) newOffsets[i] * SECTOR_SIZE);
+        }
+        channel.force(false);
+
+        int[] oldOffsets = new int[indices.length];
+        int[] oldLengths = new int[indices.length];
+        for (int i = 0; i < indices.length; ++i) {
+            int index = indices[i];
+            oldOffsets[i] = sectorOffsets[index];
+            oldLengths[i] = lengths[index];
+            sectorOffsets[index] = newOffsets[i];
+            lengths[index] = chunks.get(index).length;
+        }
+        writeHeader();
+
+        for (int i = 0; i < indices.length; ++i) {
+            if (oldLengths[i] > 0) {
+                usedSectors.clear(oldOffsets[i], oldOffsets[i] + getSectorCount(oldLengths[i]));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int allocate(int sectors) {
+        int start = usedSectors.nextClearBit(HEADER_SECTORS);
+        while (true) {
+            int nextUsed = usedSectors.nextSetBit(start);
+            if (nextUsed == -1 || nextUsed - start >= sectors) {
+                return start;
+            }
+            start = usedSectors.nextClearBit(nextUsed);
+        }
+    }
+
+    private static int getSectorCount(int length) {
+        return (length + SECTOR_SIZE - 1) / SECTOR_SIZE;
+    }
+
+    private void readHeader() throws IOException {
+        ByteBuffer header = null;
+        for (int slot = 0; slot < HEADER_SLOTS; ++slot) {
+            ByteBuffer slotHeader = readHeaderSlot(slot);
+            if (slotHeader != null && (header == null || slotHeader.getInt(8) - headerSequence > 0)) {
+                header = slotHeader;
+                currentHeaderSlot = slot;
+                headerSequence = slotHeader.getInt(8);
+            }
+        }
+        if (header == null) {
+            throw new IOException("Unsupported or corrupt region file " + path);
+        }
+        header.position(HEADER_PREFIX_SIZE);
+        long fileSectors = (channel.size() + SECTOR_SIZE - 1) / SECTOR_SIZE;
+        usedSectors.set(0, HEADER_SECTORS);
+        for (int i = 0; i < CHUNKS_PER_REGION; ++i) {
+            int offset = header.getInt();
+            int length = header.getInt();
+            if (length <= 0) {
+                continue;
+            }
+            int sectors = getSectorCount(length);
+            if (offset < HEADER_SECTORS || offset + sectors > fileSectors) {
+                logger.warn("Ignoring chunk {} of region file {}, as it points outside of the file", i, path);
+                continue;
+            }
+            sectorOffsets[i] = offset;
+            lengths[i] = length;
+            usedSectors.set(offset, offset + sectors);
+        }
+    }
+
+    /**
+     * @return the header in the given slot, or null if the slot does not contain a complete header.
+     */
+    private ByteBuffer readHeaderSlot(int slot) throws IOException {
+        long position = (long) slot * HEADER_SLOT_SIZE;
+        if (channel.size() < position + HEADER_SIZE) {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(header, position);
+        header.flip();
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(12) != getChecksum(header)) {
+            return null;
+        }
+        return header;
+    }
+
+    /**
+     * Writes the offset table into the slot that is not the current one, which becomes the current one afterwards.
+     */
+    private void writeHeader() throws IOException {
+        int slot = (currentHeaderSlot + 1) % HEADER_SLOTS;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(headerSequence + 1);
+        header.position(HEADER_PREFIX_SIZE);
+        for (int i = 0; i < CHUNKS_PER_REGION; ++i) {
+            header.putInt(sectorOffsets[i]);
+            header.putInt(lengths[i]);
+        }
+        header.putInt(12, getChecksum(header));
+        header.flip();
+        writeFully(header, (long) slot * HEADER_SLOT_SIZE);
+        channel.force(false);
+        currentHeaderSlot = slot;
+        headerSequence++;
+        usedSectors.set(0, HEADER_SECTORS);
+    }
+
+    /**
+     * @return the checksum of the sequence number and the offset table of a header
+     */
+    private static int getChecksum(ByteBuffer header) {
+        CRC32 crc = new CRC32();
+        crc.update(header.array(), 8, 4);
+        crc.update(header.array(), HEADER_PREFIX_SIZE, HEADER_SIZE - HEADER_PREFIX_SIZE);
+        return (int) crc.getValue();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        long current = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, current);
+            if (read < 0) {
+                throw new IOException("Unexpected end of region file " + path);
+            }
+            current += read;
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        long current = position;
+        while (buffer.hasRemaining()) {
+            current += channel.write(buffer, current);
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.persistence.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.math.geom.Vector3i;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Keeps a bounded number of region files open for reading, so that the offset table of a region gets read only once
+ * for all the chunks loaded from it. The least recently used region file gets closed when the cache is full.
+ * <br><br>
+ * The cache is safe to use from multiple threads. A region file that gets evicted or invalidated while other threads
+ * read from it is closed when the last of them is done.
+ * <br><br>
+ * The cache must be invalidated before region files on disk get written, as the cached offset tables would get stale.
+ */
+public class RegionFileCache {
+    private static final Logger logger = LoggerFactory.getLogger(RegionFileCache.class);
+
+    private final OpenFileCache<RegionFile> openRegions;
+
+    public RegionFileCache(int capacity) {
+        this.openRegions = new OpenFileCache<>(capacity, RegionFile::openForReading);
+    }
+
+    /**
+     * Reads a chunk from a region file.
+     *
+     * @param regionPos The position of the region, as returned by {@link StoragePathProvider#getRegionPosition(Vector3i)}
+     * @param regionPath The path of the region file
+     * @param chunkIndex The index of the chunk within the region, as returned by {@link RegionFile#getChunkIndex(Vector3i)}
+     * @return The compressed chunk, or null if the region does not contain it
+     * @throws IOException If the region file could not be read
+     */
+    public byte[] read(Vector3i regionPos, Path regionPath, int chunkIndex) throws IOException {
+        return openRegions.read(regionPos, regionPath, region -> region.read(chunkIndex));
+    }
+
+    /**
+     * Closes all cached region files. Must be called before any region file gets modified, moved or deleted.
+     */
+    public void invalidate() {
+        openRegions.invalidate();
+        logger.debug("Invalidated region file cache, hit rate {}", getHitRate());
+    }
+
+    public long getHits() {
+        return openRegions.getHits();
+    }
+
+    public long getMisses() {
+        return openRegions.getMisses();
+    }
+
+    /**
+     * @return The fraction of reads that were served by an already open region file, 0 if there were no reads yet.
+     */
+    public float getHitRate() {
+        return openRegions.getHitRate();
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.persistence.internal;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.math.geom.Vector3i;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Converts the chunks of a save game that are stored in chunk zips or loose chunk files into region files.
+ * <br><br>
+ * Chunks that the region files contain already are kept, as they have been saved after the switch to region files.
+ * Once their chunks have been written into the region files, the old files get moved into the
+ * {@link StoragePathProvider#getChunkBackupPath() backup directory}, so that they remain available to go back to an
+ * older storage mode. An interrupted conversion can thus be started again, it will convert the remaining old files.
+ * <br><br>
+ * The write lock for the save directory should be acquired before the conversion gets started.
+ */
+public class RegionFileConverter {
+    private static final Logger logger = LoggerFactory.getLogger(RegionFileConverter.class);
+    private static final Pattern CHUNK_FILENAME = Pattern.compile("(-?\\d+)\\.(-?\\d+)\\.(-?\\d+)\\.chunk");
+    private static final Pattern CHUNK_ZIP_FILENAME = Pattern.compile("(-?\\d+)\\.(-?\\d+)\\.(-?\\d+)\\.chunks\\.zip");
+
+    private final StoragePathProvider storagePathProvider;
+
+    public RegionFileConverter(StoragePathProvider storagePathProvider) {
+        this.storagePathProvider = storagePathProvider;
+    }
+
+    /**
+     * @return true if the world directory contains chunks that are not stored in region files.
+     */
+    public boolean isConversionNeeded() throws IOException {
+        return !listFiles(CHUNK_ZIP_FILENAME).isEmpty() || !listFiles(CHUNK_FILENAME).isEmpty();
+    }
+
+    /**
+     * Copies all chunks from chunk zips and loose chunk files into region files and moves the old files into the
+     * backup directory. Chunks that are stored in loose files take precedence over chunks of the same position from
+     * chunk zips.
+     *
+     * @return the number of converted chunks
+     */
+    public int convert() throws IOException {
+        int convertedChunks = convertChunkFiles(listFiles(CHUNK_FILENAME));
+        for (Path zipPath : listFiles(CHUNK_ZIP_FILENAME)) {
+            convertedChunks += convertChunkZip(zipPath);
+        }
+        logger.info("Converted {} chunks to region files, the old files were moved to {}", convertedChunks,
+                storagePathProvider.getChunkBackupPath());
+        return convertedChunks;
+    }
+
+    private int convertChunkZip(Path zipPath) throws IOException {
+        Map<Vector3i, TIntObjectMap<byte[]>> chunksByRegion = Maps.newHashMap();
+        int chunkCount = 0;
+        try (ZipFile zip = new ZipFile(zipPath.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                Vector3i chunkPos = parseChunkPosition(entry.getName());
+                if (entry.isDirectory() || chunkPos == null) {
+                    logger.warn("Skipping unexpected entry {} of chunk zip {}", entry.getName(), zipPath);
+                    continue;
+                }
+                try (InputStream in = zip.getInputStream(entry)) {
+                    getRegionChunks(chunksByRegion, chunkPos).put(RegionFile.getChunkIndex(chunkPos), ByteStreams.toByteArray(in));
+                }
+                chunkCount++;
+            }
+        }
+        writeRegions(chunksByRegion);
+        moveToBackup(zipPath);
+        return chunkCount;
+    }
+
+    private int convertChunkFiles(List<Path> chunkPaths) throws IOException {
+        Map<Vector3i, List<Path>> pathsByRegion = Maps.newHashMap();
+        for (Path chunkPath : chunkPaths) {
+            Vector3i chunkPos = parseChunkPosition(chunkPath.getFileName().toString());
+            Vector3i regionPos = storagePathProvider.getRegionPosition(chunkPos);
+            List<Path> regionPaths = pathsByRegion.get(regionPos);
+            if (regionPaths == null) {
+                regionPaths = Lists.newArrayList();
+                pathsByRegion.put(regionPos, regionPaths);
+            }
+            regionPaths.add(chunkPath);
+        }
+        // Convert one region at a time, so that only the chunks of a single region are in memory
+        for (Map.Entry<Vector3i, List<Path>> entry : pathsByRegion.entrySet()) {
+            TIntObjectMap<byte[]> chunks = new TIntObjectHashMap<>();
+            for (Path chunkPath : entry.getValue()) {
+                Vector3i chunkPos = parseChunkPosition(chunkPath.getFileName().toString());
+                chunks.put(RegionFile.getChunkIndex(chunkPos), Files.readAllBytes(chunkPath));
+            }
+            writeRegion(entry.getKey(), chunks);
+            for (Path chunkPath : entry.getValue()) {
+                moveToBackup(chunkPath);
+            }
+        }
+        return chunkPaths.size();
+    }
+
+    private TIntObjectMap<byte[]> getRegionChunks(Map<Vector3i, TIntObjectMap<byte[]>> chunksByRegion, Vector3i chunkPos) {
+        Vector3i regionPos = storagePathProvider.getRegionPosition(chunkPos);
+        TIntObjectMap<byte[]> chunks = chunksByRegion.get(regionPos);
+        if (chunks == null) {
+            chunks = new TIntObjectHashMap<>();
+            chunksByRegion.put(regionPos, chunks);
+        }
+        return chunks;
+    }
+
+    private void writeRegions(Map<Vector3i, TIntObjectMap<byte[]>> chunksByRegion) throws IOException {
+        for (Map.Entry<Vector3i, TIntObjectMap<byte[]>> entry : chunksByRegion.entrySet()) {
+            writeRegion(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void writeRegion(Vector3i regionPos, TIntObjectMap<byte[]> chunks) throws IOException {
+        try (RegionFile regionFile = RegionFile.openForWriting(storagePathProvider.getRegionPath(regionPos))) {
+            TIntObjectMap<byte[]> missingChunks = new TIntObjectHashMap<>();
+            chunks.forEachEntry((index, data) -> {
+                if (!regionFile.contains(index)) {
+                    missingChunks.put(index, data);
+                }
+                return true;
+            });
+            regionFile.write(missingChunks);
+        }
+    }
+
+    private void moveToBackup(Path path) throws IOException {
+        Path backupPath = storagePathProvider.getChunkBackupPath();
+        Files.createDirectories(backupPath);
+        Files.move(path, backupPath.resolve(path.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private List<Path> listFiles(Pattern pattern) throws IOException {
+        List<Path> result = Lists.newArrayList();
+        Path worldPath = storagePathProvider.getWorldPath();
+        if (!Files.isDirectory(worldPath)) {
+            return result;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(worldPath)) {
+            for (Path path : stream) {
+                if (Files.isRegularFile(path) && pattern.matcher(path.getFileName().toString()).matches()) {
+                    result.add(path);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Vector3i parseChunkPosition(String filename) {
+        Matcher matcher = CHUNK_FILENAME.matcher(filename);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return new Vector3i(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3)));
+    }
+}
@@ -19,6 +19,8 @@
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.sun.nio.zipfs.ZipFileSystemProvider;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.terasology.entitySystem.Component;
@@ -30,6 +32,7 @@
 import org.terasology.math.geom.Vector3f;
 import org.terasology.math.geom.Vector3i;
 import org.terasology.network.ClientComponent;
+import org.terasology.persistence.ChunkStorageMode;
 import org.terasology.protobuf.EntityData;
 import org.terasology.utilities.concurrency.AbstractTask;
 import org.terasology.world.chunks.internal.ChunkImpl;
@@ -86,19 +89,22 @@ public class SaveTransaction extends AbstractTask {
 
 
     // Save parameters:
-    private final boolean storeChunksInZips;
+    private final ChunkStorageMode chunkStorageMode;
 
     // utility classes for saving:
     private final StoragePathProvider storagePathProvider;
     private final SaveTransactionHelper saveTransactionHelper;
+    private final ChunkZipCache chunkZipCache;
+    private final RegionFileCache regionFileCache;
 
 
     public SaveTransaction(EngineEntityManager privateEntityManager, EntitySetDeltaRecorder deltaToSave,
                            Map<String, EntityData.PlayerStore> unloadedPlayers,
                            Map<String, PlayerStoreBuilder> loadedPlayers, GlobalStoreBuilder globalStoreBuilder,
                            Map<Vector3i, CompressedChunkBuilder> unloadedChunks, Map<Vector3i, ChunkImpl> loadedChunks,
-                           GameManifest gameManifest, boolean storeChunksInZips,
-                           StoragePathProvider storagePathProvider, Lock worldDirectoryWriteLock) {
+                           GameManifest gameManifest, ChunkStorageMode chunkStorageMode,
+                           StoragePathProvider storagePathProvider, ChunkZipCache chunkZipCache,
+                           RegionFileCache regionFileCache, Lock worldDirectoryWriteLock) {
         this.privateEntityManager = privateEntityManager;
         this.deltaToSave = deltaToSave;
         this.unloadedPlayers = unloadedPlayers;
@@ -107,9 +113,11 @@ public SaveTransaction(EngineEntityManager privateEntityManager, EntitySetDeltaR
         this.loadedChunks = loadedChunks;
         this.globalStoreBuilder = globalStoreBuilder;
         this.gameManifest = gameManifest;
-        this.storeChunksInZips = storeChunksInZips;
+        this.chunkStorageMode = chunkStorageMode;
         this.storagePathProvider = storagePathProvider;
         this.saveTransactionHelper = new SaveTransactionHelper(storagePathProvider);
+        this.chunkZipCache = chunkZipCache;
+        this.regionFileCache = regionFileCache;
         this.worldDirectoryWriteLock = worldDirectoryWriteLock;
     }
 
@@ -351,7 +359,9 @@ private void writeChunkStores() throws IOException {
 
         Path chunksPath = storagePathProvider.getWorldTempPath();
         Files.createDirectories(chunksPath);
-        if (storeChunksInZips) {
+        if (chunkStorageMode == ChunkStorageMode.REGION_FILES) {
+            writeRegionFiles();
+        } else if (chunkStorageMode == ChunkStorageMode.ZIPS) {
             Map<Vector3i, FileSystem> newChunkZips = Maps.newHashMap();
             for (Map.Entry<Vector3i, CompressedChunkBuilder> entry : allChunks.entrySet()) {
                 Vector3i chunkPos = entry.getKey();
@@ -406,6 +416,32 @@ public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
         }
     }
 
+    /**
+     * Writes the modified chunks of every region into a region file of its own, which gets merged into the region
+     * file of the save game by {@link SaveTransactionHelper#mergeChanges()}. Unmodified chunks are neither read nor
+     * written.
+     */
+    private void writeRegionFiles() throws IOException {
+        Map<Vector3i, TIntObjectMap<byte[]>> chunksByRegion = Maps.newHashMap();
+        for (Map.Entry<Vector3i, CompressedChunkBuilder> entry : allChunks.entrySet()) {
+            Vector3i chunkPos = entry.getKey();
+            Vector3i regionPos = storagePathProvider.getRegionPosition(chunkPos);
+            TIntObjectMap<byte[]> regionChunks = chunksByRegion.get(regionPos);
+            if (regionChunks == null) {
+                regionChunks = new TIntObjectHashMap<>();
+                chunksByRegion.put(regionPos, regionChunks);
+            }
+            regionChunks.put(RegionFile.getChunkIndex(chunkPos), entry.getValue().buildEncodedChunk());
+        }
+        for (Map.Entry<Vector3i, TIntObjectMap<byte[]>> entry : chunksByRegion.entrySet()) {
+            Path targetPath = storagePathProvider.getRegionTempPath(entry.getKey());
+            Files.deleteIfExists(targetPath);
+            try (RegionFile regionFile = RegionFile.openForWriting(targetPath)) {
+                regionFile.write(entry.getValue());
+            }
+        }
+    }
+
     /**
      * @return the result if there is one yet or null. This method returns the value of a volatile variable and
      * can thus be used even from another thread.
@@ -426,6 +462,9 @@ private void saveGameManifest() {
     private void mergeChanges() throws IOException {
         worldDirectoryWriteLock.lock();
         try {
+            // Cached zips would keep the files that get replaced by the merge open
+            chunkZipCache.invalidate();
+            regionFileCache.invalidate();
             saveTransactionHelper.mergeChanges();
         } finally {
             worldDirectoryWriteLock.unlock();
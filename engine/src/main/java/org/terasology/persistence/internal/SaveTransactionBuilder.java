@@ -19,6 +19,7 @@
 import org.terasology.entitySystem.entity.internal.EngineEntityManager;
 import org.terasology.game.GameManifest;
 import org.terasology.math.geom.Vector3i;
+import org.terasology.persistence.ChunkStorageMode;
 import org.terasology.protobuf.EntityData;
 import org.terasology.world.chunks.internal.ChunkImpl;
 
@@ -38,17 +39,21 @@ class SaveTransactionBuilder {
     private Map<Vector3i, CompressedChunkBuilder> unloadedChunks = Maps.newHashMap();
     private Map<Vector3i, ChunkImpl> loadedChunks = Maps.newHashMap();
     private GlobalStoreBuilder globalStoreBuilder;
-    private final boolean storeChunksInZips;
+    private final ChunkStorageMode chunkStorageMode;
     private final StoragePathProvider storagePathProvider;
+    private final ChunkZipCache chunkZipCache;
+    private final RegionFileCache regionFileCache;
     private GameManifest gameManifest;
 
     SaveTransactionBuilder(EngineEntityManager privateEntityManager, EntitySetDeltaRecorder deltaToSave,
-                           boolean storeChunksInZips, StoragePathProvider storagePathProvider,
-                           Lock worldDirectoryWriteLock) {
+                           ChunkStorageMode chunkStorageMode, StoragePathProvider storagePathProvider,
+                           ChunkZipCache chunkZipCache, RegionFileCache regionFileCache, Lock worldDirectoryWriteLock) {
         this.privateEntityManager = privateEntityManager;
         this.deltaToSave = deltaToSave;
-        this.storeChunksInZips = storeChunksInZips;
+        this.chunkStorageMode = chunkStorageMode;
         this.storagePathProvider = storagePathProvider;
+        this.chunkZipCache = chunkZipCache;
+        this.regionFileCache = regionFileCache;
         this.worldDirectoryWriteLock = worldDirectoryWriteLock;
     }
 
@@ -75,8 +80,8 @@ public void addLoadedChunk(final Vector3i chunkPosition, final ChunkImpl chunk)
 
     public SaveTransaction build() {
         return new SaveTransaction(privateEntityManager, deltaToSave, unloadedPlayers, loadedPlayers, globalStoreBuilder,
-                unloadedChunks, loadedChunks, gameManifest, storeChunksInZips, storagePathProvider,
-                worldDirectoryWriteLock);
+                unloadedChunks, loadedChunks, gameManifest, chunkStorageMode, storagePathProvider, chunkZipCache,
+                regionFileCache, worldDirectoryWriteLock);
 
     }
 
@@ -31,6 +31,8 @@ public class StoragePathProvider {
     private static final String UNFINISHED_SAVE_TRANSACTION = "unfinished-save-transaction";
     private static final String UNMERGED_CHANGED = "unmerged-changes";
     private static final int CHUNK_ZIP_DIM = 32;
+    private static final String REGION_FILE_EXTENSION = ".chunks.region";
+    private static final String CHUNK_BACKUP_PATH = "chunks-before-region-conversion";
 
     private final Path storagePathDirectory;
     private final Path playersPath;
@@ -90,6 +92,22 @@ public Path getChunkZipTempPath(Vector3i chunkZipPos) {
         return getWorldTempPath().resolve(getChunkZipFilename(chunkZipPos));
     }
 
+    public Path getRegionPath(Vector3i regionPos) {
+        return worldPath.resolve(getRegionFilename(regionPos));
+    }
+
+    public Path getRegionTempPath(Vector3i regionPos) {
+        return getWorldTempPath().resolve(getRegionFilename(regionPos));
+    }
+
+    /**
+     * @return the directory the chunk zips and chunk files of the world get moved to, once their chunks have been
+     * converted to region files.
+     */
+    public Path getChunkBackupPath() {
+        return worldPath.resolve(CHUNK_BACKUP_PATH);
+    }
+
     public Path getGlobalEntityStorePath() {
         return globalEntityStorePath;
     }
@@ -107,6 +125,23 @@ private String getChunkZipFilename(Vector3i pos) {
         return String.format("%d.%d.%d.chunks.zip", pos.x, pos.y, pos.z);
     }
 
+    private String getRegionFilename(Vector3i pos) {
+        return String.format("%d.%d.%d" + REGION_FILE_EXTENSION, pos.x, pos.y, pos.z);
+    }
+
+    /**
+     * @return true if the given path has the name of a region file.
+     */
+    public boolean isRegionFile(Path path) {
+        return path.getFileName().toString().endsWith(REGION_FILE_EXTENSION);
+    }
+
+    public Vector3i getRegionPosition(Vector3i chunkPos) {
+        return new Vector3i(Math.floorDiv(chunkPos.x, RegionFile.CHUNKS_PER_AXIS),
+                Math.floorDiv(chunkPos.y, RegionFile.CHUNKS_PER_AXIS),
+                Math.floorDiv(chunkPos.z, RegionFile.CHUNKS_PER_AXIS));
+    }
+
     public Vector3i getChunkZipPosition(Vector3i chunkPos) {
         Vector3i result = new Vector3i(chunkPos);
         result.div(CHUNK_ZIP_DIM);
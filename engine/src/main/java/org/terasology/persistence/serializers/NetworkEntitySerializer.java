@@ -19,7 +19,9 @@
 import com.google.common.base.Objects;
 import com.google.common.collect.BiMap;
 import com.google.common.collect.ImmutableBiMap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.common.primitives.UnsignedBytes;
 import com.google.protobuf.ByteString;
@@ -42,6 +44,7 @@
 import org.terasology.persistence.typeHandling.protobuf.ProtobufSerializationContext;
 import org.terasology.protobuf.EntityData;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -273,23 +276,60 @@ public EntityRef deserialize(EntityData.PackedEntity entityData) {
 
     public EntityData.PackedEntity serialize(EntityRef entityRef, Set<Class<? extends Component>> added, Set<Class<? extends Component>> changed,
                                              Set<Class<? extends Component>> removed, FieldSerializeCheck<Component> fieldCheck) {
-        EntityData.PackedEntity.Builder entity = EntityData.PackedEntity.newBuilder();
+        List<ComponentFragment> components = Lists.newArrayListWithCapacity(added.size() + changed.size());
+        for (Class<? extends Component> componentType : added) {
+            components.add(serializeComponent(entityRef, componentType, true, fieldCheck));
+        }
+        for (Class<? extends Component> componentType : changed) {
+            components.add(serializeComponent(entityRef, componentType, false, fieldCheck));
+        }
+        return serialize(components, removed);
+    }
 
+    /**
+     * Serializes a single added or changed component of an entity, so that it can be combined with other components
+     * by {@link #serialize(Iterable, Set)}. The result does not depend on any state of the serializer other than the
+     * component id table, so it can be shared.
+     *
+     * @param added Whether all replicated fields of the component should be sent, rather than just those that get
+     *              sent on changes
+     * @return The serialized component, or null if the entity does not have the component
+     */
+    public ComponentFragment serializeComponent(EntityRef entityRef, Class<? extends Component> componentType, boolean added,
+                                                FieldSerializeCheck<Component> fieldCheck) {
+        Component component = entityRef.getComponent(componentType);
+        if (component == null) {
+            logger.error("Non-existent component marked as {}: {}", added ? "added" : "changed", componentType);
+            return null;
+        }
+        EntityData.PackedEntity.Builder entity = EntityData.PackedEntity.newBuilder();
         ByteString.Output fieldIds = ByteString.newOutput();
         ByteString.Output componentFieldCounts = ByteString.newOutput();
-        for (Class<? extends Component> componentType : added) {
-            Component component = entityRef.getComponent(componentType);
-            if (component == null) {
-                logger.error("Non-existent component marked as added: {}", componentType);
-            }
-            serializeComponentFull(entityRef.getComponent(componentType), false, fieldCheck, entity, fieldIds, componentFieldCounts, true);
+        serializeComponentFull(component, !added, fieldCheck, entity, fieldIds, componentFieldCounts, added);
+        if (entity.getComponentIdCount() == 0) {
+            return ComponentFragment.EMPTY;
         }
-        for (Class<? extends Component> componentType : changed) {
-            Component comp = entityRef.getComponent(componentType);
-            if (comp != null) {
-                serializeComponentFull(comp, true, fieldCheck, entity, fieldIds, componentFieldCounts, false);
-            } else {
-                logger.error("Non-existent component marked as changed: {}", componentType);
+        return new ComponentFragment(entity.getComponentId(0), fieldIds.toByteString().toByteArray(),
+                componentFieldCounts.toByteString().byteAt(0), entity.getFieldValueList());
+    }
+
+    /**
+     * Combines serialized components into an entity update.
+     *
+     * @param components The serialized added and changed components. Null entries are skipped.
+     * @return The entity update, or null if there is nothing to send
+     */
+    public EntityData.PackedEntity serialize(Iterable<ComponentFragment> components, Set<Class<? extends Component>> removed) {
+        EntityData.PackedEntity.Builder entity = EntityData.PackedEntity.newBuilder();
+
+        ByteString.Output fieldIds = ByteString.newOutput();
+        ByteString.Output componentFieldCounts = ByteString.newOutput();
+        for (ComponentFragment component : components) {
+            if (component != null && !component.isEmpty()) {
+                entity.addComponentId(component.componentId);
+                fieldIds.write(component.fieldIds, 0, component.fieldIds.length);
+                componentFieldCounts.write(component.fieldCount);
+                entity.addAllFieldValue(component.fieldValues);
             }
         }
         for (Class<? extends Component> componentType : removed) {
@@ -303,4 +343,30 @@ public EntityData.PackedEntity serialize(EntityRef entityRef, Set<Class<? extend
             return entity.build();
         }
     }
+
+    /**
+     * An immutable serialized component, as part of an entity update.
+     */
+    public static final class ComponentFragment {
+        private static final ComponentFragment EMPTY = new ComponentFragment(-1, new byte[0], (byte) 0, ImmutableList.of());
+
+        private final int componentId;
+        private final byte[] fieldIds;
+        private final byte fieldCount;
+        private final List<EntityData.Value> fieldValues;
+
+        private ComponentFragment(int componentId, byte[] fieldIds, byte fieldCount, List<EntityData.Value> fieldValues) {
+            this.componentId = componentId;
+            this.fieldIds = fieldIds;
+            this.fieldCount = fieldCount;
+            this.fieldValues = ImmutableList.copyOf(fieldValues);
+        }
+
+        /**
+         * @return Whether nothing needs to be sent for the component
+         */
+        public boolean isEmpty() {
+            return componentId == -1;
+        }
+    }
 }
@@ -71,6 +71,7 @@
 import org.terasology.physics.engine.PhysicsSystem;
 import org.terasology.physics.engine.PhysicsWorldWrapper;
 import org.terasology.physics.engine.RigidBody;
+import org.terasology.physics.engine.VoxelCollisionView;
 import org.terasology.physics.shapes.BoxShapeComponent;
 import org.terasology.physics.shapes.CapsuleShapeComponent;
 import org.terasology.physics.shapes.CylinderShapeComponent;
@@ -79,6 +80,8 @@
 import org.terasology.registry.CoreRegistry;
 import org.terasology.world.BlockEntityRegistry;
 import org.terasology.world.WorldProvider;
+import org.terasology.world.block.Block;
+import org.terasology.world.chunks.ChunkProvider;
 
 import javax.vecmath.Matrix3f;
 import javax.vecmath.Matrix4f;
@@ -100,6 +103,7 @@
 public class BulletPhysics implements PhysicsEngine {
 
     private static final Logger logger = LoggerFactory.getLogger(BulletPhysics.class);
+    private static final float HIT_POINT_DEPTH = 0.01f;
 
     private final Deque<RigidBodyRequest> insertionQueue = Lists.newLinkedList();
     private final Deque<BulletRigidBody> removalQueue = Lists.newLinkedList();
@@ -108,6 +112,7 @@ public class BulletPhysics implements PhysicsEngine {
     private final BroadphaseInterface broadphase;
     private final DiscreteDynamicsWorld discreteDynamicsWorld;
     private final BlockEntityRegistry blockEntityRegistry;
+    private final VoxelCollisionView collisionView;
     private final PhysicsWorldWrapper wrapper;
     private final PhysicsLiquidWrapper liquidWrapper;
     private Map<EntityRef, BulletRigidBody> entityRigidBodies = Maps.newHashMap();
@@ -125,10 +130,11 @@ public BulletPhysics(WorldProvider world) {
         discreteDynamicsWorld.setGravity(new Vector3f(0f, -15f, 0f));
         blockEntityRegistry = CoreRegistry.get(BlockEntityRegistry.class);
 
-        wrapper = new PhysicsWorldWrapper(world);
+        collisionView = new VoxelCollisionView(world, CoreRegistry.get(ChunkProvider.class));
+        wrapper = new PhysicsWorldWrapper(collisionView);
         VoxelWorldShape worldShape = new VoxelWorldShape(wrapper);
 
-        liquidWrapper = new PhysicsLiquidWrapper(world);
+        liquidWrapper = new PhysicsLiquidWrapper(collisionView);
         VoxelWorldShape liquidShape = new VoxelWorldShape(liquidWrapper);
 
         Matrix3f rot = new Matrix3f();
@@ -237,12 +243,13 @@ public HitResult rayTrace(org.terasology.math.geom.Vector3f from1, org.terasolog
 
         discreteDynamicsWorld.rayTest(from, to, closest);
         if (closest.hasHit()) {
-            if (closest.userData instanceof Vector3i) { //We hit a world block
-                final EntityRef entityAt = blockEntityRegistry.getEntityAt((Vector3i) closest.userData);
+            if (closest.userData instanceof Block) { //We hit a world block
+                Vector3i blockPos = getHitBlockPosition(closest.hitPointWorld, closest.hitNormalWorld);
+                final EntityRef entityAt = blockEntityRegistry.getEntityAt(blockPos);
                 return new HitResult(entityAt,
                         VecMath.from(closest.hitPointWorld),
                         VecMath.from(closest.hitNormalWorld),
-                        (Vector3i) closest.userData);
+                        blockPos);
             } else if (closest.userData instanceof EntityRef) { //we hit an other entity
                 return new HitResult((EntityRef) closest.userData,
                         VecMath.from(closest.hitPointWorld),
@@ -256,8 +263,19 @@ public HitResult rayTrace(org.terasology.math.geom.Vector3f from1, org.terasolog
         }
     }
 
+    /**
+     * The voxels share their user data between all locations of a block, so the location of a hit block is derived
+     * from the hit point, which is on the surface of the block's collision shape.
+     */
+    private static Vector3i getHitBlockPosition(Vector3f hitPoint, Vector3f hitNormal) {
+        return new Vector3i(Math.round(hitPoint.x - hitNormal.x * HIT_POINT_DEPTH),
+                Math.round(hitPoint.y - hitNormal.y * HIT_POINT_DEPTH),
+                Math.round(hitPoint.z - hitNormal.z * HIT_POINT_DEPTH));
+    }
+
     @Override
     public void update(float delta) {
+        collisionView.invalidate();
         processQueuedBodies();
         applyPendingImpulsesAndForces();
         try {
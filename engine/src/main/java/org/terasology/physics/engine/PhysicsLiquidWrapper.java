@@ -19,44 +19,56 @@
 import com.bulletphysics.collision.shapes.voxel.VoxelInfo;
 import com.bulletphysics.collision.shapes.voxel.VoxelPhysicsWorld;
 import org.terasology.math.VecMath;
-import org.terasology.math.geom.Vector3f;
-import org.terasology.math.geom.Vector3i;
-import org.terasology.world.WorldProvider;
 import org.terasology.world.block.Block;
 
+import java.util.Arrays;
+
 /**
+ * Provides the physics engine with the liquid blocks of the world. As for the {@link PhysicsWorldWrapper}, the voxel
+ * information is shared by all locations of a block.
  */
 public class PhysicsLiquidWrapper implements VoxelPhysicsWorld {
-    private WorldProvider world;
+    private VoxelCollisionView world;
+    private LiquidVoxelInfo[] voxelInfos = new LiquidVoxelInfo[256];
 
-    public PhysicsLiquidWrapper(WorldProvider world) {
+    public PhysicsLiquidWrapper(VoxelCollisionView world) {
         this.world = world;
     }
 
     @Override
     public VoxelInfo getCollisionShapeAt(int x, int y, int z) {
         Block block = world.getBlock(x, y, z);
-        return new LiquidVoxelInfo(block, new Vector3i(x, y, z));
+        int index = block.getId() & 0xFFFF;
+        if (index >= voxelInfos.length) {
+            voxelInfos = Arrays.copyOf(voxelInfos, Math.max(index + 1, 2 * voxelInfos.length));
+        }
+        LiquidVoxelInfo info = voxelInfos[index];
+        if (info == null || info.block != block) {
+            info = new LiquidVoxelInfo(block);
+            voxelInfos[index] = info;
+        }
+        return info;
     }
 
     public void dispose() {
         world = null;
+        voxelInfos = null;
     }
 
-    private static class LiquidVoxelInfo implements VoxelInfo {
+    private static final class LiquidVoxelInfo implements VoxelInfo {
 
-        private boolean colliding;
-        private boolean blocking;
-        private CollisionShape shape;
-        private Vector3i position;
-        private Vector3f offset;
+        private final Block block;
+        private final boolean colliding;
+        private final boolean blocking;
+        private final CollisionShape shape;
+        private final javax.vecmath.Vector3f offset;
 
-        public LiquidVoxelInfo(Block block, Vector3i position) {
+        private LiquidVoxelInfo(Block block) {
+            this.block = block;
             this.shape = block.getCollisionShape();
-            this.offset = block.getCollisionOffset();
+            this.offset = VecMath.to(block.getCollisionOffset());
             this.colliding = block.isLiquid();
             this.blocking = false;
-            this.position = position;
         }
 
         @Override
@@ -66,7 +78,7 @@ public boolean isColliding() {
 
         @Override
         public Object getUserData() {
-            return position;
+            return block;
         }
 
         @Override
@@ -76,7 +88,7 @@ public CollisionShape getCollisionShape() {
 
         @Override
         public javax.vecmath.Vector3f getCollisionOffset() {
-            return VecMath.to(offset);
+            return offset;
         }
 
         @Override
@@ -20,47 +20,60 @@
 import com.bulletphysics.collision.shapes.voxel.VoxelInfo;
 import com.bulletphysics.collision.shapes.voxel.VoxelPhysicsWorld;
 import org.terasology.math.VecMath;
-import org.terasology.math.geom.Vector3f;
-import org.terasology.math.geom.Vector3i;
-import org.terasology.world.WorldProvider;
 import org.terasology.world.block.Block;
 
+import java.util.Arrays;
+
 /**
  * This class links Terasology's voxel world with the physics engine, providing it with the collision information for each block location.
- *
+ * <br><br>
+ * The collision information depends only on the block, so it is created once per block and shared by all locations of
+ * the block. The user data of the voxels thus is the {@link Block} rather than the location, the location of a hit
+ * block has to be derived from the hit point.
  */
 public class PhysicsWorldWrapper implements VoxelPhysicsWorld {
 
-    private WorldProvider world;
+    private VoxelCollisionView world;
+    private TeraVoxelInfo[] voxelInfos = new TeraVoxelInfo[256];
 
-    public PhysicsWorldWrapper(WorldProvider world) {
+    public PhysicsWorldWrapper(VoxelCollisionView world) {
         this.world = world;
     }
 
     @Override
     public VoxelInfo getCollisionShapeAt(int x, int y, int z) {
         Block block = world.getBlock(x, y, z);
-        return new TeraVoxelInfo(block, block.isTargetable(), !block.isPenetrable(), new Vector3i(x, y, z));
+        int index = block.getId() & 0xFFFF;
+        if (index >= voxelInfos.length) {
+            voxelInfos = Arrays.copyOf(voxelInfos, Math.max(index + 1, 2 * voxelInfos.length));
+        }
+        TeraVoxelInfo info = voxelInfos[index];
+        if (info == null || info.block != block) {
+            info = new TeraVoxelInfo(block, block.isTargetable(), !block.isPenetrable());
+            voxelInfos[index] = info;
+        }
+        return info;
     }
 
     public void dispose() {
         world = null;
+        voxelInfos = null;
     }
 
-    private static class TeraVoxelInfo implements VoxelInfo {
+    private static final class TeraVoxelInfo implements VoxelInfo {
 
-        private boolean colliding;
-        private boolean blocking;
-        private CollisionShape shape;
-        private Vector3i position;
-        private Vector3f offset;
+        private final Block block;
+        private final boolean colliding;
+        private final boolean blocking;
+        private final CollisionShape shape;
+        private final javax.vecmath.Vector3f offset;
 
-        public TeraVoxelInfo(Block block, boolean colliding, boolean blocking, Vector3i position) {
+        private TeraVoxelInfo(Block block, boolean colliding, boolean blocking) {
+            this.block = block;
             this.shape = block.getCollisionShape();
-            this.offset = block.getCollisionOffset();
+            this.offset = VecMath.to(block.getCollisionOffset());
             this.colliding = shape != null && colliding;
             this.blocking = shape != null && blocking;
-            this.position = position;
         }
 
         @Override
@@ -70,7 +83,7 @@ public boolean isColliding() {
 
         @Override
         public Object getUserData() {
-            return position;
+            return block;
         }
 
         @Override
@@ -80,7 +93,7 @@ public CollisionShape getCollisionShape() {
 
         @Override
         public javax.vecmath.Vector3f getCollisionOffset() {
-            return VecMath.to(offset);
+            return offset;
         }
 
         @Override
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.physics.engine;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import org.terasology.math.ChunkMath;
+import org.terasology.world.WorldProvider;
+import org.terasology.world.block.Block;
+import org.terasology.world.chunks.Chunk;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.chunks.ChunkProvider;
+
+/**
+ * Read access to the blocks of the world for the physics engine, which looks up many neighbouring blocks every step.
+ * <br><br>
+ * The chunks that were looked up are kept until the next {@link #invalidate()}, so that block lookups neither go
+ * through the maps of the chunk provider nor allocate. Cached chunks that stop being ready, because they got unloaded,
+ * are looked up again. Blocks of chunks that are not ready are taken from the world provider.
+ */
+public class VoxelCollisionView {
+    private static final int COORDINATE_BITS = 21;
+    private static final long COORDINATE_MASK = (1L << COORDINATE_BITS) - 1;
+
+    private final WorldProvider world;
+    private final ChunkProvider chunkProvider;
+    private final TLongObjectMap<Chunk> chunks = new TLongObjectHashMap<>();
+
+    private Chunk lastChunk;
+    private int lastChunkX;
+    private int lastChunkY;
+    private int lastChunkZ;
+
+    /**
+     * @param world         The world to take blocks from when their chunk is not available
+     * @param chunkProvider The provider of the chunks to cache, or null to look up every block through the world
+     */
+    public VoxelCollisionView(WorldProvider world, ChunkProvider chunkProvider) {
+        this.world = world;
+        this.chunkProvider = chunkProvider;
+    }
+
+    public Block getBlock(int x, int y, int z) {
+        int chunkX = ChunkMath.calcChunkPosX(x, ChunkConstants.POWER_X);
+        int chunkY = ChunkMath.calcChunkPosY(y, ChunkConstants.POWER_Y);
+        int chunkZ = ChunkMath.calcChunkPosZ(z, ChunkConstants.POWER_Z);
+        Chunk chunk = getChunk(chunkX, chunkY, chunkZ);
+        if (chunk == null) {
+            return world.getBlock(x, y, z);
+        }
+        return chunk.getBlock(ChunkMath.calcBlockPosX(x, ChunkConstants.INNER_CHUNK_POS_FILTER_X),
+                ChunkMath.calcBlockPosY(y, ChunkConstants.INNER_CHUNK_POS_FILTER_Y),
+                ChunkMath.calcBlockPosZ(z, ChunkConstants.INNER_CHUNK_POS_FILTER_Z));
+    }
+
+    /**
+     * Drops all cached chunks. Should be called once per physics step, so that unloaded chunks can be freed.
+     */
+    public void invalidate() {
+        chunks.clear();
+        lastChunk = null;
+    }
+
+    private Chunk getChunk(int chunkX, int chunkY, int chunkZ) {
+        if (lastChunk != null && chunkX == lastChunkX && chunkY == lastChunkY && chunkZ == lastChunkZ && lastChunk.isReady()) {
+            return lastChunk;
+        }
+        if (chunkProvider == null) {
+            return null;
+        }
+        long key = ((chunkX & COORDINATE_MASK) << (2 * COORDINATE_BITS)) | ((chunkY & COORDINATE_MASK) << COORDINATE_BITS)
+                | (chunkZ & COORDINATE_MASK);
+        Chunk chunk = chunks.get(key);
+        if (chunk == null || !chunk.isReady()) {
+            chunk = chunkProvider.getChunk(chunkX, chunkY, chunkZ);
+            if (chunk == null) {
+                chunks.remove(key);
+                return null;
+            }
+            chunks.put(key, chunk);
+        }
+        lastChunk = chunk;
+        lastChunkX = chunkX;
+        lastChunkY = chunkY;
+        lastChunkZ = chunkZ;
+        return chunk;
+    }
+}
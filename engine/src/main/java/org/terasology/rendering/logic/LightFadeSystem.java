@@ -16,6 +16,7 @@
 package org.terasology.rendering.logic;
 
 import org.terasology.entitySystem.entity.EntityManager;
+import org.terasology.entitySystem.entity.EntityQuery;
 import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
 import org.terasology.entitySystem.entity.lifecycleEvents.OnActivatedComponent;
@@ -33,6 +34,18 @@ public class LightFadeSystem extends BaseComponentSystem implements UpdateSubscr
     @In
     private EntityManager entityManager;
 
+    private EntityQuery fadingLights;
+
+    @Override
+    public void initialise() {
+        fadingLights = entityManager.createQuery(LightFadeComponent.class, LightComponent.class);
+    }
+
+    @Override
+    public void shutdown() {
+        fadingLights.dispose();
+    }
+
     @ReceiveEvent(components = LightFadeComponent.class)
     public void startLightFade(OnActivatedComponent event, EntityRef entity, LightComponent light) {
         light.simulateFading = true;
@@ -47,47 +60,49 @@ public void stopLightFade(BeforeDeactivateComponent event, EntityRef entity, Lig
 
     @Override
     public void update(float delta) {
-        for (EntityRef fadingLight : entityManager.getEntitiesWith(LightFadeComponent.class, LightComponent.class)) {
-            LightFadeComponent fade = fadingLight.getComponent(LightFadeComponent.class);
-            LightComponent light = fadingLight.getComponent(LightComponent.class);
+        fadingLights.forEach(fadingLight -> fade(fadingLight, delta));
+    }
 
-            // Fade
-            float ambientChange = delta * fade.ambientFadeRate;
-            float diffuseChange = delta * fade.diffuseFadeRate;
+    private void fade(EntityRef fadingLight, float delta) {
+        LightFadeComponent fade = fadingLight.getComponent(LightFadeComponent.class);
+        LightComponent light = fadingLight.getComponent(LightComponent.class);
 
-            boolean incomplete = false;
-            if (Math.abs(fade.targetAmbientIntensity - light.lightAmbientIntensity) < ambientChange) {
-                light.lightAmbientIntensity = fade.targetAmbientIntensity;
-            } else if (light.lightAmbientIntensity < fade.targetAmbientIntensity) {
-                light.lightAmbientIntensity += ambientChange;
-                incomplete = true;
-            } else {
-                light.lightAmbientIntensity -= ambientChange;
-                incomplete = true;
-            }
+        // Fade
+        float ambientChange = delta * fade.ambientFadeRate;
+        float diffuseChange = delta * fade.diffuseFadeRate;
 
-            if (Math.abs(fade.targetDiffuseIntensity - light.lightDiffuseIntensity) < diffuseChange) {
-                light.lightDiffuseIntensity = fade.targetDiffuseIntensity;
-            } else if (light.lightDiffuseIntensity < fade.targetDiffuseIntensity) {
-                light.lightDiffuseIntensity += diffuseChange;
-                incomplete = true;
-            } else {
-                light.lightDiffuseIntensity -= diffuseChange;
-                incomplete = true;
-            }
+        boolean incomplete = false;
+        if (Math.abs(fade.targetAmbientIntensity - light.lightAmbientIntensity) < ambientChange) {
+            light.lightAmbientIntensity = fade.targetAmbientIntensity;
+        } else if (light.lightAmbientIntensity < fade.targetAmbientIntensity) {
+            light.lightAmbientIntensity += ambientChange;
+            incomplete = true;
+        } else {
+            light.lightAmbientIntensity -= ambientChange;
+            incomplete = true;
+        }
 
-            // If fade complete, remove fade and maybe light
-            if (incomplete) {
-                fadingLight.saveComponent(light);
-            } else {
-                if (fade.removeLightAfterFadeComplete) {
-                    fadingLight.removeComponent(LightComponent.class);
-                } else {
-                    fadingLight.saveComponent(light);
-                }
+        if (Math.abs(fade.targetDiffuseIntensity - light.lightDiffuseIntensity) < diffuseChange) {
+            light.lightDiffuseIntensity = fade.targetDiffuseIntensity;
+        } else if (light.lightDiffuseIntensity < fade.targetDiffuseIntensity) {
+            light.lightDiffuseIntensity += diffuseChange;
+            incomplete = true;
+        } else {
+            light.lightDiffuseIntensity -= diffuseChange;
+            incomplete = true;
+        }
 
-                fadingLight.removeComponent(LightFadeComponent.class);
+        // If fade complete, remove fade and maybe light
+        if (incomplete) {
+            fadingLight.saveComponent(light);
+        } else {
+            if (fade.removeLightAfterFadeComplete) {
+                fadingLight.removeComponent(LightComponent.class);
+            } else {
+                fadingLight.saveComponent(light);
             }
+
+            fadingLight.removeComponent(LightFadeComponent.class);
         }
     }
 }
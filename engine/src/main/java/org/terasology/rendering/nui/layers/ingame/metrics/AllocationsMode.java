@@ -24,7 +24,7 @@
 final class AllocationsMode extends TimeMetricsMode {
 
     public AllocationsMode() {
-        super("Memory Allocations", 10, "bytes");
+        super("Memory Allocations", 10, " bytes");
     }
 
     @Override
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.rendering.nui.layers.ingame.metrics;
+
+import org.terasology.monitoring.ActivityStatistics;
+import org.terasology.monitoring.PerformanceMonitor;
+
+import java.text.NumberFormat;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Shows the activities with the slowest 99th percentile execution times, on all threads.
+ */
+final class ThreadActivitiesMode extends MetricsMode {
+    private static final int LIMIT = 20;
+
+    private final NumberFormat format;
+
+    public ThreadActivitiesMode() {
+        super("Thread Activities: p50 / p99 / max");
+        format = NumberFormat.getInstance();
+        format.setMaximumFractionDigits(2);
+    }
+
+    @Override
+    public String getMetrics() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(getName());
+        builder.append("\n");
+        List<ActivityStatistics> statistics = PerformanceMonitor.getActivityStatistics();
+        statistics.sort(Comparator.comparingDouble(ActivityStatistics::getP99Time).reversed());
+        for (int i = 0; i < LIMIT && i < statistics.size(); ++i) {
+            ActivityStatistics activity = statistics.get(i);
+            builder.append(activity.getThreadName());
+            builder.append(" - ");
+            builder.append(activity.getActivityName());
+            builder.append(": ");
+            builder.append(format.format(activity.getMedianTime()));
+            builder.append(" / ");
+            builder.append(format.format(activity.getP99Time()));
+            builder.append(" / ");
+            builder.append(format.format(activity.getMaxTime()));
+            builder.append("ms\n");
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public boolean isPerformanceManagerMode() {
+        return true;
+    }
+}
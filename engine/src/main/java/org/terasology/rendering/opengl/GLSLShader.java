@@ -40,8 +40,10 @@
 import org.terasology.rendering.assets.shader.ShaderParameterMetadata;
 import org.terasology.rendering.assets.shader.ShaderProgramFeature;
 import org.terasology.rendering.primitives.ChunkVertexFlag;
+import org.terasology.rendering.primitives.GreedyChunkMesher;
 import org.terasology.rendering.shader.ShaderParametersSSAO;
 import org.terasology.rendering.world.WorldRenderer;
+import org.terasology.world.block.shapes.BlockMeshPart;
 import org.terasology.world.block.tiles.WorldAtlas;
 
 import java.io.BufferedWriter;
@@ -135,6 +137,8 @@ public Iterable<ShaderParameterMetadata> listParameters() {
 
     private StringBuilder createShaderBuilder() {
         String preProcessorPreamble = "#version 120\n";
+        // Used by the chunk shader where available, to sample the atlas with explicit derivatives
+        preProcessorPreamble += "#extension GL_ARB_shader_texture_lod : enable\n";
 
         // TODO: Implement a system for this - this has gotten way out of hand.
         WorldAtlas worldAtlas = CoreRegistry.get(WorldAtlas.class);
@@ -221,6 +225,8 @@ private StringBuilder createShaderBuilder() {
         for (ChunkVertexFlag vertexFlag : ChunkVertexFlag.values()) {
             builder.append("#define ").append(vertexFlag.getDefineName()).append(" int(").append(vertexFlag.getValue()).append(") \n");
         }
+        builder.append("#define TILED_FLAG_STRIDE ").append((float) GreedyChunkMesher.TILED_FLAG_STRIDE).append(" \n");
+        builder.append("#define TILED_TEXTURE_BORDER ").append(BlockMeshPart.BORDER).append(" \n");
 
         return builder;
     }
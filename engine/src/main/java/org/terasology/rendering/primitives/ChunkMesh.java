@@ -16,17 +16,16 @@
 package org.terasology.rendering.primitives;
 
 import com.google.common.collect.Maps;
-import gnu.trove.list.TFloatList;
-import gnu.trove.list.TIntList;
-import gnu.trove.list.array.TFloatArrayList;
-import gnu.trove.list.array.TIntArrayList;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL13;
 import org.lwjgl.opengl.GL15;
 import org.terasology.engine.subsystem.lwjgl.GLBufferPool;
+import org.terasology.math.geom.Vector3f;
+import org.terasology.math.geom.Vector4f;
+import org.terasology.rendering.RenderMath;
 import org.terasology.rendering.VertexBufferObjectUtil;
 
-import java.nio.IntBuffer;
+import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -84,12 +83,15 @@ public enum RenderPhase {
     public static final int SIZE_COLOR = 1;
     public static final int SIZE_NORMAL = 3;
 
+    /* Interleaved vertex format: the color and the normal are packed into four bytes each */
     private static final int OFFSET_VERTEX = 0;
     private static final int OFFSET_TEX_0 = OFFSET_VERTEX + SIZE_VERTEX * 4;
     private static final int OFFSET_TEX_1 = OFFSET_TEX_0 + SIZE_TEX0 * 4;
     private static final int OFFSET_COLOR = OFFSET_TEX_1 + SIZE_TEX1 * 4;
     private static final int OFFSET_NORMAL = OFFSET_COLOR + SIZE_COLOR * 4;
-    private static final int STRIDE = OFFSET_NORMAL + SIZE_NORMAL * 4;
+    private static final int STRIDE = OFFSET_NORMAL + 4;
+
+    private static final DirectBufferPool VERTEX_DATA_POOL = new DirectBufferPool(64 * 1024 * 1024);
 
     /* VERTEX DATA */
     private final int[] vertexBuffers = new int[4];
@@ -145,8 +147,8 @@ public boolean generateVBOs() {
                     generateVBO(type);
                 }
 
-                // Free unused space on the heap
-                vertexElements = null;
+                // Return the vertex data to the pool
+                releaseVertexElements();
                 // Calculate the final amount of triangles
                 triangleCount = (vertexCount[0] + vertexCount[1] + vertexCount[2] + vertexCount[3]) / 3;
             } finally {
@@ -162,13 +164,13 @@ public boolean generateVBOs() {
     private void generateVBO(RenderType type) {
         VertexElements elements = vertexElements.get(type);
         int id = type.getIndex();
-        if (!disposed && elements.finalIndices.limit() > 0 && elements.finalVertices.limit() > 0) {
+        if (!disposed && elements.getIndexCount() > 0 && elements.getVertexCount() > 0) {
             vertexBuffers[id] = bufferPool.get("chunkMesh");
             idxBuffers[id] = bufferPool.get("chunkMesh");
-            vertexCount[id] = elements.finalIndices.limit();
+            vertexCount[id] = elements.getIndexCount();
 
-            VertexBufferObjectUtil.bufferVboElementData(idxBuffers[id], elements.finalIndices, GL15.GL_STATIC_DRAW);
-            VertexBufferObjectUtil.bufferVboData(vertexBuffers[id], elements.finalVertices, GL15.GL_STATIC_DRAW);
+            VertexBufferObjectUtil.bufferVboElementData(idxBuffers[id], elements.getIndexData(), GL15.GL_STATIC_DRAW);
+            VertexBufferObjectUtil.bufferVboData(vertexBuffers[id], elements.getVertexData(), GL15.GL_STATIC_DRAW);
         } else {
             vertexBuffers[id] = 0;
             idxBuffers[id] = 0;
@@ -202,7 +204,7 @@ private void renderVbo(int id) {
 
                 glColorPointer(SIZE_COLOR * 4, GL11.GL_UNSIGNED_BYTE, STRIDE, OFFSET_COLOR);
 
-                glNormalPointer(GL11.GL_FLOAT, STRIDE, OFFSET_NORMAL);
+                glNormalPointer(GL11.GL_BYTE, STRIDE, OFFSET_NORMAL);
 
                 GL11.glDrawElements(GL11.GL_TRIANGLES, vertexCount[id], GL11.GL_UNSIGNED_INT, 0);
 
@@ -259,13 +261,22 @@ public void dispose() {
                 }
 
                 disposed = true;
-                vertexElements = null;
+                releaseVertexElements();
             }
         } finally {
             lock.unlock();
         }
     }
 
+    private void releaseVertexElements() {
+        if (vertexElements != null) {
+            for (VertexElements elements : vertexElements.values()) {
+                elements.release();
+            }
+            vertexElements = null;
+        }
+    }
+
     public boolean isDisposed() {
         return disposed;
     }
@@ -305,29 +316,124 @@ public int getTimeToGenerateOptimizedBuffers() {
     }
 
     /**
-     * Data structure for storing vertex data. Abused like a "struct" in C/C++. Just sad.
+     * The vertices and indices of one render type, written into interleaved direct buffers in the format of the
+     * vertex buffer object. The buffers are taken from a pool as the vertices get added and are returned once the
+     * vertex buffer objects got generated, so the main thread only has to upload them.
+     * <br><br>
+     * The lighting of the vertices is set after all vertices have been added, see {@link #setLighting}.
      */
     public static class VertexElements {
+        private static final int MIN_VERTICES = 1024;
+        private static final float NORMAL_SCALE = 127f;
+
+        private ByteBuffer vertexData;
+        private ByteBuffer indexData;
+        private int vertexCount;
+        private int indexCount;
+
+        public int getVertexCount() {
+            return vertexCount;
+        }
+
+        public int getIndexCount() {
+            return indexCount;
+        }
+
+        /**
+         * Adds a vertex without lighting.
+         *
+         * @param x        the x coordinate of the position relative to the chunk
+         * @param y        the y coordinate of the position relative to the chunk
+         * @param z        the z coordinate of the position relative to the chunk
+         * @param u        the horizontal texture coordinate
+         * @param v        the vertical texture coordinate
+         * @param flags    the value of the {@link ChunkVertexFlag}
+         * @param color    the color offset
+         * @param normal   the normal, gets packed into signed bytes
+         */
+        public void addVertex(float x, float y, float z, float u, float v, int flags, Vector4f color, Vector3f normal) {
+            vertexData = ensureCapacity(vertexData, (vertexCount + 1) * STRIDE, vertexCount * STRIDE);
+            int offset = vertexCount * STRIDE;
+            vertexData.putFloat(offset + OFFSET_VERTEX, x);
+            vertexData.putFloat(offset + OFFSET_VERTEX + 4, y);
+            vertexData.putFloat(offset + OFFSET_VERTEX + 8, z);
+            vertexData.putFloat(offset + OFFSET_TEX_0, u);
+            vertexData.putFloat(offset + OFFSET_TEX_0 + 4, v);
+            vertexData.putFloat(offset + OFFSET_TEX_0 + 8, flags);
+            vertexData.putInt(offset + OFFSET_COLOR, RenderMath.packColor(color.x, color.y, color.z, color.w));
+            vertexData.put(offset + OFFSET_NORMAL, packNormal(normal.x));
+            vertexData.put(offset + OFFSET_NORMAL + 1, packNormal(normal.y));
+            vertexData.put(offset + OFFSET_NORMAL + 2, packNormal(normal.z));
+            vertexData.put(offset + OFFSET_NORMAL + 3, (byte) 0);
+            setLighting(vertexCount, 0, 0, 0);
+            vertexCount++;
+        }
+
+        public void addIndex(int index) {
+            indexData = ensureCapacity(indexData, (indexCount + 1) * 4, indexCount * 4);
+            indexData.putInt(indexCount * 4, index);
+            indexCount++;
+        }
+
+        public void getPosition(int vertex, Vector3f output) {
+            int offset = vertex * STRIDE + OFFSET_VERTEX;
+            output.set(vertexData.getFloat(offset), vertexData.getFloat(offset + 4), vertexData.getFloat(offset + 8));
+        }
+
+        public void getNormal(int vertex, Vector3f output) {
+            int offset = vertex * STRIDE + OFFSET_NORMAL;
+            output.set(vertexData.get(offset) / NORMAL_SCALE, vertexData.get(offset + 1) / NORMAL_SCALE, vertexData.get(offset + 2) / NORMAL_SCALE);
+        }
+
+        public void setLighting(int vertex, float sunlight, float blockLight, float occlusion) {
+            int offset = vertex * STRIDE + OFFSET_TEX_1;
+            vertexData.putFloat(offset, sunlight);
+            vertexData.putFloat(offset + 4, blockLight);
+            vertexData.putFloat(offset + 8, occlusion);
+        }
+
+        ByteBuffer getVertexData() {
+            return slice(vertexData, vertexCount * STRIDE);
+        }
+
+        ByteBuffer getIndexData() {
+            return slice(indexData, indexCount * 4);
+        }
+
+        void release() {
+            if (vertexData != null) {
+                VERTEX_DATA_POOL.release(vertexData);
+                vertexData = null;
+            }
+            if (indexData != null) {
+                VERTEX_DATA_POOL.release(indexData);
+                indexData = null;
+            }
+        }
+
+        private static ByteBuffer ensureCapacity(ByteBuffer buffer, int requiredBytes, int usedBytes) {
+            if (buffer == null) {
+                return VERTEX_DATA_POOL.acquire(Math.max(requiredBytes, MIN_VERTICES * STRIDE));
+            }
+            if (requiredBytes <= buffer.capacity()) {
+                return buffer;
+            }
+            ByteBuffer grown = VERTEX_DATA_POOL.acquire(2 * buffer.capacity());
+            grown.put(slice(buffer, usedBytes));
+            grown.clear();
+            VERTEX_DATA_POOL.release(buffer);
+            return grown;
+        }
+
+        private static ByteBuffer slice(ByteBuffer buffer, int length) {
+            ByteBuffer result = buffer.duplicate();
+            result.position(0);
+            result.limit(length);
+            return result;
+        }
 
-        public final TFloatList normals;
-        public final TFloatList vertices;
-        public final TFloatList tex;
-        public final TFloatList color;
-        public final TIntList indices;
-        public final TIntList flags;
-        public int vertexCount;
-
-        public IntBuffer finalVertices;
-        public IntBuffer finalIndices;
-
-        public VertexElements() {
-            vertexCount = 0;
-            normals = new TFloatArrayList();
-            vertices = new TFloatArrayList();
-            tex = new TFloatArrayList();
-            color = new TFloatArrayList();
-            indices = new TIntArrayList();
-            flags = new TIntArrayList();
+        private static byte packNormal(float value) {
+            return (byte) Math.round(Math.max(-1f, Math.min(1f, value)) * NORMAL_SCALE);
         }
     }
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.rendering.primitives;
+
+import com.google.common.base.Preconditions;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread safe pool of direct byte buffers in native byte order, so that the buffers for the vertex data of chunk
+ * meshes don't have to be allocated and garbage collected for every chunk.
+ * <br><br>
+ * Buffers are handed out with a capacity that is a power of two. Released buffers are kept as long as the pool
+ * retains less than the given number of bytes, all others are left to the garbage collector.
+ */
+public class DirectBufferPool {
+    private static final int MIN_CAPACITY_POWER = 12;
+    private static final int MAX_CAPACITY_POWER = 30;
+
+    private final long maxRetainedBytes;
+    private final AtomicLong retainedBytes = new AtomicLong();
+    private final Queue<ByteBuffer>[] buffersByPower;
+
+    @SuppressWarnings("unchecked")
+    public DirectBufferPool(long maxRetainedBytes) {
+        this.maxRetainedBytes = maxRetainedBytes;
+        this.buffersByPower = new Queue[MAX_CAPACITY_POWER + 1];
+        for (int power = MIN_CAPACITY_POWER; power <= MAX_CAPACITY_POWER; power++) {
+            buffersByPower[power] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * @param minCapacity the number of bytes the buffer must be able to hold at least
+     * @return a cleared direct buffer in native byte order. Its content is undefined.
+     */
+    public ByteBuffer acquire(int minCapacity) {
+        int power = getCapacityPower(minCapacity);
+        ByteBuffer buffer = buffersByPower[power].poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(1 << power).order(ByteOrder.nativeOrder());
+        }
+        retainedBytes.addAndGet(-buffer.capacity());
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer to the pool. The buffer must not be used afterwards.
+     *
+     * @param buffer a buffer that was acquired from this pool
+     */
+    public void release(ByteBuffer buffer) {
+        int capacity = buffer.capacity();
+        int power = Integer.numberOfTrailingZeros(capacity);
+        if (!buffer.isDirect() || Integer.bitCount(capacity) != 1 || power < MIN_CAPACITY_POWER || power > MAX_CAPACITY_POWER) {
+            return;
+        }
+        if (retainedBytes.addAndGet(capacity) > maxRetainedBytes) {
+            retainedBytes.addAndGet(-capacity);
+            return;
+        }
+        buffersByPower[power].offer(buffer);
+    }
+
+    /**
+     * @return the total capacity of the buffers that are currently kept for reuse
+     */
+    public long getRetainedBytes() {
+        return retainedBytes.get();
+    }
+
+    private static int getCapacityPower(int minCapacity) {
+        Preconditions.checkArgument(minCapacity <= 1 << MAX_CAPACITY_POWER, "Buffer capacity too large: %s", minCapacity);
+        int power = 32 - Integer.numberOfLeadingZeros(Math.max(minCapacity, 1) - 1);
+        return Math.max(power, MIN_CAPACITY_POWER);
+    }
+}
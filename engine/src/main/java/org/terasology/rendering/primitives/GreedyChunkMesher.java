@@ -0,0 +1,386 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.rendering.primitives;
+
+import com.google.common.collect.Maps;
+import org.terasology.math.Side;
+import org.terasology.math.geom.Vector2f;
+import org.terasology.math.geom.Vector3f;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.math.geom.Vector4f;
+import org.terasology.monitoring.PerformanceMonitor;
+import org.terasology.world.ChunkView;
+import org.terasology.world.biomes.Biome;
+import org.terasology.world.block.Block;
+import org.terasology.world.block.BlockAppearance;
+import org.terasology.world.block.BlockPart;
+import org.terasology.world.block.shapes.BlockMeshPart;
+import org.terasology.world.chunks.ChunkConstants;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Tessellates the full sides of opaque cube-like blocks by merging coplanar faces into larger quads. Faces are only
+ * merged if they use the same mesh part (and thus the same texture and orientation), the same color, the same
+ * {@link ChunkVertexFlag} and if the lighting is the same at all of their corners, so that the merged quad gets
+ * shaded like the faces it replaces.
+ * <br><br>
+ * The texture of a merged quad is tiled once per block: its texture coordinates are given in blocks and its vertex
+ * flag is packed with the index of its tile in the texture atlas, see {@link #packTiledFlag}. The chunk shader wraps
+ * the coordinates back into the tile. All other blocks and sides get tessellated by their mesh generator as usual.
+ * <br><br>
+ * The mesher is stateless apart from a cache of the layouts of the mesh parts and can be shared between threads.
+ */
+public class GreedyChunkMesher {
+
+    /**
+     * The vertex flag of a tiled face is its {@link ChunkVertexFlag} plus this stride times one plus the tile index.
+     */
+    public static final int TILED_FLAG_STRIDE = 8;
+
+    private final float relativeTileSize;
+    private final int tilesPerRow;
+    private final ConcurrentMap<BlockMeshPart, QuadLayout> layouts = Maps.newConcurrentMap();
+
+    /**
+     * @param relativeTileSize the size of a tile relative to the size of the texture atlas
+     */
+    public GreedyChunkMesher(float relativeTileSize) {
+        this.relativeTileSize = relativeTileSize;
+        this.tilesPerRow = Math.round(1.0f / relativeTileSize);
+    }
+
+    public void generateMesh(ChunkView chunkView, ChunkMesh mesh, int meshHeight, int verticalOffset) {
+        PerformanceMonitor.startActivity("GreedyMeshing");
+        Face[][] faces = new Face[Side.values().length][ChunkConstants.SIZE_X * ChunkConstants.SIZE_Z * meshHeight];
+        Map<Side, Block> adjacentBlocks = Maps.newEnumMap(Side.class);
+        float[] lighting = new float[3];
+
+        for (int x = 0; x < ChunkConstants.SIZE_X; x++) {
+            for (int z = 0; z < ChunkConstants.SIZE_Z; z++) {
+                for (int y = verticalOffset; y < verticalOffset + meshHeight; y++) {
+                    Block block = chunkView.getBlock(x, y, z);
+                    if (block == null || block.getMeshGenerator() == null) {
+                        continue;
+                    }
+                    if (!isMergeable(block)) {
+                        block.getMeshGenerator().generateChunkMesh(chunkView, mesh, x, y, z);
+                        continue;
+                    }
+                    for (Side side : Side.values()) {
+                        Vector3i offset = side.getVector3i();
+                        adjacentBlocks.put(side, chunkView.getBlock(x + offset.x, y + offset.y, z + offset.z));
+                    }
+                    BlockAppearance appearance = block.getAppearance(adjacentBlocks);
+                    if (!hasQuadSides(appearance)) {
+                        block.getMeshGenerator().generateChunkMesh(chunkView, mesh, x, y, z);
+                        continue;
+                    }
+                    Biome biome = chunkView.getBiome(x, y, z);
+                    int index = x + ChunkConstants.SIZE_X * (z + ChunkConstants.SIZE_Z * (y - verticalOffset));
+                    for (Side side : Side.values()) {
+                        if (BlockMeshGeneratorSingleShape.isSideVisibleForBlockTypes(adjacentBlocks.get(side), block, side)) {
+                            faces[side.ordinal()][index] = createFace(chunkView, block, appearance, biome, side, x, y, z, lighting);
+                        }
+                    }
+                }
+            }
+        }
+
+        for (Side side : Side.values()) {
+            mergeFaces(mesh, faces[side.ordinal()], side, meshHeight, verticalOffset);
+        }
+        PerformanceMonitor.endActivity();
+    }
+
+    /**
+     * @return the vertex flag of a face that uses the tile at the given atlas position and tiled texture coordinates
+     */
+    public int packTiledFlag(ChunkVertexFlag flag, Vector2f atlasPos) {
+        int column = Math.round(atlasPos.x / relativeTileSize);
+        int row = Math.round(atlasPos.y / relativeTileSize);
+        return flag.getValue() + TILED_FLAG_STRIDE * (1 + column + row * tilesPerRow);
+    }
+
+    private static boolean isMergeable(Block block) {
+        if (!(block.getMeshGenerator() instanceof BlockMeshGeneratorSingleShape)) {
+            return false;
+        }
+        if (block.isTranslucent() || block.isDoubleSided() || block.isLiquid() || block.isWater() || block.isLava()
+                || block.isIce() || block.isWaving()) {
+            return false;
+        }
+        for (Side side : Side.values()) {
+            if (!block.isFullSide(side)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasQuadSides(BlockAppearance appearance) {
+        if (appearance.getPart(BlockPart.CENTER) != null) {
+            return false;
+        }
+        for (Side side : Side.values()) {
+            BlockMeshPart part = appearance.getPart(BlockPart.fromSide(side));
+            if (part == null || part.size() != 4 || part.indicesSize() != 6) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Face createFace(ChunkView chunkView, Block block, BlockAppearance appearance, Biome biome, Side side,
+                            int x, int y, int z, float[] lighting) {
+        BlockPart blockPart = BlockPart.fromSide(side);
+        BlockMeshPart part = appearance.getPart(blockPart);
+        ChunkVertexFlag flag = ChunkVertexFlag.NORMAL;
+        if (block.isGrass() && side.isHorizontal()) {
+            flag = ChunkVertexFlag.COLOR_MASK;
+        }
+        Face face = new Face(part, block.calcColorOffsetFor(blockPart, biome), flag, appearance.getTextureAtlasPos(blockPart));
+
+        QuadLayout layout = getLayout(part, side);
+        if (layout == null) {
+            return face;
+        }
+        Vector3f vertexPos = new Vector3f();
+        for (int i = 0; i < part.size(); i++) {
+            Vector3f vertex = part.getVertex(i);
+            vertexPos.set(vertex.x + x, vertex.y + y, vertex.z + z);
+            ChunkTessellator.calcLightingValuesForVertexPos(chunkView, vertexPos, lighting, part.getNormal(i));
+            if (i == 0) {
+                face.sunlight = lighting[0];
+                face.blockLight = lighting[1];
+                face.occlusion = lighting[2];
+            } else if (face.sunlight != lighting[0] || face.blockLight != lighting[1] || face.occlusion != lighting[2]) {
+                return face;
+            }
+        }
+        face.layout = layout;
+        return face;
+    }
+
+    private QuadLayout getLayout(BlockMeshPart part, Side side) {
+        QuadLayout layout = layouts.get(part);
+        if (layout == null) {
+            layout = QuadLayout.create(part, side);
+            if (layout == null) {
+                layout = QuadLayout.NONE;
+            }
+            layouts.putIfAbsent(part, layout);
+        }
+        return layout == QuadLayout.NONE ? null : layout;
+    }
+
+    private void mergeFaces(ChunkMesh mesh, Face[] faces, Side side, int meshHeight, int verticalOffset) {
+        int[] size = {ChunkConstants.SIZE_X, meshHeight, ChunkConstants.SIZE_Z};
+        int normalAxis = getAxis(side);
+        int uAxis = (normalAxis + 1) % 3;
+        int vAxis = (normalAxis + 2) % 3;
+        int[] pos = new int[3];
+        boolean[] done = new boolean[size[uAxis] * size[vAxis]];
+
+        for (int slice = 0; slice < size[normalAxis]; slice++) {
+            pos[normalAxis] = slice;
+            Arrays.fill(done, false);
+            for (int v = 0; v < size[vAxis]; v++) {
+                for (int u = 0; u < size[uAxis]; u++) {
+                    Face face = getFace(faces, pos, uAxis, u, vAxis, v);
+                    if (face == null || done[u + v * size[uAxis]]) {
+                        continue;
+                    }
+                    int width = 1;
+                    int height = 1;
+                    if (face.layout != null) {
+                        while (u + width < size[uAxis] && !done[u + width + v * size[uAxis]]
+                                && face.canMerge(getFace(faces, pos, uAxis, u + width, vAxis, v))) {
+                            width++;
+                        }
+                        expand:
+                        while (v + height < size[vAxis]) {
+                            for (int k = 0; k < width; k++) {
+                                if (done[u + k + (v + height) * size[uAxis]]
+                                        || !face.canMerge(getFace(faces, pos, uAxis, u + k, vAxis, v + height))) {
+                                    break expand;
+                                }
+                            }
+                            height++;
+                        }
+                    }
+                    for (int j = 0; j < height; j++) {
+                        for (int k = 0; k < width; k++) {
+                            done[u + k + (v + j) * size[uAxis]] = true;
+                        }
+                    }
+
+                    pos[uAxis] = u;
+                    pos[vAxis] = v;
+                    int x = pos[0];
+                    int y = pos[1] + verticalOffset;
+                    int z = pos[2];
+                    if (width == 1 && height == 1) {
+                        face.part.appendTo(mesh, x, y, z, face.color, ChunkMesh.RenderType.OPAQUE, face.flag);
+                    } else {
+                        appendQuad(mesh, face, x, y, z, uAxis, width, vAxis, height);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Face getFace(Face[] faces, int[] pos, int uAxis, int u, int vAxis, int v) {
+        pos[uAxis] = u;
+        pos[vAxis] = v;
+        return faces[pos[0] + ChunkConstants.SIZE_X * (pos[2] + ChunkConstants.SIZE_Z * pos[1])];
+    }
+
+    private void appendQuad(ChunkMesh mesh, Face face, int x, int y, int z, int uAxis, int width, int vAxis, int height) {
+        ChunkMesh.VertexElements elements = mesh.getVertexElements(ChunkMesh.RenderType.OPAQUE);
+        QuadLayout layout = face.layout;
+        int tiledFlag = packTiledFlag(face.flag, face.atlasPos);
+        float[] vertex = new float[3];
+
+        int nextIndex = elements.getVertexCount();
+        for (int i = 0; i < 4; i++) {
+            Vector3f partVertex = face.part.getVertex(i);
+            vertex[0] = partVertex.x + x;
+            vertex[1] = partVertex.y + y;
+            vertex[2] = partVertex.z + z;
+            int extendU = layout.farU[i] ? width - 1 : 0;
+            int extendV = layout.farV[i] ? height - 1 : 0;
+            vertex[uAxis] += extendU;
+            vertex[vAxis] += extendV;
+
+            elements.addVertex(vertex[0], vertex[1], vertex[2],
+                    layout.texU[i] + extendU * layout.texPerU[0] + extendV * layout.texPerV[0],
+                    layout.texV[i] + extendU * layout.texPerU[1] + extendV * layout.texPerV[1],
+                    tiledFlag, face.color, face.part.getNormal(i));
+        }
+
+        for (int i = 0; i < face.part.indicesSize(); i++) {
+            elements.addIndex(face.part.getIndex(i) + nextIndex);
+        }
+    }
+
+    private static int getAxis(Side side) {
+        Vector3i dir = side.getVector3i();
+        if (dir.x != 0) {
+            return 0;
+        }
+        return dir.y != 0 ? 1 : 2;
+    }
+
+    /**
+     * A visible side of a block.
+     */
+    private static final class Face {
+        private final BlockMeshPart part;
+        private final Vector4f color;
+        private final ChunkVertexFlag flag;
+        private final Vector2f atlasPos;
+        private float sunlight;
+        private float blockLight;
+        private float occlusion;
+        /**
+         * The layout of the part, or null if the face can't be merged with others.
+         */
+        private QuadLayout layout;
+
+        private Face(BlockMeshPart part, Vector4f color, ChunkVertexFlag flag, Vector2f atlasPos) {
+            this.part = part;
+            this.color = color;
+            this.flag = flag;
+            this.atlasPos = atlasPos;
+        }
+
+        private boolean canMerge(Face other) {
+            return other != null && layout != null && other.layout != null
+                    && part == other.part && flag == other.flag
+                    && sunlight == other.sunlight && blockLight == other.blockLight && occlusion == other.occlusion
+                    && color.x == other.color.x && color.y == other.color.y && color.z == other.color.z && color.w == other.color.w;
+        }
+    }
+
+    /**
+     * Describes where the vertices of a quad shaped mesh part lie on the side of the block and how its texture
+     * coordinates continue across neighbouring blocks.
+     */
+    private static final class QuadLayout {
+        private static final QuadLayout NONE = new QuadLayout();
+
+        private final boolean[] farU = new boolean[4];
+        private final boolean[] farV = new boolean[4];
+        /* Texture coordinates relative to the tile, from 0 to 1 */
+        private final float[] texU = new float[4];
+        private final float[] texV = new float[4];
+        /* Change of the tile relative texture coordinates per block along the axes of the side */
+        private final float[] texPerU = new float[2];
+        private final float[] texPerV = new float[2];
+
+        private static QuadLayout create(BlockMeshPart part, Side side) {
+            int normalAxis = getAxis(side);
+            int uAxis = (normalAxis + 1) % 3;
+            int vAxis = (normalAxis + 2) % 3;
+
+            float minTexU = Float.MAX_VALUE;
+            float maxTexU = -Float.MAX_VALUE;
+            float minTexV = Float.MAX_VALUE;
+            float maxTexV = -Float.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                Vector2f texCoord = part.getTexCoord(i);
+                minTexU = Math.min(minTexU, texCoord.x);
+                maxTexU = Math.max(maxTexU, texCoord.x);
+                minTexV = Math.min(minTexV, texCoord.y);
+                maxTexV = Math.max(maxTexV, texCoord.y);
+            }
+            if (maxTexU <= minTexU || maxTexV <= minTexV) {
+                return null;
+            }
+
+            QuadLayout layout = new QuadLayout();
+            int[] corners = {-1, -1, -1, -1};
+            for (int i = 0; i < 4; i++) {
+                float[] vertex = toArray(part.getVertex(i));
+                if (Math.abs(Math.abs(vertex[uAxis]) - 0.5f) > 0.001f || Math.abs(Math.abs(vertex[vAxis]) - 0.5f) > 0.001f) {
+                    return null;
+                }
+                layout.farU[i] = vertex[uAxis] > 0;
+                layout.farV[i] = vertex[vAxis] > 0;
+                int corner = (layout.farU[i] ? 1 : 0) + (layout.farV[i] ? 2 : 0);
+                if (corners[corner] != -1) {
+                    return null;
+                }
+                corners[corner] = i;
+                Vector2f texCoord = part.getTexCoord(i);
+                layout.texU[i] = (texCoord.x - minTexU) / (maxTexU - minTexU);
+                layout.texV[i] = (texCoord.y - minTexV) / (maxTexV - minTexV);
+            }
+            layout.texPerU[0] = layout.texU[corners[1]] - layout.texU[corners[0]];
+            layout.texPerU[1] = layout.texV[corners[1]] - layout.texV[corners[0]];
+            layout.texPerV[0] = layout.texU[corners[2]] - layout.texU[corners[0]];
+            layout.texPerV[1] = layout.texV[corners[2]] - layout.texV[corners[0]];
+            return layout;
+        }
+
+        private static float[] toArray(Vector3f vector) {
+            return new float[]{vector.x, vector.y, vector.z};
+        }
+    }
+}
@@ -31,9 +31,11 @@
 import org.terasology.rendering.cameras.Camera;
 import org.terasology.rendering.primitives.ChunkMesh;
 import org.terasology.rendering.primitives.ChunkTessellator;
+import org.terasology.rendering.primitives.GreedyChunkMesher;
 import org.terasology.rendering.world.viewDistance.ViewDistance;
 import org.terasology.world.ChunkView;
 import org.terasology.world.WorldProvider;
+import org.terasology.world.block.tiles.WorldAtlas;
 import org.terasology.world.chunks.ChunkConstants;
 import org.terasology.world.chunks.ChunkProvider;
 import org.terasology.world.chunks.RenderableChunk;
@@ -81,7 +83,12 @@ public class RenderableWorldImpl implements RenderableWorld {
     public RenderableWorldImpl(WorldProvider worldProvider, ChunkProvider chunkProvider, GLBufferPool bufferPool, Camera playerCamera, Camera shadowMapCamera) {
         this.worldProvider = worldProvider;
         this.chunkProvider = chunkProvider;
-        chunkTessellator = new ChunkTessellator(bufferPool);
+        GreedyChunkMesher greedyMesher = null;
+        WorldAtlas worldAtlas = CoreRegistry.get(WorldAtlas.class);
+        if (renderingConfig.isGreedyMeshing() && worldAtlas != null) {
+            greedyMesher = new GreedyChunkMesher(worldAtlas.getRelativeTileSize());
+        }
+        chunkTessellator = new ChunkTessellator(bufferPool, greedyMesher);
         chunkMeshUpdateManager = new ChunkMeshUpdateManager(chunkTessellator, worldProvider);
 
         this.playerCamera = playerCamera;
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.utilities.concurrency;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An unbounded blocking queue for elements whose priority changes over time, such as chunk tasks ordered by their
+ * distance to the camera.
+ * <p>
+ * The elements are kept in an array-indexed binary heap, so offering and taking are O(log n) instead of the full scan
+ * done by {@link DynamicPriorityBlockingQueue}. The heap is ordered according to the state of the comparator at the
+ * time elements were inserted. When the inputs of the comparator change (e.g. the player moved into another chunk)
+ * the owner calls {@link #reprioritize()} once, which re-heapifies all pending elements in a single O(n) pass.
+ * </p>
+ *
+ * @param <T> the type of the queued elements
+ */
+public class ReprioritizableBlockingQueue<T> extends AbstractQueue<T> implements BlockingQueue<T> {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Comparator<? super T> comparator;
+    private Object[] heap = new Object[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Lock used for all public operations
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Condition for blocking when empty
+     */
+    private final Condition notEmpty = lock.newCondition();
+
+    public ReprioritizableBlockingQueue(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Restores the heap order of all pending elements. Should be called after the values the comparator is based on
+     * have changed.
+     */
+    public void reprioritize() {
+        lock.lock();
+        try {
+            for (int i = (size >>> 1) - 1; i >= 0; i--) {
+                siftDown(i, elementAt(i));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean add(T t) {
+        return offer(t);
+    }
+
+    @Override
+    public void put(T t) throws InterruptedException {
+        offer(t);
+    }
+
+    @Override
+    public boolean offer(T t, long timeout, TimeUnit unit) throws InterruptedException {
+        return offer(t);
+    }
+
+    @Override
+    public boolean offer(T t) {
+        if (t == null) {
+            throw new NullPointerException();
+        }
+        lock.lock();
+        try {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, heap.length * 2);
+            }
+            siftUp(size++, t);
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T poll() {
+        lock.lock();
+        try {
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            T result = dequeue();
+            while (result == null) {
+                notEmpty.await();
+                result = dequeue();
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            T result = dequeue();
+            while (result == null && nanos > 0) {
+                nanos = notEmpty.awaitNanos(nanos);
+                result = dequeue();
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T peek() {
+        lock.lock();
+        try {
+            return size == 0 ? null : elementAt(0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (o == null) {
+            return false;
+        }
+        lock.lock();
+        try {
+            for (int i = 0; i < size; i++) {
+                if (o.equals(heap[i])) {
+                    removeAt(i);
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            Arrays.fill(heap, 0, size, null);
+            size = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> c, int maxElements) {
+        if (c == this) {
+            throw new IllegalArgumentException();
+        }
+        lock.lock();
+        try {
+            int count = 0;
+            while (size > 0 && count < maxElements) {
+                c.add(dequeue());
+                count++;
+            }
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return An iterator over a snapshot of the pending elements, in no particular order. Does not support removal.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        final Object[] snapshot;
+        lock.lock();
+        try {
+            snapshot = Arrays.copyOf(heap, size);
+        } finally {
+            lock.unlock();
+        }
+        return new Iterator<T>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < snapshot.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (index >= snapshot.length) {
+                    throw new NoSuchElementException();
+                }
+                return (T) snapshot[index++];
+            }
+        };
+    }
+
+    private T dequeue() {
+        if (size == 0) {
+            return null;
+        }
+        T result = elementAt(0);
+        removeAt(0);
+        return result;
+    }
+
+    private void removeAt(int index) {
+        int last = --size;
+        T moved = elementAt(last);
+        heap[last] = null;
+        if (index != last) {
+            siftDown(index, moved);
+            if (heap[index] == moved) {
+                siftUp(index, moved);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T elementAt(int index) {
+        return (T) heap[index];
+    }
+
+    private void siftUp(int index, T element) {
+        int current = index;
+        while (current > 0) {
+            int parent = (current - 1) >>> 1;
+            T parentElement = elementAt(parent);
+            if (comparator.compare(element, parentElement) >= 0) {
+                break;
+            }
+            heap[current] = parentElement;
+            current = parent;
+        }
+        heap[current] = element;
+    }
+
+    private void siftDown(int index, T element) {
+        int current = index;
+        int half = size >>> 1;
+        while (current < half) {
+            int child = 2 * current + 1;
+            T childElement = elementAt(child);
+            int right = child + 1;
+            if (right < size && comparator.compare(childElement, elementAt(right)) > 0) {
+                child = right;
+                childElement = elementAt(child);
+            }
+            if (comparator.compare(element, childElement) <= 0) {
+                break;
+            }
+            heap[current] = childElement;
+            current = child;
+        }
+        heap[current] = element;
+    }
+}
@@ -31,9 +31,13 @@
 import java.util.concurrent.TimeUnit;
 
 /**
+ * Processes tasks from a queue, either with a fixed number of dedicated threads or as a weighted pipeline of the
+ * shared {@link WorkStealingScheduler}.
  */
 public final class TaskMaster<T extends Task> {
     private static final Logger logger = LoggerFactory.getLogger(TaskMaster.class);
+    private static final long SHUTDOWN_TIMEOUT_MS = 20000;
+    private static final long SHUTDOWN_POLL_INTERVAL_MS = 5;
 
     private BlockingQueue<T> taskQueue;
     private ExecutorService executorService;
@@ -41,6 +45,10 @@
     private boolean running;
     private String name;
 
+    private WorkStealingScheduler scheduler;
+    private WorkStealingScheduler.Pipeline<T> pipeline;
+    private int weight;
+
     private TaskMaster(String name, int threads, BlockingQueue<T> queue) {
         this.name = name;
         this.threads = threads;
@@ -51,6 +59,15 @@ private TaskMaster(String name, int threads, BlockingQueue<T> queue) {
         restart();
     }
 
+    private TaskMaster(String name, WorkStealingScheduler scheduler, int weight, int maxConcurrentTasks, BlockingQueue<T> queue) {
+        this.name = name;
+        this.scheduler = scheduler;
+        this.weight = weight;
+        this.threads = maxConcurrentTasks;
+        taskQueue = queue;
+        restart();
+    }
+
     public static <T extends Task> TaskMaster<T> createFIFOTaskMaster(String name, int threads) {
         return new TaskMaster<>(name, threads, new LinkedBlockingQueue<>());
     }
@@ -64,7 +81,31 @@ public static <T extends Task> TaskMaster<T> createPriorityTaskMaster(String nam
     }
 
     public static <T extends Task> TaskMaster<T> createDynamicPriorityTaskMaster(String name, int threads, Comparator<T> comparator) {
-        return new TaskMaster<>(name, threads, new DynamicPriorityBlockingQueue<>(comparator));
+        return new TaskMaster<>(name, threads, new ReprioritizableBlockingQueue<>(comparator));
+    }
+
+    /**
+     * Creates a task master whose tasks are executed in order by the shared {@link WorkStealingScheduler}.
+     *
+     * @param name               The name of the pipeline
+     * @param weight             The share of the shared workers this task master gets relative to the other pipelines
+     * @param maxConcurrentTasks The maximum number of tasks that may run at the same time
+     */
+    public static <T extends Task> TaskMaster<T> createSharedFIFOTaskMaster(String name, int weight, int maxConcurrentTasks) {
+        return new TaskMaster<>(name, WorkStealingScheduler.getShared(), weight, maxConcurrentTasks, new LinkedBlockingQueue<>());
+    }
+
+    /**
+     * Creates a task master whose tasks are executed by the shared {@link WorkStealingScheduler}, in the order defined
+     * by a comparator that may change over time (see {@link #reprioritize()}).
+     *
+     * @param name       The name of the pipeline
+     * @param weight     The share of the shared workers this task master gets relative to the other pipelines
+     * @param comparator The comparator ordering the tasks
+     */
+    public static <T extends Task> TaskMaster<T> createSharedDynamicPriorityTaskMaster(String name, int weight, Comparator<T> comparator) {
+        WorkStealingScheduler scheduler = WorkStealingScheduler.getShared();
+        return new TaskMaster<>(name, scheduler, weight, scheduler.getThreadCount(), new ReprioritizableBlockingQueue<>(comparator));
     }
 
     /**
@@ -74,7 +115,11 @@ public static <T extends Task> TaskMaster<T> createDynamicPriorityTaskMaster(Str
      * @return Whether the task was successfully added to the queue.
      */
     public boolean offer(T task) {
-        return taskQueue.offer(task);
+        boolean result = taskQueue.offer(task);
+        if (result && scheduler != null) {
+            scheduler.signalWork();
+        }
+        return result;
     }
 
     /**
@@ -84,6 +129,19 @@ public boolean offer(T task) {
      */
     public void put(T task) throws InterruptedException {
         taskQueue.put(task);
+        if (scheduler != null) {
+            scheduler.signalWork();
+        }
+    }
+
+    /**
+     * Reorders the queued tasks of a dynamic priority task master after the values its comparator is based on have
+     * changed. Has no effect on other task masters.
+     */
+    public void reprioritize() {
+        if (taskQueue instanceof ReprioritizableBlockingQueue) {
+            ((ReprioritizableBlockingQueue<?>) taskQueue).reprioritize();
+        }
     }
 
     public void shutdown(T shutdownTask, boolean awaitComplete) {
@@ -93,6 +151,10 @@ public void shutdown(T shutdownTask, boolean awaitComplete) {
         if (!awaitComplete) {
             taskQueue.drainTo(Lists.newArrayList());
         }
+        if (scheduler != null) {
+            shutdownPipeline();
+            return;
+        }
         for (int i = 0; i < threads; ++i) {
             try {
                 taskQueue.offer(shutdownTask, 250, TimeUnit.MILLISECONDS);
@@ -116,8 +178,35 @@ public void shutdown(T shutdownTask, boolean awaitComplete) {
         running = false;
     }
 
+    /**
+     * Waits for the shared workers to finish the queued and running tasks of this task master before removing it
+     * from the scheduler.
+     */
+    private void shutdownPipeline() {
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MS;
+        while (running && !pipeline.isIdle()) {
+            if (System.currentTimeMillis() > deadline) {
+                logger.warn("Timed out awaiting completion of {} tasks", name);
+                taskQueue.clear();
+                break;
+            }
+            try {
+                Thread.sleep(SHUTDOWN_POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                logger.warn("Interrupted awaiting completion of {} tasks", name);
+                taskQueue.clear();
+                break;
+            }
+        }
+        scheduler.unregister(pipeline);
+        running = false;
+    }
+
     public void restart() {
-        if (!running) {
+        if (!running && scheduler != null) {
+            pipeline = scheduler.register(name, weight, threads, taskQueue);
+            running = true;
+        } else if (!running) {
             executorService = Executors.newFixedThreadPool(threads);
             for (int i = 0; i < threads; ++i) {
                 executorService.execute(new TaskProcessor<>(name + "-" + i, taskQueue));
@@ -0,0 +1,332 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.utilities.concurrency;
+
+import com.google.common.collect.Lists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.engine.GameThread;
+import org.terasology.monitoring.Activity;
+import org.terasology.monitoring.PerformanceMonitor;
+import org.terasology.monitoring.ThreadActivity;
+import org.terasology.monitoring.ThreadMonitor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A pool of worker threads, sized from the available cores, that is shared by several named task pipelines.
+ * <p>
+ * Every pipeline keeps its own queue (and thereby its own ordering of tasks) and gets a number of "home" workers
+ * proportional to its weight. A worker takes tasks from its home pipeline first and steals from the other pipelines
+ * when its home queue is empty, so no core idles while there is work queued anywhere.
+ * </p>
+ */
+public final class WorkStealingScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(WorkStealingScheduler.class);
+    private static final long IDLE_WAIT_MS = 100;
+
+    private static final WorkStealingScheduler SHARED = new WorkStealingScheduler("Worker", Math.max(2, Runtime.getRuntime().availableProcessors() - 1));
+
+    private final String name;
+    private final Thread[] workers;
+    private final List<Pipeline<?>> pipelines = Lists.newArrayList();
+    private volatile Pipeline<?>[] registeredPipelines = new Pipeline<?>[0];
+    private volatile Pipeline<?>[] homePipelines;
+
+    private final ReentrantLock idleLock = new ReentrantLock();
+    private final Condition workAvailable = idleLock.newCondition();
+    private final AtomicInteger idleWorkers = new AtomicInteger();
+
+    WorkStealingScheduler(String name, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Must have at least one thread.");
+        }
+        this.name = name;
+        this.workers = new Thread[threads];
+        this.homePipelines = new Pipeline<?>[threads];
+    }
+
+    /**
+     * @return The scheduler shared by all task masters that are not backed by dedicated threads.
+     */
+    public static WorkStealingScheduler getShared() {
+        return SHARED;
+    }
+
+    public int getThreadCount() {
+        return workers.length;
+    }
+
+    /**
+     * @return The currently registered pipelines.
+     */
+    public List<Pipeline<?>> getPipelines() {
+        return Collections.unmodifiableList(Arrays.asList(registeredPipelines));
+    }
+
+    /**
+     * Registers a new pipeline.
+     *
+     * @param pipelineName       The name of the pipeline, used for monitoring
+     * @param weight             The share of the workers this pipeline gets relative to the other pipelines
+     * @param maxConcurrentTasks The maximum number of tasks of this pipeline that may run at the same time
+     * @param queue              The queue the tasks of this pipeline are offered to
+     * @return The registered pipeline
+     */
+    public synchronized <T extends Task> Pipeline<T> register(String pipelineName, int weight, int maxConcurrentTasks, BlockingQueue<T> queue) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Weight must be positive.");
+        }
+        if (maxConcurrentTasks <= 0) {
+            throw new IllegalArgumentException("Must allow at least one concurrent task.");
+        }
+        Pipeline<T> pipeline = new Pipeline<>(pipelineName, weight, maxConcurrentTasks, queue);
+        pipelines.add(pipeline);
+        registeredPipelines = pipelines.toArray(new Pipeline<?>[pipelines.size()]);
+        assignWorkers();
+        startWorkers();
+        return pipeline;
+    }
+
+    synchronized void unregister(Pipeline<?> pipeline) {
+        pipelines.remove(pipeline);
+        registeredPipelines = pipelines.toArray(new Pipeline<?>[pipelines.size()]);
+        assignWorkers();
+    }
+
+    /**
+     * Wakes up an idle worker, should be called whenever a task was added to the queue of a pipeline.
+     */
+    void signalWork() {
+        if (idleWorkers.get() > 0) {
+            idleLock.lock();
+            try {
+                workAvailable.signal();
+            } finally {
+                idleLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Distributes the workers between the pipelines by weight, using the largest remainder method. A pipeline with a
+     * small weight may end up without home workers, it is then served by stealing only.
+     */
+    private void assignWorkers() {
+        Pipeline<?>[] homes = new Pipeline<?>[workers.length];
+        int totalWeight = 0;
+        for (Pipeline<?> pipeline : pipelines) {
+            totalWeight += pipeline.weight;
+        }
+        if (totalWeight > 0) {
+            int assigned = 0;
+            float[] remainders = new float[pipelines.size()];
+            for (int i = 0; i < pipelines.size(); ++i) {
+                Pipeline<?> pipeline = pipelines.get(i);
+                float share = (float) workers.length * pipeline.weight / totalWeight;
+                pipeline.threadBudget = (int) share;
+                remainders[i] = share - pipeline.threadBudget;
+                assigned += pipeline.threadBudget;
+            }
+            while (assigned < workers.length) {
+                int best = 0;
+                for (int i = 1; i < remainders.length; ++i) {
+                    if (remainders[i] > remainders[best]) {
+                        best = i;
+                    }
+                }
+                pipelines.get(best).threadBudget++;
+                remainders[best] = -1;
+                assigned++;
+            }
+            int worker = 0;
+            for (Pipeline<?> pipeline : pipelines) {
+                for (int i = 0; i < pipeline.threadBudget; ++i) {
+                    homes[worker++] = pipeline;
+                }
+            }
+        }
+        homePipelines = homes;
+    }
+
+    private void startWorkers() {
+        for (int i = 0; i < workers.length; ++i) {
+            if (workers[i] == null) {
+                final int index = i;
+                workers[i] = new Thread(() -> work(index), name + "-" + i);
+                workers[i].setDaemon(true);
+                workers[i].setPriority(Thread.MIN_PRIORITY);
+                workers[i].start();
+            }
+        }
+    }
+
+    private void work(int index) {
+        while (true) {
+            try {
+                Pipeline<?> home = homePipelines[index];
+                if (home != null && home.runNext(false)) {
+                    continue;
+                }
+                if (!steal(index, home)) {
+                    awaitWork();
+                }
+            } catch (InterruptedException e) {
+                ThreadMonitor.addError(e);
+                logger.error("Thread interrupted", e);
+            } catch (Error e) {
+                GameThread.asynch(() -> {
+                    throw e;  // re-throw on game thread to terminate the entire application
+                });
+            }
+        }
+    }
+
+    private boolean steal(int index, Pipeline<?> home) {
+        Pipeline<?>[] candidates = registeredPipelines;
+        for (int i = 0; i < candidates.length; ++i) {
+            Pipeline<?> victim = candidates[(index + i) % candidates.length];
+            if (victim != home && victim.runNext(true)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void awaitWork() throws InterruptedException {
+        idleLock.lock();
+        try {
+            idleWorkers.incrementAndGet();
+            try {
+                if (!hasRunnableTasks()) {
+                    workAvailable.await(IDLE_WAIT_MS, TimeUnit.MILLISECONDS);
+                }
+            } finally {
+                idleWorkers.decrementAndGet();
+            }
+        } finally {
+            idleLock.unlock();
+        }
+    }
+
+    private boolean hasRunnableTasks() {
+        for (Pipeline<?> pipeline : registeredPipelines) {
+            if (pipeline.runningTasks.get() < pipeline.maxConcurrentTasks && !pipeline.queue.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A named stream of tasks executed by the scheduler, along with its statistics.
+     *
+     * @param <T> The type of the tasks
+     */
+    public static final class Pipeline<T extends Task> {
+        private final String name;
+        private final int weight;
+        private final int maxConcurrentTasks;
+        private final BlockingQueue<T> queue;
+        private final AtomicInteger runningTasks = new AtomicInteger();
+        private final AtomicLong executedTasks = new AtomicLong();
+        private final AtomicLong stolenTasks = new AtomicLong();
+        private volatile int threadBudget;
+
+        private Pipeline(String name, int weight, int maxConcurrentTasks, BlockingQueue<T> queue) {
+            this.name = name;
+            this.weight = weight;
+            this.maxConcurrentTasks = maxConcurrentTasks;
+            this.queue = queue;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        /**
+         * @return The number of workers that process this pipeline before any other
+         */
+        public int getThreadBudget() {
+            return threadBudget;
+        }
+
+        public int getQueueDepth() {
+            return queue.size();
+        }
+
+        public int getRunningTasks() {
+            return runningTasks.get();
+        }
+
+        public long getExecutedTasks() {
+            return executedTasks.get();
+        }
+
+        /**
+         * @return The number of tasks of this pipeline that were executed by workers of other pipelines
+         */
+        public long getStolenTasks() {
+            return stolenTasks.get();
+        }
+
+        boolean isIdle() {
+            return runningTasks.get() == 0 && queue.isEmpty();
+        }
+
+        private boolean runNext(boolean stealing) {
+            // The task is counted as running before it is taken, so that the pipeline never appears idle in between
+            if (runningTasks.incrementAndGet() > maxConcurrentTasks) {
+                runningTasks.decrementAndGet();
+                return false;
+            }
+            try {
+                T task = queue.poll();
+                if (task == null) {
+                    return false;
+                }
+                if (!task.isTerminateSignal()) {
+                    try (ThreadActivity ignored = ThreadMonitor.startThreadActivity(task.getName());
+                         Activity ignored2 = PerformanceMonitor.startActivity(task.getName())) {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        ThreadMonitor.addError(e);
+                        logger.error("Error in {} task {}", name, task.getName(), e);
+                    }
+                }
+                executedTasks.incrementAndGet();
+                if (stealing) {
+                    stolenTasks.incrementAndGet();
+                }
+                return true;
+            } finally {
+                runningTasks.decrementAndGet();
+            }
+        }
+    }
+}
@@ -16,6 +16,8 @@
 
 package org.terasology.utilities.procedural;
 
+import java.util.Arrays;
+
 /**
  * Computes Brownian noise based on some noise generator.
  * Originally, Brown integrates white noise, but using other noises can be sometimes useful, too.
@@ -107,6 +109,82 @@ public float noise(float x, float y, float z) {
         return result * scale;
     }
 
+    /**
+     * Fills the array with Fractional Brownian Motion of a 2D grid. The octaves of the base noise are computed as
+     * grids of their own and summed up array by array.
+     * <br><br>
+     * The positions of each octave are scaled per axis the same way {@link #noise(float, float)} scales each
+     * position, so the values are the same as the ones of the point by point evaluation.
+     *
+     * @see Noise#noise(float[], float[], float[])
+     */
+    @Override
+    public void noise(float[] target, float[] positionsX, float[] positionsY) {
+        int size = positionsX.length * positionsY.length;
+        float[] octave = new float[size];
+        Arrays.fill(target, 0, size, 0.0f);
+
+        float[] workingX = positionsX.clone();
+        float[] workingY = positionsY.clone();
+        for (int i = 0; i < getOctaves(); i++) {
+            other.noise(octave, workingX, workingY);
+            addOctave(target, octave, size, spectralWeights[i]);
+
+            applyLacunarity(workingX);
+            applyLacunarity(workingY);
+        }
+
+        scale(target, size);
+    }
+
+    /**
+     * Fills the array with Fractional Brownian Motion of a 3D grid. The octaves of the base noise are computed as
+     * grids of their own and summed up array by array.
+     * <br><br>
+     * The positions of each octave are scaled per axis the same way {@link #noise(float, float, float)} scales each
+     * position, so the values are the same as the ones of the point by point evaluation.
+     *
+     * @see Noise#noise(float[], float[], float[], float[])
+     */
+    @Override
+    public void noise(float[] target, float[] positionsX, float[] positionsY, float[] positionsZ) {
+        int size = positionsX.length * positionsY.length * positionsZ.length;
+        float[] octave = new float[size];
+        Arrays.fill(target, 0, size, 0.0f);
+
+        float[] workingX = positionsX.clone();
+        float[] workingY = positionsY.clone();
+        float[] workingZ = positionsZ.clone();
+        for (int i = 0; i < getOctaves(); i++) {
+            other.noise(octave, workingX, workingY, workingZ);
+            addOctave(target, octave, size, spectralWeights[i]);
+
+            applyLacunarity(workingX);
+            applyLacunarity(workingY);
+            applyLacunarity(workingZ);
+        }
+
+        scale(target, size);
+    }
+
+    private void applyLacunarity(float[] positions) {
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] *= getLacunarity();
+        }
+    }
+
+    private static void addOctave(float[] target, float[] octave, int size, float weight) {
+        for (int i = 0; i < size; i++) {
+            target[i] += octave[i] * weight;
+        }
+    }
+
+    private void scale(float[] target, int size) {
+        for (int i = 0; i < size; i++) {
+            target[i] *= scale;
+        }
+    }
+
     private static float computeScale(float[] spectralWeights) {
         float sum = 0;
         for (float weight : spectralWeights) {
@@ -59,4 +59,114 @@ public interface Noise {
      * @return The noise value in the range [-1..1]
      */
     float noise(float x, float y, float z);
+
+    /**
+     * Fills an array with the noise values of a regular 2D grid of positions. The value at grid point (i, j) is
+     * stored at index <code>i + j * sizeX</code> and equals <code>noise(minX + i * stepX, minY + j * stepY)</code>.
+     * <br><br>
+     * The default implementation computes the positions of the axes and evaluates them with
+     * {@link #noise(float[], float[], float[])}.
+     *
+     * @param target the array to fill, at least sizeX * sizeY elements long
+     * @param minX   Position of the first grid point on the x-axis
+     * @param minY   Position of the first grid point on the y-axis
+     * @param stepX  distance of the grid points on the x-axis
+     * @param stepY  distance of the grid points on the y-axis
+     * @param sizeX  number of grid points on the x-axis
+     * @param sizeY  number of grid points on the y-axis
+     */
+    default void noise(float[] target, float minX, float minY, float stepX, float stepY, int sizeX, int sizeY) {
+        float[] positionsX = new float[sizeX];
+        for (int i = 0; i < sizeX; i++) {
+            positionsX[i] = minX + i * stepX;
+        }
+        float[] positionsY = new float[sizeY];
+        for (int j = 0; j < sizeY; j++) {
+            positionsY[j] = minY + j * stepY;
+        }
+        noise(target, positionsX, positionsY);
+    }
+
+    /**
+     * Fills an array with the noise values of a regular 3D grid of positions. The value at grid point (i, j, k) is
+     * stored at index <code>i + sizeX * (j + sizeY * k)</code> and equals
+     * <code>noise(minX + i * stepX, minY + j * stepY, minZ + k * stepZ)</code>.
+     * <br><br>
+     * The default implementation computes the positions of the axes and evaluates them with
+     * {@link #noise(float[], float[], float[], float[])}.
+     *
+     * @param target the array to fill, at least sizeX * sizeY * sizeZ elements long
+     * @param minX   Position of the first grid point on the x-axis
+     * @param minY   Position of the first grid point on the y-axis
+     * @param minZ   Position of the first grid point on the z-axis
+     * @param stepX  distance of the grid points on the x-axis
+     * @param stepY  distance of the grid points on the y-axis
+     * @param stepZ  distance of the grid points on the z-axis
+     * @param sizeX  number of grid points on the x-axis
+     * @param sizeY  number of grid points on the y-axis
+     * @param sizeZ  number of grid points on the z-axis
+     */
+    default void noise(float[] target, float minX, float minY, float minZ, float stepX, float stepY, float stepZ,
+                       int sizeX, int sizeY, int sizeZ) {
+        float[] positionsX = new float[sizeX];
+        for (int i = 0; i < sizeX; i++) {
+            positionsX[i] = minX + i * stepX;
+        }
+        float[] positionsY = new float[sizeY];
+        for (int j = 0; j < sizeY; j++) {
+            positionsY[j] = minY + j * stepY;
+        }
+        float[] positionsZ = new float[sizeZ];
+        for (int k = 0; k < sizeZ; k++) {
+            positionsZ[k] = minZ + k * stepZ;
+        }
+        noise(target, positionsX, positionsY, positionsZ);
+    }
+
+    /**
+     * Fills an array with the noise values of a 2D grid that is given by the positions of its points on each axis.
+     * The value at grid point (i, j) is stored at index <code>i + j * positionsX.length</code> and equals
+     * <code>noise(positionsX[i], positionsY[j])</code>.
+     * <br><br>
+     * Callers that need exactly the values of a point by point evaluation pass the positions they would have used
+     * for it, e.g. if the positions are not a plain <code>min + i * step</code>.
+     * The default implementation evaluates the grid point by point. Implementations override it if they can share
+     * work between neighbouring positions.
+     *
+     * @param target     the array to fill, at least positionsX.length * positionsY.length elements long
+     * @param positionsX the positions of the grid points on the x-axis
+     * @param positionsY the positions of the grid points on the y-axis
+     */
+    default void noise(float[] target, float[] positionsX, float[] positionsY) {
+        int index = 0;
+        for (float posY : positionsY) {
+            for (float posX : positionsX) {
+                target[index++] = noise(posX, posY);
+            }
+        }
+    }
+
+    /**
+     * Fills an array with the noise values of a 3D grid that is given by the positions of its points on each axis.
+     * The value at grid point (i, j, k) is stored at index <code>i + positionsX.length * (j + positionsY.length * k)</code>
+     * and equals <code>noise(positionsX[i], positionsY[j], positionsZ[k])</code>.
+     * <br><br>
+     * The default implementation evaluates the grid point by point. Implementations override it if they can share
+     * work between neighbouring positions.
+     *
+     * @param target     the array to fill, at least positionsX.length * positionsY.length * positionsZ.length elements long
+     * @param positionsX the positions of the grid points on the x-axis
+     * @param positionsY the positions of the grid points on the y-axis
+     * @param positionsZ the positions of the grid points on the z-axis
+     */
+    default void noise(float[] target, float[] positionsX, float[] positionsY, float[] positionsZ) {
+        int index = 0;
+        for (float posZ : positionsZ) {
+            for (float posY : positionsY) {
+                for (float posX : positionsX) {
+                    target[index++] = noise(posX, posY, posZ);
+                }
+            }
+        }
+    }
 }
@@ -106,6 +106,88 @@ public float noise(float posX, float posY, float posZ) {
         return TeraMath.lerp(val1, val2, w);
     }
 
+    /**
+     * Fills the array with the noise values of a 2D grid, see {@link Noise#noise(float[], float[], float[])}.
+     * The values are the same as the ones of {@link #noise(float, float)}.
+     */
+    @Override
+    public void noise(float[] target, float[] positionsX, float[] positionsY) {
+        noise(target, positionsX, positionsY, new float[1]);
+    }
+
+    /**
+     * Fills the array with the noise values of a 3D grid, see {@link Noise#noise(float[], float[], float[], float[])}.
+     * The values are the same as the ones of {@link #noise(float, float, float)}.
+     * <br><br>
+     * The cell and fade values of the x-axis are computed once for the whole grid, the ones of the y- and z-axis once
+     * per row. The permutation lookups of a lattice cell are reused for all points of a row that fall into that cell.
+     */
+    @Override
+    public void noise(float[] target, float[] positionsX, float[] positionsY, float[] positionsZ) {
+        int sizeX = positionsX.length;
+        int[] cellsX = new int[sizeX];
+        float[] offsetsX = new float[sizeX];
+        float[] fadesX = new float[sizeX];
+        for (int i = 0; i < sizeX; i++) {
+            float posX = positionsX[i];
+            cellsX[i] = (int) TeraMath.fastFloor(posX) & 255;
+            offsetsX[i] = posX - TeraMath.fastFloor(posX);
+            fadesX[i] = TeraMath.fadePerlin(offsetsX[i]);
+        }
+
+        int index = 0;
+        for (float posZ : positionsZ) {
+            int zInt = (int) TeraMath.fastFloor(posZ) & 255;
+            float z = posZ - TeraMath.fastFloor(posZ);
+            float w = TeraMath.fadePerlin(z);
+
+            for (float posY : positionsY) {
+                int yInt = (int) TeraMath.fastFloor(posY) & 255;
+                float y = posY - TeraMath.fastFloor(posY);
+                float v = TeraMath.fadePerlin(y);
+
+                int cellX = -1;
+                int hashAA = 0;
+                int hashBA = 0;
+                int hashAB = 0;
+                int hashBB = 0;
+                int hashAA1 = 0;
+                int hashBA1 = 0;
+                int hashAB1 = 0;
+                int hashBB1 = 0;
+                for (int i = 0; i < sizeX; i++) {
+                    int xInt = cellsX[i];
+                    if (xInt != cellX) {
+                        int a = noisePermutations[xInt] + yInt;
+                        int aa = noisePermutations[a] + zInt;
+                        int ab = noisePermutations[(a + 1)] + zInt;
+                        int b = noisePermutations[(xInt + 1)] + yInt;
+                        int ba = noisePermutations[b] + zInt;
+                        int bb = noisePermutations[(b + 1)] + zInt;
+                        hashAA = noisePermutations[aa];
+                        hashBA = noisePermutations[ba];
+                        hashAB = noisePermutations[ab];
+                        hashBB = noisePermutations[bb];
+                        hashAA1 = noisePermutations[(aa + 1)];
+                        hashBA1 = noisePermutations[(ba + 1)];
+                        hashAB1 = noisePermutations[(ab + 1)];
+                        hashBB1 = noisePermutations[(bb + 1)];
+                        cellX = xInt;
+                    }
+                    float x = offsetsX[i];
+                    float u = fadesX[i];
+
+                    float val1 = TeraMath.lerp(TeraMath.lerp(grad(hashAA, x, y, z), grad(hashBA, x - 1, y, z), u),
+                            TeraMath.lerp(grad(hashAB, x, y - 1, z), grad(hashBB, x - 1, y - 1, z), u), v);
+                    float val2 = TeraMath.lerp(TeraMath.lerp(grad(hashAA1, x, y, z - 1), grad(hashBA1, x - 1, y, z - 1), u),
+                            TeraMath.lerp(grad(hashAB1, x, y - 1, z - 1), grad(hashBB1, x - 1, y - 1, z - 1), u), v);
+
+                    target[index++] = TeraMath.lerp(val1, val2, w);
+                }
+            }
+        }
+    }
+
     private static float grad(int hash, float x, float y, float z) {
         int h = hash & 15;
         float u = h < 8 ? x : y;
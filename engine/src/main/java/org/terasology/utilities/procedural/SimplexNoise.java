@@ -188,6 +188,59 @@ public float noise(float xin, float yin) {
         return 70.0f * (n0 + n1 + n2);
     }
 
+    /**
+     * Fills the array with the noise values of a 2D grid, see {@link Noise#noise(float[], float[], float[])}.
+     * The values are the same as the ones of {@link #noise(float, float)}.
+     * <br><br>
+     * Each row is processed in two passes: the first one only skews the positions and determines their simplex cells,
+     * which is plain arithmetic on arrays; the second one looks up the gradients and adds up the contributions.
+     */
+    @Override
+    public void noise(float[] target, float[] positionsX, float[] positionsY) {
+        int sizeX = positionsX.length;
+        int[] cellsI = new int[sizeX];
+        int[] cellsJ = new int[sizeX];
+        float[] offsetsX = new float[sizeX];
+        float[] offsetsY = new float[sizeX];
+
+        int index = 0;
+        for (float yin : positionsY) {
+            for (int col = 0; col < sizeX; col++) {
+                float xin = positionsX[col];
+                float s = (xin + yin) * F2;
+                int i = TeraMath.floorToInt(xin + s);
+                int j = TeraMath.floorToInt(yin + s);
+                float t = (i + j) * G2;
+                cellsI[col] = i;
+                cellsJ[col] = j;
+                offsetsX[col] = xin - (i - t);
+                offsetsY[col] = yin - (j - t);
+            }
+
+            for (int col = 0; col < sizeX; col++) {
+                float x0 = offsetsX[col];
+                float y0 = offsetsY[col];
+                int i1 = x0 > y0 ? 1 : 0;
+                int j1 = 1 - i1;
+                float x1 = x0 - i1 + G2;
+                float y1 = y0 - j1 + G2;
+                float x2 = x0 - 1.0f + 2.0f * G2;
+                float y2 = y0 - 1.0f + 2.0f * G2;
+
+                int ii = cellsI[col] & 255;
+                int jj = cellsJ[col] & 255;
+                Grad g0 = grad3[permMod12[ii + perm[jj]]];
+                Grad g1 = grad3[permMod12[ii + i1 + perm[jj + j1]]];
+                Grad g2 = grad3[permMod12[ii + 1 + perm[jj + 1]]];
+
+                float n0 = contribution(0.5f - x0 * x0 - y0 * y0, g0.x * x0 + g0.y * y0);
+                float n1 = contribution(0.5f - x1 * x1 - y1 * y1, g1.x * x1 + g1.y * y1);
+                float n2 = contribution(0.5f - x2 * x2 - y2 * y2, g2.x * x2 + g2.y * y2);
+                target[index++] = 70.0f * (n0 + n1 + n2);
+            }
+        }
+    }
+
     /**
      * 3D simplex noise
      *
@@ -332,6 +385,122 @@ public float noise(float xin, float yin, float zin) {
     }
 
 
+    /**
+     * Fills the array with the noise values of a 3D grid, see {@link Noise#noise(float[], float[], float[], float[])}.
+     * The values are the same as the ones of {@link #noise(float, float, float)}.
+     * <br><br>
+     * Like the 2D variant, each row is processed in a skewing pass and a gradient pass.
+     */
+    @Override
+    public void noise(float[] target, float[] positionsX, float[] positionsY, float[] positionsZ) {
+        int sizeX = positionsX.length;
+        int[] cellsI = new int[sizeX];
+        int[] cellsJ = new int[sizeX];
+        int[] cellsK = new int[sizeX];
+        float[] offsetsX = new float[sizeX];
+        float[] offsetsY = new float[sizeX];
+        float[] offsetsZ = new float[sizeX];
+
+        int index = 0;
+        for (float zin : positionsZ) {
+            for (float yin : positionsY) {
+                for (int col = 0; col < sizeX; col++) {
+                    float xin = positionsX[col];
+                    float s = (xin + yin + zin) * F3;
+                    int i = TeraMath.floorToInt(xin + s);
+                    int j = TeraMath.floorToInt(yin + s);
+                    int k = TeraMath.floorToInt(zin + s);
+                    float t = (i + j + k) * G3;
+                    cellsI[col] = i;
+                    cellsJ[col] = j;
+                    cellsK[col] = k;
+                    offsetsX[col] = xin - (i - t);
+                    offsetsY[col] = yin - (j - t);
+                    offsetsZ[col] = zin - (k - t);
+                }
+
+                for (int col = 0; col < sizeX; col++) {
+                    float x0 = offsetsX[col];
+                    float y0 = offsetsY[col];
+                    float z0 = offsetsZ[col];
+
+                    // Offsets of the second and third corner, see noise(float, float, float) for the cases
+                    int i1;
+                    int j1;
+                    int k1;
+                    int i2;
+                    int j2;
+                    int k2;
+                    if (x0 >= y0) {
+                        j1 = 0;
+                        i2 = 1;
+                        if (y0 >= z0) {
+                            i1 = 1;
+                            k1 = 0;
+                            j2 = 1;
+                            k2 = 0;
+                        } else {
+                            i1 = x0 >= z0 ? 1 : 0;
+                            k1 = 1 - i1;
+                            j2 = 0;
+                            k2 = 1;
+                        }
+                    } else {
+                        i1 = 0;
+                        j2 = 1;
+                        if (y0 < z0) {
+                            j1 = 0;
+                            k1 = 1;
+                            i2 = 0;
+                            k2 = 1;
+                        } else {
+                            j1 = 1;
+                            k1 = 0;
+                            i2 = x0 < z0 ? 0 : 1;
+                            k2 = 1 - i2;
+                        }
+                    }
+                    float x1 = x0 - i1 + G3;
+                    float y1 = y0 - j1 + G3;
+                    float z1 = z0 - k1 + G3;
+                    float x2 = x0 - i2 + 2.0f * G3;
+                    float y2 = y0 - j2 + 2.0f * G3;
+                    float z2 = z0 - k2 + 2.0f * G3;
+                    float x3 = x0 - 1.0f + 3.0f * G3;
+                    float y3 = y0 - 1.0f + 3.0f * G3;
+                    float z3 = z0 - 1.0f + 3.0f * G3;
+
+                    int ii = cellsI[col] & 255;
+                    int jj = cellsJ[col] & 255;
+                    int kk = cellsK[col] & 255;
+                    Grad g0 = grad3[permMod12[ii + perm[jj + perm[kk]]]];
+                    Grad g1 = grad3[permMod12[ii + i1 + perm[jj + j1 + perm[kk + k1]]]];
+                    Grad g2 = grad3[permMod12[ii + i2 + perm[jj + j2 + perm[kk + k2]]]];
+                    Grad g3 = grad3[permMod12[ii + 1 + perm[jj + 1 + perm[kk + 1]]]];
+
+                    float n0 = contribution(0.6f - x0 * x0 - y0 * y0 - z0 * z0, g0.x * x0 + g0.y * y0 + g0.z * z0);
+                    float n1 = contribution(0.6f - x1 * x1 - y1 * y1 - z1 * z1, g1.x * x1 + g1.y * y1 + g1.z * z1);
+                    float n2 = contribution(0.6f - x2 * x2 - y2 * y2 - z2 * z2, g2.x * x2 + g2.y * y2 + g2.z * z2);
+                    float n3 = contribution(0.6f - x3 * x3 - y3 * y3 - z3 * z3, g3.x * x3 + g3.y * y3 + g3.z * z3);
+                    target[index++] = 32.0f * (n0 + n1 + n2 + n3);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param t   the falloff of the corner, negative if the position is outside of its range
+     * @param dot the dot product of the gradient and the offset to the corner
+     * @return the contribution of a simplex corner
+     */
+    private static float contribution(float t, float dot) {
+        if (t < 0) {
+            return 0.0f;
+        }
+        float t2 = t * t;
+        return t2 * t2 * dot;
+    }
+
     /**
      * 4D simplex noise, better simplex rank ordering method 2012-03-09
      *
@@ -39,4 +39,9 @@ public interface ManagedChunk extends CoreChunk {
 
     // TODO: Expose appropriate iterators, remove this method
     EntityData.ChunkStore.Builder encode();
+
+    /**
+     * @return a counter that changes whenever the data written by {@link #encode()} changes.
+     */
+    int getVersion();
 }
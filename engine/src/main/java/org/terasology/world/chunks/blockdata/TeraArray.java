@@ -143,6 +143,27 @@ public String toString() {
 
     public abstract boolean set(int x, int y, int z, int value, int expected);
 
+    /**
+     * Sets all elements of the horizontal layer y to the given value.
+     * Sparse arrays store a filled layer as a deflated row.
+     */
+    public void fillLayer(int y, int value) {
+        for (int z = 0; z < sizeZ; z++) {
+            for (int x = 0; x < sizeX; x++) {
+                set(x, y, z, value);
+            }
+        }
+    }
+
+    /**
+     * Sets the elements of the column at x, z from yFrom (inclusive) to yTo (exclusive) to the given value.
+     */
+    public void fillColumn(int x, int z, int yFrom, int yTo, int value) {
+        for (int y = yFrom; y < yTo; y++) {
+            set(x, y, z, value);
+        }
+    }
+
     /**
      * This is the interface for tera array factories. Every tera array is required to implement a factory.
      * It should be implemented as a static subclass of the corresponding tera array class and it should be called Factory.
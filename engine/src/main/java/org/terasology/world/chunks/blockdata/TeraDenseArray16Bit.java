@@ -21,6 +21,7 @@
 
 import java.nio.ByteBuffer;
 import java.nio.ShortBuffer;
+import java.util.Arrays;
 
 /**
  * TeraDenseArray16Bit implements a dense array with elements of 16 bit size.
@@ -104,6 +105,20 @@ public boolean set(int x, int y, int z, int value, int expected) {
         return false;
     }
 
+    @Override
+    public void fillLayer(int y, int value) {
+        int start = y * getSizeXZ();
+        Arrays.fill(data, start, start + getSizeXZ(), (short) value);
+    }
+
+    @Override
+    public void fillColumn(int x, int z, int yFrom, int yTo, int value) {
+        int end = pos(x, yTo, z);
+        for (int pos = pos(x, yFrom, z); pos < end; pos += getSizeXZ()) {
+            data[pos] = (short) value;
+        }
+    }
+
     public static class SerializationHandler extends TeraArray.BasicSerializationHandler<TeraDenseArray16Bit> {
 
         @Override
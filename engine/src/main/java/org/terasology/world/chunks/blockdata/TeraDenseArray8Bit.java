@@ -19,6 +19,8 @@
 import com.google.common.base.Preconditions;
 import org.terasology.world.chunks.deflate.TeraVisitingDeflator;
 
+import java.util.Arrays;
+
 
 /**
  * TeraDenseArray8Bit implements a dense array with elements of 8 bit size.
@@ -88,6 +90,20 @@ public boolean set(int x, int y, int z, int value, int expected) {
         return false;
     }
 
+    @Override
+    public void fillLayer(int y, int value) {
+        int start = y * getSizeXZ();
+        Arrays.fill(data, start, start + getSizeXZ(), (byte) value);
+    }
+
+    @Override
+    public void fillColumn(int x, int z, int yFrom, int yTo, int value) {
+        int end = pos(x, yTo, z);
+        for (int pos = pos(x, yFrom, z); pos < end; pos += getSizeXZ()) {
+            data[pos] = (byte) value;
+        }
+    }
+
     public static class SerializationHandler extends TeraDenseArrayByte.SerializationHandler<TeraDenseArray8Bit> {
 
         @Override
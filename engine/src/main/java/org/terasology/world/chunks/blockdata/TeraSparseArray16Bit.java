@@ -178,6 +178,48 @@ public boolean set(int x, int y, int z, int value, int expected) {
         return false;
     }
 
+    @Override
+    public void fillLayer(int y, int value) {
+        if (inflated == null) {
+            if (fill == value) {
+                return;
+            }
+            this.inflated = new short[getSizeY()][];
+            this.deflated = new short[getSizeY()];
+            Arrays.fill(deflated, fill);
+        }
+        inflated[y] = null;
+        deflated[y] = (short) value;
+    }
+
+    /**
+     * Only inflates the rows whose deflated value differs from the given value.
+     */
+    @Override
+    public void fillColumn(int x, int z, int yFrom, int yTo, int value) {
+        if (inflated == null) {
+            if (fill == (short) value || yFrom >= yTo) {
+                return;
+            }
+            this.inflated = new short[getSizeY()][];
+            this.deflated = new short[getSizeY()];
+            Arrays.fill(deflated, fill);
+        }
+        int pos = pos(x, z);
+        for (int y = yFrom; y < yTo; y++) {
+            short[] row = inflated[y];
+            if (row == null) {
+                if (deflated[y] == (short) value) {
+                    continue;
+                }
+                row = new short[getSizeXZ()];
+                Arrays.fill(row, deflated[y]);
+                inflated[y] = row;
+            }
+            row[pos] = (short) value;
+        }
+    }
+
     public static class SerializationHandler extends TeraArray.BasicSerializationHandler<TeraSparseArray16Bit> {
 
         private void putRow(final short[] row, final int length, final ByteBuffer buffer) {
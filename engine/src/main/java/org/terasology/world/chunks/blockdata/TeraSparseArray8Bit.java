@@ -148,6 +148,48 @@ public boolean set(int x, int y, int z, int value, int expected) {
         return false;
     }
 
+    @Override
+    public void fillLayer(int y, int value) {
+        if (inflated == null) {
+            if (fill == value) {
+                return;
+            }
+            this.inflated = new byte[getSizeY()][];
+            this.deflated = new byte[getSizeY()];
+            Arrays.fill(deflated, fill);
+        }
+        inflated[y] = null;
+        deflated[y] = (byte) value;
+    }
+
+    /**
+     * Only inflates the rows whose deflated value differs from the given value.
+     */
+    @Override
+    public void fillColumn(int x, int z, int yFrom, int yTo, int value) {
+        if (inflated == null) {
+            if (fill == (byte) value || yFrom >= yTo) {
+                return;
+            }
+            this.inflated = new byte[getSizeY()][];
+            this.deflated = new byte[getSizeY()];
+            Arrays.fill(deflated, fill);
+        }
+        int pos = pos(x, z);
+        for (int y = yFrom; y < yTo; y++) {
+            byte[] row = inflated[y];
+            if (row == null) {
+                if (deflated[y] == (byte) value) {
+                    continue;
+                }
+                row = new byte[rowSize()];
+                Arrays.fill(row, deflated[y]);
+                inflated[y] = row;
+            }
+            row[pos] = (byte) value;
+        }
+    }
+
     public static final class SerializationHandler extends TeraSparseArrayByte.SerializationHandler<TeraSparseArray8Bit> {
 
         @Override
@@ -24,7 +24,8 @@
 /**
  * TeraStandardDeflator implements a simple deflation algorithm for 4, 8 and 16-bit dense and sparse arrays.<br>
  * <b>NOTE:</b> Currently it is optimized for chunks of size 16x256x16 blocks.<br>
- * TODO: Implement deflation for sparse arrays.
+ * Sparse arrays get only their inflated rows deflated, rows that are already deflated are kept as they are.<br>
+ * TODO: Implement deflation for sparse 4-bit arrays.
  *
  */
 public class TeraStandardDeflator extends TeraVisitingDeflator {
@@ -197,13 +198,93 @@ public TeraArray deflateDenseArray4Bit(final byte[] data, final int rowSize, fin
 
     @Override
     public TeraArray deflateSparseArray16Bit(short[][] inflated, short[] deflated, short fill, int rowSize, int sizeX, int sizeY, int sizeZ) {
-        return null;
+        if (inflated == null) {
+            return null;
+        }
+        final short[][] newInflated = new short[sizeY][];
+        final short[] newDeflated = new short[sizeY];
+        boolean changed = false;
+        for (int y = 0; y < sizeY; y++) {
+            final short[] row = inflated[y];
+            if (row == null) {
+                newDeflated[y] = deflated[y];
+                continue;
+            }
+            final short first = row[0];
+            boolean packable = true;
+            for (int i = 1; i < rowSize; i++) {
+                if (row[i] != first) {
+                    packable = false;
+                    break;
+                }
+            }
+            if (packable) {
+                newDeflated[y] = first;
+                changed = true;
+            } else {
+                short[] tmp = new short[rowSize];
+                System.arraycopy(row, 0, tmp, 0, rowSize);
+                newInflated[y] = tmp;
+            }
+        }
+        final short first = newDeflated[0];
+        boolean packable = newInflated[0] == null;
+        for (int y = 1; y < sizeY && packable; y++) {
+            packable = newInflated[y] == null && newDeflated[y] == first;
+        }
+        if (packable) {
+            return new TeraSparseArray16Bit(sizeX, sizeY, sizeZ, first);
+        }
+        if (!changed) {
+            return null;
+        }
+        return new TeraSparseArray16Bit(sizeX, sizeY, sizeZ, newInflated, newDeflated);
     }
 
     @Override
     public TeraArray deflateSparseArray8Bit(final byte[][] inflated, final byte[] deflated, final byte fill, final int rowSize,
                                             final int sizeX, final int sizeY, final int sizeZ) {
-        return null;
+        if (inflated == null) {
+            return null;
+        }
+        final byte[][] newInflated = new byte[sizeY][];
+        final byte[] newDeflated = new byte[sizeY];
+        boolean changed = false;
+        for (int y = 0; y < sizeY; y++) {
+            final byte[] row = inflated[y];
+            if (row == null) {
+                newDeflated[y] = deflated[y];
+                continue;
+            }
+            final byte first = row[0];
+            boolean packable = true;
+            for (int i = 1; i < rowSize; i++) {
+                if (row[i] != first) {
+                    packable = false;
+                    break;
+                }
+            }
+            if (packable) {
+                newDeflated[y] = first;
+                changed = true;
+            } else {
+                byte[] tmp = new byte[rowSize];
+                System.arraycopy(row, 0, tmp, 0, rowSize);
+                newInflated[y] = tmp;
+            }
+        }
+        final byte first = newDeflated[0];
+        boolean packable = newInflated[0] == null;
+        for (int y = 1; y < sizeY && packable; y++) {
+            packable = newInflated[y] == null && newDeflated[y] == first;
+        }
+        if (packable) {
+            return new TeraSparseArray8Bit(sizeX, sizeY, sizeZ, first);
+        }
+        if (!changed) {
+            return null;
+        }
+        return new TeraSparseArray8Bit(sizeX, sizeY, sizeZ, newInflated, newDeflated);
     }
 
     @Override
@@ -36,8 +36,9 @@
 import org.terasology.world.chunks.ChunkBlockIterator;
 import org.terasology.world.chunks.ChunkConstants;
 import org.terasology.world.chunks.blockdata.TeraArray;
-import org.terasology.world.chunks.blockdata.TeraDenseArray16Bit;
 import org.terasology.world.chunks.blockdata.TeraDenseArray8Bit;
+import org.terasology.world.chunks.blockdata.TeraSparseArray16Bit;
+import org.terasology.world.chunks.blockdata.TeraSparseArray8Bit;
 import org.terasology.world.chunks.deflate.TeraDeflator;
 import org.terasology.world.chunks.deflate.TeraStandardDeflator;
 import org.terasology.world.liquid.LiquidData;
@@ -61,6 +62,7 @@ public class ChunkImpl implements Chunk {
 
     private static final DecimalFormat PERCENT_FORMAT = new DecimalFormat("0.##");
     private static final DecimalFormat SIZE_FORMAT = new DecimalFormat("#,###");
+    private static final byte NO_LIQUID = new LiquidData().toByte();
 
     private final Vector3i chunkPos = new Vector3i();
 
@@ -87,6 +89,10 @@ public class ChunkImpl implements Chunk {
     private boolean ready;
     private boolean dirty;
     private boolean animated;
+    /**
+     * Incremented on every change of the block, liquid or biome data, i.e. of everything {@link #encode()} writes.
+     */
+    private int version;
 
     // Rendering
     private ChunkMesh activeMesh;
@@ -98,8 +104,10 @@ public ChunkImpl(int x, int y, int z, BlockManager blockManager, BiomeManager bi
     }
 
     public ChunkImpl(Vector3i chunkPos, BlockManager blockManager, BiomeManager biomeManager) {
-        this(chunkPos, new TeraDenseArray16Bit(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z),
-                new TeraDenseArray8Bit(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z),
+        // Blocks and liquid start sparse, so that layers which are filled as a whole or never touched during the
+        // generation don't need to be deflated afterwards
+        this(chunkPos, new TeraSparseArray16Bit(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z),
+                new TeraSparseArray8Bit(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z),
                 new TeraDenseArray8Bit(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z),
                 blockManager, biomeManager);
     }
@@ -197,6 +205,7 @@ public Block setBlock(int x, int y, int z, Block block) {
         if (blockData == blockDataSnapshot) {
             blockData = blockData.copy();
         }
+        version++;
         int oldValue = blockData.set(x, y, z, block.getId());
         if (oldValue != block.getId()) {
             if (!block.isLiquid()) {
@@ -211,6 +220,51 @@ public Block setBlock(BaseVector3i pos, Block block) {
         return setBlock(pos.x(), pos.y(), pos.z(), block);
     }
 
+    @Override
+    public void fillColumn(int x, int z, int yFrom, int yTo, Block block) {
+        if (yFrom >= yTo) {
+            return;
+        }
+        if (blockData == blockDataSnapshot) {
+            blockData = blockData.copy();
+        }
+        version++;
+        if (!block.isLiquid()) {
+            for (int y = yFrom; y < yTo; y++) {
+                removeLiquidIfBlockChanges(x, y, z, block);
+            }
+        }
+        blockData.fillColumn(x, z, yFrom, yTo, block.getId());
+    }
+
+    @Override
+    public void fillLayer(int y, Block block) {
+        if (blockData == blockDataSnapshot) {
+            blockData = blockData.copy();
+        }
+        version++;
+        if (!block.isLiquid()) {
+            for (int x = 0; x < getChunkSizeX(); x++) {
+                for (int z = 0; z < getChunkSizeZ(); z++) {
+                    removeLiquidIfBlockChanges(x, y, z, block);
+                }
+            }
+        }
+        blockData.fillLayer(y, block.getId());
+    }
+
+    /**
+     * Like {@link #setBlock(int, int, int, Block)}, only positions whose block changes lose their liquid.
+     */
+    private void removeLiquidIfBlockChanges(int x, int y, int z, Block block) {
+        if (blockData.get(x, y, z) != block.getId() && (byte) extraData.get(x, y, z) != NO_LIQUID) {
+            if (extraData == extraDataSnapshot) {
+                extraData = extraData.copy();
+            }
+            extraData.set(x, y, z, NO_LIQUID);
+        }
+    }
+
     @Override
     public byte getSunlight(BaseVector3i pos) {
         return getSunlight(pos.x(), pos.y(), pos.z());
@@ -285,6 +339,7 @@ public void setLiquid(int x, int y, int z, LiquidData newState) {
         if (extraData == extraDataSnapshot) {
             extraData = extraData.copy();
         }
+        version++;
         extraData.set(x, y, z, newValue);
     }
 
@@ -308,6 +363,7 @@ public Biome setBiome(int x, int y, int z, Biome biome) {
         if (biomeData == biomeDataSnapshot) {
             biomeData = biomeData.copy();
         }
+        version++;
         short shortId = biomeManager.getBiomeShortId(biome);
         short previousShortId = (short) biomeData.set(x, y, z, shortId);
         return biomeManager.getBiomeByShortId(previousShortId);
@@ -598,6 +654,11 @@ public ChunkBlockIterator getBlockIterator() {
         return new ChunkBlockIteratorImpl(blockManager, getChunkWorldOffset(), blockData);
     }
 
+    @Override
+    public int getVersion() {
+        return version;
+    }
+
     @Override
     public EntityData.ChunkStore.Builder encode() {
         return ChunkSerializer.encode(chunkPos, blockData, extraData, biomeData);
@@ -34,6 +34,7 @@ public class ReadyChunkInfo {
     private Chunk chunk;
     private boolean newChunk;
     private List<EntityStore> entities;
+    private TIntList keepActiveBlockPositions;
 
     public ReadyChunkInfo(Chunk chunk, TShortObjectMap<TIntList> blockPositionMapppings, List<EntityStore> entities) {
         this.pos = chunk.getPosition();
@@ -44,8 +45,18 @@ public ReadyChunkInfo(Chunk chunk, TShortObjectMap<TIntList> blockPositionMapppi
     }
 
     public ReadyChunkInfo(Chunk chunk, TShortObjectMap<TIntList> blockPositionMapppings, ChunkStore chunkStore, List<EntityStore> entities) {
+        this(chunk, blockPositionMapppings, null, chunkStore, entities);
+    }
+
+    /**
+     * @param keepActiveBlockPositions the positions of the blocks whose entities need to be kept active, as consecutive
+     *                                 x, y, z coordinates. May be null if they haven't been gathered.
+     */
+    public ReadyChunkInfo(Chunk chunk, TShortObjectMap<TIntList> blockPositionMapppings, TIntList keepActiveBlockPositions,
+                          ChunkStore chunkStore, List<EntityStore> entities) {
         this.pos = chunk.getPosition();
         this.blockPositionMapppings = blockPositionMapppings;
+        this.keepActiveBlockPositions = keepActiveBlockPositions;
         this.chunkStore = chunkStore;
         this.newChunk = chunkStore == null;
         this.chunk = chunk;
@@ -64,6 +75,14 @@ public TShortObjectMap<TIntList> getBlockPositionMapppings() {
         return blockPositionMapppings;
     }
 
+    /**
+     * @return the positions of the blocks whose entities need to be kept active as consecutive x, y, z coordinates, or
+     * null if they haven't been gathered
+     */
+    public TIntList getKeepActiveBlockPositions() {
+        return keepActiveBlockPositions;
+    }
+
     public ChunkStore getChunkStore() {
         return chunkStore;
     }
@@ -74,11 +74,13 @@
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -89,6 +91,11 @@ public class LocalChunkProvider implements GeneratingChunkProvider {
     private static final Logger logger = LoggerFactory.getLogger(LocalChunkProvider.class);
     private static final int UNLOAD_PER_FRAME = 64;
     private static final Vector3i UNLOAD_LEEWAY = Vector3i.one();
+    private static final int UNLOAD_TASK_WEIGHT = 1;
+    private static final int MAX_CONCURRENT_UNLOAD_TASKS = 4;
+    private static final int DEFAULT_ACTIVATION_TIME_BUDGET_MS = 4;
+    private static final int BLOCK_ENTITIES_PER_STEP = 16;
+    private static final int BLOCKS_PER_EVENT = 4096;
 
     private StorageManager storageManager;
     private final EntityManager entityManager;
@@ -116,6 +123,9 @@ public class LocalChunkProvider implements GeneratingChunkProvider {
 
     private LightMerger<ReadyChunkInfo> lightMerger = new LightMerger<>(this);
 
+    private final Deque<ChunkActivation> pendingActivations = Queues.newArrayDeque();
+    private long activationTimeBudget = TimeUnit.MILLISECONDS.toNanos(DEFAULT_ACTIVATION_TIME_BUDGET_MS);
+
     public LocalChunkProvider(StorageManager storageManager, EntityManager entityManager, WorldGenerator generator,
                               BlockManager blockManager, BiomeManager biomeManager) {
         this.storageManager = storageManager;
@@ -124,7 +134,7 @@ public LocalChunkProvider(StorageManager storageManager, EntityManager entityMan
         this.blockManager = blockManager;
         this.biomeManager = biomeManager;
         this.pipeline = new ChunkGenerationPipeline(new ChunkTaskRelevanceComparator());
-        this.unloadRequestTaskMaster = TaskMaster.createFIFOTaskMaster("Chunk-Unloader", 4);
+        this.unloadRequestTaskMaster = TaskMaster.createSharedFIFOTaskMaster("Chunk-Unloader", UNLOAD_TASK_WEIGHT, MAX_CONCURRENT_UNLOAD_TASKS);
         ChunkMonitor.fireChunkProviderInitialized(this);
     }
 
@@ -241,61 +251,93 @@ public void removeRelevanceEntity(EntityRef entity) {
 
     @Override
     public void completeUpdate() {
+        // The merges must be completed in order, each chunk has to be ready before the next merge gets completed.
+        // Merges that are still running are left for a later update.
         ReadyChunkInfo readyChunkInfo = lightMerger.completeMerge();
-        if (readyChunkInfo != null) {
-            Chunk chunk = readyChunkInfo.getChunk();
-            chunk.writeLock();
-            try {
-                chunk.markReady();
-                updateAdjacentChunksReadyFieldOf(chunk);
-                updateAdjacentChunksReadyFieldOfAdjChunks(chunk);
-
-                if (!readyChunkInfo.isNewChunk()) {
-                    PerformanceMonitor.startActivity("Generating Block Entities");
-                    generateBlockEntities(chunk);
-                    PerformanceMonitor.endActivity();
-                }
+        while (readyChunkInfo != null) {
+            markChunkReady(readyChunkInfo);
+            readyChunkInfo = lightMerger.completeMerge();
+        }
+        activatePendingChunks();
+    }
 
-                if (readyChunkInfo.isNewChunk()) {
-                    PerformanceMonitor.startActivity("Generating queued Entities");
-                    readyChunkInfo.getEntities().forEach(this::generateQueuedEntities);
-                    PerformanceMonitor.endActivity();
-                }
+    private void markChunkReady(ReadyChunkInfo readyChunkInfo) {
+        Chunk chunk = readyChunkInfo.getChunk();
+        chunk.writeLock();
+        try {
+            chunk.markReady();
+            updateAdjacentChunksReadyFieldOf(chunk);
+            updateAdjacentChunksReadyFieldOfAdjChunks(chunk);
+        } finally {
+            chunk.writeUnlock();
+        }
+        pendingActivations.add(new ChunkActivation(readyChunkInfo));
+    }
 
-                if (readyChunkInfo.getChunkStore() != null) {
-                    readyChunkInfo.getChunkStore().restoreEntities();
-                }
+    /**
+     * For tests only: Makes a chunk available and ready, as if its light merge had been completed.
+     */
+    void addReadyChunk(ReadyChunkInfo readyChunkInfo) {
+        nearCache.put(readyChunkInfo.getPos(), readyChunkInfo.getChunk());
+        markChunkReady(readyChunkInfo);
+    }
 
-                if (!readyChunkInfo.isNewChunk()) {
-                    PerformanceMonitor.startActivity("Sending OnAddedBlocks");
-                    readyChunkInfo.getBlockPositionMapppings().forEachEntry((id, positions) -> {
-                        if (positions.size() > 0) {
-                            blockManager.getBlock(id).getEntity().send(new OnAddedBlocks(positions, registry));
-                        }
-                        return true;
-                    });
-                    PerformanceMonitor.endActivity();
-                }
+    /**
+     * @return the activation of the given chunk that has not been completed yet, or null if there is none
+     */
+    private ChunkActivation getPendingActivation(Chunk chunk) {
+        for (ChunkActivation activation : pendingActivations) {
+            if (activation.info.getChunk() == chunk) {
+                return activation;
+            }
+        }
+        return null;
+    }
 
-                PerformanceMonitor.startActivity("Sending OnActivateBlocks");
-                readyChunkInfo.getBlockPositionMapppings().forEachEntry((id, positions) -> {
-                    if (positions.size() > 0) {
-                        blockManager.getBlock(id).getEntity().send(new OnActivatedBlocks(positions, registry));
-                    }
-                    return true;
-                });
-                PerformanceMonitor.endActivity();
+    /**
+     * Completes the pending activation of a chunk right away, so that the chunk can be unloaded with all its entities.
+     */
+    private void completePendingActivation(Chunk chunk) {
+        ChunkActivation activation = getPendingActivation(chunk);
+        if (activation != null) {
+            activation.run(Long.MAX_VALUE);
+            pendingActivations.remove(activation);
+        }
+    }
 
-                if (readyChunkInfo.isNewChunk()) {
-                    worldEntity.send(new OnChunkGenerated(readyChunkInfo.getPos()));
+    /**
+     * Continues the activation of ready chunks until the time budget for this frame is used up. Chunks are activated
+     * one after another in the order they became ready, and at least one step is done per frame.
+     */
+    private void activatePendingChunks() {
+        if (pendingActivations.isEmpty()) {
+            return;
+        }
+        PerformanceMonitor.startActivity("Activating Chunks");
+        try {
+            long deadline = System.nanoTime() + activationTimeBudget;
+            while (!pendingActivations.isEmpty()) {
+                ChunkActivation activation = pendingActivations.peek();
+                if (activation.isObsolete() || activation.run(deadline)) {
+                    pendingActivations.poll();
+                }
+                if (System.nanoTime() >= deadline) {
+                    break;
                 }
-                worldEntity.send(new OnChunkLoaded(readyChunkInfo.getPos()));
-            } finally {
-                chunk.writeUnlock();
             }
+        } finally {
+            PerformanceMonitor.endActivity();
         }
     }
 
+    /**
+     * @param milliseconds the time per frame that may be spent on generating the entities of newly ready chunks and
+     *                     sending the events about their blocks
+     */
+    public void setActivationTimeBudget(int milliseconds) {
+        this.activationTimeBudget = TimeUnit.MILLISECONDS.toNanos(milliseconds);
+    }
+
     private void generateQueuedEntities(EntityStore store) {
         Prefab prefab = store.getPrefab();
         EntityRef entity;
@@ -335,13 +377,14 @@ private void makeChunksAvailable() {
             Collections.sort(sortedReadyChunks, new ReadyChunkRelevanceComparator());
         }
         if (!sortedReadyChunks.isEmpty()) {
-            boolean loaded = false;
-            for (int i = sortedReadyChunks.size() - 1; i >= 0 && !loaded; i--) {
+            // As many chunks as the light merger can merge at the same time
+            int loaded = 0;
+            for (int i = sortedReadyChunks.size() - 1; i >= 0 && loaded < lightMerger.getParallelism(); i--) {
                 ReadyChunkInfo chunkInfo = sortedReadyChunks.get(i);
                 PerformanceMonitor.startActivity("Make Chunk Available");
                 if (makeChunkAvailable(chunkInfo)) {
                     sortedReadyChunks.remove(i);
-                    loaded = true;
+                    loaded++;
                 }
                 PerformanceMonitor.endActivity();
             }
@@ -383,7 +426,9 @@ private void checkForUnload() {
                     break;
                 }
             }
-            if (!keep) {
+            // Chunks whose activation is still in progress are unloaded once it is complete, so that its remaining
+            // entities don't get lost and no unload events are sent for chunks that haven't been loaded completely
+            if (!keep && getPendingActivation(nearCache.get(pos)) == null) {
                 // TODO: need some way to not dispose chunks being edited or processed (or do so safely)
                 // Note: Above won't matter if all changes are on the main thread
                 if (unloadChunkInternal(pos)) {
@@ -417,6 +462,7 @@ private boolean unloadChunkInternal(Vector3i pos) {
                 }
                 return true;
             }
+            completePendingActivation(chunk);
             worldEntity.send(new BeforeChunkUnload(pos));
             for (ChunkRelevanceRegion region : regions.values()) {
                 region.chunkUnloaded(pos);
@@ -467,9 +513,11 @@ private void updateAdjacentChunksReadyFieldOfAdjChunks(Chunk chunkInCenter) {
 
 
     private void updateRelevance() {
+        boolean regionsChanged = false;
         for (ChunkRelevanceRegion chunkRelevanceRegion : regions.values()) {
             chunkRelevanceRegion.update();
             if (chunkRelevanceRegion.isDirty()) {
+                regionsChanged = true;
                 for (Vector3i pos : chunkRelevanceRegion.getNeededChunks()) {
                     Chunk chunk = nearCache.get(pos);
                     if (chunk != null) {
@@ -481,6 +529,9 @@ private void updateRelevance() {
                 chunkRelevanceRegion.setUpToDate();
             }
         }
+        if (regionsChanged) {
+            pipeline.reprioritize();
+        }
     }
 
     private boolean makeChunkAvailable(final ReadyChunkInfo readyChunkInfo) {
@@ -497,36 +548,40 @@ private boolean makeChunkAvailable(final ReadyChunkInfo readyChunkInfo) {
         return true;
     }
 
-    // Generates all non-temporary block entities
-    private void generateBlockEntities(Chunk chunk) {
-        ChunkBlockIterator i = chunk.getBlockIterator();
-        while (i.next()) {
-            if (i.getBlock().isKeepActive()) {
-                registry.getBlockEntityAt(i.getBlockPos());
-            }
-        }
-    }
-
     void gatherBlockPositionsForDeactivate(Chunk chunk) {
         try {
-            deactivateBlocksQueue.put(createBatchBlockEventMappings(chunk));
+            deactivateBlocksQueue.put(createBatchBlockEventMappings(chunk, null));
         } catch (InterruptedException e) {
             logger.error("Failed to queue deactivation of blocks for {}", chunk.getPosition());
         }
     }
 
-    private TShortObjectMap<TIntList> createBatchBlockEventMappings(Chunk chunk) {
+    /**
+     * Gathers the positions of the blocks that need lifecycle events, by block id, in a single pass over the chunk.
+     * Positions are stored as consecutive x, y, z world coordinates.
+     *
+     * @param keepActivePositions receives the positions of the blocks whose entities need to be kept active, may be null
+     */
+    private static TShortObjectMap<TIntList> createBatchBlockEventMappings(Chunk chunk, TIntList keepActivePositions) {
         TShortObjectMap<TIntList> batchBlockMap = new TShortObjectHashMap<>();
-        blockManager.listRegisteredBlocks().stream().filter(Block::isLifecycleEventsRequired).forEach(block ->
-                batchBlockMap.put(block.getId(), new TIntArrayList()));
-
         ChunkBlockIterator i = chunk.getBlockIterator();
         while (i.next()) {
-            if (i.getBlock().isLifecycleEventsRequired()) {
-                TIntList positionList = batchBlockMap.get(i.getBlock().getId());
-                positionList.add(i.getBlockPos().x);
-                positionList.add(i.getBlockPos().y);
-                positionList.add(i.getBlockPos().z);
+            Block block = i.getBlock();
+            Vector3i blockPos = i.getBlockPos();
+            if (block.isLifecycleEventsRequired()) {
+                TIntList positionList = batchBlockMap.get(block.getId());
+                if (positionList == null) {
+                    positionList = new TIntArrayList();
+                    batchBlockMap.put(block.getId(), positionList);
+                }
+                positionList.add(blockPos.x);
+                positionList.add(blockPos.y);
+                positionList.add(blockPos.z);
+            }
+            if (keepActivePositions != null && block.isKeepActive()) {
+                keepActivePositions.add(blockPos.x);
+                keepActivePositions.add(blockPos.y);
+                keepActivePositions.add(blockPos.z);
             }
         }
         return batchBlockMap;
@@ -605,6 +660,7 @@ public void purgeWorld() {
         lightMerger.shutdown();
 
         nearCache.values().stream().filter(ManagedChunk::isReady).forEach(chunk -> {
+            completePendingActivation(chunk);
             worldEntity.send(new BeforeChunkUnload(chunk.getPosition()));
             storageManager.deactivateChunk(chunk);
             chunk.dispose();
@@ -612,12 +668,13 @@ public void purgeWorld() {
         nearCache.clear();
         readyChunks.clear();
         sortedReadyChunks.clear();
+        pendingActivations.clear();
         storageManager.deleteWorld();
         preparingChunks.clear();
         worldEntity.send(new PurgeWorldEvent());
 
         pipeline = new ChunkGenerationPipeline(new ChunkTaskRelevanceComparator());
-        unloadRequestTaskMaster = TaskMaster.createFIFOTaskMaster("Chunk-Unloader", 8);
+        unloadRequestTaskMaster = TaskMaster.createSharedFIFOTaskMaster("Chunk-Unloader", UNLOAD_TASK_WEIGHT, MAX_CONCURRENT_UNLOAD_TASKS);
         lightMerger = new LightMerger<>(this);
         lightMerger.restart();
         ChunkMonitor.fireChunkProviderInitialized(this);
@@ -654,8 +711,9 @@ public void run() {
 
                     InternalLightProcessor.generateInternalLighting(chunk);
                     chunk.deflate();
-                    TShortObjectMap<TIntList> mappings = createBatchBlockEventMappings(chunk);
-                    readyChunks.offer(new ReadyChunkInfo(chunk, mappings, chunkStore, buffer.getAll()));
+                    TIntList keepActivePositions = new TIntArrayList();
+                    TShortObjectMap<TIntList> mappings = createBatchBlockEventMappings(chunk, keepActivePositions);
+                    readyChunks.offer(new ReadyChunkInfo(chunk, mappings, keepActivePositions, chunkStore, buffer.getAll()));
                 }
             });
         }
@@ -664,7 +722,7 @@ public void run() {
 
     @Override
     public void onChunkIsReady(Chunk chunk) {
-        readyChunks.offer(new ReadyChunkInfo(chunk, createBatchBlockEventMappings(chunk), Collections.emptyList()));
+        readyChunks.offer(new ReadyChunkInfo(chunk, createBatchBlockEventMappings(chunk, null), Collections.emptyList()));
     }
 
     @Override
@@ -681,6 +739,131 @@ private boolean isChunkReady(Chunk chunk) {
         return chunk != null && chunk.isReady();
     }
 
+    private enum ActivationStage {
+        BLOCK_ENTITIES,
+        QUEUED_ENTITIES,
+        STORED_ENTITIES,
+        ADDED_BLOCKS,
+        ACTIVATED_BLOCKS,
+        CHUNK_EVENTS,
+        DONE
+    }
+
+    /**
+     * The activation of a chunk that became ready: the generation of its entities and the events about its blocks, in
+     * the same order as they used to happen at once. The activation consists of small steps and can be continued in
+     * a later frame after any of them. Large sets of blocks of the same type are split over several events.
+     */
+    private final class ChunkActivation {
+        private final ReadyChunkInfo info;
+        private final short[] blockIds;
+        private TIntList keepActivePositions;
+        private ActivationStage stage = ActivationStage.BLOCK_ENTITIES;
+        private int blockIdIndex;
+        private int index;
+
+        private ChunkActivation(ReadyChunkInfo info) {
+            this.info = info;
+            this.blockIds = info.getBlockPositionMapppings().keys();
+            this.keepActivePositions = info.getKeepActiveBlockPositions();
+        }
+
+        /**
+         * @return true if the chunk got unloaded or replaced before its activation was complete
+         */
+        private boolean isObsolete() {
+            return nearCache.get(info.getPos()) != info.getChunk();
+        }
+
+        /**
+         * @return true if the activation is complete
+         */
+        private boolean run(long deadline) {
+            Chunk chunk = info.getChunk();
+            chunk.writeLock();
+            try {
+                do {
+                    if (!runStep()) {
+                        stage = ActivationStage.values()[stage.ordinal() + 1];
+                        blockIdIndex = 0;
+                        index = 0;
+                    }
+                } while (stage != ActivationStage.DONE && System.nanoTime() < deadline);
+            } finally {
+                chunk.writeUnlock();
+            }
+            return stage == ActivationStage.DONE;
+        }
+
+        /**
+         * @return false if the current stage had nothing left to do
+         */
+        private boolean runStep() {
+            switch (stage) {
+                case BLOCK_ENTITIES:
+                    return !info.isNewChunk() && generateBlockEntities();
+                case QUEUED_ENTITIES:
+                    if (info.isNewChunk() && index < info.getEntities().size()) {
+                        generateQueuedEntities(info.getEntities().get(index++));
+                        return true;
+                    }
+                    return false;
+                case STORED_ENTITIES:
+                    if (info.getChunkStore() != null) {
+                        info.getChunkStore().restoreEntities();
+                    }
+                    return false;
+                case ADDED_BLOCKS:
+                    return !info.isNewChunk() && sendBlockEvent(true);
+                case ACTIVATED_BLOCKS:
+                    return sendBlockEvent(false);
+                case CHUNK_EVENTS:
+                    if (info.isNewChunk()) {
+                        worldEntity.send(new OnChunkGenerated(info.getPos()));
+                    }
+                    worldEntity.send(new OnChunkLoaded(info.getPos()));
+                    return false;
+                default:
+                    return false;
+            }
+        }
+
+        // Generates the non-temporary block entities
+        private boolean generateBlockEntities() {
+            if (keepActivePositions == null) {
+                keepActivePositions = new TIntArrayList();
+                createBatchBlockEventMappings(info.getChunk(), keepActivePositions);
+            }
+            int end = Math.min(keepActivePositions.size(), index + BLOCK_ENTITIES_PER_STEP * 3);
+            for (; index < end; index += 3) {
+                registry.getBlockEntityAt(new Vector3i(keepActivePositions.get(index), keepActivePositions.get(index + 1),
+                        keepActivePositions.get(index + 2)));
+            }
+            return index < keepActivePositions.size();
+        }
+
+        private boolean sendBlockEvent(boolean added) {
+            while (blockIdIndex < blockIds.length) {
+                TIntList positions = info.getBlockPositionMapppings().get(blockIds[blockIdIndex]);
+                if (index < positions.size()) {
+                    int end = Math.min(positions.size(), index + BLOCKS_PER_EVENT * 3);
+                    TIntList batch = (index == 0 && end == positions.size()) ? positions : positions.subList(index, end);
+                    EntityRef blockEntity = blockManager.getBlock(blockIds[blockIdIndex]).getEntity();
+                    if (added) {
+                        blockEntity.send(new OnAddedBlocks(batch, registry));
+                    } else {
+                        blockEntity.send(new OnActivatedBlocks(batch, registry));
+                    }
+                    index = end;
+                    return true;
+                }
+                blockIdIndex++;
+                index = 0;
+            }
+            return false;
+        }
+    }
+
     private class ChunkTaskRelevanceComparator implements Comparator<ChunkTask> {
 
         @Override
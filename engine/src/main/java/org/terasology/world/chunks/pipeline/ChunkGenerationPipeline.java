@@ -25,13 +25,16 @@
 /**
  */
 public class ChunkGenerationPipeline {
-    private static final int NUM_TASK_THREADS = 8;
+    /**
+     * The share of the shared worker threads used for generating and loading chunks.
+     */
+    private static final int TASK_WEIGHT = 4;
     private static final Logger logger = LoggerFactory.getLogger(ChunkGenerationPipeline.class);
 
     private TaskMaster<ChunkTask> chunkGenerator;
 
     public ChunkGenerationPipeline(Comparator<ChunkTask> taskComparator) {
-        chunkGenerator = TaskMaster.createDynamicPriorityTaskMaster("Chunk-Generator", NUM_TASK_THREADS, taskComparator);
+        chunkGenerator = TaskMaster.createSharedDynamicPriorityTaskMaster("Chunk-Generator", TASK_WEIGHT, taskComparator);
     }
 
     public void doTask(ChunkTask task) {
@@ -42,6 +45,13 @@ public void doTask(ChunkTask task) {
         }
     }
 
+    /**
+     * Reorders the pending tasks, e.g. after a relevance region has moved.
+     */
+    public void reprioritize() {
+        chunkGenerator.reprioritize();
+    }
+
     public void shutdown() {
         chunkGenerator.shutdown(new ShutdownChunkTask(), false);
     }
@@ -265,13 +265,15 @@ public void removeRelevanceEntity(EntityRef entity) {
 
     @Override
     public void completeUpdate() {
+        // Only finished merges are completed, the ones still running are left for a later update
         Chunk chunk = lightMerger.completeMerge();
-        if (chunk != null) {
+        while (chunk != null) {
             chunk.markReady();
             updateAdjacentChunksReadyFieldOf(chunk);
             updateAdjacentChunksReadyFieldOfAdjChunks(chunk);
             listener.onChunkReady(chunk.getPosition());
             worldEntity.send(new OnChunkLoaded(chunk.getPosition()));
+            chunk = lightMerger.completeMerge();
         }
     }
 
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.generation;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Sets;
+import org.terasology.math.geom.Rect2i;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the 2D facets of a world, so that they get generated only once for all regions of a column instead of once
+ * for every vertically stacked chunk.
+ * <br><br>
+ * Only column facets get cached. A column facet is a {@link WorldFacet2D} whose provider chain produces, updates and
+ * requires 2D facets only, so that it can't depend on the vertical extent of the region. Furthermore all providers
+ * that produce or update a facet of the chain must be part of the chain, so that no provider outside of it can
+ * modify a facet after it got cached.
+ * <br><br>
+ * An entry contains the facets of all providers of the chain, keyed by the requested facet and its world rect, which
+ * includes its border. Cached facets are shared between regions and threads and must not be modified.
+ */
+public class ColumnFacetCache {
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final Set<Class<? extends WorldFacet>> columnFacets;
+    private final Cache<Key, Map<Class<? extends WorldFacet>, WorldFacet>> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ColumnFacetCache(ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains) {
+        this(facetProviderChains, DEFAULT_CAPACITY);
+    }
+
+    public ColumnFacetCache(ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains, int capacity) {
+        this.columnFacets = findColumnFacets(facetProviderChains);
+        this.entries = CacheBuilder.newBuilder().maximumSize(capacity).build();
+    }
+
+    public boolean isColumnFacet(Class<? extends WorldFacet> facetType) {
+        return columnFacets.contains(facetType);
+    }
+
+    /**
+     * @param facetType a column facet
+     * @param worldRect the world rect of the facet, including its border
+     * @return the facets generated by the provider chain of the facet, or null if they are not cached
+     */
+    public Map<Class<? extends WorldFacet>, WorldFacet> get(Class<? extends WorldFacet> facetType, Rect2i worldRect) {
+        Map<Class<? extends WorldFacet>, WorldFacet> facets = entries.getIfPresent(new Key(facetType, worldRect));
+        if (facets != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return facets;
+    }
+
+    public void put(Class<? extends WorldFacet> facetType, Rect2i worldRect, Map<Class<? extends WorldFacet>, WorldFacet> facets) {
+        entries.put(new Key(facetType, worldRect), ImmutableMap.copyOf(facets));
+    }
+
+    public void clear() {
+        entries.invalidateAll();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return all facets produced or updated by the given provider
+     */
+    static Set<Class<? extends WorldFacet>> getGeneratedFacets(FacetProvider provider) {
+        Set<Class<? extends WorldFacet>> result = Sets.newHashSet();
+        Produces produces = provider.getClass().getAnnotation(Produces.class);
+        if (produces != null) {
+            for (Class<? extends WorldFacet> facet : produces.value()) {
+                result.add(facet);
+            }
+        }
+        Updates updates = provider.getClass().getAnnotation(Updates.class);
+        if (updates != null) {
+            for (Facet facet : updates.value()) {
+                result.add(facet.value());
+            }
+        }
+        return result;
+    }
+
+    private static Set<Class<? extends WorldFacet>> findColumnFacets(ListMultimap<Class<? extends WorldFacet>, FacetProvider> chains) {
+        Set<Class<? extends WorldFacet>> result = Sets.newHashSet();
+        for (Class<? extends WorldFacet> facet : chains.keySet()) {
+            if (isColumnFacet(facet, chains)) {
+                result.add(facet);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isColumnFacet(Class<? extends WorldFacet> facet, ListMultimap<Class<? extends WorldFacet>, FacetProvider> chains) {
+        if (!WorldFacet2D.class.isAssignableFrom(facet) || chains.get(facet).isEmpty()) {
+            return false;
+        }
+        Set<FacetProvider> chain = Sets.newHashSet(chains.get(facet));
+        for (FacetProvider provider : chain) {
+            Requires requires = provider.getClass().getAnnotation(Requires.class);
+            if (requires != null) {
+                for (Facet required : requires.value()) {
+                    if (!WorldFacet2D.class.isAssignableFrom(required.value())) {
+                        return false;
+                    }
+                }
+            }
+            for (Class<? extends WorldFacet> generated : getGeneratedFacets(provider)) {
+                if (!WorldFacet2D.class.isAssignableFrom(generated) || !chain.containsAll(chains.get(generated))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static final class Key {
+        private final Class<? extends WorldFacet> facetType;
+        private final Rect2i worldRect;
+
+        private Key(Class<? extends WorldFacet> facetType, Rect2i worldRect) {
+            this.facetType = facetType;
+            this.worldRect = worldRect;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof Key) {
+                Key other = (Key) obj;
+                return facetType == other.facetType && Objects.equals(worldRect, other.worldRect);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(facetType, worldRect);
+        }
+    }
+}
@@ -16,10 +16,13 @@
 package org.terasology.world.generation;
 
 import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.terasology.math.Region3i;
+import org.terasology.math.geom.Rect2i;
 import org.terasology.utilities.collection.TypeMap;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -30,31 +33,82 @@ public class RegionImpl implements Region, GeneratingRegion {
     private final Region3i region;
     private final ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains;
     private final Map<Class<? extends WorldFacet>, Border3D> borders;
+    private final ColumnFacetCache columnFacetCache;
 
     private final TypeMap<WorldFacet> generatingFacets = TypeMap.create();
     private final Set<FacetProvider> processedProviders = Sets.newHashSet();
     private final TypeMap<WorldFacet> generatedFacets = TypeMap.create();
 
     public RegionImpl(Region3i region, ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains, Map<Class<? extends WorldFacet>, Border3D> borders) {
+        this(region, facetProviderChains, borders, null);
+    }
+
+    /**
+     * @param columnFacetCache the cache to take the column facets from, or null to generate all facets for this region
+     */
+    public RegionImpl(Region3i region, ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains, Map<Class<? extends WorldFacet>, Border3D> borders,
+                      ColumnFacetCache columnFacetCache) {
         this.region = region;
         this.facetProviderChains = facetProviderChains;
         this.borders = borders;
+        this.columnFacetCache = columnFacetCache;
     }
 
     @Override
     public <T extends WorldFacet> T getFacet(Class<T> dataType) {
         T facet = generatedFacets.get(dataType);
         if (facet == null) {
-            facetProviderChains.get(dataType).stream().filter(provider -> !processedProviders.contains(provider)).forEach(provider -> {
-                provider.process(this);
-                processedProviders.add(provider);
-            });
-            facet = generatingFacets.get(dataType);
+            if (columnFacetCache != null && columnFacetCache.isColumnFacet(dataType)) {
+                facet = getColumnFacet(dataType);
+            } else {
+                facet = generateFacet(dataType);
+            }
             generatedFacets.put(dataType, facet);
         }
         return facet;
     }
 
+    private <T extends WorldFacet> T generateFacet(Class<T> dataType) {
+        facetProviderChains.get(dataType).stream().filter(provider -> !processedProviders.contains(provider)).forEach(provider -> {
+            provider.process(this);
+            processedProviders.add(provider);
+        });
+        return generatingFacets.get(dataType);
+    }
+
+    private <T extends WorldFacet> T getColumnFacet(Class<T> dataType) {
+        Rect2i worldRect = getBorderForFacet(dataType).expandTo2D(region);
+        List<FacetProvider> chain = facetProviderChains.get(dataType);
+        Map<Class<? extends WorldFacet>, WorldFacet> cachedFacets = columnFacetCache.get(dataType, worldRect);
+        if (cachedFacets != null) {
+            // Facets that were already generated for this region are kept, they are equal to the cached ones
+            for (Map.Entry<Class<? extends WorldFacet>, WorldFacet> entry : cachedFacets.entrySet()) {
+                if (!generatingFacets.containsKey(entry.getKey())) {
+                    putGeneratingFacet(entry.getKey(), entry.getValue());
+                }
+            }
+            processedProviders.addAll(chain);
+            return dataType.cast(cachedFacets.get(dataType));
+        }
+
+        T facet = generateFacet(dataType);
+        Map<Class<? extends WorldFacet>, WorldFacet> chainFacets = Maps.newHashMap();
+        for (FacetProvider provider : chain) {
+            for (Class<? extends WorldFacet> generatedType : ColumnFacetCache.getGeneratedFacets(provider)) {
+                WorldFacet generated = generatingFacets.get(generatedType);
+                if (generated != null) {
+                    chainFacets.put(generatedType, generated);
+                }
+            }
+        }
+        columnFacetCache.put(dataType, worldRect, chainFacets);
+        return facet;
+    }
+
+    private <T extends WorldFacet> void putGeneratingFacet(Class<T> type, WorldFacet facet) {
+        generatingFacets.put(type, type.cast(facet));
+    }
+
     @Override
     public Region3i getRegion() {
         return region;
@@ -34,6 +34,7 @@ public class WorldImpl implements World {
     private final List<EntityProvider> entityProviders;
     private final Map<Class<? extends WorldFacet>, Border3D> borders;
     private final int seaLevel;
+    private final ColumnFacetCache columnFacetCache;
 
     public WorldImpl(ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains,
                      List<WorldRasterizer> worldRasterizers,
@@ -45,11 +46,19 @@ public WorldImpl(ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetP
         this.entityProviders = entityProviders;
         this.borders = borders;
         this.seaLevel = seaLevel;
+        this.columnFacetCache = new ColumnFacetCache(facetProviderChains);
     }
 
     @Override
     public Region getWorldData(Region3i region) {
-        return new RegionImpl(region, facetProviderChains, borders);
+        return new RegionImpl(region, facetProviderChains, borders, columnFacetCache);
+    }
+
+    /**
+     * @return the cache of the 2D facets that are shared by all regions of a column
+     */
+    public ColumnFacetCache getColumnFacetCache() {
+        return columnFacetCache;
     }
 
     @Override
@@ -75,6 +84,8 @@ public Set<Class<? extends WorldFacet>> getAllFacets() {
 
     @Override
     public void initialize() {
+        columnFacetCache.clear();
+
         // throw them all in a set to remove duplicates
         Collection<FacetProvider> facetProviders = new LinkedHashSet<>(facetProviderChains.values());
 
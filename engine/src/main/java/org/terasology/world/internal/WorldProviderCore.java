@@ -15,6 +15,7 @@
  */
 package org.terasology.world.internal;
 
+import com.google.common.collect.Maps;
 import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.math.Region3i;
 import org.terasology.math.geom.Vector3i;
@@ -25,6 +26,7 @@
 import org.terasology.world.time.WorldTime;
 
 import java.util.Collection;
+import java.util.Map;
 
 /**
  * Provides the basic interface for all world providers.
@@ -104,6 +106,25 @@ public interface WorldProviderCore {
      */
     Block setBlock(Vector3i pos, Block type);
 
+    /**
+     * Places blocks of specific types at many positions at once. Implementations can apply the changes to each chunk
+     * in one go, and notify listeners and propagate the changes in a single batch.
+     *
+     * @param blocks The types of the blocks to set, by world position
+     * @return The previous block types, by world position. Positions that could not be changed (because the
+     * necessary chunk was not loaded) are missing.
+     */
+    default Map<Vector3i, Block> setBlocks(Map<Vector3i, Block> blocks) {
+        Map<Vector3i, Block> result = Maps.newHashMapWithExpectedSize(blocks.size());
+        for (Map.Entry<Vector3i, Block> entry : blocks.entrySet()) {
+            Block oldType = setBlock(entry.getKey(), entry.getValue());
+            if (oldType != null) {
+                result.put(entry.getKey(), oldType);
+            }
+        }
+        return result;
+    }
+
     /**
      * Changes the biome at the given position.
      *
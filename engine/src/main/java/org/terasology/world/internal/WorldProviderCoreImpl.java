@@ -21,6 +21,7 @@
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import org.terasology.context.Context;
 import org.terasology.engine.SimpleUri;
 import org.terasology.entitySystem.entity.EntityManager;
@@ -61,6 +62,7 @@
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  */
@@ -191,12 +193,7 @@ public Block setBlock(Vector3i worldPos, Block type) {
             Block oldBlockType = chunk.setBlock(blockPos, type);
             chunk.writeUnlock();
             if (oldBlockType != type) {
-                BlockChange oldChange = blockChanges.get(worldPos);
-                if (oldChange == null) {
-                    blockChanges.put(worldPos, new BlockChange(worldPos, oldBlockType, type));
-                } else {
-                    oldChange.setTo(type);
-                }
+                queueBlockChange(worldPos, oldBlockType, type);
                 for (Vector3i pos : ChunkMath.getChunkRegionAroundWorldPos(worldPos, 1)) {
                     RenderableChunk dirtiedChunk = chunkProvider.getChunk(pos);
                     if (dirtiedChunk != null) {
@@ -211,6 +208,86 @@ public Block setBlock(Vector3i worldPos, Block type) {
         return null;
     }
 
+    /**
+     * Sets the blocks chunk by chunk, taking the lock of each chunk once. Each chunk is marked dirty once, together
+     * with the neighbouring chunks next to the changed blocks, and listeners get notified of all changes at once.
+     * The changes get propagated with the next call of {@link #processPropagation()}, like single block changes.
+     */
+    @Override
+    public Map<Vector3i, Block> setBlocks(Map<Vector3i, Block> blocks) {
+        Map<Vector3i, List<Map.Entry<Vector3i, Block>>> blocksByChunk = Maps.newHashMap();
+        for (Map.Entry<Vector3i, Block> entry : blocks.entrySet()) {
+            Vector3i chunkPos = ChunkMath.calcChunkPos(entry.getKey());
+            List<Map.Entry<Vector3i, Block>> chunkBlocks = blocksByChunk.get(chunkPos);
+            if (chunkBlocks == null) {
+                chunkBlocks = Lists.newArrayList();
+                blocksByChunk.put(chunkPos, chunkBlocks);
+            }
+            chunkBlocks.add(entry);
+        }
+
+        Map<Vector3i, Block> result = Maps.newHashMapWithExpectedSize(blocks.size());
+        List<BlockChange> changes = Lists.newArrayList();
+        Set<Vector3i> dirtiedChunkPositions = Sets.newHashSet();
+        for (Map.Entry<Vector3i, List<Map.Entry<Vector3i, Block>>> chunkEntry : blocksByChunk.entrySet()) {
+            CoreChunk chunk = chunkProvider.getChunk(chunkEntry.getKey());
+            if (chunk == null) {
+                continue;
+            }
+            Vector3i minChanged = null;
+            Vector3i maxChanged = null;
+            chunk.writeLock();
+            try {
+                for (Map.Entry<Vector3i, Block> entry : chunkEntry.getValue()) {
+                    Vector3i worldPos = entry.getKey();
+                    Block type = entry.getValue();
+                    Block oldBlockType = chunk.setBlock(ChunkMath.calcBlockPos(worldPos), type);
+                    result.put(worldPos, oldBlockType);
+                    if (oldBlockType != type) {
+                        queueBlockChange(worldPos, oldBlockType, type);
+                        changes.add(new BlockChange(worldPos, oldBlockType, type));
+                        if (minChanged == null) {
+                            minChanged = new Vector3i(worldPos);
+                            maxChanged = new Vector3i(worldPos);
+                        } else {
+                            minChanged.min(worldPos);
+                            maxChanged.max(worldPos);
+                        }
+                    }
+                }
+            } finally {
+                chunk.writeUnlock();
+            }
+            if (minChanged != null) {
+                minChanged.sub(1, 1, 1);
+                maxChanged.add(1, 1, 1);
+                for (Vector3i pos : Region3i.createFromMinMax(ChunkMath.calcChunkPos(minChanged), ChunkMath.calcChunkPos(maxChanged))) {
+                    dirtiedChunkPositions.add(pos);
+                }
+            }
+        }
+
+        for (Vector3i pos : dirtiedChunkPositions) {
+            RenderableChunk dirtiedChunk = chunkProvider.getChunk(pos);
+            if (dirtiedChunk != null) {
+                dirtiedChunk.setDirty(true);
+            }
+        }
+        if (!changes.isEmpty()) {
+            notifyBlocksChanged(changes);
+        }
+        return result;
+    }
+
+    private void queueBlockChange(Vector3i worldPos, Block oldBlockType, Block type) {
+        BlockChange oldChange = blockChanges.get(worldPos);
+        if (oldChange == null) {
+            blockChanges.put(worldPos, new BlockChange(worldPos, oldBlockType, type));
+        } else {
+            oldChange.setTo(type);
+        }
+    }
+
     private void notifyBlockChanged(Vector3i pos, Block type, Block oldType) {
         // TODO: Could use a read/write writeLock.
         // TODO: Review, should only happen on main thread (as should changes to listeners)
@@ -221,6 +298,14 @@ private void notifyBlockChanged(Vector3i pos, Block type, Block oldType) {
         }
     }
 
+    private void notifyBlocksChanged(List<BlockChange> changes) {
+        synchronized (listeners) {
+            for (WorldChangeListener listener : listeners) {
+                listener.onBlocksChanged(changes);
+            }
+        }
+    }
+
     private void notifyBiomeChanged(Vector3i pos, Biome newBiome, Biome originalBiome) {
         // TODO: Could use a read/write writeLock.
         // TODO: Review, should only happen on main thread (as should changes to listeners)
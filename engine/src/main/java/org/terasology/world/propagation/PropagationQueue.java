@@ -0,0 +1,149 @@
+/*
+ * Copyright 2016 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.propagation;
+
+import gnu.trove.map.TLongLongMap;
+import gnu.trove.map.hash.TLongLongHashMap;
+import org.terasology.math.geom.Vector3i;
+
+import java.util.Arrays;
+
+/**
+ * The queues of positions waiting for propagation, one per propagation level, without boxing the positions.
+ * <br><br>
+ * Positions are packed into longs with 21 bits per axis, which covers world coordinates from -1048576 to 1048575.
+ * Each level is a ring buffer that keeps its capacity between batches. Which levels a position is queued in is kept
+ * as a bitset per position, so that each position is queued at most once per level. Removed positions stay in the
+ * ring buffer and get skipped when they are polled.
+ */
+final class PropagationQueue {
+
+    private static final int AXIS_BITS = 21;
+    private static final long AXIS_MASK = (1L << AXIS_BITS) - 1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final long[][] buffers;
+    private final int[] heads;
+    private final int[] sizes;
+    private final TLongLongMap queuedLevels = new TLongLongHashMap();
+
+    PropagationQueue(int levels) {
+        if (levels > Long.SIZE) {
+            throw new IllegalArgumentException("At most " + Long.SIZE + " levels are supported, got " + levels);
+        }
+        buffers = new long[levels][INITIAL_CAPACITY];
+        heads = new int[levels];
+        sizes = new int[levels];
+    }
+
+    static long pack(Vector3i pos) {
+        return pack(pos.x, pos.y, pos.z);
+    }
+
+    static long pack(int x, int y, int z) {
+        return ((x & AXIS_MASK) << (2 * AXIS_BITS)) | ((y & AXIS_MASK) << AXIS_BITS) | (z & AXIS_MASK);
+    }
+
+    static Vector3i unpack(long packedPos, Vector3i target) {
+        target.set((int) (packedPos << (Long.SIZE - 3 * AXIS_BITS) >> (Long.SIZE - AXIS_BITS)),
+                (int) (packedPos << (Long.SIZE - 2 * AXIS_BITS) >> (Long.SIZE - AXIS_BITS)),
+                (int) (packedPos << (Long.SIZE - AXIS_BITS) >> (Long.SIZE - AXIS_BITS)));
+        return target;
+    }
+
+    /**
+     * Queues a position at the given level, unless it is queued there already.
+     */
+    void add(int level, long packedPos) {
+        long levelBit = 1L << level;
+        long levels = queuedLevels.get(packedPos);
+        if ((levels & levelBit) != 0) {
+            return;
+        }
+        queuedLevels.put(packedPos, levels | levelBit);
+
+        long[] buffer = buffers[level];
+        if (sizes[level] == buffer.length) {
+            buffer = grow(level);
+        }
+        buffer[(heads[level] + sizes[level]) & (buffer.length - 1)] = packedPos;
+        sizes[level]++;
+    }
+
+    void remove(int level, long packedPos) {
+        long levels = queuedLevels.get(packedPos);
+        long levelBit = 1L << level;
+        if ((levels & levelBit) != 0) {
+            clear(packedPos, levels & ~levelBit);
+        }
+    }
+
+    /**
+     * @return Whether the level may have positions left. It can consist of removed positions only.
+     */
+    boolean hasNext(int level) {
+        return sizes[level] > 0;
+    }
+
+    /**
+     * Takes the oldest position from a level that {@link #hasNext(int) has a next} position.
+     *
+     * @return Whether the position is still queued, false if it got removed in the meantime.
+     */
+    boolean poll(int level, Vector3i target) {
+        long[] buffer = buffers[level];
+        long packedPos = buffer[heads[level]];
+        heads[level] = (heads[level] + 1) & (buffer.length - 1);
+        sizes[level]--;
+
+        long levels = queuedLevels.get(packedPos);
+        long levelBit = 1L << level;
+        if ((levels & levelBit) == 0) {
+            return false;
+        }
+        clear(packedPos, levels & ~levelBit);
+        unpack(packedPos, target);
+        return true;
+    }
+
+    /**
+     * Empties all levels, keeping the allocated capacity.
+     */
+    void clear() {
+        Arrays.fill(heads, 0);
+        Arrays.fill(sizes, 0);
+        queuedLevels.clear();
+    }
+
+    private void clear(long packedPos, long remainingLevels) {
+        if (remainingLevels == 0) {
+            queuedLevels.remove(packedPos);
+        } else {
+            queuedLevels.put(packedPos, remainingLevels);
+        }
+    }
+
+    private long[] grow(int level) {
+        long[] buffer = buffers[level];
+        long[] grown = new long[buffer.length * 2];
+        int head = heads[level];
+        System.arraycopy(buffer, head, grown, 0, buffer.length - head);
+        System.arraycopy(buffer, 0, grown, buffer.length - head, head);
+        buffers[level] = grown;
+        heads[level] = 0;
+        return grown;
+    }
+}
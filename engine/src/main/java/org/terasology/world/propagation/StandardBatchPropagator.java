@@ -16,7 +16,6 @@
 package org.terasology.world.propagation;
 
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 import org.terasology.math.ChunkMath;
 import org.terasology.math.Region3i;
 import org.terasology.math.Side;
@@ -27,21 +26,27 @@
 
 import java.util.Arrays;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * Batch propagator that works on a set of changed blocks
+ * <br><br>
+ * The positions waiting for propagation are queued per level in reused primitive queues, so that propagating a change
+ * does not create an object per visited position.
  *
  */
 public class StandardBatchPropagator implements BatchPropagator {
 
     private static final byte NO_VALUE = 0;
+    private static final Side[] SIDES = Side.values();
 
     private PropagationRules rules;
     private PropagatorWorldView world;
 
-    private Set<Vector3i>[] reduceQueues;
-    private Set<Vector3i>[] increaseQueues;
+    private final PropagationQueue reduceQueue;
+    private final PropagationQueue increaseQueue;
+
+    private final Vector3i processedPos = new Vector3i();
+    private final Vector3i adjacentPos = new Vector3i();
 
     private Map<Side, Vector3i> chunkEdgeDeltas = Maps.newEnumMap(Side.class);
 
@@ -69,13 +74,8 @@ public StandardBatchPropagator(PropagationRules rules, PropagatorWorldView world
             chunkEdgeDeltas.put(side, delta);
         }
 
-        increaseQueues = new Set[rules.getMaxValue()];
-        reduceQueues = new Set[rules.getMaxValue()];
-        for (int i = 0; i < rules.getMaxValue(); ++i) {
-            increaseQueues[i] = Sets.newLinkedHashSet();
-            reduceQueues[i] = Sets.newLinkedHashSet();
-        }
-
+        increaseQueue = new PropagationQueue(rules.getMaxValue());
+        reduceQueue = new PropagationQueue(rules.getMaxValue());
     }
 
     @Override
@@ -95,62 +95,56 @@ public void process(Iterable<BlockChange> blockChanges) {
     }
 
     private void reviewChange(BlockChange blockChange) {
-        byte newValue = rules.getFixedValue(blockChange.getTo(), blockChange.getPosition());
-        byte existingValue = world.getValueAt(blockChange.getPosition());
+        Vector3i position = blockChange.getPosition();
+        byte newValue = rules.getFixedValue(blockChange.getTo(), position);
+        byte existingValue = world.getValueAt(position);
         if (newValue > existingValue) {
-            increase(blockChange.getPosition(), newValue);
+            increase(position, newValue);
         }
 
-        byte oldValue = rules.getFixedValue(blockChange.getFrom(), blockChange.getPosition());
+        byte oldValue = rules.getFixedValue(blockChange.getFrom(), position);
         if (newValue < oldValue) {
-            reduce(blockChange.getPosition(), oldValue);
+            reduce(position, oldValue);
         }
 
-        for (Side side : Side.values()) {
+        for (Side side : SIDES) {
             PropagationComparison comparison = rules.comparePropagation(blockChange.getTo(), blockChange.getFrom(), side);
             if (comparison.isRestricting() && existingValue > 0) {
-                reduce(blockChange.getPosition(), existingValue);
-                Vector3i adjPos = side.getAdjacentPos(blockChange.getPosition());
-                byte adjValue = world.getValueAt(adjPos);
+                reduce(position, existingValue);
+                adjacentPos.set(position);
+                adjacentPos.add(side.getVector3i());
+                byte adjValue = world.getValueAt(adjacentPos);
                 if (adjValue == rules.propagateValue(existingValue, side, blockChange.getFrom())) {
-                    reduce(adjPos, adjValue);
+                    reduce(adjacentPos, adjValue);
                 }
             } else if (comparison.isPermitting()) {
                 if (existingValue > 0) {
-                    queueSpreadValue(blockChange.getPosition(), existingValue);
+                    queueSpreadValue(position, existingValue);
                 }
-                Vector3i adjPos = side.getAdjacentPos(blockChange.getPosition());
-                byte adjValue = world.getValueAt(adjPos);
+                adjacentPos.set(position);
+                adjacentPos.add(side.getVector3i());
+                byte adjValue = world.getValueAt(adjacentPos);
                 if (adjValue != PropagatorWorldView.UNAVAILABLE) {
-                    queueSpreadValue(adjPos, adjValue);
+                    queueSpreadValue(adjacentPos, adjValue);
                 }
             }
         }
     }
 
     private void processReduction() {
-        int depth = 0;
-        while (depth < rules.getMaxValue()) {
+        for (int depth = 0; depth < rules.getMaxValue(); ++depth) {
             byte oldValue = (byte) (rules.getMaxValue() - depth);
-            Set<Vector3i> toProcess = reduceQueues[depth];
-            if (!toProcess.isEmpty()) {
-                reduceQueues[depth] = Sets.newLinkedHashSetWithExpectedSize(toProcess.size());
-
-                for (Vector3i pos : toProcess) {
-                    purge(pos, oldValue);
-                }
-                if (toProcess.isEmpty()) {
-                    depth++;
+            while (reduceQueue.hasNext(depth)) {
+                if (reduceQueue.poll(depth, processedPos)) {
+                    purge(processedPos, oldValue);
                 }
-            } else {
-                depth++;
             }
         }
     }
 
     private void purge(Vector3i pos, byte oldValue) {
         Block block = world.getBlockAt(pos);
-        increaseQueues[rules.getMaxValue() - oldValue].remove(pos);
+        increaseQueue.remove(rules.getMaxValue() - oldValue, PropagationQueue.pack(pos));
         byte fixedValue = rules.getFixedValue(block, pos);
         if (fixedValue > 0) {
             increase(pos, fixedValue);
@@ -158,54 +152,47 @@ private void purge(Vector3i pos, byte oldValue) {
             world.setValueAt(pos, NO_VALUE);
         }
 
-        for (Side side : Side.values()) {
+        for (Side side : SIDES) {
             byte expectedValue = rules.propagateValue(oldValue, side, block);
-            Vector3i adjPos = side.getAdjacentPos(pos);
             if (rules.canSpreadOutOf(block, side)) {
-                byte adjValue = world.getValueAt(adjPos);
+                adjacentPos.set(pos);
+                adjacentPos.add(side.getVector3i());
+                byte adjValue = world.getValueAt(adjacentPos);
                 if (adjValue == expectedValue) {
-                    Block adjBlock = world.getBlockAt(adjPos);
+                    Block adjBlock = world.getBlockAt(adjacentPos);
                     if (rules.canSpreadInto(adjBlock, side.reverse())) {
-                        reduce(adjPos, expectedValue);
+                        reduce(adjacentPos, expectedValue);
                     }
                 } else if (adjValue > 0) {
-                    queueSpreadValue(adjPos, adjValue);
+                    queueSpreadValue(adjacentPos, adjValue);
                 }
             }
         }
     }
 
     private void processIncrease() {
-        int depth = 0;
-        while (depth < rules.getMaxValue() - 1) {
+        for (int depth = 0; depth < rules.getMaxValue() - 1; ++depth) {
             byte value = (byte) (rules.getMaxValue() - depth);
-            Set<Vector3i> toProcess = increaseQueues[depth];
-            if (!toProcess.isEmpty()) {
-                increaseQueues[depth] = Sets.newLinkedHashSetWithExpectedSize(toProcess.size());
-
-                for (Vector3i pos : toProcess) {
-                    push(pos, value);
-                }
-                if (increaseQueues[depth].isEmpty()) {
-                    depth++;
+            while (increaseQueue.hasNext(depth)) {
+                if (increaseQueue.poll(depth, processedPos)) {
+                    push(processedPos, value);
                 }
-            } else {
-                depth++;
             }
         }
     }
 
     private void push(Vector3i pos, byte value) {
         Block block = world.getBlockAt(pos);
-        for (Side side : Side.values()) {
+        for (Side side : SIDES) {
             byte spreadValue = rules.propagateValue(value, side, block);
-            Vector3i adjPos = side.getAdjacentPos(pos);
             if (rules.canSpreadOutOf(block, side)) {
-                byte adjValue = world.getValueAt(adjPos);
+                adjacentPos.set(pos);
+                adjacentPos.add(side.getVector3i());
+                byte adjValue = world.getValueAt(adjacentPos);
                 if (adjValue < spreadValue && adjValue != PropagatorWorldView.UNAVAILABLE) {
-                    Block adjBlock = world.getBlockAt(adjPos);
+                    Block adjBlock = world.getBlockAt(adjacentPos);
                     if (rules.canSpreadInto(adjBlock, side.reverse())) {
-                        increase(adjPos, spreadValue);
+                        increase(adjacentPos, spreadValue);
                     }
                 }
             }
@@ -213,9 +200,7 @@ private void push(Vector3i pos, byte value) {
     }
 
     private void cleanUp() {
-        for (Set<Vector3i> queue : increaseQueues) {
-            queue.clear();
-        }
+        increaseQueue.clear();
     }
 
     private void increase(Vector3i position, byte value) {
@@ -225,13 +210,13 @@ private void increase(Vector3i position, byte value) {
 
     private void queueSpreadValue(Vector3i position, byte value) {
         if (value > 1) {
-            increaseQueues[rules.getMaxValue() - value].add(position);
+            increaseQueue.add(rules.getMaxValue() - value, PropagationQueue.pack(position));
         }
     }
 
     private void reduce(Vector3i position, byte oldValue) {
         if (oldValue > 0) {
-            reduceQueues[rules.getMaxValue() - oldValue].add(position);
+            reduceQueue.add(rules.getMaxValue() - oldValue, PropagationQueue.pack(position));
         }
     }
 
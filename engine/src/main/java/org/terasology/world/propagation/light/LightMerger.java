@@ -16,8 +16,11 @@
 package org.terasology.world.propagation.light;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Queues;
+import com.google.common.collect.Sets;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.terasology.math.Region3i;
 import org.terasology.math.Side;
 import org.terasology.math.geom.Vector3i;
 import org.terasology.world.chunks.Chunk;
@@ -30,7 +33,9 @@
 import org.terasology.world.propagation.StandardBatchPropagator;
 import org.terasology.world.propagation.SunlightRegenBatchPropagator;
 
+import java.util.Deque;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -38,14 +43,33 @@
 import java.util.concurrent.TimeUnit;
 
 /**
+ * Merges the light of newly generated chunks with the light of their neighbours.
+ * <br><br>
+ * Merges run in parallel on a pool of threads as long as the 3x3x3 chunk neighbourhoods they work on don't overlap.
+ * A merge whose neighbourhood overlaps the one of an earlier merge waits until the earlier merge has been completed
+ * and the next merge gets completed, so that it sees the earlier chunk as ready. Merges are completed in the order
+ * they have been begun.
+ * <br><br>
+ * Completing a merge never waits for the merge threads: a merge that is still running is completed by a later call,
+ * so the main thread can drain the finished merges every frame without a hitch.
  */
 public class LightMerger<T> {
     private static final int CENTER_INDEX = 13;
 
     private static Logger logger = LoggerFactory.getLogger(LightMerger.class);
 
-    private ExecutorService executorService = Executors.newSingleThreadExecutor();
-    private Future<T> resultFuture;
+    private final int parallelism;
+    private ExecutorService executorService;
+
+    /**
+     * All merges that have not been completed yet, in the order they have been begun
+     */
+    private final Deque<Merge> merges = Queues.newArrayDeque();
+    /**
+     * The chunk positions that are locked by merges that are running or that have been completed last
+     */
+    private final Set<Vector3i> lockedPositions = Sets.newHashSet();
+    private Merge lastCompleted;
 
     private GeneratingChunkProvider chunkProvider;
     private LightPropagationRules lightRules = new LightPropagationRules();
@@ -54,27 +78,89 @@
     private boolean running = true;
 
     public LightMerger(GeneratingChunkProvider chunkProvider) {
+        this(chunkProvider, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    public LightMerger(GeneratingChunkProvider chunkProvider, int parallelism) {
         this.chunkProvider = chunkProvider;
+        this.parallelism = parallelism;
+        this.executorService = Executors.newFixedThreadPool(parallelism);
+    }
+
+    /**
+     * @return The number of merges that can run at the same time
+     */
+    public int getParallelism() {
+        return parallelism;
     }
 
     public void beginMerge(final Chunk chunk, final T data) {
-        resultFuture = executorService.submit(() -> {
-            merge(chunk);
-            return data;
-        });
+        merges.add(new Merge(chunk, data));
+        startMerges();
     }
 
+    /**
+     * Completes the oldest merge if it has finished running. Merges that are still running or that just got started
+     * are left for a later call.
+     *
+     * @return The data of the oldest merge that has not been completed yet, or null if there is none or it is not done
+     */
     public T completeMerge() {
-        if (resultFuture != null) {
-            try {
-                T result = resultFuture.get();
-                resultFuture = null;
-                return result;
-            } catch (InterruptedException | ExecutionException e) {
-                throw new RuntimeException("Error completing lighting merge", e);
+        releaseLastCompleted();
+        startMerges();
+        Merge merge = merges.peek();
+        if (merge == null || merge.resultFuture == null || !merge.resultFuture.isDone()) {
+            return null;
+        }
+        merges.poll();
+        try {
+            merge.resultFuture.get();
+            lastCompleted = merge;
+            return merge.data;
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error completing lighting merge", e);
+        }
+    }
+
+    private void releaseLastCompleted() {
+        if (lastCompleted != null) {
+            lockedPositions.removeAll(lastCompleted.region);
+            lastCompleted = null;
+        }
+    }
+
+    /**
+     * Starts the waiting merges whose neighbourhood neither overlaps a locked neighbourhood nor the one of an earlier
+     * waiting merge.
+     */
+    private void startMerges() {
+        Set<Vector3i> waitingPositions = null;
+        for (Merge pending : merges) {
+            if (pending.resultFuture != null) {
+                continue;
+            }
+            if (!overlaps(pending.region, lockedPositions) && (waitingPositions == null || !overlaps(pending.region, waitingPositions))) {
+                lockedPositions.addAll(pending.region);
+                pending.resultFuture = executorService.submit(() -> merge(pending.chunk));
+            } else {
+                if (waitingPositions == null) {
+                    waitingPositions = Sets.newHashSet();
+                }
+                waitingPositions.addAll(pending.region);
+            }
+        }
+    }
+
+    private static boolean overlaps(List<Vector3i> region, Set<Vector3i> positions) {
+        if (positions.isEmpty()) {
+            return false;
+        }
+        for (Vector3i pos : region) {
+            if (positions.contains(pos)) {
+                return true;
             }
         }
-        return null;
+        return false;
     }
 
     private void merge(Chunk chunk) {
@@ -147,18 +233,34 @@ private Chunk[] assembleLocalChunks(Chunk chunk) {
 
     public void shutdown() {
         running = false;
+        merges.clear();
+        lockedPositions.clear();
+        lastCompleted = null;
         executorService.shutdown();
         try {
             executorService.awaitTermination(10, TimeUnit.SECONDS);
         } catch (InterruptedException e) {
-            logger.error("Failed to shutdown light merge thread in a timely manner");
+            logger.error("Failed to shutdown light merge threads in a timely manner");
         }
     }
 
     public void restart() {
         if (!running) {
-            executorService = Executors.newSingleThreadExecutor();
+            executorService = Executors.newFixedThreadPool(parallelism);
             running = true;
         }
     }
+
+    private final class Merge {
+        private final Chunk chunk;
+        private final T data;
+        private final List<Vector3i> region;
+        private Future<?> resultFuture;
+
+        private Merge(Chunk chunk, T data) {
+            this.chunk = chunk;
+            this.data = data;
+            this.region = Lists.newArrayList(Region3i.createFromCenterExtents(chunk.getPosition(), 1));
+        }
+    }
 }
@@ -72,6 +72,9 @@ varying vec3 normal;
 varying float blockHint;
 varying float isUpside;
 
+varying vec2 tileOrigin;
+varying float isTiled;
+
 uniform sampler2D textureWater;
 uniform sampler2D textureLava;
 
@@ -80,6 +83,13 @@ uniform sampler2D textureEffects;
 
 uniform float clip;
 
+// Samples the texture atlas with the derivatives of the unwrapped texture coordinates, see main()
+#if defined (GL_ARB_shader_texture_lod)
+#define textureAtlasGrad(sampler, coord) texture2DGradARB(sampler, coord, texCoordDx, texCoordDy)
+#else
+#define textureAtlasGrad(sampler, coord) texture2D(sampler, coord)
+#endif
+
 void main() {
 
 // Only necessary for opaque objects
@@ -90,6 +100,16 @@ void main() {
 #endif
 
     vec2 texCoord = gl_TexCoord[0].xy;
+    vec2 texCoordDx = dFdx(texCoord);
+    vec2 texCoordDy = dFdy(texCoord);
+    if (isTiled > 0.5) {
+        // The texture coordinates of merged faces are given in blocks, wrap them into the tile. The wrapped
+        // coordinates jump at the edges of the tiles, so the mip level is taken from the unwrapped ones.
+        float tileScale = (1.0 - 2.0 * TILED_TEXTURE_BORDER) * TEXTURE_OFFSET;
+        texCoord = tileOrigin + TILED_TEXTURE_BORDER * TEXTURE_OFFSET + fract(texCoord) * tileScale;
+        texCoordDx *= tileScale;
+        texCoordDy *= tileScale;
+    }
 
     vec3 normalizedVPos = -normalize(vertexViewPos.xyz);
     vec2 projectedPos = projectVertexToTexCoord(vertexProjPos);
@@ -114,11 +134,11 @@ void main() {
 
     vec3 eyeTangentSpace = tbn * vertexViewPos.xyz;
 
-    float height =  parallaxScale * texture2D(textureAtlasHeight, texCoord).r - parallaxBias;
+    float height =  parallaxScale * textureAtlasGrad(textureAtlasHeight, texCoord).r - parallaxBias;
 	texCoord += height * normalize(eyeTangentSpace).xy * TEXTURE_OFFSET;
 #endif
 
-    normalOpaque = (texture2D(textureAtlasNormal, texCoord).xyz * 2.0 - 1.0);
+    normalOpaque = (textureAtlasGrad(textureAtlasNormal, texCoord).xyz * 2.0 - 1.0);
 
     // Simplified tangent basis - because we can! Voxels and blocks are great
     normalOpaque.xyz = vec3(worldSpaceNormal.x, normalOpaque.x, normalOpaque.y) * abs(worldSpaceNormal.xxx)
@@ -172,7 +192,7 @@ void main() {
         color = texture2D(textureLava, texCoord.xy);
     /* APPLY DEFAULT TEXTURE FROM ATLAS */
     } else {
-        color = texture2D(textureAtlas, texCoord.xy);
+        color = textureAtlasGrad(textureAtlas, texCoord.xy);
 
 #if defined FEATURE_ALPHA_REJECT
         if (color.a < 0.1) {
@@ -266,7 +286,7 @@ void main() {
             color.a = 1.0;
     } else {
         vec3 refractionColor = texture2D(texSceneOpaque, projectedPos).rgb;
-        vec4 albedoColor = texture2D(textureAtlas, texCoord.xy);
+        vec4 albedoColor = textureAtlasGrad(textureAtlas, texCoord.xy);
         albedoColor.rgb *= combinedLightValue;
 
         // TODO: Add support for actual refraction here
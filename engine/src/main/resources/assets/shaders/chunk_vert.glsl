@@ -107,10 +107,20 @@ varying vec3 sunVecView;
 varying float isUpside;
 varying float blockHint;
 
+// Faces merged by the greedy mesher tile the texture at this atlas position
+varying vec2 tileOrigin;
+varying float isTiled;
+
 void main()
 {
 	gl_TexCoord[0] = gl_MultiTexCoord0;
-	blockHint = int(gl_TexCoord[0].z);
+
+	float tileIndex = floor(gl_TexCoord[0].z / TILED_FLAG_STRIDE);
+	blockHint = int(gl_TexCoord[0].z - tileIndex * TILED_FLAG_STRIDE);
+	isTiled = (tileIndex > 0.5) ? 1.0 : 0.0;
+	float tilesPerRow = floor(1.0 / TEXTURE_OFFSET + 0.5);
+	float tileRow = floor((tileIndex - 1.0 + 0.5) / tilesPerRow);
+	tileOrigin = vec2(tileIndex - 1.0 - tileRow * tilesPerRow, tileRow) * TEXTURE_OFFSET;
 
     gl_TexCoord[1] = gl_MultiTexCoord1;
 
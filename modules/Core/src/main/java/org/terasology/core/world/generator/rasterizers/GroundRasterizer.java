@@ -15,6 +15,7 @@
  */
 package org.terasology.core.world.generator.rasterizers;
 
+import org.terasology.math.TeraMath;
 import org.terasology.math.geom.Vector3i;
 import org.terasology.registry.CoreRegistry;
 import org.terasology.world.block.Block;
@@ -45,15 +46,37 @@ public void generateChunk(CoreChunk chunk, Region chunkRegion) {
         LiquidData waterLiquid = new LiquidData(LiquidType.WATER, LiquidData.MAX_LIQUID_DEPTH);
         SurfaceHeightFacet surfaceHeightData = chunkRegion.getFacet(SurfaceHeightFacet.class);
         Vector3i chunkOffset = chunk.getChunkWorldOffset();
+        int waterLevel = TeraMath.clamp(33 - chunkOffset.y, 0, chunk.getChunkSizeY());
+        int[] stoneTops = new int[chunk.getChunkSizeX() * chunk.getChunkSizeZ()];
+        int minStoneTop = chunk.getChunkSizeY();
+        int maxStoneTop = 0;
         for (int x = 0; x < chunk.getChunkSizeX(); ++x) {
             for (int z = 0; z < chunk.getChunkSizeZ(); ++z) {
                 float surfaceHeight = surfaceHeightData.get(x, z);
-                int y;
-                for (y = 0; y < chunk.getChunkSizeY() && y + chunkOffset.y < surfaceHeight; ++y) {
-                    chunk.setBlock(x, y, z, stone);
-                }
-                for (; y < chunk.getChunkSizeY() && y + chunkOffset.y <= 32; ++y) {
-                    chunk.setBlock(x, y, z, water);
+                // Stone below the surface, water above it up to a height of 32
+                int stoneTop = TeraMath.clamp(TeraMath.ceilToInt(surfaceHeight) - chunkOffset.y, 0, chunk.getChunkSizeY());
+                stoneTops[x * chunk.getChunkSizeZ() + z] = stoneTop;
+                minStoneTop = Math.min(minStoneTop, stoneTop);
+                maxStoneTop = Math.max(maxStoneTop, stoneTop);
+            }
+        }
+
+        // Layers below the lowest surface are all stone, layers between the highest surface and the water level all
+        // water. They are written as a whole, so that they are never inflated.
+        for (int y = 0; y < minStoneTop; ++y) {
+            chunk.fillLayer(y, stone);
+        }
+        for (int y = maxStoneTop; y < waterLevel; ++y) {
+            chunk.fillLayer(y, water);
+        }
+
+        for (int x = 0; x < chunk.getChunkSizeX(); ++x) {
+            for (int z = 0; z < chunk.getChunkSizeZ(); ++z) {
+                int stoneTop = stoneTops[x * chunk.getChunkSizeZ() + z];
+                int waterTop = Math.max(waterLevel, stoneTop);
+                chunk.fillColumn(x, z, minStoneTop, stoneTop, stone);
+                chunk.fillColumn(x, z, stoneTop, Math.min(waterTop, maxStoneTop), water);
+                for (int y = stoneTop; y < waterTop; ++y) {
                     chunk.setLiquid(x, y, z, waterLiquid);
                 }
             }
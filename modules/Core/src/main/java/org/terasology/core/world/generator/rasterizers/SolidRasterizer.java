@@ -19,11 +19,9 @@
 import org.terasology.core.world.generator.facets.BiomeFacet;
 import org.terasology.math.TeraMath;
 import org.terasology.math.geom.Vector2i;
-import org.terasology.math.geom.Vector3i;
 import org.terasology.registry.CoreRegistry;
 import org.terasology.world.block.Block;
 import org.terasology.world.block.BlockManager;
-import org.terasology.world.chunks.ChunkConstants;
 import org.terasology.world.chunks.CoreChunk;
 import org.terasology.world.generation.Region;
 import org.terasology.world.generation.WorldRasterizer;
@@ -66,30 +64,83 @@ public void generateChunk(CoreChunk chunk, Region chunkRegion) {
         SeaLevelFacet seaLevelFacet = chunkRegion.getFacet(SeaLevelFacet.class);
         int seaLevel = seaLevelFacet.getSeaLevel();
 
+        // Layers that consist of a single block are written as a whole, so that they are never inflated
+        Block[] layerBlocks = new Block[chunk.getChunkSizeY()];
+        boolean[] mixedLayers = new boolean[chunk.getChunkSizeY()];
         Vector2i pos2d = new Vector2i();
-        for (Vector3i pos : ChunkConstants.CHUNK_REGION) {
-            pos2d.set(pos.x, pos.z);
-            CoreBiome biome = biomeFacet.get(pos2d);
-            chunk.setBiome(pos.x, pos.y, pos.z, biome);
+        for (int x = 0; x < chunk.getChunkSizeX(); ++x) {
+            for (int z = 0; z < chunk.getChunkSizeZ(); ++z) {
+                pos2d.set(x, z);
+                CoreBiome biome = biomeFacet.get(pos2d);
+                int surfaceHeight = TeraMath.floorToInt(surfaceFacet.get(pos2d));
+                for (int y = 0; y < chunk.getChunkSizeY(); ++y) {
+                    chunk.setBiome(x, y, z, biome);
+                    int posY = y + chunk.getChunkWorldOffsetY();
+                    Block block = getBlock(solidityFacet.get(x, y, z), surfaceHeight - posY, posY, biome, seaLevel);
+                    if (x == 0 && z == 0) {
+                        layerBlocks[y] = block;
+                    } else if (block != layerBlocks[y]) {
+                        mixedLayers[y] = true;
+                    }
+                    if (block == water) {
+                        chunk.setLiquid(x, y, z, waterLiquid);
+                    }
+                }
+            }
+        }
+
+        for (int y = 0; y < chunk.getChunkSizeY(); ++y) {
+            if (!mixedLayers[y] && layerBlocks[y] != null) {
+                chunk.fillLayer(y, layerBlocks[y]);
+            }
+        }
 
-            int posY = pos.y + chunk.getChunkWorldOffsetY();
-            float density = solidityFacet.get(pos);
+        for (int x = 0; x < chunk.getChunkSizeX(); ++x) {
+            for (int z = 0; z < chunk.getChunkSizeZ(); ++z) {
+                pos2d.set(x, z);
+                CoreBiome biome = biomeFacet.get(pos2d);
+                int surfaceHeight = TeraMath.floorToInt(surfaceFacet.get(pos2d));
 
-            if (density >= 32) {
-                chunk.setBlock(pos, stone);
-            } else if (density >= 0) {
-                int depth = TeraMath.floorToInt(surfaceFacet.get(pos2d)) - posY;
-                Block block = getSurfaceBlock(depth, posY, biome, seaLevel);
-                chunk.setBlock(pos, block);
-            } else {
-                // fill up terrain up to sealevel height with water or ice
-                if (posY == seaLevel && CoreBiome.SNOW == biome) {
-                    chunk.setBlock(pos, ice);
-                } else if (posY <= seaLevel) {         // either OCEAN or SNOW
-                    chunk.setBlock(pos, water);
-                    chunk.setLiquid(pos, waterLiquid);
+                // Consecutive equal blocks of the mixed layers of the column are written as one run
+                Block runBlock = null;
+                int runStart = 0;
+                for (int y = 0; y < chunk.getChunkSizeY(); ++y) {
+                    Block block = null;
+                    if (mixedLayers[y]) {
+                        int posY = y + chunk.getChunkWorldOffsetY();
+                        block = getBlock(solidityFacet.get(x, y, z), surfaceHeight - posY, posY, biome, seaLevel);
+                    }
+                    if (block != runBlock) {
+                        if (runBlock != null) {
+                            chunk.fillColumn(x, z, runStart, y, runBlock);
+                        }
+                        runBlock = block;
+                        runStart = y;
+                    }
                 }
+                if (runBlock != null) {
+                    chunk.fillColumn(x, z, runStart, chunk.getChunkSizeY(), runBlock);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the block at the given density and depth below the surface, or null if the position stays empty
+     */
+    private Block getBlock(float density, int depth, int posY, CoreBiome biome, int seaLevel) {
+        if (density >= 32) {
+            return stone;
+        } else if (density >= 0) {
+            return getSurfaceBlock(depth, posY, biome, seaLevel);
+        } else {
+            // fill up terrain up to sealevel height with water or ice
+            if (posY == seaLevel && CoreBiome.SNOW == biome) {
+                return ice;
+            } else if (posY <= seaLevel) {         // either OCEAN or SNOW
+                return water;
             }
+            return null;
         }
     }
 